@@ -2,10 +2,26 @@ package nagasawakenji.walkfind.config;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
 import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.datasource.PoolerMode;
+import nagasawakenji.walkfind.infra.datasource.PoolerProperties;
+import nagasawakenji.walkfind.infra.datasource.ReadWriteRoutingDataSource;
+import nagasawakenji.walkfind.infra.datasource.ReadYourWritesTracker;
+import nagasawakenji.walkfind.infra.datasource.ReplicaDataSourceProperties;
+import nagasawakenji.walkfind.infra.datasource.ReplicaLagGuard;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
@@ -14,20 +30,37 @@ import javax.sql.DataSource;
 
 @Configuration
 @Slf4j
+@EnableConfigurationProperties({ReplicaDataSourceProperties.class, PoolerProperties.class})
 public class DataSourceConfig {
 
     private static final Region REGION = Region.AP_NORTHEAST_1;
     private static final String SECRET_ARN = System.getenv("DB_SECRET_ARN");
 
+    private final PoolerProperties poolerProperties;
+
+    // プライマリ・レプリカの両方で使うため、Secrets Manager の取得は1回にする
+    private JsonNode dbSecret;
+
+    public DataSourceConfig(PoolerProperties poolerProperties) {
+        this.poolerProperties = poolerProperties;
+    }
+
+    /**
+     * 書き込み用（プライマリ）のコネクションプール
+     * プールサイズ等は spring.datasource.hikari.* で指定する
+     */
     @Bean
-    public DataSource dataSource() {
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource() {
 
         // Local environment
-        if (System.getenv("AWS_LAMBDA_FUNCTION_NAME") == null) {
-            log.warn("ローカル環境 -> Docker PostgreSQL を利用します。");
+        if (isLocal()) {
+            log.warn("ローカル環境 -> Docker PostgreSQL を利用します。poolerMode={}", poolerProperties.getMode());
+            int port = poolerProperties.getMode() == PoolerMode.TRANSACTION ? poolerProperties.getLocalPort() : 5432;
             return DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
                     .driverClassName("org.postgresql.Driver")
-                    .url("jdbc:postgresql://localhost:5432/walkfind")
+                    .url(poolerProperties.getMode().applyTo("jdbc:postgresql://localhost:" + port + "/walkfind"))
                     .username("walkfind")
                     .password("walkfind")
                     .build();
@@ -36,6 +69,155 @@ public class DataSourceConfig {
         log.info("Lambda 環境 -> Secrets Manager より Supabase DB 情報を取得します");
         log.info("Using secret ARN: {}", SECRET_ARN);
 
+        JsonNode root = loadDbSecret();
+
+        String host = root.get("host").asText();
+        String port = root.get("port").asText();
+        String dbname = root.get("dbname").asText();
+
+        // transaction モードのプーラーがシークレットに定義されていればそちらへ接続する
+        if (poolerProperties.getMode() == PoolerMode.TRANSACTION) {
+            host = root.hasNonNull("pooler_host") ? root.get("pooler_host").asText() : host;
+            port = root.hasNonNull("pooler_port") ? root.get("pooler_port").asText() : port;
+        }
+
+        log.info("Supabase 接続成功 host={}, poolerMode={}", host, poolerProperties.getMode());
+
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName("org.postgresql.Driver")
+                .url(buildUrl(host, port, dbname))
+                .username(root.get("username").asText())
+                .password(root.get("password").asText())
+                .build();
+    }
+
+    /**
+     * 読み取り専用（レプリカ）のコネクションプール
+     * walkfind.datasource.replica.enabled=true の場合のみ作成する
+     * プールサイズ等は walkfind.datasource.replica.hikari.* で指定する
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "walkfind.datasource.replica", name = "enabled", havingValue = "true")
+    @ConfigurationProperties(prefix = "walkfind.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(ReplicaDataSourceProperties props) {
+
+        String url = props.getUrl();
+        String username = props.getUsername();
+        String password = props.getPassword();
+
+        // Lambda では URL 未指定ならプライマリと同じシークレットの replica_host を使う
+        if ((url == null || url.isBlank()) && !isLocal()) {
+            JsonNode root = loadDbSecret();
+            if (!root.hasNonNull("replica_host")) {
+                throw new IllegalStateException("walkfind.datasource.replica.enabled=true ですが replica の接続先がありません。");
+            }
+            url = buildUrl(root.get("replica_host").asText(), root.get("port").asText(), root.get("dbname").asText());
+            username = username != null ? username : root.get("username").asText();
+            password = password != null ? password : root.get("password").asText();
+        }
+
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("walkfind.datasource.replica.url が設定されていません。");
+        }
+        if (props.getUrl() != null && !props.getUrl().isBlank()) {
+            url = poolerProperties.getMode().applyTo(url);
+        }
+
+        log.info("Replica DataSource を有効化します。maxLagMs={}, stickyWindowMs={}",
+                props.getMaxLagMs(), props.getStickyWindowMs());
+
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName("org.postgresql.Driver")
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    /**
+     * Flyway 専用の DataSource（walkfind.datasource.pooler.mode=TRANSACTION の場合のみ作成する）。
+     * マイグレーションはセッションに紐づく状態（アドバイザリロック・SET など）を使うため、
+     * transaction モードのプーラーを通さずプライマリへ直接接続する。
+     * 起動時のマイグレーションでしか使わないので、コネクションプールは作らない。
+     */
+    @Bean
+    @FlywayDataSource
+    @ConditionalOnProperty(prefix = "walkfind.datasource.pooler", name = "mode", havingValue = "TRANSACTION")
+    public DataSource flywayDataSource() {
+
+        if (isLocal()) {
+            log.info("Flyway はプーラーを通さず localhost:5432 へ直接接続します");
+            return directDataSource("jdbc:postgresql://localhost:5432/walkfind", "walkfind", "walkfind");
+        }
+
+        JsonNode root = loadDbSecret();
+        log.info("Flyway はプーラーを通さず host={} へ直接接続します", root.get("host").asText());
+        return directDataSource(
+                directUrl(root.get("host").asText(), root.get("port").asText(), root.get("dbname").asText()),
+                root.get("username").asText(),
+                root.get("password").asText());
+    }
+
+    /**
+     * アプリケーション（MyBatis, TransactionManager）が使う DataSource。
+     * Flyway もこれを使う（pooler.mode=TRANSACTION の場合のみ flywayDataSource を使う）。
+     * レプリカが有効な場合は readOnly トランザクションのみレプリカへ振り分ける。
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaProvider,
+                                 ReplicaDataSourceProperties props) {
+
+        DataSource replica = replicaProvider.getIfAvailable();
+        if (replica == null) {
+            return primary;
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primary,
+                replica,
+                new ReplicaLagGuard(replica, props.getMaxLagMs(), props.getLagCheckIntervalMs()),
+                new ReadYourWritesTracker(props.getStickyWindowMs(), props.getStickyMaxUsers())
+        );
+        routing.afterPropertiesSet();
+
+        // readOnly フラグが確定してから接続先を決めるため、実際の接続取得を最初の SQL まで遅延させる
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private boolean isLocal() {
+        return System.getenv("AWS_LAMBDA_FUNCTION_NAME") == null;
+    }
+
+    private String buildUrl(String host, String port, String dbname) {
+        return poolerProperties.getMode().applyTo(directUrl(host, port, dbname));
+    }
+
+    private String directUrl(String host, String port, String dbname) {
+        return String.format(
+                "jdbc:postgresql://%s:%s/%s?sslmode=require",
+                host, port, dbname
+        );
+    }
+
+    private DataSource directDataSource(String url, String username, String password) {
+        return DataSourceBuilder.create()
+                .type(SimpleDriverDataSource.class)
+                .driverClassName("org.postgresql.Driver")
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    private synchronized JsonNode loadDbSecret() {
+        if (dbSecret != null) {
+            return dbSecret;
+        }
+
         try (SecretsManagerClient client =
                      SecretsManagerClient.builder().region(REGION).build()) {
 
@@ -46,31 +228,12 @@ public class DataSourceConfig {
             ).secretString();
 
             ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(json);
-
-            String host = root.get("host").asText();
-            String port = root.get("port").asText();
-            String dbname = root.get("dbname").asText();
-            String username = root.get("username").asText();
-            String password = root.get("password").asText();
-
-            String url = String.format(
-                    "jdbc:postgresql://%s:%s/%s?sslmode=require",
-                    host, port, dbname
-            );
-
-            log.info("Supabase 接続成功 host={}", host);
-
-            return DataSourceBuilder.create()
-                    .driverClassName("org.postgresql.Driver")
-                    .url(url)
-                    .username(username)
-                    .password(password)
-                    .build();
+            dbSecret = mapper.readTree(json);
+            return dbSecret;
 
         } catch (Exception e) {
             log.error("Secrets Manager からの DB 情報取得に失敗", e);
             throw new RuntimeException("データベース接続設定に失敗しました。", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package nagasawakenji.walkfind.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.mybatis.spring.boot.autoconfigure.ConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+@ConditionalOnProperty(prefix = "walkfind.datasource.pooler", name = "mode", havingValue = "transaction")
+public class MyBatisPoolerConfig {
+
+    /**
+     * transaction モードのプーラー経由では、トランザクションをまたいで同じサーバー接続が使われる保証がない。
+     * MyBatis 側でも接続・セッションに紐づく状態を持たないようにする。
+     *  - REUSE / BATCH Executor は Statement を使い回すため SIMPLE に固定
+     *  - ローカルキャッシュは SqlSession 全体ではなくステートメント単位にする
+     */
+    @Bean
+    public ConfigurationCustomizer transactionPoolingCustomizer() {
+        return configuration -> {
+            log.info("pooler.mode=transaction -> MyBatis を SIMPLE Executor / localCacheScope=STATEMENT で動かします");
+            configuration.setDefaultExecutorType(ExecutorType.SIMPLE);
+            configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+            configuration.setCacheEnabled(false);
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package nagasawakenji.walkfind.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.concurrent.GatedVirtualThreadExecutor;
+import nagasawakenji.walkfind.infra.concurrent.ParallelQueryExecutor;
+import nagasawakenji.walkfind.infra.concurrent.ParallelQueryProperties;
+import nagasawakenji.walkfind.infra.datasource.ReadWriteRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@Slf4j
+@EnableConfigurationProperties(ParallelQueryProperties.class)
+public class ParallelQueryConfig {
+
+    /**
+     * 読み取り専用サービスの並列クエリ実行
+     * 並列に流すクエリは readOnly トランザクションで実行するため、空きは実際に振り分けられる先のプールで見る
+     * （レプリカ有効時でも、直近に書き込んだユーザー・レプリカの遅延が大きい場合はプライマリ）
+     */
+    @Bean
+    public ParallelQueryExecutor parallelQueryExecutor(
+            ParallelQueryProperties props,
+            PlatformTransactionManager transactionManager,
+            DataSource dataSource,
+            @Qualifier("primaryDataSource") ObjectProvider<HikariDataSource> primaryProvider,
+            @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replicaProvider,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+
+        if (!props.isEnabled()) {
+            log.info("walkfind.parallel-query.enabled=false -> クエリは順次実行します");
+            return ParallelQueryExecutor.sequential();
+        }
+
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        ReadWriteRoutingDataSource routing = routingOf(dataSource);
+
+        return new ParallelQueryExecutor(
+                parallelQueryWorkers(props, virtualThreads),
+                readOnlyTx,
+                () -> {
+                    HikariDataSource replica = replicaProvider.getIfAvailable();
+                    if (replica != null && routing != null && routing.routesReadOnlyToReplica()) {
+                        return replica;
+                    }
+                    return primaryProvider.getIfAvailable();
+                },
+                props.getBudgetMs(),
+                props.getReservedIdleConnections()
+        );
+    }
+
+    // レプリカが無効な場合はプライマリをそのまま使っているので null
+    private static ReadWriteRoutingDataSource routingOf(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)
+                    ? dataSource.unwrap(ReadWriteRoutingDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            log.warn("Failed to resolve read/write routing, parallel queries check the primary pool.", e);
+            return null;
+        }
+    }
+
+    // 仮想スレッドモードではタスクごとに仮想スレッド（同時実行数は threads で絞る）、それ以外は固定数のスレッド
+    private ExecutorService parallelQueryWorkers(ParallelQueryProperties props, boolean virtualThreads) {
+        if (virtualThreads) {
+            return new GatedVirtualThreadExecutor("parallel-query-", props.getThreads());
+        }
+        AtomicInteger seq = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                props.getThreads(),
+                props.getThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(props.getQueueCapacity()),
+                r -> {
+                    Thread t = new Thread(r, "parallel-query-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                // 溢れたら submit 側で検知して呼び出しスレッドで実行する
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,20 @@
+package nagasawakenji.walkfind.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nagasawakenji.walkfind.infra.profiling.ProfilingJackson2HttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class RequestProfilingConfig {
+
+    /**
+     * Spring Boot 標準の Jackson コンバーターを置き換え、シリアライズ時間を計測する
+     * (MappingJackson2HttpMessageConverter の Bean があれば Boot 側の定義は生成されない)
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new ProfilingJackson2HttpMessageConverter(objectMapper);
+    }
+}
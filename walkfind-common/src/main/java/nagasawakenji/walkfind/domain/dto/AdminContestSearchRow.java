@@ -0,0 +1,21 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 管理者用コンテスト検索の1行。createdAt はキーセットページングのカーソル
+ */
+@Data
+public class AdminContestSearchRow {
+    private Long contestId;
+    private String name;
+    private String theme;
+    private OffsetDateTime startDate;
+    private OffsetDateTime endDate;
+    private String status;
+    private String createdByUserId;
+    private OffsetDateTime removedAt;
+    private OffsetDateTime createdAt;
+}
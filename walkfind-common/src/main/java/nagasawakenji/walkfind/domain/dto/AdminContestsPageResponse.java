@@ -12,4 +12,6 @@ public class AdminContestsPageResponse {
     private long totalCount;
     private int page;
     private int size;
+    // 次のページのカーソル（最後のページなら null）。page の代わりに cursor で渡すとキーセットで取得する
+    private String nextCursor;
 }
\ No newline at end of file
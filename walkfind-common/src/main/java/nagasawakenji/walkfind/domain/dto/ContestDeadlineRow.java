@@ -0,0 +1,14 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * ステータスが切り替わる予定の日時（UPCOMING の start_date / UPCOMING・IN_PROGRESS の end_date）
+ */
+@Data
+public class ContestDeadlineRow {
+    private Long contestId;
+    private OffsetDateTime dueAt;
+}
@@ -0,0 +1,20 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 画像処理（縮小版・モデル入力の作成 → 埋め込みジョブ）のジョブ（SQS のメッセージ本文）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DerivativeJobMessage {
+    private String photoType;
+    private Long contestId;
+    private Long photoId;
+    private String key;
+}
@@ -10,5 +10,7 @@ public class EmbeddingJobMessage {
     Long contestId;
     Long photoId;
     String key;
+    // 224x224 px のモデル入力のキー（無ければ null。ワーカーは key の原寸を読む）
+    String modelInputKey;
     String modelVersion;
 }
@@ -0,0 +1,22 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nagasawakenji.walkfind.infra.leaderboard.LeaderboardStanding;
+
+import java.util.List;
+
+/**
+ * リーダーボードの上位 N 件（購読開始時・作り直し時に送る全体）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaderboardSnapshotResponse {
+    private Long contestId;
+    private int totalCount;
+    private List<LeaderboardStanding> standings;
+}
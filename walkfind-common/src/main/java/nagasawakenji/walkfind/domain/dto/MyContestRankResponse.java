@@ -0,0 +1,24 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * コンテストでの自分の投稿写真の現在順位（途中経過）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MyContestRankResponse {
+    private Long contestId;
+    private Long photoId;
+    // 順位（同票は同順位）
+    private int rank;
+    // 並び順での位置（同票は投稿日時の古い方が上）
+    private int position;
+    private int votes;
+    private int totalCount;
+}
@@ -12,6 +12,10 @@ public class PhotoResponse {
     private String username; // 投稿ユーザーの表示名
     private String userId;
     private String photoUrl;
+    // 縮小版（幅 320 / 640 / 1280 px）。まだ作られていない・元画像の方が小さい場合は null（photoUrl を使う）
+    private String photoUrl320;
+    private String photoUrl640;
+    private String photoUrl1280;
     private Integer totalVotes;
     private OffsetDateTime submissionDate;
     private SimilarityStatus status;
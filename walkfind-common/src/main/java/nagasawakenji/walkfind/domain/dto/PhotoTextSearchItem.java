@@ -0,0 +1,21 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class PhotoTextSearchItem {
+
+    Long photoId;
+    Long contestId;
+
+    /** user_photos.photo_url に入っている「S3 key」 */
+    String key;
+
+    String title;
+    String description;
+
+    /** 検索語とのコサイン類似度（CLIP のテキストと画像では 0.2〜0.35 程度が目安） */
+    Double similarity;
+}
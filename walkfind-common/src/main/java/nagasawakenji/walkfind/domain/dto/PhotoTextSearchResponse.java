@@ -0,0 +1,16 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import nagasawakenji.walkfind.domain.statusenum.PhotoTextSearchStatus;
+
+import java.util.List;
+
+@Value
+@Builder
+public class PhotoTextSearchResponse {
+    PhotoTextSearchStatus status;
+
+    /** TopK（近い順）。EMBEDDING_PENDING の間は空なので、フロントはポーリングする */
+    List<PhotoTextSearchItem> photos;
+}
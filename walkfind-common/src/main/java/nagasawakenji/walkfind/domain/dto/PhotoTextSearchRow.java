@@ -0,0 +1,13 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Data;
+
+@Data
+public class PhotoTextSearchRow {
+    private Long photoId;
+    private Long contestId;
+    private String key;
+    private String title;
+    private String description;
+    private Double similarity;
+}
@@ -10,4 +10,6 @@ import java.net.URL;
 public class PresignedUrlResponse {
     private final String key;
     private final URL photoUrl;
+    // 同じ内容が既に保存済みでアップロード不要なら false（このとき photoUrl は null）
+    private final Boolean uploadRequired;
 }
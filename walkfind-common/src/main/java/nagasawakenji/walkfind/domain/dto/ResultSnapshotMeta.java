@@ -0,0 +1,25 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 結果スナップショットの目次。
+ * ページファイル・優勝作品ファイルを書き終えた後に最後に書き込むため、
+ * これが読めればスナップショット一式が揃っていることを意味する。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultSnapshotMeta {
+    private Long contestId;
+    private long totalCount;
+    private int pageSize;
+    private int pageCount;
+    private OffsetDateTime publishedAt;
+}
@@ -0,0 +1,20 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 結果スナップショットの1ページ分（順位順）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultSnapshotPage {
+    private int page;
+    private List<ContestResultResponse> items;
+}
@@ -0,0 +1,13 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Data;
+
+/**
+ * 結果発表までの各段（集計・best_rank 更新・結果スナップショット作成）が終わっているか
+ */
+@Data
+public class ResultStageProgress {
+    private boolean aggregationCompleted;
+    private boolean bestRankDone;
+    private boolean snapshotPublished;
+}
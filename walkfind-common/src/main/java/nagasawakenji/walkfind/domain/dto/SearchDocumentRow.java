@@ -0,0 +1,15 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Data;
+
+/**
+ * 検索インデックスに入れる1件（コンテスト: title=name・body=theme、投稿写真: title・description）
+ */
+@Data
+public class SearchDocumentRow {
+    private Long id;
+    private Long contestId;
+    private String title;
+    private String body;
+    private String photoUrl;
+}
@@ -0,0 +1,26 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class SearchHitItem {
+
+    /** CONTEST / PHOTO */
+    String type;
+
+    Long id;
+    Long contestId;
+
+    /** コンテスト名 or 写真タイトル */
+    String title;
+
+    /** テーマ or 写真の説明 */
+    String body;
+
+    /** 写真の保存キー（コンテストは null） */
+    String photoUrl;
+
+    Double score;
+}
@@ -0,0 +1,15 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class SearchResponse {
+    String query;
+
+    /** スコアの高い順 */
+    List<SearchHitItem> hits;
+}
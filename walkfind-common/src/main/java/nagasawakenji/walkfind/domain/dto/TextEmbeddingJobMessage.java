@@ -0,0 +1,16 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class TextEmbeddingJobMessage {
+
+    @Builder.Default
+    String type = "TEXT_EMBEDDING";
+
+    // 正規化済みの検索語（text_embeddings.query_text）
+    String text;
+    String modelVersion;
+}
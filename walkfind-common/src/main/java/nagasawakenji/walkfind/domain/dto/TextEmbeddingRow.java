@@ -0,0 +1,16 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+@Data
+public class TextEmbeddingRow {
+    private Long id;
+    private String queryText;
+    private String modelVersion;
+    private String status;         // "PENDING" / "READY" / "FAILED"
+    private float[] embedding;
+
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,31 @@
+package nagasawakenji.walkfind.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 投票済みフィルタ（コンテスト単位）の大きさと誤判定率
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VoteFilterStatsResponse {
+    private Long contestId;
+    private int photoCount;
+    private int insertedCount;
+    private int capacity;
+    private long bitCount;
+    private int hashCount;
+    private long memoryBytes;
+    // 現在の件数での理論上の誤判定率
+    private double expectedFpp;
+    // 判定回数 / 「投票済みかも」と答えた回数 / そのうち DB で未投票だった回数
+    private long checks;
+    private long positives;
+    private long falsePositives;
+    // 実測の誤判定率（未投票だった判定のうち「投票済みかも」と答えた割合）
+    private double observedFpp;
+}
@@ -0,0 +1,8 @@
+package nagasawakenji.walkfind.domain.event;
+
+/**
+ * コンテストの投票が締め切られ CLOSED_VOTING になったことを表すイベント
+ */
+public record ContestClosedEvent(
+        Long contestId
+) {}
@@ -0,0 +1,8 @@
+package nagasawakenji.walkfind.domain.event;
+
+/**
+ * コンテストが論理削除されたことを表すイベント
+ */
+public record ContestDeletedEvent(
+        Long contestId
+) {}
@@ -0,0 +1,8 @@
+package nagasawakenji.walkfind.domain.event;
+
+/**
+ * コンテストが作成・更新された（開始/終了日時や名前・テーマが変わった可能性がある）ことを表すイベント
+ */
+public record ContestScheduleChangedEvent(
+        Long contestId
+) {}
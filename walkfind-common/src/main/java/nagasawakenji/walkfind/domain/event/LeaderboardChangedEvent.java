@@ -0,0 +1,9 @@
+package nagasawakenji.walkfind.domain.event;
+
+import nagasawakenji.walkfind.infra.leaderboard.LeaderboardMove;
+
+/**
+ * リーダーボード上で1枚の写真の順位・投票数が変わったことを表すイベント
+ */
+public record LeaderboardChangedEvent(Long contestId, LeaderboardMove move) {
+}
@@ -0,0 +1,8 @@
+package nagasawakenji.walkfind.domain.event;
+
+/**
+ * リーダーボードを作り直したこと（投稿・削除・定期的な再読み込み）を表すイベント。
+ * 差分では表せないので、購読者は全体を取り直す。
+ */
+public record LeaderboardResetEvent(Long contestId) {
+}
@@ -0,0 +1,7 @@
+package nagasawakenji.walkfind.domain.event;
+
+/**
+ * 投稿写真が削除（論理削除）されたことを表すイベント
+ */
+public record PhotoRemovedEvent(Long contestId, Long photoId) {
+}
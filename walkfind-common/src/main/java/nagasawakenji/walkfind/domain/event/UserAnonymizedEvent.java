@@ -0,0 +1,8 @@
+package nagasawakenji.walkfind.domain.event;
+
+/**
+ * 退会によりユーザー名等が匿名化されたことを表すイベント
+ */
+public record UserAnonymizedEvent(
+        String userId
+) {}
@@ -0,0 +1,7 @@
+package nagasawakenji.walkfind.domain.event;
+
+/**
+ * 投票が記録されたことを表すイベント（コミット後にリーダーボードを更新する）
+ */
+public record VoteCastEvent(Long contestId, Long photoId) {
+}
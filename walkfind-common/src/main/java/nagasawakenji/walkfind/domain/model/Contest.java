@@ -19,4 +19,8 @@ public class Contest {
     private String removedByUserId;
     private OffsetDateTime removedAt;
     private String removedReason;
+    // 論理削除されていない投稿数（contests.photo_count）
+    private Integer photoCount;
+    // 結果発表後に確定する結果件数（contest_stats.participant_count）。未確定なら null
+    private Integer resultCount;
 }
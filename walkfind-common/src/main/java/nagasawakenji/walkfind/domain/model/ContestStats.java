@@ -0,0 +1,15 @@
+package nagasawakenji.walkfind.domain.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+@Data
+@Builder
+public class ContestStats {
+    private Long contestId;
+    private Integer participantCount; // 集計対象となった投稿数
+    private Integer voterCount; // 投票したユーザー数（DISTINCT）
+    private OffsetDateTime calculatedAt;
+}
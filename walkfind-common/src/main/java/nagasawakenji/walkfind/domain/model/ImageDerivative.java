@@ -0,0 +1,22 @@
+package nagasawakenji.walkfind.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import nagasawakenji.walkfind.domain.statusenum.ImageDerivativeVariant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageDerivative {
+
+    private String sourceKey;      // 元画像のキー（user_photos.photo_url）
+    private ImageDerivativeVariant variant;
+    private Integer width;         // 縮小後の幅（縮小版は 320 / 640 / 1280、モデル入力は 224）
+    private Integer height;
+    private String storageKey;     // 縮小版のキー
+    private String contentType;
+    private Long sizeBytes;
+}
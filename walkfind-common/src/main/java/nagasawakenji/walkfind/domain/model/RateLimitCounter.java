@@ -0,0 +1,13 @@
+package nagasawakenji.walkfind.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitCounter {
+    private Integer prevCount; // 前ウィンドウの件数
+    private Integer currCount; // 今ウィンドウの件数（今回の1件を含む）
+}
@@ -7,5 +7,6 @@ public enum CalculationStatus {
     SUCCESS,                    // 正常終了（結果を書き込み完了）
     NO_CONTESTS_TO_CALCULATE,   // 集計対象のコンテストがない
     ALREADY_CALCULATED,         // 既に集計済みである
-    FAILED_DATABASE_ERROR       // DB集計または書き込み中にエラーが発生した
+    FAILED_DATABASE_ERROR,      // DB集計または書き込み中にエラーが発生した
+    FAILED_POST_CALCULATION     // 集計は済んだが best_rank 更新・スナップショット作成が失敗した（定期実行で再実行する）
 }
\ No newline at end of file
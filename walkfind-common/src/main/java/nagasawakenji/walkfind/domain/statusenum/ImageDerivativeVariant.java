@@ -0,0 +1,9 @@
+package nagasawakenji.walkfind.domain.statusenum;
+
+public enum ImageDerivativeVariant {
+    // 一覧表示用の縮小版
+    THUMBNAIL,
+
+    // 埋め込み計算用のモデル入力（ML ワーカーが原寸の代わりに読む）
+    MODEL_INPUT
+}
@@ -0,0 +1,9 @@
+package nagasawakenji.walkfind.domain.statusenum;
+
+public enum PhotoTextSearchStatus {
+    SUCCESS,
+    EMBEDDING_PENDING,
+    EMBEDDING_FAILED,
+    INVALID_REQUEST,
+    RATE_LIMITED
+}
@@ -0,0 +1,30 @@
+package nagasawakenji.walkfind.exception;
+
+/**
+ * アップロードされたファイルを受け付けられない場合にスローされる非チェック例外。
+ * 保存途中で判明した場合も、書きかけのファイルは呼び出し元に戻る前に削除済み。
+ */
+public class InvalidUploadException extends RuntimeException {
+
+    public enum Reason {
+        // 空のファイル
+        EMPTY,
+        // 上限サイズを超えた
+        TOO_LARGE,
+        // 先頭バイトが対応する画像形式のいずれでもない
+        UNSUPPORTED_TYPE,
+        // ヘッダーが壊れている、または縦横のサイズが上限を超えた
+        INVALID_IMAGE
+    }
+
+    private final Reason reason;
+
+    public InvalidUploadException(String message, Reason reason) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
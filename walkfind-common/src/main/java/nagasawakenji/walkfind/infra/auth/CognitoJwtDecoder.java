@@ -0,0 +1,39 @@
+package nagasawakenji.walkfind.infra.auth;
+
+import nagasawakenji.walkfind.exception.AuthenticationProcessingException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Instant;
+
+/**
+ * リソースサーバーの JwtDecoder を CognitoTokenVerifier で置き換える（NimbusJwtDecoder・issuer の discovery は使わない）。
+ * 同じトークンの2回目以降は検証済みのクレームから Jwt を組み立てるだけ。
+ */
+public class CognitoJwtDecoder implements JwtDecoder {
+
+    private final CognitoTokenVerifier verifier;
+
+    public CognitoJwtDecoder(CognitoTokenVerifier verifier) {
+        this.verifier = verifier;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        CognitoTokenVerifier.VerifiedToken verified;
+        try {
+            verified = verifier.verify(token);
+        } catch (AuthenticationProcessingException e) {
+            if ("JWKS_UNAVAILABLE".equals(e.getErrorCode())) {
+                // トークンの不正ではないので 401 にはしない
+                throw new JwtException(e.getMessage(), e);
+            }
+            throw new BadJwtException(e.getMessage(), e);
+        }
+
+        Instant issuedAt = verified.issuedAt();
+        return new Jwt(token, issuedAt, verified.expiresAt(), verified.headers(), verified.claims());
+    }
+}
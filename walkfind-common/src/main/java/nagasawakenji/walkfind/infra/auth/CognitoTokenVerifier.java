@@ -0,0 +1,449 @@
+package nagasawakenji.walkfind.infra.auth;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.exception.AuthenticationProcessingException;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Cognito が発行した JWT（アクセストークン・ID トークン）を検証する（リソースサーバーとログイン処理で共通）。
+ *
+ * - 署名は JWKS の公開鍵で RS256 を検証し、iss・exp・nbf を確かめる
+ * - JWKS は web では起動完了時に prefetch() で取得しておく（Lambda ではコールドスタートを延ばさないよう最初の検証で取得）。
+ *   古くなったら検証を止めずに裏で取り直す（refresh-ahead）。
+ *   知らない kid が来た場合（鍵のローテーション）は、その場で取り直す（minRefreshIntervalMillis に1回まで）
+ * - 検証済みのトークンは SHA-256 をキーにクレームを exp まで覚えておく（LRU、件数上限あり）。
+ *   同じトークンでの2回目以降のリクエスト（投票の連打など）は、RSA の検証も JSON の解析もしない
+ *
+ * 時刻のクレーム（iat・exp・nbf・auth_time）は Instant に、aud は List に変換済み。
+ */
+@Slf4j
+public class CognitoTokenVerifier {
+
+    public static final int DEFAULT_MAX_CACHED_TOKENS = 10_000;
+    public static final long DEFAULT_REFRESH_AHEAD_MILLIS = Duration.ofHours(1).toMillis();
+    public static final long DEFAULT_MIN_REFRESH_INTERVAL_MILLIS = Duration.ofSeconds(30).toMillis();
+    public static final long DEFAULT_CLOCK_SKEW_MILLIS = Duration.ofSeconds(60).toMillis();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    private static final Set<String> TIME_CLAIMS = Set.of("iat", "exp", "nbf", "auth_time");
+    private static final Set<String> TOKEN_USES = Set.of("access", "id");
+
+    /**
+     * JWKS（JSON）の取得元
+     */
+    @FunctionalInterface
+    public interface JwksSource {
+        String fetch() throws IOException;
+
+        static JwksSource http(String jwksUri) {
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(2))
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(jwksUri))
+                    .timeout(Duration.ofSeconds(3))
+                    .GET()
+                    .build();
+            return () -> {
+                try {
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() != 200) {
+                        throw new IOException("JWKS request failed. status=" + response.statusCode() + ", uri=" + jwksUri);
+                    }
+                    return response.body();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("JWKS request interrupted. uri=" + jwksUri, e);
+                }
+            };
+        }
+    }
+
+    /**
+     * 検証済みのトークン（ヘッダーとクレームは変更不可）
+     */
+    public record VerifiedToken(Map<String, Object> headers, Map<String, Object> claims, Instant expiresAt) {
+
+        public String subject() {
+            return claimAsString("sub");
+        }
+
+        public Instant issuedAt() {
+            return (Instant) claims.get("iat");
+        }
+
+        public String claimAsString(String name) {
+            Object value = claims.get(name);
+            return value != null ? value.toString() : null;
+        }
+
+        public boolean hasClaim(String name) {
+            return claims.get(name) != null;
+        }
+    }
+
+    private record KeySet(Map<String, PublicKey> keys, long fetchedAt) {}
+
+    private final String issuer;
+    private final JwksSource jwksSource;
+    private final int maxCachedTokens;
+    private final long refreshAheadMillis;
+    private final long minRefreshIntervalMillis;
+    private final long clockSkewMillis;
+    private final Executor refreshExecutor;
+    private final LongSupplier clock;
+
+    private volatile KeySet keySet;
+    private volatile long lastRefreshAttempt = Long.MIN_VALUE;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    // 取得は HTTP を待つので synchronized ではなくロックで（仮想スレッドをピン留めしない）
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // アクセス順の LinkedHashMap（get でも順番が変わるので、読み書きとも tokens でロックする）
+    private final Map<String, VerifiedToken> tokens;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * JWKS を {issuer}/.well-known/jwks.json から取得する
+     */
+    public CognitoTokenVerifier(String issuer, int maxCachedTokens) {
+        this(issuer,
+                JwksSource.http(stripTrailingSlash(issuer) + "/.well-known/jwks.json"),
+                maxCachedTokens,
+                DEFAULT_REFRESH_AHEAD_MILLIS,
+                DEFAULT_MIN_REFRESH_INTERVAL_MILLIS,
+                DEFAULT_CLOCK_SKEW_MILLIS,
+                Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "jwks-refresh");
+                    t.setDaemon(true);
+                    return t;
+                }),
+                System::currentTimeMillis);
+    }
+
+    public CognitoTokenVerifier(String issuer,
+                                JwksSource jwksSource,
+                                int maxCachedTokens,
+                                long refreshAheadMillis,
+                                long minRefreshIntervalMillis,
+                                long clockSkewMillis,
+                                Executor refreshExecutor,
+                                LongSupplier clock) {
+        if (issuer == null || issuer.isBlank()) {
+            throw new IllegalArgumentException("issuer must not be blank.");
+        }
+        this.issuer = stripTrailingSlash(issuer);
+        this.jwksSource = jwksSource;
+        this.maxCachedTokens = maxCachedTokens;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.minRefreshIntervalMillis = minRefreshIntervalMillis;
+        this.clockSkewMillis = clockSkewMillis;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        this.tokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > CognitoTokenVerifier.this.maxCachedTokens;
+            }
+        };
+    }
+
+    /**
+     * 起動時に JWKS を取得しておく（失敗しても起動は止めず、最初の検証で取り直す）。
+     * web では SecurityConfigLocal が ApplicationReadyEvent で呼ぶ
+     */
+    public void prefetch() {
+        try {
+            refresh(clock.getAsLong());
+        } catch (RuntimeException e) {
+            log.warn("JWKS prefetch failed. issuer={}", issuer, e);
+        }
+    }
+
+    /**
+     * @throws AuthenticationProcessingException 検証に失敗した場合
+     *                                           （JWKS を取得できない場合はエラーコード JWKS_UNAVAILABLE）
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            throw invalid("Token is empty.", "TOKEN_INVALID");
+        }
+        long now = clock.getAsLong();
+        String cacheKey = sha256(token);
+
+        VerifiedToken cached;
+        synchronized (tokens) {
+            cached = tokens.get(cacheKey);
+            if (cached != null && isExpired(cached.expiresAt(), now)) {
+                tokens.remove(cacheKey);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        VerifiedToken verified = verifyUncached(token, now);
+        if (maxCachedTokens > 0) {
+            synchronized (tokens) {
+                tokens.put(cacheKey, verified);
+            }
+        }
+        return verified;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public int cachedTokenCount() {
+        synchronized (tokens) {
+            return tokens.size();
+        }
+    }
+
+    private VerifiedToken verifyUncached(String token, long now) {
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (first <= 0 || second < 0 || token.indexOf('.', second + 1) >= 0) {
+            throw invalid("Invalid JWT format.", "TOKEN_INVALID");
+        }
+
+        Map<String, Object> headers = decodeJson(token.substring(0, first));
+        if (!"RS256".equals(headers.get("alg"))) {
+            throw invalid("Unsupported JWT algorithm: " + headers.get("alg"), "TOKEN_INVALID");
+        }
+        Object kid = headers.get("kid");
+        if (!(kid instanceof String)) {
+            throw invalid("JWT header does not contain kid.", "TOKEN_INVALID");
+        }
+        PublicKey key = resolveKey((String) kid, now);
+
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(second + 1));
+        } catch (IllegalArgumentException e) {
+            throw invalid("Invalid JWT signature encoding.", "TOKEN_INVALID");
+        }
+        try {
+            Signature verifier = Signature.getInstance("SHA256withRSA");
+            verifier.initVerify(key);
+            verifier.update(token.getBytes(StandardCharsets.US_ASCII), 0, second);
+            if (!verifier.verify(signature)) {
+                throw invalid("Invalid JWT signature.", "TOKEN_SIGNATURE_INVALID");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new AuthenticationProcessingException("Failed to verify JWT signature.", e, "TOKEN_SIGNATURE_INVALID");
+        }
+
+        Map<String, Object> claims = decodeJson(token.substring(first + 1, second));
+        if (!issuer.equals(claims.get("iss"))) {
+            throw invalid("Unexpected JWT issuer: " + claims.get("iss"), "TOKEN_INVALID");
+        }
+        Object tokenUse = claims.get("token_use");
+        if (tokenUse != null && !TOKEN_USES.contains(tokenUse)) {
+            throw invalid("Unexpected token_use: " + tokenUse, "TOKEN_INVALID");
+        }
+        normalizeClaims(claims);
+
+        Instant expiresAt = (Instant) claims.get("exp");
+        if (expiresAt == null) {
+            throw invalid("JWT does not contain exp.", "TOKEN_INVALID");
+        }
+        if (isExpired(expiresAt, now)) {
+            throw invalid("JWT is expired.", "TOKEN_EXPIRED");
+        }
+        Instant notBefore = (Instant) claims.get("nbf");
+        if (notBefore != null && notBefore.toEpochMilli() - clockSkewMillis > now) {
+            throw invalid("JWT is not valid yet.", "TOKEN_INVALID");
+        }
+
+        return new VerifiedToken(Collections.unmodifiableMap(headers), Collections.unmodifiableMap(claims), expiresAt);
+    }
+
+    private boolean isExpired(Instant expiresAt, long now) {
+        return expiresAt.toEpochMilli() + clockSkewMillis <= now;
+    }
+
+    // ------------------------------------------------------------------
+    // JWKS
+    // ------------------------------------------------------------------
+
+    private PublicKey resolveKey(String kid, long now) {
+        KeySet current = keySet;
+        if (current == null) {
+            current = refresh(now);
+        } else if (now - current.fetchedAt() >= refreshAheadMillis) {
+            refreshInBackground();
+        }
+
+        PublicKey key = current.keys().get(kid);
+        if (key == null && now >= lastRefreshAttempt + minRefreshIntervalMillis) {
+            // 鍵のローテーション直後かもしれないので取り直す（でたらめな kid で JWKS を叩かせないよう間隔を空ける）
+            current = refresh(now);
+            key = current.keys().get(kid);
+        }
+        if (key == null) {
+            throw invalid("Unknown JWT key id: " + kid, "TOKEN_INVALID");
+        }
+        return key;
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(clock.getAsLong());
+                } catch (RuntimeException e) {
+                    // 手元の鍵で検証を続け、次のリクエストでまた取り直す
+                    log.warn("JWKS background refresh failed. issuer={}", issuer, e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            log.warn("JWKS background refresh could not be scheduled. issuer={}", issuer, e);
+        }
+    }
+
+    private KeySet refresh(long requestedAt) {
+        refreshLock.lock();
+        try {
+            // 待っている間に他のスレッドが取り直していれば、それを使う
+            KeySet current = keySet;
+            if (current != null && current.fetchedAt() >= requestedAt) {
+                return current;
+            }
+            long now = clock.getAsLong();
+            lastRefreshAttempt = now;
+
+            Map<String, PublicKey> keys;
+            try {
+                keys = parseJwks(jwksSource.fetch());
+            } catch (IOException | GeneralSecurityException | RuntimeException e) {
+                if (current != null) {
+                    log.warn("JWKS refresh failed, keeping {} cached keys. issuer={}", current.keys().size(), issuer, e);
+                    return current;
+                }
+                throw new AuthenticationProcessingException("Failed to fetch JWKS: " + issuer, e, "JWKS_UNAVAILABLE");
+            }
+
+            KeySet refreshed = new KeySet(keys, now);
+            keySet = refreshed;
+            log.info("JWKS loaded. issuer={}, kids={}", issuer, keys.keySet());
+            return refreshed;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private static Map<String, PublicKey> parseJwks(String json) throws IOException, GeneralSecurityException {
+        JsonNode keys = OBJECT_MAPPER.readTree(json).path("keys");
+        if (!keys.isArray()) {
+            throw new IOException("JWKS does not contain keys.");
+        }
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        Map<String, PublicKey> result = new HashMap<>();
+        for (JsonNode jwk : keys) {
+            if (!"RSA".equals(jwk.path("kty").asText()) || !jwk.hasNonNull("kid")
+                    || (jwk.hasNonNull("use") && !"sig".equals(jwk.path("use").asText()))) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+            result.put(jwk.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        if (result.isEmpty()) {
+            throw new IOException("JWKS does not contain any RSA signing key.");
+        }
+        return Map.copyOf(result);
+    }
+
+    // ------------------------------------------------------------------
+    // helpers
+    // ------------------------------------------------------------------
+
+    private static Map<String, Object> decodeJson(String base64Url) {
+        try {
+            return OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(base64Url), MAP_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new AuthenticationProcessingException("Failed to decode JWT.", e, "TOKEN_INVALID");
+        }
+    }
+
+    private static void normalizeClaims(Map<String, Object> claims) {
+        for (String name : TIME_CLAIMS) {
+            Object value = claims.get(name);
+            if (value instanceof Number number) {
+                claims.put(name, Instant.ofEpochSecond(number.longValue()));
+            } else if (value != null) {
+                throw invalid("Invalid JWT time claim: " + name, "TOKEN_INVALID");
+            }
+        }
+        Object audience = claims.get("aud");
+        if (audience instanceof String single) {
+            claims.put("aud", List.of(single));
+        }
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String stripTrailingSlash(String uri) {
+        return uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri;
+    }
+
+    private static AuthenticationProcessingException invalid(String message, String errorCode) {
+        return new AuthenticationProcessingException(message, errorCode);
+    }
+}
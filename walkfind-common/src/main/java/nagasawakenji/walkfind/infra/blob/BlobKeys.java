@@ -0,0 +1,94 @@
+package nagasawakenji.walkfind.infra.blob;
+
+import nagasawakenji.walkfind.infra.image.ImageTypeSniffer;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 内容アドレス（SHA-256）で決まるストレージキーの組み立てと解析。
+ *
+ * キーは "blobs/{sha256 の先頭2文字}/{sha256}.{拡張子}"。
+ * 先頭2文字で分けるのは、ローカルストレージで1ディレクトリのファイル数が増えすぎないようにするため。
+ */
+public final class BlobKeys {
+
+    public static final String PREFIX = "blobs/";
+
+    private static final Pattern KEY = Pattern.compile("^blobs/([0-9a-f]{2})/(\\1[0-9a-f]{62})(\\.[a-z0-9]+)?$");
+    private static final Pattern SHA256_HEX = Pattern.compile("^[0-9a-f]{64}$");
+
+    private BlobKeys() {
+    }
+
+    /**
+     * @param sha256      内容の SHA-256（16進）
+     * @param contentType 画像の MIME タイプ（拡張子を決める。ImageTypeSniffer が判定する形式のみ）
+     * @throws IllegalArgumentException SHA-256 の形式が違う、または対応していない形式の場合
+     */
+    public static String keyOf(String sha256, String contentType) {
+        String hex = normalizeSha256(sha256);
+        if (hex == null) {
+            throw new IllegalArgumentException("Invalid SHA-256: " + sha256);
+        }
+        String extension = contentType != null ? ImageTypeSniffer.extensionOf(contentType) : "";
+        if (extension.isEmpty()) {
+            throw new IllegalArgumentException("Unsupported content type: " + contentType);
+        }
+        return PREFIX + hex.substring(0, 2) + "/" + hex + extension;
+    }
+
+    /**
+     * 内容アドレスのキーなら SHA-256 を返す。従来のランダムなキーなら null
+     */
+    public static String sha256Of(String key) {
+        if (key == null) {
+            return null;
+        }
+        Matcher m = KEY.matcher(key);
+        return m.matches() ? m.group(2) : null;
+    }
+
+    public static boolean isBlobKey(String key) {
+        return sha256Of(key) != null;
+    }
+
+    /**
+     * キーの拡張子が、中身から判定した画像形式のものか
+     */
+    public static boolean matchesContentType(String key, String contentType) {
+        return contentType != null && contentTypeOf(key).equals(contentType);
+    }
+
+    /**
+     * キーの拡張子から MIME タイプを返す（S3 へ直接アップロードされ、中身を見ていない場合に使う）
+     */
+    public static String contentTypeOf(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "image/jpeg";
+        }
+        if (lower.endsWith(".png")) {
+            return "image/png";
+        }
+        if (lower.endsWith(".gif")) {
+            return "image/gif";
+        }
+        if (lower.endsWith(".webp")) {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+
+    /**
+     * 16進（大文字・小文字どちらでも）の SHA-256 を小文字にして返す。形式が違えば null
+     */
+    public static String normalizeSha256(String sha256) {
+        if (sha256 == null) {
+            return null;
+        }
+        String hex = sha256.trim().toLowerCase(Locale.ROOT);
+        return SHA256_HEX.matcher(hex).matches() ? hex : null;
+    }
+}
@@ -0,0 +1,26 @@
+package nagasawakenji.walkfind.infra.blob;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * 内容アドレスのオブジェクトの保存先（参照数の登録前の確認と、参照の無くなった実体の削除）。
+ * Lambda では S3、walkfind-web ではローカルストレージ。
+ */
+public interface BlobStorage {
+
+    /**
+     * @param size         バイト数
+     * @param sha256       保存先が記録している内容の SHA-256（小文字の16進）。記録していなければ null
+     * @param lastModified 最後に書き込まれた日時
+     */
+    record StoredObject(long size, String sha256, Instant lastModified) {}
+
+    /**
+     * 中身を読まずにメタデータだけを取得する。無ければ Optional.empty()
+     */
+    Optional<StoredObject> head(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+}
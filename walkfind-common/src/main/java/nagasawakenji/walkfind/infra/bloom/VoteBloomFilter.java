@@ -0,0 +1,128 @@
+package nagasawakenji.walkfind.infra.bloom;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * (photoId, userId) の「投票済みかもしれない」を判定するブルームフィルタ。
+ *
+ * false なら確実に未投票、true なら投票済みの可能性がある（DB で確認する）。
+ * ビット列は AtomicLongArray で持ち、追加と判定はロックなしで並行に行える。
+ * ビット数は容量と目標の誤判定率から決め、maxBits で頭打ちにする（1コンテストあたりのメモリ上限）。
+ */
+public final class VoteBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final int capacity;
+    private final AtomicInteger insertedCount = new AtomicInteger();
+
+    private VoteBloomFilter(long bitCount, int hashCount, int capacity) {
+        this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = hashCount;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 容量 capacity 件で誤判定率がおよそ fpp になる大きさで作る（ビット数は maxBits まで）
+     */
+    public static VoteBloomFilter create(int capacity, double fpp, long maxBits) {
+        int n = Math.max(1, capacity);
+        long bits = (long) Math.ceil(-n * Math.log(fpp) / (LN2 * LN2));
+        bits = Math.max(64, Math.min(bits, maxBits));
+        int hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / n * LN2)));
+        return new VoteBloomFilter(bits, hashes, n);
+    }
+
+    public void put(long photoId, String userId) {
+        long hash = hash(photoId, userId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            setBit(index(h1 + i * h2));
+        }
+        insertedCount.incrementAndGet();
+    }
+
+    public boolean mightContain(long photoId, String userId) {
+        long hash = hash(photoId, userId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 追加した件数が容量を超えた（誤判定率が目標より悪化している）
+     */
+    public boolean isSaturated() {
+        return insertedCount.get() > capacity;
+    }
+
+    /**
+     * 現在の件数での理論上の誤判定率 (1 - e^(-kn/m))^k
+     */
+    public double expectedFpp() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertedCount.get() / bitCount), hashCount);
+    }
+
+    public int getInsertedCount() {
+        return insertedCount.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getMemoryBytes() {
+        return words.length() * 8L;
+    }
+
+    private long index(int combined) {
+        // 二重ハッシュ（h1 + i*h2）の値を [0, bitCount) に写す
+        return (combined & 0x7FFF_FFFFL) % bitCount;
+    }
+
+    private void setBit(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = words.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(word, current, current | mask));
+    }
+
+    // userId（Cognito の sub）の FNV-1a と photoId を混ぜて 64bit にする
+    private static long hash(long photoId, String userId) {
+        long h = 0xcbf2_9ce4_8422_2325L;
+        for (int i = 0; i < userId.length(); i++) {
+            h ^= userId.charAt(i);
+            h *= 0x1_0000_0001_b3L;
+        }
+        h ^= photoId * 0x9E37_79B9_7F4A_7C15L;
+        // SplitMix64 の仕上げ
+        h = (h ^ (h >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return h ^ (h >>> 31);
+    }
+}
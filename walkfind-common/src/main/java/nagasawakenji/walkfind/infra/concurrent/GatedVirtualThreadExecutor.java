@@ -0,0 +1,92 @@
+package nagasawakenji.walkfind.infra.concurrent;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * タスクごとに仮想スレッドで実行し、同時に実行するタスク数を Semaphore で絞る ExecutorService。
+ *
+ * 仮想スレッドは数の上限にならないため、許可を取れないタスクは待たせずに RejectedExecutionException にする
+ * （ThreadPoolExecutor + AbortPolicy と同じ振る舞いで、ParallelQueryExecutor は呼び出しスレッドで実行し直す）。
+ * submit した Future の cancel(true) は実行中の仮想スレッドに割り込む。
+ */
+public class GatedVirtualThreadExecutor extends AbstractExecutorService {
+
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final SimpleAsyncTaskExecutor delegate;
+    private volatile boolean shutdown;
+
+    public GatedVirtualThreadExecutor(String threadNamePrefix, int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.delegate = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        this.delegate.setVirtualThreads(true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown || !permits.tryAcquire()) {
+            throw new RejectedExecutionException("No permit available for " + command);
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 実行中のタスク数
+     */
+    public int activeCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    // 新しいタスクは受け付けず、実行中のタスクも無い
+    @Override
+    public boolean isTerminated() {
+        return shutdown && activeCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!shutdown) {
+            return false;
+        }
+        // 実行中のタスクの許可をすべて取り戻せたら終了
+        if (!permits.tryAcquire(maxConcurrency, timeout, unit)) {
+            return false;
+        }
+        permits.release(maxConcurrency);
+        return true;
+    }
+}
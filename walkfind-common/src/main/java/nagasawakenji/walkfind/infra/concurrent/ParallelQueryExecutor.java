@@ -0,0 +1,220 @@
+package nagasawakenji.walkfind.infra.concurrent;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.exception.DatabaseOperationException;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
+import org.slf4j.MDC;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 読み取り専用サービスで、互いに依存しない Mapper 呼び出しを別々のプール接続で同時に発行する。
+ *
+ * 使い方:
+ * <pre>
+ *   ParallelQueryExecutor.Batch batch = parallelQueryExecutor.batch();
+ *   Supplier&lt;List&lt;PhotoResponse&gt;&gt; photos = batch.add(() -&gt; photoMapper.findAllPhotosByContest(...));
+ *   Supplier&lt;Long&gt; total = batch.add(() -&gt; photoMapper.countTotalPhotos(contestId));
+ *   batch.execute();
+ *   photos.get(); total.get();
+ * </pre>
+ *
+ * - 先頭のクエリは呼び出しスレッド（呼び出し元のトランザクション）で実行する
+ * - 残りはワーカースレッドで readOnly トランザクションを張って実行する（レプリカ振り分けも効く）
+ * - プールのアイドル接続が足りない・ワーカーが埋まっている場合は、その分を呼び出しスレッドで順番に実行する
+ * - ワーカーで実行したクエリの時間も呼び出し元の RequestProfile（Server-Timing の db）に加算する
+ * - バッチ全体が budgetMs を超えた場合は DatabaseOperationException
+ */
+@Slf4j
+public class ParallelQueryExecutor {
+
+    private final ExecutorService executor;
+    private final TransactionTemplate readOnlyTx;
+    private final Supplier<HikariDataSource> poolSupplier;
+    private final long budgetMs;
+    private final int reservedIdleConnections;
+
+    public ParallelQueryExecutor(ExecutorService executor,
+                                 TransactionTemplate readOnlyTx,
+                                 Supplier<HikariDataSource> poolSupplier,
+                                 long budgetMs,
+                                 int reservedIdleConnections) {
+        this.executor = executor;
+        this.readOnlyTx = readOnlyTx;
+        this.poolSupplier = poolSupplier;
+        this.budgetMs = budgetMs;
+        this.reservedIdleConnections = reservedIdleConnections;
+    }
+
+    /**
+     * 常に呼び出しスレッドで順番に実行する（無効化時・テスト用）
+     */
+    public static ParallelQueryExecutor sequential() {
+        return new ParallelQueryExecutor(null, null, () -> null, 0, 0);
+    }
+
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * 並列に流してよい空き接続数。プールが未起動・取得できない場合は 0（順次実行）
+     */
+    int availableParallelism() {
+        if (executor == null) {
+            return 0;
+        }
+        HikariDataSource pool = poolSupplier.get();
+        HikariPoolMXBean stats = pool != null ? pool.getHikariPoolMXBean() : null;
+        if (stats == null) {
+            return 0;
+        }
+        // 接続待ちのスレッドがいる時点で飽和とみなす
+        if (stats.getThreadsAwaitingConnection() > 0) {
+            return 0;
+        }
+        return Math.max(0, stats.getIdleConnections() - reservedIdleConnections);
+    }
+
+    public final class Batch {
+
+        private final List<Slot<?>> slots = new ArrayList<>();
+
+        /**
+         * クエリを登録する。返した Supplier は execute() 完了後に結果を返す
+         */
+        public <T> Supplier<T> add(Supplier<T> query) {
+            Slot<T> slot = new Slot<>(query);
+            slots.add(slot);
+            return slot;
+        }
+
+        public void execute() {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+
+            int parallel = slots.size() > 1 ? Math.min(slots.size() - 1, availableParallelism()) : 0;
+            if (parallel < slots.size() - 1) {
+                log.debug("parallel query degraded. queries={}, parallel={}", slots.size(), parallel);
+            }
+
+            // 2番目以降のクエリを空き接続の数だけワーカーへ
+            List<Slot<?>> inline = new ArrayList<>();
+            inline.add(slots.get(0));
+            for (int i = 1; i < slots.size(); i++) {
+                Slot<?> slot = slots.get(i);
+                if (i <= parallel && submit(slot)) {
+                    continue;
+                }
+                inline.add(slot);
+            }
+
+            try {
+                for (Slot<?> slot : inline) {
+                    slot.runInline();
+                }
+                for (Slot<?> slot : slots) {
+                    slot.await(deadline);
+                }
+            } catch (RuntimeException e) {
+                slots.forEach(Slot::cancel);
+                throw e;
+            }
+        }
+
+        private boolean submit(Slot<?> slot) {
+            SecurityContext securityContext = SecurityContextHolder.getContext();
+            Map<String, String> mdc = MDC.getCopyOfContextMap();
+            RequestProfile profile = RequestProfile.current();
+            try {
+                slot.future = executor.submit(() -> {
+                    // ReadYourWritesTracker（ユーザー単位のプライマリ固定）とログのためにコンテキストを引き継ぐ
+                    SecurityContextHolder.setContext(securityContext);
+                    if (mdc != null) {
+                        MDC.setContextMap(mdc);
+                    }
+                    RequestProfile previous = RequestProfile.attach(profile);
+                    try {
+                        return readOnlyTx.execute(status -> slot.query.get());
+                    } finally {
+                        RequestProfile.restore(previous);
+                        SecurityContextHolder.clearContext();
+                        MDC.clear();
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+    }
+
+    private static final class Slot<T> implements Supplier<T> {
+
+        private final Supplier<T> query;
+        private Future<?> future;
+        private T value;
+        private boolean done;
+
+        private Slot(Supplier<T> query) {
+            this.query = query;
+        }
+
+        void runInline() {
+            value = query.get();
+            done = true;
+        }
+
+        @SuppressWarnings("unchecked")
+        void await(long deadlineNanos) {
+            if (done) {
+                return;
+            }
+            long remaining = deadlineNanos - System.nanoTime();
+            try {
+                value = (T) future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                done = true;
+            } catch (TimeoutException e) {
+                throw new DatabaseOperationException("並列クエリがレイテンシ予算を超過しました。", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw new DatabaseOperationException("並列クエリの実行に失敗しました。", e.getCause());
+            } catch (CancellationException e) {
+                throw new DatabaseOperationException("並列クエリがキャンセルされました。", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DatabaseOperationException("並列クエリの待機中に割り込まれました。", e);
+            }
+        }
+
+        void cancel() {
+            if (future != null && !done) {
+                future.cancel(true);
+            }
+        }
+
+        @Override
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("Batch.execute() の前に結果を参照しています。");
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package nagasawakenji.walkfind.infra.concurrent;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "walkfind.parallel-query")
+public class ParallelQueryProperties {
+    /**
+     * 読み取り専用サービスの独立したクエリを並列に発行する設定
+     * enabled=false の場合は常に呼び出しスレッドで順番に実行する（従来通り）
+     */
+
+    private boolean enabled = true;
+
+    // 並列クエリ用のワーカースレッド数（仮想スレッドモードでは、同時に実行する並列クエリ数の上限）
+    private int threads = 8;
+
+    // ワーカーが埋まっている時に待たせるタスク数。溢れた分は呼び出しスレッドで実行する（仮想スレッドモードでは待たせない）
+    private int queueCapacity = 64;
+
+    // 1回のバッチ全体で待つ上限
+    private long budgetMs = 2000;
+
+    // 並列化しても残しておくアイドル接続数（書き込み系リクエストの枯渇防止）
+    private int reservedIdleConnections = 1;
+}
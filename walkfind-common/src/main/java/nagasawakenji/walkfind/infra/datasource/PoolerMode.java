@@ -0,0 +1,28 @@
+package nagasawakenji.walkfind.infra.datasource;
+
+/**
+ * DB との間に置くコネクションプーラーの種類。
+ *
+ * TRANSACTION: pgbouncer (pool_mode=transaction) / RDS Proxy / Supavisor の transaction モード。
+ * トランザクションごとに別のサーバー接続が割り当てられるため、セッションに紐づく状態
+ * （サーバーサイド prepared statement など）を一切持たないように JDBC を設定する。
+ */
+public enum PoolerMode {
+    DIRECT,
+    TRANSACTION;
+
+    // prepareThreshold=0: pgjdbc に名前付き（サーバーサイド）prepared statement を作らせない
+    // preparedStatementCacheQueries=0: ドライバ側の statement キャッシュも無効化
+    private static final String TRANSACTION_POOLING_PARAMS = "prepareThreshold=0&preparedStatementCacheQueries=0";
+
+    /**
+     * JDBC URL にプーラー互換のパラメータを付与する
+     */
+    public String applyTo(String jdbcUrl) {
+        if (this != TRANSACTION) {
+            return jdbcUrl;
+        }
+        String separator = jdbcUrl.contains("?") ? "&" : "?";
+        return jdbcUrl + separator + TRANSACTION_POOLING_PARAMS;
+    }
+}
@@ -0,0 +1,18 @@
+package nagasawakenji.walkfind.infra.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "walkfind.datasource.pooler")
+public class PoolerProperties {
+    /**
+     * DB の前段に置くプーラーの設定
+     * Lambda では Secrets Manager の pooler_host / pooler_port があればそちらへ接続する
+     */
+
+    private PoolerMode mode = PoolerMode.DIRECT;
+
+    // ローカルで pgbouncer (docker-compose の pgbouncer サービス) を経由する場合のポート
+    private int localPort = 6432;
+}
@@ -0,0 +1,82 @@
+package nagasawakenji.walkfind.infra.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * {@code @Transactional(readOnly = true)} のトランザクションをレプリカへ、それ以外をプライマリへ振り分ける。
+ *
+ * トランザクション開始時点では readOnly フラグがまだ立っていないため、
+ * 必ず LazyConnectionDataSourceProxy で包み、最初の SQL 実行時に接続先を決定させること。
+ *
+ * 書き込み可能なトランザクションがプライマリの接続を取ったら、コミットした時点で
+ * ReadYourWritesTracker に書き込みを記録する（ロールバックした場合は読み取りをプライマリに固定しない）。
+ * トランザクション外（auto-commit）の接続は記録しない。
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    private final ReplicaLagGuard lagGuard;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadWriteRoutingDataSource(DataSource primary,
+                                      DataSource replica,
+                                      ReplicaLagGuard lagGuard,
+                                      ReadYourWritesTracker readYourWritesTracker) {
+        this.lagGuard = lagGuard;
+        this.readYourWritesTracker = readYourWritesTracker;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        // 未知のキーはプライマリにフォールバック
+        setLenientFallback(true);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // トランザクション外 or 書き込みトランザクション
+            markWriteOnCommit();
+            return Route.PRIMARY;
+        }
+
+        return routesReadOnlyToReplica() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    /**
+     * 今のスレッドで readOnly トランザクションを始めたらレプリカに振り分けるか
+     * （直近に書き込んだユーザー・レプリカの遅延が大きい場合はプライマリ）。
+     * ParallelQueryExecutor が、実際に使うプールの空きを見るために使う
+     */
+    public boolean routesReadOnlyToReplica() {
+        if (readYourWritesTracker.isSticky()) {
+            return false;
+        }
+        return lagGuard.isReplicaUsable();
+    }
+
+    // 書き込みトランザクションごとに1回だけ登録する
+    private void markWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        boolean registered = TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(MarkWriteOnCommit.class::isInstance);
+        if (!registered) {
+            TransactionSynchronizationManager.registerSynchronization(new MarkWriteOnCommit(readYourWritesTracker));
+        }
+    }
+
+    // コミットできた書き込みだけを記録する（afterCommit は同じスレッドで呼ばれるので、ユーザーも同じ）
+    private record MarkWriteOnCommit(ReadYourWritesTracker tracker) implements TransactionSynchronization {
+        @Override
+        public void afterCommit() {
+            tracker.markWrite();
+        }
+    }
+}
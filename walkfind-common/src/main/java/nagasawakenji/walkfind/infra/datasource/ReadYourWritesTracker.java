@@ -0,0 +1,92 @@
+package nagasawakenji.walkfind.infra.datasource;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 書き込みを行ったユーザーを一定時間記録し、その間の読み取りをプライマリに固定する。
+ * 投票直後のギャラリー再取得などで、レプリカの遅延により自分の書き込みが見えない問題を防ぐ。
+ *
+ * 記録はコンテナ（プロセス）内のみ。別の Lambda コンテナに振られた場合は ReplicaLagGuard の
+ * 遅延上限が保証となるため、stickyWindowMs は maxLagMs 以上にしておく。
+ *
+ * 記録は期限の早い順（書き込んだ順）に並べ、maxUsers を超えたら最も古い記録から捨てる。
+ */
+public class ReadYourWritesTracker {
+
+    private final long windowNanos;
+    private final int maxUsers;
+
+    // userId -> プライマリ固定の期限 (System.nanoTime)。期限はすべて同じ長さなので、挿入順 = 期限の早い順
+    private final LinkedHashMap<String, Long> stickyUntil;
+
+    public ReadYourWritesTracker(long windowMs, int maxUsers) {
+        this.windowNanos = windowMs * 1_000_000L;
+        this.maxUsers = maxUsers;
+        this.stickyUntil = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > ReadYourWritesTracker.this.maxUsers;
+            }
+        };
+    }
+
+    /**
+     * 現在のユーザーが書き込みを行ったことを記録する
+     */
+    public void markWrite() {
+        String userId = currentUserId();
+        if (userId == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (stickyUntil) {
+            evictExpired(now);
+            // 末尾（最も新しい位置）に付け直す
+            stickyUntil.remove(userId);
+            stickyUntil.put(userId, now + windowNanos);
+        }
+    }
+
+    /**
+     * 現在のユーザーが直近に書き込みを行っているか
+     */
+    public boolean isSticky() {
+        String userId = currentUserId();
+        if (userId == null) {
+            return false;
+        }
+        synchronized (stickyUntil) {
+            Long until = stickyUntil.get(userId);
+            if (until == null) {
+                return false;
+            }
+            if (System.nanoTime() - until > 0) {
+                stickyUntil.remove(userId);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    // 先頭から期限切れの記録を捨てる（期限が切れていない記録に当たったら終わり）
+    private void evictExpired(long now) {
+        Iterator<Long> it = stickyUntil.values().iterator();
+        while (it.hasNext() && now - it.next() > 0) {
+            it.remove();
+        }
+    }
+
+    private String currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return auth.getName();
+    }
+}
@@ -0,0 +1,33 @@
+package nagasawakenji.walkfind.infra.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "walkfind.datasource.replica")
+public class ReplicaDataSourceProperties {
+    /**
+     * 読み取り専用レプリカの設定
+     * enabled=false の場合はレプリカを作らず、全てプライマリに流す（従来通り）
+     * プールサイズ等は walkfind.datasource.replica.hikari.* で個別に指定する
+     */
+
+    private boolean enabled = false;
+
+    // 未指定の場合、Lambda では Secrets Manager の replica_host から組み立てる
+    private String url;
+    private String username;
+    private String password;
+
+    // これ以上遅延しているレプリカには読み取りを流さない
+    private long maxLagMs = 1000;
+
+    // 遅延チェックの間隔（チェックは最大でもこの間隔で1回だけ実行される）
+    private long lagCheckIntervalMs = 5000;
+
+    // 自分が書き込んだユーザーの読み取りをプライマリに固定する時間
+    private long stickyWindowMs = 5000;
+
+    // stickiness を保持するユーザー数の上限
+    private int stickyMaxUsers = 10000;
+}
@@ -0,0 +1,116 @@
+package nagasawakenji.walkfind.infra.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * レプリカの複製遅延を監視し、許容値を超えている間は読み取りをプライマリへ戻す。
+ *
+ * Lambda ではスケジューラが使えないため、ルーティング判定のついでに
+ * lagCheckIntervalMs ごとに1回だけ計測を依頼する。計測は別スレッドで行い、
+ * リクエストのスレッドは待たずに直近の結果を使う（レプリカへの接続が遅くても巻き込まれない）。
+ * 計測に失敗した場合や、結果が lagCheckIntervalMs の2倍より古い場合（Lambda の凍結明けなど）は
+ * レプリカを使わない（安全側に倒す）。
+ */
+@Slf4j
+public class ReplicaLagGuard {
+
+    // WAL を全て適用済みなら遅延0、そうでなければ最後に適用したトランザクションからの経過時間
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END
+            """;
+
+    private final DataSource replica;
+    private final long maxLagMs;
+    private final long checkIntervalNanos;
+    private final Executor checkExecutor;
+
+    private final AtomicBoolean checking = new AtomicBoolean(false);
+    private volatile long lastCheckedNanos;
+    // 直近の計測が終わった時刻。0 はまだ一度も終わっていない
+    private volatile long lastResultNanos = 0;
+    private volatile boolean healthy = false;
+    private volatile long lastLagMs = -1;
+
+    public ReplicaLagGuard(DataSource replica, long maxLagMs, long checkIntervalMs) {
+        this(replica, maxLagMs, checkIntervalMs, Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "replica-lag-check");
+            t.setDaemon(true);
+            return t;
+        }));
+    }
+
+    public ReplicaLagGuard(DataSource replica, long maxLagMs, long checkIntervalMs, Executor checkExecutor) {
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+        this.checkIntervalNanos = checkIntervalMs * 1_000_000L;
+        this.checkExecutor = checkExecutor;
+        // 初回呼び出しで必ず計測する
+        this.lastCheckedNanos = System.nanoTime() - checkIntervalNanos;
+    }
+
+    /**
+     * レプリカに読み取りを流してよいか（計測は待たない）
+     */
+    public boolean isReplicaUsable() {
+        long now = System.nanoTime();
+        if (now - lastCheckedNanos >= checkIntervalNanos && checking.compareAndSet(false, true)) {
+            lastCheckedNanos = now;
+            try {
+                checkExecutor.execute(() -> {
+                    try {
+                        refresh();
+                    } finally {
+                        checking.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                checking.set(false);
+                log.warn("Replica lag check was rejected.", e);
+            }
+        }
+        long resultNanos = lastResultNanos;
+        return healthy && resultNanos != 0 && now - resultNanos < checkIntervalNanos * 2;
+    }
+
+    public long getLastLagMs() {
+        return lastLagMs;
+    }
+
+    private void refresh() {
+        try (Connection conn = replica.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(LAG_SQL)) {
+
+            long lag = rs.next() ? rs.getLong(1) : Long.MAX_VALUE;
+            boolean nowHealthy = lag <= maxLagMs;
+
+            if (nowHealthy != healthy) {
+                log.warn("Replica routing changed. usable={}, lagMs={}, maxLagMs={}", nowHealthy, lag, maxLagMs);
+            }
+            lastLagMs = lag;
+            healthy = nowHealthy;
+
+        } catch (Exception e) {
+            if (healthy) {
+                log.warn("Replica lag check failed. Falling back to primary.", e);
+            }
+            lastLagMs = -1;
+            healthy = false;
+        } finally {
+            lastResultNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package nagasawakenji.walkfind.infra.http;
+
+import org.springframework.http.CacheControl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 読み取り系 API の Cache-Control。
+ * レスポンスに期限付きのダウンロード URL（presign, 10分）を含むため、max-age は URL の期限より十分短くする。
+ */
+public final class CachePolicies {
+
+    // 結果発表後は変わらない（退会による匿名化のみ）。API Gateway / ブラウザで共有してよい
+    public static final CacheControl RESULTS = CacheControl.maxAge(2, TimeUnit.MINUTES).cachePublic();
+
+    // コンテスト一覧。ステータスの切り替わりをすぐ反映したいので短め
+    public static final CacheControl CONTEST_LIST = CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic();
+
+    // ギャラリー。閲覧者ごとに内容が変わる（自分の写真の類似度）ので共有キャッシュには載せず、毎回 ETag で再検証させる
+    public static final CacheControl GALLERY = CacheControl.noCache().cachePrivate();
+
+    // 内容から決まるキーの画像。キーが同じなら中身も同じなので再検証させない
+    public static final CacheControl IMMUTABLE_OBJECT = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    // 上書きされうるキーの画像。毎回 ETag で再検証させる（変わっていなければ 304）
+    public static final CacheControl MUTABLE_OBJECT = CacheControl.noCache().cachePublic();
+
+    private CachePolicies() {
+    }
+}
@@ -0,0 +1,36 @@
+package nagasawakenji.walkfind.infra.image;
+
+/**
+ * 縮小版のキー。元画像のキーから決まる。
+ *
+ * "derivatives/w{幅}/{元画像のキー（拡張子を除く）}.jpg"
+ * モデル入力は "derivatives/model{一辺}/{元画像のキー（拡張子を除く）}.jpg"
+ * 元画像が内容アドレス（blobs/）なら縮小版も内容ごとに1つになる。
+ */
+public final class DerivativeKeys {
+
+    public static final String PREFIX = "derivatives/";
+
+    // 一覧（スマホ）・一覧（PC）・詳細 で使う幅。小さい順
+    public static final int[] WIDTHS = {320, 640, 1280};
+
+    // OpenCLIP（ViT-B/32）の入力解像度
+    public static final int MODEL_INPUT_SIZE = 224;
+
+    private DerivativeKeys() {
+    }
+
+    public static String keyOf(String sourceKey, int width) {
+        return PREFIX + "w" + width + "/" + withoutExtension(sourceKey) + ".jpg";
+    }
+
+    public static String modelInputKeyOf(String sourceKey) {
+        return PREFIX + "model" + MODEL_INPUT_SIZE + "/" + withoutExtension(sourceKey) + ".jpg";
+    }
+
+    private static String withoutExtension(String key) {
+        int slash = key.lastIndexOf('/');
+        int dot = key.lastIndexOf('.');
+        return dot > slash ? key.substring(0, dot) : key;
+    }
+}
@@ -0,0 +1,20 @@
+package nagasawakenji.walkfind.infra.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 縮小版を作るときに元画像を読み、縮小版を書き込む保存先。
+ * Lambda では S3、walkfind-web ではローカルストレージ。
+ */
+public interface DerivativeStorage {
+
+    /**
+     * 元画像を読む。呼び出し側で close する
+     */
+    InputStream open(String key) throws IOException;
+
+    void put(String key, byte[] body, String contentType) throws IOException;
+
+    void delete(String key) throws IOException;
+}
@@ -0,0 +1,393 @@
+package nagasawakenji.walkfind.infra.image;
+
+import javax.imageio.IIOException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * 画像のヘッダーだけを読み、形式・幅・高さ・向き（EXIF Orientation）を求める。
+ * 同時に、撮影情報（EXIF・XMP・位置情報など）を取り除いた画像全体のストリームを返す。
+ *
+ * - 画素データはデコードしない（JPEG は SOS、PNG は最初の IDAT の手前まで読む）
+ * - JPEG: APP1（Exif / XMP）・APP13（IPTC）・COM を除く。向きが 1 以外なら Orientation だけの Exif を入れ直す
+ * - PNG: eXIf / tEXt / zTXt / iTXt / tIME を除く（IDAT より後ろのチャンクは見ない）
+ * - GIF / WebP: 幅と高さだけ読み、内容はそのまま
+ */
+public final class ImageInspector {
+
+    // 画素データより前として読む上限（ICC プロファイルや Exif のサムネイルを含めても収まる大きさ）
+    public static final int MAX_HEADER_BYTES = 1024 * 1024;
+
+    private static final byte[] EXIF_ID = {'E', 'x', 'i', 'f', 0, 0};
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+    private static final Set<String> PNG_METADATA_CHUNKS = Set.of("eXIf", "tEXt", "zTXt", "iTXt", "tIME");
+
+    /**
+     * @param contentType MIME タイプ
+     * @param width       保存されている画素の幅
+     * @param height      保存されている画素の高さ
+     * @param orientation EXIF Orientation（1〜8。無ければ 1）
+     */
+    public record ImageInfo(String contentType, int width, int height, int orientation) {
+
+        /**
+         * 向きを反映した表示上の幅（5〜8 は90度回転なので幅と高さが入れ替わる）
+         */
+        public int displayWidth() {
+            return orientation >= 5 ? height : width;
+        }
+
+        public int displayHeight() {
+            return orientation >= 5 ? width : height;
+        }
+
+        public long pixels() {
+            return (long) width * height;
+        }
+    }
+
+    /**
+     * @param info     画像の情報
+     * @param body     撮影情報を除いた画像全体（書き直したヘッダーと、まだ読んでいない残り）
+     * @param stripped 取り除いたものがあれば true（無ければ body は元と同じバイト列）
+     */
+    public record Result(ImageInfo info, InputStream body, boolean stripped) {
+    }
+
+    private ImageInspector() {
+    }
+
+    /**
+     * @param in 画像（先頭から）
+     * @return 対応する画像形式でなければ null
+     * @throws EOFException 1バイトも無い場合
+     * @throws IIOException ヘッダーが壊れている・途中で終わっている・上限より長い場合
+     * @throws IOException  読み込みに失敗した場合
+     */
+    public static Result inspect(InputStream in) throws IOException {
+        byte[] head = in.readNBytes(ImageTypeSniffer.HEAD_BYTES);
+        if (head.length == 0) {
+            throw new EOFException("Image is empty.");
+        }
+        String contentType = ImageTypeSniffer.sniff(head, head.length);
+        if (contentType == null) {
+            return null;
+        }
+
+        InputStream source = new SequenceInputStream(new ByteArrayInputStream(head), in);
+        HeaderReader reader = new HeaderReader(source);
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+        Parsed parsed = switch (contentType) {
+            case "image/jpeg" -> parseJpeg(reader, header);
+            case "image/png" -> parsePng(reader, header);
+            case "image/gif" -> parseGif(reader, header);
+            default -> parseWebp(reader, header);
+        };
+        if (parsed.width <= 0 || parsed.height <= 0) {
+            throw new IIOException("Invalid image size: " + parsed.width + "x" + parsed.height);
+        }
+
+        ImageInfo info = new ImageInfo(contentType, parsed.width, parsed.height, parsed.orientation);
+        InputStream body = new SequenceInputStream(new ByteArrayInputStream(header.toByteArray()), source);
+        return new Result(info, body, parsed.stripped);
+    }
+
+    private static final class Parsed {
+        int width;
+        int height;
+        int orientation = 1;
+        boolean stripped;
+    }
+
+    private static Parsed parseJpeg(HeaderReader r, ByteArrayOutputStream out) throws IOException {
+        Parsed parsed = new Parsed();
+        out.write(r.bytes(2)); // SOI
+
+        while (true) {
+            if (r.u8() != 0xFF) {
+                throw new IIOException("Invalid JPEG marker.");
+            }
+            int marker = r.u8();
+            while (marker == 0xFF) {
+                // 埋め草の 0xFF
+                marker = r.u8();
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                // 長さを持たないマーカー
+                out.write(0xFF);
+                out.write(marker);
+                continue;
+            }
+            if (marker == 0xD9) {
+                throw new IIOException("JPEG has no image data.");
+            }
+
+            int length = r.u16();
+            if (length < 2) {
+                throw new IIOException("Invalid JPEG segment length: " + length);
+            }
+            if (marker == 0xDA) {
+                // SOS 以降は画素データ。そのまま流す
+                if (parsed.width == 0) {
+                    throw new IIOException("JPEG has no frame header.");
+                }
+                writeSegmentHeader(out, marker, length);
+                return parsed;
+            }
+
+            byte[] payload = r.bytes(length - 2);
+            if (isStartOfFrame(marker)) {
+                if (payload.length < 5) {
+                    throw new IIOException("Truncated JPEG frame header.");
+                }
+                parsed.height = u16(payload, 1, false);
+                parsed.width = u16(payload, 3, false);
+            }
+
+            if (marker == 0xE1 && startsWith(payload, EXIF_ID)) {
+                parsed.orientation = exifOrientation(payload);
+                parsed.stripped = true;
+                if (parsed.orientation != 1) {
+                    // 表示の向きだけは残す（ブラウザが Exif の向きで回転して表示するため）
+                    out.write(orientationSegment(parsed.orientation));
+                }
+                continue;
+            }
+            if (marker == 0xE1 || marker == 0xED || marker == 0xFE) {
+                // XMP・IPTC・コメント
+                parsed.stripped = true;
+                continue;
+            }
+
+            writeSegmentHeader(out, marker, length);
+            out.write(payload);
+        }
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        // SOF0〜SOF15（DHT / JPG / DAC を除く）
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    private static void writeSegmentHeader(ByteArrayOutputStream out, int marker, int length) {
+        out.write(0xFF);
+        out.write(marker);
+        out.write(length >> 8);
+        out.write(length & 0xFF);
+    }
+
+    /**
+     * Exif（APP1）の IFD0 から Orientation を読む。読めなければ 1
+     */
+    private static int exifOrientation(byte[] payload) {
+        int tiff = EXIF_ID.length;
+        if (payload.length < tiff + 8) {
+            return 1;
+        }
+        boolean little;
+        if (payload[tiff] == 'I' && payload[tiff + 1] == 'I') {
+            little = true;
+        } else if (payload[tiff] == 'M' && payload[tiff + 1] == 'M') {
+            little = false;
+        } else {
+            return 1;
+        }
+
+        long ifdOffset = u32(payload, tiff + 4, little);
+        if (ifdOffset < 8 || tiff + ifdOffset + 2 > payload.length) {
+            return 1;
+        }
+        int ifd = (int) (tiff + ifdOffset);
+        int count = u16(payload, ifd, little);
+        for (int i = 0; i < count; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > payload.length) {
+                break;
+            }
+            if (u16(payload, entry, little) == EXIF_ORIENTATION_TAG) {
+                int value = u16(payload, entry + 8, little);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Orientation だけを持つ Exif（APP1）。ビッグエンディアンの TIFF で IFD0 にエントリ1つ
+     */
+    private static byte[] orientationSegment(int orientation) {
+        return new byte[]{
+                (byte) 0xFF, (byte) 0xE1, 0x00, 0x22,
+                'E', 'x', 'i', 'f', 0x00, 0x00,
+                'M', 'M', 0x00, 0x2A, 0x00, 0x00, 0x00, 0x08,
+                0x00, 0x01,
+                0x01, 0x12, 0x00, 0x03, 0x00, 0x00, 0x00, 0x01, 0x00, (byte) orientation, 0x00, 0x00,
+                0x00, 0x00, 0x00, 0x00
+        };
+    }
+
+    private static Parsed parsePng(HeaderReader r, ByteArrayOutputStream out) throws IOException {
+        Parsed parsed = new Parsed();
+        out.write(r.bytes(8)); // シグネチャ
+
+        while (true) {
+            byte[] lengthBytes = r.bytes(4);
+            byte[] typeBytes = r.bytes(4);
+            long length = u32(lengthBytes, 0, false);
+            String type = new String(typeBytes, StandardCharsets.US_ASCII);
+
+            if ("IDAT".equals(type)) {
+                // IDAT 以降は画素データ。そのまま流す
+                if (parsed.width == 0) {
+                    throw new IIOException("PNG has no IHDR chunk.");
+                }
+                out.write(lengthBytes);
+                out.write(typeBytes);
+                return parsed;
+            }
+            if ("IEND".equals(type)) {
+                throw new IIOException("PNG has no image data.");
+            }
+            if (length > MAX_HEADER_BYTES) {
+                throw new IIOException("PNG chunk is too large: " + type);
+            }
+
+            byte[] data = r.bytes((int) length);
+            byte[] crc = r.bytes(4);
+            if ("IHDR".equals(type)) {
+                if (data.length < 8) {
+                    throw new IIOException("Truncated PNG IHDR chunk.");
+                }
+                parsed.width = toInt(u32(data, 0, false));
+                parsed.height = toInt(u32(data, 4, false));
+            }
+            if (PNG_METADATA_CHUNKS.contains(type)) {
+                parsed.stripped = true;
+                continue;
+            }
+
+            out.write(lengthBytes);
+            out.write(typeBytes);
+            out.write(data);
+            out.write(crc);
+        }
+    }
+
+    private static Parsed parseGif(HeaderReader r, ByteArrayOutputStream out) throws IOException {
+        Parsed parsed = new Parsed();
+        byte[] header = r.bytes(10);
+        parsed.width = u16(header, 6, true);
+        parsed.height = u16(header, 8, true);
+        out.write(header);
+        return parsed;
+    }
+
+    private static Parsed parseWebp(HeaderReader r, ByteArrayOutputStream out) throws IOException {
+        Parsed parsed = new Parsed();
+        // RIFF ヘッダー(12) + 最初のチャンクのヘッダー(8) + 幅・高さを含む先頭(10)
+        byte[] header = r.bytes(30);
+        String chunk = new String(header, 12, 4, StandardCharsets.US_ASCII);
+        switch (chunk) {
+            case "VP8 " -> {
+                parsed.width = u16(header, 26, true) & 0x3FFF;
+                parsed.height = u16(header, 28, true) & 0x3FFF;
+            }
+            case "VP8L" -> {
+                long bits = u32(header, 21, true);
+                parsed.width = (int) (bits & 0x3FFF) + 1;
+                parsed.height = (int) ((bits >> 14) & 0x3FFF) + 1;
+            }
+            case "VP8X" -> {
+                parsed.width = u24(header, 24) + 1;
+                parsed.height = u24(header, 27) + 1;
+            }
+            default -> throw new IIOException("Unknown WebP chunk: " + chunk);
+        }
+        out.write(header);
+        return parsed;
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int u16(byte[] b, int off, boolean little) {
+        int b0 = b[off] & 0xFF;
+        int b1 = b[off + 1] & 0xFF;
+        return little ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int u24(byte[] b, int off) {
+        return (b[off] & 0xFF) | ((b[off + 1] & 0xFF) << 8) | ((b[off + 2] & 0xFF) << 16);
+    }
+
+    private static long u32(byte[] b, int off, boolean little) {
+        long hi = u16(b, little ? off + 2 : off, little);
+        long lo = u16(b, little ? off : off + 2, little);
+        return (hi << 16) | lo;
+    }
+
+    private static int toInt(long value) throws IIOException {
+        if (value > Integer.MAX_VALUE) {
+            throw new IIOException("Invalid image size: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * 読んだバイト数を数え、ヘッダーとして長すぎれば打ち切る
+     */
+    private static final class HeaderReader {
+
+        private final InputStream in;
+        private int consumed;
+
+        HeaderReader(InputStream in) {
+            this.in = in;
+        }
+
+        int u8() throws IOException {
+            count(1);
+            int b = in.read();
+            if (b < 0) {
+                throw new IIOException("Truncated image header.");
+            }
+            return b;
+        }
+
+        int u16() throws IOException {
+            return (u8() << 8) | u8();
+        }
+
+        byte[] bytes(int n) throws IOException {
+            count(n);
+            byte[] bytes = in.readNBytes(n);
+            if (bytes.length < n) {
+                throw new IIOException("Truncated image header.");
+            }
+            return bytes;
+        }
+
+        private void count(int n) throws IIOException {
+            consumed += n;
+            if (consumed > MAX_HEADER_BYTES) {
+                throw new IIOException("Image header is too large.");
+            }
+        }
+    }
+}
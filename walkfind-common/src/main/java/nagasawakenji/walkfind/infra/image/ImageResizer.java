@@ -0,0 +1,225 @@
+package nagasawakenji.walkfind.infra.image;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * JDK の ImageIO だけで画像を縮小し、JPEG にする（ネイティブライブラリを使わない）。
+ *
+ * - 元画像の幅・高さはヘッダーから読み、出力に必要な大きさの2倍程度までデコード時に間引く
+ *   （20MB の写真を全画素展開しない）
+ * - EXIF の向きを反映してから縮める（出力の JPEG には向きの情報を持たせない）
+ * - 大きい幅から順に、前の結果を半分ずつ縮めて作る（1回で大きく縮めるとモアレが出るため）
+ * - 元画像より大きい幅は作らない
+ * - モデル入力は中央を正方形に切り出して一辺を揃える（OpenCLIP の前処理と同じ切り出し方）
+ */
+public final class ImageResizer {
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    // モデル入力は圧縮ノイズで埋め込みがぶれないよう、縮小版より高い品質で保存する
+    public static final float MODEL_INPUT_QUALITY = 0.92f;
+
+    /**
+     * @param width  縮小後の幅
+     * @param height 縮小後の高さ
+     * @param bytes  JPEG
+     */
+    public record Rendition(int width, int height, byte[] bytes) {
+    }
+
+    /**
+     * @param thumbnails 縮小版（幅の小さい順）
+     * @param modelInput モデル入力（作らなかった場合は null）
+     */
+    public record Renditions(List<Rendition> thumbnails, Rendition modelInput) {
+
+        static final Renditions EMPTY = new Renditions(List.of(), null);
+
+        public boolean isEmpty() {
+            return thumbnails.isEmpty() && modelInput == null;
+        }
+    }
+
+    private ImageResizer() {
+    }
+
+    /**
+     * @param in             元画像
+     * @param orientation    EXIF Orientation（1〜8）
+     * @param widths         縮小版の幅（表示の向きでの幅。空なら作らない）
+     * @param modelInputSize モデル入力の一辺（0 なら作らない）
+     * @param quality        縮小版の JPEG の品質（0.0〜1.0）
+     * @return ImageIO が読めない形式（WebP など）なら空
+     * @throws IOException 読み込み・デコードに失敗した場合（壊れた画像など）
+     */
+    public static Renditions render(InputStream in, int orientation, int[] widths, int modelInputSize, float quality)
+            throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis != null ? ImageIO.getImageReaders(iis) : null;
+            if (readers == null || !readers.hasNext()) {
+                return Renditions.EMPTY;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                boolean rotated = orientation >= 5;
+                int displayWidth = rotated ? reader.getHeight(0) : reader.getWidth(0);
+                int displayHeight = rotated ? reader.getWidth(0) : reader.getHeight(0);
+
+                int[] targets = Arrays.stream(widths)
+                        .filter(w -> w > 0 && w < displayWidth)
+                        .distinct()
+                        .sorted()
+                        .toArray();
+                if (targets.length == 0 && modelInputSize <= 0) {
+                    return Renditions.EMPTY;
+                }
+
+                // 最大の出力幅・モデル入力の短辺のそれぞれ2倍を下回らない範囲で間引いてデコードする
+                int step = Integer.MAX_VALUE;
+                if (targets.length > 0) {
+                    step = displayWidth / (targets[targets.length - 1] * 2);
+                }
+                if (modelInputSize > 0) {
+                    step = Math.min(step, Math.min(displayWidth, displayHeight) / (modelInputSize * 2));
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                BufferedImage decoded = orient(toRgb(reader.read(0, param)), orientation);
+
+                List<Rendition> thumbnails = new ArrayList<>();
+                BufferedImage current = decoded;
+                for (int i = targets.length - 1; i >= 0; i--) {
+                    current = downscale(current, targets[i]);
+                    thumbnails.add(0, new Rendition(current.getWidth(), current.getHeight(), encodeJpeg(current, quality)));
+                }
+
+                Rendition modelInput = null;
+                if (modelInputSize > 0) {
+                    BufferedImage square = downscale(centerSquare(decoded), modelInputSize);
+                    modelInput = new Rendition(square.getWidth(), square.getHeight(),
+                            encodeJpeg(square, MODEL_INPUT_QUALITY));
+                }
+                return new Renditions(thumbnails, modelInput);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * JPEG は透過を持てないので、白背景に描いた RGB にする
+     */
+    private static BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * EXIF Orientation の通りに回転・反転する（保存されている画素 → 表示の向き）
+     */
+    private static BufferedImage orient(BufferedImage source, int orientation) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transform == null) {
+            return source;
+        }
+
+        boolean rotated = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(rotated ? h : w, rotated ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = oriented.createGraphics();
+        try {
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return oriented;
+    }
+
+    private static BufferedImage centerSquare(BufferedImage source) {
+        int size = Math.min(source.getWidth(), source.getHeight());
+        return source.getSubimage((source.getWidth() - size) / 2, (source.getHeight() - size) / 2, size, size);
+    }
+
+    private static BufferedImage downscale(BufferedImage source, int targetWidth) {
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= targetWidth) {
+            current = scale(current, current.getWidth() / 2);
+        }
+        return current.getWidth() == targetWidth ? current : scale(current, targetWidth);
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            // 回線が遅い端末でも全体の粗い絵から表示されるようにする
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,48 @@
+package nagasawakenji.walkfind.infra.image;
+
+/**
+ * 先頭バイト（マジックナンバー）から画像形式を判定する。
+ * 拡張子やクライアントが送る Content-Type は信用しない。
+ */
+public final class ImageTypeSniffer {
+
+    // 判定に必要な先頭バイト数（WebP が最長）
+    public static final int HEAD_BYTES = 12;
+
+    private ImageTypeSniffer() {
+    }
+
+    /**
+     * @return MIME タイプ。対応する画像形式でなければ null
+     */
+    public static String sniff(byte[] head, int length) {
+        if (length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G'
+                && head[4] == 0x0D && head[5] == 0x0A && head[6] == 0x1A && head[7] == 0x0A) {
+            return "image/png";
+        }
+        if (length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "image/gif";
+        }
+        if (length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    /**
+     * 保存時のキーに付ける拡張子
+     */
+    public static String extensionOf(String contentType) {
+        return switch (contentType) {
+            case "image/jpeg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            default -> "";
+        };
+    }
+}
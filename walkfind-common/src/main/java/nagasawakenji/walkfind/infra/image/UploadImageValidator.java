@@ -0,0 +1,62 @@
+package nagasawakenji.walkfind.infra.image;
+
+import nagasawakenji.walkfind.exception.InvalidUploadException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * アップロードされた画像をヘッダーだけで検証する（投稿・見本写真・プロフィール画像で共通）。
+ *
+ * 縦横のサイズの上限は、縮小版や埋め込みを作るときのデコードが現実的な時間・メモリで済む範囲。
+ * 巨大なパノラマなどは DB に登録する前にここで断る。
+ */
+@Component
+public class UploadImageValidator {
+
+    private final int maxEdge;
+    private final long maxPixels;
+
+    public UploadImageValidator(@Value("${walkfind.upload.max-edge:12000}") int maxEdge,
+                                @Value("${walkfind.upload.max-pixels:50000000}") long maxPixels) {
+        this.maxEdge = maxEdge;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * ヘッダーを読んで検証し、撮影情報を取り除いたストリームを返す
+     *
+     * @throws InvalidUploadException 空・画像以外・ヘッダーが壊れている・縦横のサイズが上限を超えた場合
+     * @throws IOException            読み込みに失敗した場合
+     */
+    public ImageInspector.Result inspect(InputStream in) throws IOException {
+        ImageInspector.Result result;
+        try {
+            result = ImageInspector.inspect(in);
+        } catch (EOFException e) {
+            throw new InvalidUploadException("Uploaded file is empty.", InvalidUploadException.Reason.EMPTY);
+        } catch (IIOException e) {
+            throw new InvalidUploadException("画像を読み取れません（ファイルが壊れている可能性があります）。",
+                    InvalidUploadException.Reason.INVALID_IMAGE);
+        }
+        if (result == null) {
+            throw new InvalidUploadException("対応していないファイル形式です（JPEG / PNG / GIF / WebP のみ）。",
+                    InvalidUploadException.Reason.UNSUPPORTED_TYPE);
+        }
+        validate(result.info());
+        return result;
+    }
+
+    public void validate(ImageInspector.ImageInfo info) {
+        if (Math.max(info.width(), info.height()) > maxEdge || info.pixels() > maxPixels) {
+            throw new InvalidUploadException(
+                    "画像の縦横のサイズが大きすぎます（" + info.width() + "x" + info.height()
+                            + "。長辺 " + maxEdge + "px・" + maxPixels + " 画素まで）。",
+                    InvalidUploadException.Reason.INVALID_IMAGE);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package nagasawakenji.walkfind.infra.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 1コンテスト分のリーダーボード（投票数順の順序統計木）。
+ * 投票の加算・順位の取得・上位 K 件の取得がいずれも O(log n)。
+ * 更新・参照は同じロックで排他する。
+ *
+ * 投票のたびに版を進める。版は読み直した後のリーダーボードとも前後しないよう、呼び出し元が渡すカウンターから取る。
+ */
+public final class ContestLeaderboard {
+
+    private final Long contestId;
+    private final long loadedAtMillis;
+    private final Map<Long, LeaderboardEntry> entries = new HashMap<>();
+    private final LeaderboardTree tree = new LeaderboardTree();
+    private final AtomicLong versions;
+    private long version;
+
+    public ContestLeaderboard(Long contestId, Collection<LeaderboardEntry> initial, long loadedAtMillis) {
+        this(contestId, initial, loadedAtMillis, new AtomicLong());
+    }
+
+    /**
+     * @param versions 版のカウンター（同じコンテストを読み直したリーダーボードと共有する）
+     */
+    public ContestLeaderboard(Long contestId, Collection<LeaderboardEntry> initial, long loadedAtMillis, AtomicLong versions) {
+        this.contestId = contestId;
+        this.loadedAtMillis = loadedAtMillis;
+        this.versions = versions;
+        this.version = versions.get();
+        for (LeaderboardEntry entry : initial) {
+            entries.put(entry.photoId(), entry);
+            tree.insert(entry);
+        }
+    }
+
+    public Long getContestId() {
+        return contestId;
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    public synchronized int size() {
+        return tree.size();
+    }
+
+    /**
+     * 写真の投票数を1増やし、順位の変化を返す。リーダーボードに無い写真なら Optional.empty()
+     */
+    public synchronized Optional<LeaderboardMove> increment(long photoId) {
+        LeaderboardEntry current = entries.get(photoId);
+        if (current == null) {
+            return Optional.empty();
+        }
+        int previousPosition = tree.countBefore(current) + 1;
+
+        LeaderboardEntry updated = current.withVotes(current.votes() + 1);
+        tree.remove(current);
+        tree.insert(updated);
+        entries.put(photoId, updated);
+        version = versions.incrementAndGet();
+
+        return Optional.of(new LeaderboardMove(
+                photoId,
+                updated.votes(),
+                tree.countBefore(updated) + 1,
+                previousPosition,
+                rankOf(updated.votes()),
+                version));
+    }
+
+    /**
+     * 上位 limit 件と件数を、同じ版で返す
+     */
+    public synchronized LeaderboardView view(int limit) {
+        return new LeaderboardView(range(0, limit), tree.size(), version);
+    }
+
+    /**
+     * 写真の現在の順位。リーダーボードに無い写真なら Optional.empty()
+     */
+    public synchronized Optional<LeaderboardStanding> standingOf(long photoId) {
+        LeaderboardEntry entry = entries.get(photoId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new LeaderboardStanding(
+                tree.countBefore(entry) + 1, rankOf(entry.votes()), photoId, entry.votes()));
+    }
+
+    /**
+     * offset 件目（0始まり）から最大 limit 件を順位順で返す
+     */
+    public synchronized List<LeaderboardStanding> range(int offset, int limit) {
+        List<LeaderboardEntry> slice = tree.range(offset, limit);
+        List<LeaderboardStanding> out = new ArrayList<>(slice.size());
+
+        int rank = 0;
+        int previousVotes = -1;
+        for (int i = 0; i < slice.size(); i++) {
+            LeaderboardEntry entry = slice.get(i);
+            int position = offset + i + 1;
+            if (i == 0) {
+                rank = rankOf(entry.votes());
+            } else if (entry.votes() != previousVotes) {
+                rank = position;
+            }
+            out.add(new LeaderboardStanding(position, rank, entry.photoId(), entry.votes()));
+            previousVotes = entry.votes();
+        }
+        return out;
+    }
+
+    // 同票の先頭の位置 = 順位
+    private int rankOf(int votes) {
+        return tree.countBefore(LeaderboardEntry.firstOfVotes(votes)) + 1;
+    }
+}
@@ -0,0 +1,26 @@
+package nagasawakenji.walkfind.infra.leaderboard;
+
+import java.util.Comparator;
+
+/**
+ * リーダーボード上の1枚の写真。並び順は集計処理（ResultCalculationService）と同じく
+ * 投票数の多い順、同数なら投稿日時の古い順。完全に同じ場合は photoId で決める。
+ */
+public record LeaderboardEntry(long photoId, int votes, long submittedAtMillis) {
+
+    public static final Comparator<LeaderboardEntry> ORDER = Comparator
+            .comparingInt(LeaderboardEntry::votes).reversed()
+            .thenComparingLong(LeaderboardEntry::submittedAtMillis)
+            .thenComparingLong(LeaderboardEntry::photoId);
+
+    LeaderboardEntry withVotes(int newVotes) {
+        return new LeaderboardEntry(photoId, newVotes, submittedAtMillis);
+    }
+
+    /**
+     * 指定した投票数のどのエントリよりも前に並ぶ探索用のキー（同票の先頭位置を求めるのに使う）
+     */
+    static LeaderboardEntry firstOfVotes(int votes) {
+        return new LeaderboardEntry(Long.MIN_VALUE, votes, Long.MIN_VALUE);
+    }
+}
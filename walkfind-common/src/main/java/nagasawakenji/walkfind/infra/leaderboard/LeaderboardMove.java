@@ -0,0 +1,9 @@
+package nagasawakenji.walkfind.infra.leaderboard;
+
+/**
+ * 1票による順位の変化。
+ * previousPosition から position へ移動し、その間（position 〜 previousPosition - 1）にいた写真は1つずつ後ろへずれる。
+ * version はこの変化を反映した後のリーダーボードの版（LeaderboardView#version 以下の変化はその上位 N 件に含まれる）。
+ */
+public record LeaderboardMove(long photoId, int votes, int position, int previousPosition, int rank, long version) {
+}
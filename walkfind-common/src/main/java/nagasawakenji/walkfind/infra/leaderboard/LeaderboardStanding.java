@@ -0,0 +1,10 @@
+package nagasawakenji.walkfind.infra.leaderboard;
+
+/**
+ * ある時点での写真の順位
+ *
+ * @param position 並び順での位置（1始まり、同票でも重複しない）
+ * @param rank     順位（同票は同順位。1位, 1位, 3位 … 集計処理と同じ方式）
+ */
+public record LeaderboardStanding(int position, int rank, long photoId, int votes) {
+}
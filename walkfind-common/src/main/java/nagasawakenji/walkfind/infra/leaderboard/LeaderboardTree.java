@@ -0,0 +1,174 @@
+package nagasawakenji.walkfind.infra.leaderboard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 部分木のサイズを持つ Treap（順序統計木）。
+ * 挿入・削除・順位の取得・k 番目の取得がいずれも O(log n)（期待値）。
+ *
+ * 優先度は photoId から決める（乱数を使わないので、同じ入力からは同じ形の木になる）。
+ * スレッドセーフではない。排他は ContestLeaderboard が行う。
+ */
+final class LeaderboardTree {
+
+    private static final class Node {
+        LeaderboardEntry entry;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(LeaderboardEntry entry) {
+            this.entry = entry;
+            this.priority = mix(entry.photoId());
+        }
+    }
+
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    void insert(LeaderboardEntry entry) {
+        Node[] parts = split(root, entry);
+        root = merge(merge(parts[0], new Node(entry)), parts[1]);
+    }
+
+    /**
+     * @return 削除できた場合 true
+     */
+    boolean remove(LeaderboardEntry entry) {
+        int before = size(root);
+        root = remove(root, entry);
+        return size(root) < before;
+    }
+
+    /**
+     * entry より前に並ぶ件数（= 0 始まりの位置）。entry 自体が木に無くてもよい
+     */
+    int countBefore(LeaderboardEntry entry) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (LeaderboardEntry.ORDER.compare(node.entry, entry) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 0 始まりで index 番目のエントリ
+     */
+    LeaderboardEntry get(int index) {
+        Node node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.entry;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        throw new IndexOutOfBoundsException("index=" + index);
+    }
+
+    /**
+     * offset 番目から最大 limit 件を順位順で返す。O(log n + limit)
+     */
+    List<LeaderboardEntry> range(int offset, int limit) {
+        List<LeaderboardEntry> out = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - offset)));
+        collect(root, offset, limit, out);
+        return out;
+    }
+
+    private static void collect(Node node, int offset, int limit, List<LeaderboardEntry> out) {
+        if (node == null || out.size() >= limit) {
+            return;
+        }
+        int leftSize = size(node.left);
+        if (offset < leftSize) {
+            collect(node.left, offset, limit, out);
+        }
+        if (offset <= leftSize && out.size() < limit) {
+            out.add(node.entry);
+        }
+        if (out.size() < limit) {
+            collect(node.right, Math.max(0, offset - leftSize - 1), limit, out);
+        }
+    }
+
+    // (entry より前, entry 以降) に分割する
+    private static Node[] split(Node node, LeaderboardEntry entry) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (LeaderboardEntry.ORDER.compare(node.entry, entry) < 0) {
+            Node[] parts = split(node.right, entry);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, entry);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node remove(Node node, LeaderboardEntry entry) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = LeaderboardEntry.ORDER.compare(entry, node.entry);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, entry);
+        } else {
+            node.right = remove(node.right, entry);
+        }
+        update(node);
+        return node;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // SplitMix64 の最終段。連番の photoId でも優先度がばらけるようにする
+    private static int mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return (int) (x ^ (x >>> 31));
+    }
+}
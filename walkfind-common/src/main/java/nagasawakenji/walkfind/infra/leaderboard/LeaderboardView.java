@@ -0,0 +1,9 @@
+package nagasawakenji.walkfind.infra.leaderboard;
+
+import java.util.List;
+
+/**
+ * ある版のリーダーボードの上位 N 件。version 以下の LeaderboardMove はすべて反映済み
+ */
+public record LeaderboardView(List<LeaderboardStanding> standings, int totalCount, long version) {
+}
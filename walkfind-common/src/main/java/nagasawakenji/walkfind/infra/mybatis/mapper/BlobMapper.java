@@ -0,0 +1,53 @@
+package nagasawakenji.walkfind.infra.mybatis.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * blobs の操作はすべて sha256 で行う（storage_key は sha256 から1つに決まる）
+ */
+@Mapper
+public interface BlobMapper {
+
+    // 参照を1つ増やす（無ければ ref_count = 1 で作る）。増やした後の ref_count を返す。
+    // 同じ sha256 が別のキーで登録済み・削除中なら null
+    Integer acquire(@Param("sha256") String sha256,
+                    @Param("storageKey") String storageKey,
+                    @Param("contentType") String contentType,
+                    @Param("sizeBytes") Long sizeBytes);
+
+    // 参照を1つ減らし、減らした後の ref_count を返す。管理対象外なら null
+    Integer release(@Param("sha256") String sha256);
+
+    // 登録しなかった実体を参照 0 の行として残す（既にあれば参照数は変えず、参照 0 なら updated_at を更新する）。
+    // その時点の ref_count を返す。同じ sha256 が別のキーで登録済みなら null
+    Integer abandon(@Param("sha256") String sha256,
+                    @Param("storageKey") String storageKey,
+                    @Param("contentType") String contentType);
+
+    // 参照が 0 の行を削除する（削除できた件数を返す）
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+
+    // 参照が 0 のまま before より前から更新されていない行に削除中の印を付け、キーを返す
+    List<String> claimUnreferenced(@Param("before") OffsetDateTime before,
+                                   @Param("limit") int limit);
+
+    // 削除中の印を外す（削除しなかった・失敗した行を次回に回す）
+    int unclaim(@Param("sha256") String sha256);
+
+    // 削除中の印が付いているか
+    boolean isDeleting(@Param("sha256") String sha256);
+
+    // 参照されている実体のキー。無ければ null
+    String findStorageKey(@Param("sha256") String sha256);
+
+    // 撮影情報を取り除く前の内容から、取り除いた後の内容を引けるようにする（既にあれば何もしない）
+    int insertSource(@Param("sourceSha256") String sourceSha256,
+                     @Param("sha256") String sha256);
+
+    // 撮影情報を取り除く前の内容から引いた、参照されている実体のキー。無ければ null
+    String findStorageKeyBySource(@Param("sourceSha256") String sourceSha256);
+}
@@ -1,7 +1,9 @@
 package nagasawakenji.walkfind.infra.mybatis.mapper;
 
-import nagasawakenji.walkfind.domain.dto.AdminContestResponse;
+import nagasawakenji.walkfind.domain.dto.AdminContestSearchRow;
+import nagasawakenji.walkfind.domain.dto.ContestDeadlineRow;
 import nagasawakenji.walkfind.domain.dto.MyContestResponse;
+import nagasawakenji.walkfind.domain.dto.ResultStageProgress;
 import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
 import org.apache.ibatis.annotations.Mapper;
@@ -29,8 +31,23 @@ public interface ContestMapper {
     // 新しいコンテストを作成
     int insert(Contest contest);
 
-    // 集計を実行するコンテストを取得する
-    List<Contest> findContestsNeedingCalculation();
+    // 集計待ち、または集計済みで後続の段（best_rank・スナップショット）が残っているコンテストIDを取得する（ロックしない）
+    List<Long> findContestIdsWithPendingResultStages();
+
+    // 集計と後続の段の進み具合。コンテストが存在しなければ null
+    ResultStageProgress findResultStageProgress(@Param("contestId") Long contestId);
+
+    // best_rank の更新が終わったことを記録する
+    int markBestRankDone(@Param("contestId") Long contestId);
+
+    // 結果スナップショットの作成が終わったことを記録する
+    int markSnapshotPublished(@Param("contestId") Long contestId);
+
+    // 集計待ちのコンテストを行ロック付きで取得する（集計待ちでない・他で集計中なら null）
+    Contest findContestNeedingCalculationForUpdate(@Param("contestId") Long contestId);
+
+    // 集計完了フラグを立てる
+    int markAggregationCompleted(@Param("contestId") Long contestId);
 
     // コンテストのstatusを変更する
     int updateContestStatus(@Param("contestId") Long contestId, @Param("status") ContestStatus status);
@@ -63,22 +80,50 @@ public interface ContestMapper {
     // 自分が作成したコンテストの総数取得
     long countMyUpcomingContests(@Param("userId") String userId);
 
-    // 管理者用: コンテストの取得
-    List<AdminContestResponse> findAdminContests(
+    // 管理者用: コンテストの検索（1ページ分）
+    // cursorCreatedAt / cursorId があればその行より後ろ（キーセット）、無ければ offset から
+    List<AdminContestSearchRow> searchAdminContests(
             @Param("size") int size,
             @Param("offset") int offset,
+            @Param("cursorCreatedAt") OffsetDateTime cursorCreatedAt,  // null可
+            @Param("cursorId") Long cursorId,                          // null可
             @Param("status") String status,          // null可
             @Param("includeRemoved") boolean includeRemoved,
-            @Param("keyword") String keyword         // null/blank可
+            @Param("keywordPattern") String keywordPattern  // null可（LIKE 用にエスケープ済み）
     );
 
     // 管理者用: 件数取得
     long countAdminContests(
             @Param("status") String status,
             @Param("includeRemoved") boolean includeRemoved,
-            @Param("keyword") String keyword
+            @Param("keywordPattern") String keywordPattern
     );
 
     // status を update にしたidの取得
     List<Long> updateToInProgressReturningIds(OffsetDateTime now);
+
+    // CLOSED_VOTING にしたidの取得
+    List<Long> updateToClosedVotingReturningIds(OffsetDateTime now);
+
+    // horizon までに来るステータス切り替えの日時（contestId 指定時はそのコンテストのみ）
+    List<ContestDeadlineRow> findStatusDeadlines(@Param("horizon") OffsetDateTime horizon,
+                                                 @Param("contestId") Long contestId);
+
+    // 次にステータスが切り替わる日時（予定が無ければ null）
+    OffsetDateTime findNextStatusDeadline();
+
+    // 投稿数(photo_count)を +1 する
+    int incrementPhotoCount(@Param("contestId") Long contestId);
+
+    // 投稿数(photo_count)を -1 する
+    int decrementPhotoCount(@Param("contestId") Long contestId);
+
+    // 投稿数(photo_count)が実数とずれているコンテストのid（ロックは取らない）
+    List<Long> findPhotoCountDriftIds();
+
+    // コンテストの行をid順に FOR UPDATE でロックする
+    List<Long> lockContestsForUpdate(@Param("contestIds") List<Long> contestIds);
+
+    // ロック済みのコンテストの投稿数(photo_count)を実数に補正し、補正したコンテストのidを返す
+    List<Long> repairPhotoCountsReturningIds(@Param("contestIds") List<Long> contestIds);
 }
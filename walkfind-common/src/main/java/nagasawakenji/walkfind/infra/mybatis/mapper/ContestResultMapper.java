@@ -29,4 +29,10 @@ public interface ContestResultMapper {
 
     // 終了済みのコンテストの優勝作品を取得する
     List<ContestWinnerDto> findWinnerPhotosByContestId(@Param("contestId") Long contestId);
+
+    // 結果スナップショット用: 全件を順位順で取得する
+    List<ContestResultResponse> findAllDetailedResultsByContestId(@Param("contestId") Long contestId);
+
+    // 指定ユーザーの写真が結果に含まれるコンテストのidを取得する
+    List<Long> findContestIdsByUserId(@Param("userId") String userId);
 }
@@ -0,0 +1,17 @@
+package nagasawakenji.walkfind.infra.mybatis.mapper;
+
+import nagasawakenji.walkfind.domain.model.ContestStats;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Optional;
+
+@Mapper
+public interface ContestStatsMapper {
+
+    // 集計結果を登録する（再集計時は上書き）
+    int upsert(ContestStats stats);
+
+    // contestId から統計を取得
+    Optional<ContestStats> findByContestId(@Param("contestId") Long contestId);
+}
@@ -0,0 +1,17 @@
+package nagasawakenji.walkfind.infra.mybatis.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Optional;
+
+@Mapper
+public interface ContestVersionMapper {
+
+    // ギャラリーの版（status と contest_versions の合計。埋め込みの READY の増減も含む）。
+    // コンテストが存在しなければ Optional.empty()
+    Optional<String> findGalleryVersion(@Param("contestId") Long contestId);
+
+    // コンテスト一覧の版（件数と最終更新日時）
+    String findContestListVersion();
+}
@@ -0,0 +1,18 @@
+package nagasawakenji.walkfind.infra.mybatis.mapper;
+
+import nagasawakenji.walkfind.domain.model.ImageDerivative;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface ImageDerivativeMapper {
+
+    // 同じ元画像・種類・幅の行があれば上書きする（再実行しても1行）
+    int upsert(ImageDerivative derivative);
+
+    List<ImageDerivative> findBySourceKey(@Param("sourceKey") String sourceKey);
+
+    int deleteBySourceKey(@Param("sourceKey") String sourceKey);
+}
@@ -1,6 +1,7 @@
 package nagasawakenji.walkfind.infra.mybatis.mapper;
 
 import nagasawakenji.walkfind.domain.dto.PhotoEmbeddingRow;
+import nagasawakenji.walkfind.domain.dto.PhotoTextSearchRow;
 import nagasawakenji.walkfind.domain.dto.SimilarModelPhotoRow;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -39,4 +40,15 @@ public interface PhotoEmbeddingMapper {
             @Param("modelVersion") String modelVersion
     );
 
+    // 検索語の埋め込みに近い投稿写真 TopK（contestId が null なら全コンテスト）
+    List<PhotoTextSearchRow> searchUserPhotosByEmbedding(
+            @Param("embedding") float[] embedding,
+            @Param("modelVersion") String modelVersion,
+            @Param("contestId") Long contestId,
+            @Param("limit") int limit
+    );
+
+    // 現在のトランザクションの中だけ hnsw.ef_search を変える（トランザクションの外で呼んでも効かない）
+    String setLocalEfSearch(@Param("efSearch") int efSearch);
+
 }
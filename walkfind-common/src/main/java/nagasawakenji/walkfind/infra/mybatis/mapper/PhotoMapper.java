@@ -1,6 +1,7 @@
 package nagasawakenji.walkfind.infra.mybatis.mapper;
 
 import nagasawakenji.walkfind.domain.model.UserPhoto;
+import nagasawakenji.walkfind.domain.dto.MyContestRankResponse;
 import nagasawakenji.walkfind.domain.dto.PhotoResponse;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -31,6 +32,9 @@ public interface PhotoMapper {
     // 指定コンテストの投稿写真を取得
     List<UserPhoto> findAllSubmissionsForCalculation(@Param("contestId") Long contestId);
 
+    // ユーザーの投稿写真の現在順位を DB で数える（投稿していなければ empty）
+    Optional<MyContestRankResponse> findMyRank(@Param("contestId") Long contestId, @Param("userId") String userId);
+
     // idで写真を取得
     Optional<UserPhoto> findById(@Param("photoId") Long photoId);
 
@@ -0,0 +1,17 @@
+package nagasawakenji.walkfind.infra.mybatis.mapper;
+
+import nagasawakenji.walkfind.domain.model.RateLimitCounter;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface RateLimitMapper {
+
+    // 今ウィンドウの件数を1増やし（ウィンドウが進んでいれば繰り越し）、更新後の件数を返す
+    RateLimitCounter hit(@Param("bucketKey") String bucketKey,
+                         @Param("windowIndex") long windowIndex,
+                         @Param("expiresAtMs") long expiresAtMs);
+
+    // 期限切れの行を削除
+    int deleteExpired(@Param("nowMs") long nowMs);
+}
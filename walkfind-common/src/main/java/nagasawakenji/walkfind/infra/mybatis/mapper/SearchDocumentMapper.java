@@ -0,0 +1,24 @@
+package nagasawakenji.walkfind.infra.mybatis.mapper;
+
+import nagasawakenji.walkfind.domain.dto.SearchDocumentRow;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 検索インデックスの構築用。削除済みのコンテスト・写真（削除済みコンテストの写真を含む）は返さない
+ */
+@Mapper
+public interface SearchDocumentMapper {
+
+    // id 昇順のキーセットで全件を分割して読む
+    List<SearchDocumentRow> findContestDocuments(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    List<SearchDocumentRow> findPhotoDocuments(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    Optional<SearchDocumentRow> findContestDocument(@Param("contestId") Long contestId);
+
+    Optional<SearchDocumentRow> findPhotoDocument(@Param("photoId") Long photoId);
+}
@@ -0,0 +1,22 @@
+package nagasawakenji.walkfind.infra.mybatis.mapper;
+
+import nagasawakenji.walkfind.domain.dto.TextEmbeddingRow;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+@Mapper
+public interface TextEmbeddingMapper {
+
+    Optional<TextEmbeddingRow> findByText(@Param("queryText") String queryText, @Param("modelVersion") String modelVersion);
+
+    // 既にあれば何もしない（0件）。1件なら呼び出し側が worker に依頼する
+    int insertPending(@Param("queryText") String queryText, @Param("modelVersion") String modelVersion);
+
+    // staleBefore より前から PENDING / FAILED のままなら依頼し直す権利を取る（同時に1リクエストだけ1件になる）
+    int claimStale(@Param("queryText") String queryText,
+                   @Param("modelVersion") String modelVersion,
+                   @Param("staleBefore") OffsetDateTime staleBefore);
+}
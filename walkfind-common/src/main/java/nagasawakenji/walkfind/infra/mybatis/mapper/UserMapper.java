@@ -16,6 +16,12 @@ public interface UserMapper {
                @Param("username") String username,
                @Param("email") String email);
 
+    // ログイン時に users・user_profiles を1文で作成（既存なら何もしない）し、users の行を返す
+    // 同時に初回ログインした別トランザクションと競合した場合は空
+    Optional<User> syncUser(@Param("userId") String userId,
+                            @Param("username") String username,
+                            @Param("email") String email);
+
     // ユーザー名の変更を処理
     int update(
             @Param("userId") String userId,
@@ -3,6 +3,7 @@ package nagasawakenji.walkfind.infra.mybatis.mapper;
 import nagasawakenji.walkfind.domain.model.Vote;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import java.util.List;
 import java.util.Optional;
 
 @Mapper
@@ -16,4 +17,10 @@ public interface VoteMapper {
 
     // 特定の投稿に対する現在の投票総数を取得
     Integer countVotesByPhoto(Long photoId);
+
+    // 指定コンテストに投票したユーザー数（DISTINCT）を取得
+    int countDistinctVotersByContest(@Param("contestId") Long contestId);
+
+    // 指定コンテストの全投稿の (photoId, userId)。未投票の投稿は userId が null の1行になる
+    List<Vote> findVoteKeysByContest(@Param("contestId") Long contestId);
 }
@@ -0,0 +1,61 @@
+package nagasawakenji.walkfind.infra.profiling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * JSON シリアライズ時間を計測する MappingJackson2HttpMessageConverter。
+ *
+ * レスポンスボディを書き出すとヘッダーが確定してしまうため、
+ * 一度メモリ上にシリアライズし、その時間を含めた Server-Timing ヘッダーを付与してから書き出す。
+ * API のレスポンスはページング済みの小さな JSON なので、バッファリングのコストは無視できる。
+ */
+public class ProfilingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    public ProfilingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+
+        long start = System.nanoTime();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        super.writeInternal(object, type, new BufferedOutputMessage(outputMessage.getHeaders(), buffer));
+        RequestProfile.record(RequestProfile.Segment.SERIALIZATION, System.nanoTime() - start);
+
+        // getBody() を呼ぶ前であればヘッダーを追加できる
+        outputMessage.getHeaders().set(SERVER_TIMING, profile.toServerTiming());
+        buffer.writeTo(outputMessage.getBody());
+    }
+
+    private record BufferedOutputMessage(HttpHeaders headers, OutputStream body) implements HttpOutputMessage {
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package nagasawakenji.walkfind.infra.profiling;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 1リクエスト内で発生した処理時間の内訳を保持する。
+ * LoggingMdcFilter がリクエスト開始時に start() し、終了時に end() する。
+ * 各レイヤー（MyBatis, presign, SQS, JSONシリアライズ）は record() で経過時間を加算する。
+ *
+ * Servlet/Lambda ともにリクエストは単一スレッドで処理されるため ThreadLocal で保持する。
+ * ParallelQueryExecutor のワーカーは attach() で呼び出し元のプロファイルを引き継ぐので、
+ * 区間の時間は複数スレッドから加算される（並列に実行した分は合算するため total を超えることがある）。
+ * プロファイル対象外のスレッド（バッチ等）では record() は何もしない。
+ */
+public final class RequestProfile {
+
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 計測区間。name は Server-Timing のメトリクス名としてそのまま使う。
+     */
+    public enum Segment {
+        DB("db"),
+        PRESIGN("presign"),
+        SQS("sqs"),
+        SERIALIZATION("ser");
+
+        private final String metricName;
+
+        Segment(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private final long startNanos;
+    private final AtomicLongArray nanos = new AtomicLongArray(Segment.values().length);
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(Segment.values().length);
+    private volatile Long coldStartInitMillis;
+
+    private RequestProfile(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * 現在のスレッドで計測を開始する
+     */
+    public static RequestProfile start() {
+        RequestProfile profile = new RequestProfile(System.nanoTime());
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    /**
+     * 現在のスレッドの計測を終了する（ThreadLocal のリーク防止）
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 現在のスレッドの計測中プロファイル。計測外なら null
+     */
+    public static RequestProfile current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 別スレッドで呼び出し元のプロファイルに計測を加算させる（null なら計測外にする）
+     *
+     * @return それまでこのスレッドで計測していたプロファイル（処理後に restore() へ渡す）
+     */
+    public static RequestProfile attach(RequestProfile profile) {
+        RequestProfile previous = CURRENT.get();
+        restore(profile);
+        return previous;
+    }
+
+    /**
+     * attach() の前の状態に戻す
+     */
+    public static void restore(RequestProfile previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * 区間の経過時間を加算する。計測外のスレッドでは何もしない
+     */
+    public static void record(Segment segment, long elapsedNanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile == null) {
+            return;
+        }
+        profile.nanos.addAndGet(segment.ordinal(), elapsedNanos);
+        profile.counts.incrementAndGet(segment.ordinal());
+    }
+
+    /**
+     * Lambda のコールドスタートで処理されたリクエストであることを記録する
+     *
+     * @param initMillis Spring コンテキストの初期化にかかった時間
+     */
+    public void markColdStart(long initMillis) {
+        this.coldStartInitMillis = initMillis;
+    }
+
+    public double totalMillis() {
+        return toMillis(System.nanoTime() - startNanos);
+    }
+
+    public double millis(Segment segment) {
+        return toMillis(nanos.get(segment.ordinal()));
+    }
+
+    public int count(Segment segment) {
+        return counts.get(segment.ordinal());
+    }
+
+    /**
+     * Server-Timing ヘッダーの値を組み立てる。
+     * 例: total;dur=12.3, db;dur=4.1;desc="3", presign;dur=0.8;desc="20"
+     * 発生しなかった区間は出力しない。
+     */
+    public String toServerTiming() {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("total;dur=").append(format(totalMillis()));
+        if (coldStartInitMillis != null) {
+            sb.append(", init;dur=").append(coldStartInitMillis).append(";desc=\"cold\"");
+        }
+        for (Segment segment : Segment.values()) {
+            if (count(segment) == 0) {
+                continue;
+            }
+            sb.append(", ")
+                    .append(segment.metricName())
+                    .append(";dur=").append(format(millis(segment)))
+                    .append(";desc=\"").append(count(segment)).append('"');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 構造化ログ（MDC）に載せるフィールド。キーは区間ごとに xxxMs / xxxCount
+     */
+    public Map<String, String> toLogFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("totalMs", format(totalMillis()));
+        for (Segment segment : Segment.values()) {
+            fields.put(segment.metricName() + "Ms", format(millis(segment)));
+            fields.put(segment.metricName() + "Count", String.valueOf(count(segment)));
+        }
+        if (coldStartInitMillis != null) {
+            fields.put("initMs", String.valueOf(coldStartInitMillis));
+        }
+        return fields;
+    }
+
+    public static String format(double millis) {
+        return String.format(Locale.ROOT, "%.1f", millis);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
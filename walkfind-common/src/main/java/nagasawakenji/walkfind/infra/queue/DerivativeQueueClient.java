@@ -0,0 +1,54 @@
+package nagasawakenji.walkfind.infra.queue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.DerivativeJobMessage;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DerivativeQueueClient {
+
+    private final SqsClient sqsClient;
+    private final SqsProperties props;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * ベストエフォート（失敗しても投稿は成功のまま。一覧には原寸が表示される）
+     *
+     * @return 積めなかった場合は false（呼び出し元は埋め込みジョブを直接積む）
+     */
+    public boolean enqueue(DerivativeJobMessage msg) {
+        String queueUrl = props.getDerivativeQueueUrl();
+        if (queueUrl == null || queueUrl.isBlank()) {
+            log.warn("Derivative queueUrl is empty. derivatives are not generated. photoId={}", msg.getPhotoId());
+            return false;
+        }
+
+        try {
+            String body = objectMapper.writeValueAsString(msg);
+
+            long start = System.nanoTime();
+            try {
+                sqsClient.sendMessage(SendMessageRequest.builder()
+                        .queueUrl(queueUrl)
+                        .messageBody(body)
+                        .build());
+            } finally {
+                RequestProfile.record(RequestProfile.Segment.SQS, System.nanoTime() - start);
+            }
+
+            log.info("Enqueued derivative job. queueUrl={}, photoId={}, key={}", queueUrl, msg.getPhotoId(), msg.getKey());
+            return true;
+
+        } catch (Exception e) {
+            log.error("Failed to enqueue derivative job. queueUrl={}, photoId={}", queueUrl, msg.getPhotoId(), e);
+            return false;
+        }
+    }
+}
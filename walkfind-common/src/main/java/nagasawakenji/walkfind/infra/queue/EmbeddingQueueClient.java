@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.config.SqsConfig;
 import nagasawakenji.walkfind.domain.dto.EmbeddingJobMessage;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.sqs.SqsClient;
@@ -32,10 +33,15 @@ public class EmbeddingQueueClient {
 
             String body = objectMapper.writeValueAsString(msg);
 
-            sqsClient.sendMessage(SendMessageRequest.builder()
-                    .queueUrl(queueUrl)
-                    .messageBody(body)
-                    .build());
+            long start = System.nanoTime();
+            try {
+                sqsClient.sendMessage(SendMessageRequest.builder()
+                        .queueUrl(queueUrl)
+                        .messageBody(body)
+                        .build());
+            } finally {
+                RequestProfile.record(RequestProfile.Segment.SQS, System.nanoTime() - start);
+            }
 
             log.info("Enqueued embedding job. queueUrl={}, contestId={}, photoType={}, photoId={}",
                     queueUrl, msg.getContestId(), msg.getPhotoType(), msg.getPhotoId());
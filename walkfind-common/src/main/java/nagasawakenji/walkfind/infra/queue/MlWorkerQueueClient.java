@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.domain.dto.EnqueueResult;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.sqs.SqsClient;
@@ -32,12 +33,18 @@ public class MlWorkerQueueClient {
         try {
             String body = objectMapper.writeValueAsString(msg);
 
-            SendMessageResponse resp = sqsClient.sendMessage(
-                    SendMessageRequest.builder()
-                            .queueUrl(queueUrl)
-                            .messageBody(body)
-                            .build()
-            );
+            SendMessageResponse resp;
+            long start = System.nanoTime();
+            try {
+                resp = sqsClient.sendMessage(
+                        SendMessageRequest.builder()
+                                .queueUrl(queueUrl)
+                                .messageBody(body)
+                                .build()
+                );
+            } finally {
+                RequestProfile.record(RequestProfile.Segment.SQS, System.nanoTime() - start);
+            }
 
             String messageId = resp.messageId();
             // AWS SDK v2: requestId は responseMetadata に入ることが多い
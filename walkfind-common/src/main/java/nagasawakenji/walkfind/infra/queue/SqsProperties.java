@@ -13,5 +13,7 @@ public class SqsProperties {
 
     private String endpointUrl;
     private String queueUrl;
+    // 縮小版作成ジョブのキュー（Lambda のみ。walkfind-web はプロセス内で作る）
+    private String derivativeQueueUrl;
     private String region = "ap-northeast-1";
 }
@@ -0,0 +1,98 @@
+package nagasawakenji.walkfind.infra.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * プロセス内のスライディングウィンドウ方式のレート制限（ロックなし）。
+ *
+ * キーごとに「ウィンドウ番号(32bit) | 前ウィンドウの件数(16bit) | 今ウィンドウの件数(16bit)」を
+ * 1つの long に詰めて CAS で更新する。直近1ウィンドウの件数は
+ *   前ウィンドウの件数 × (今ウィンドウの残り割合) + 今ウィンドウの件数
+ * で近似する（固定ウィンドウの境界で2倍通ってしまう問題を避ける）。
+ */
+public final class InMemoryRateLimiter implements RateLimiter {
+
+    private static final long INDEX_MASK = 0xFFFF_FFFFL;
+    private static final int COUNT_MASK = 0xFFFF;
+
+    private final long windowMillis;
+    private final int maxKeys;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, AtomicLong> windows = new ConcurrentHashMap<>();
+    // 古いキーの掃除は1ウィンドウに1回まで
+    private final AtomicLong lastPurgedIndex = new AtomicLong(-1);
+
+    public InMemoryRateLimiter(long windowMillis, int maxKeys) {
+        this(windowMillis, maxKeys, System::currentTimeMillis);
+    }
+
+    public InMemoryRateLimiter(long windowMillis, int maxKeys, LongSupplier clock) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive.");
+        }
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int limit) {
+        long now = clock.getAsLong();
+        long index = now / windowMillis;
+        double remaining = 1.0 - (double) (now % windowMillis) / windowMillis;
+        int cap = Math.min(limit, COUNT_MASK);
+
+        AtomicLong state = windows.get(key);
+        if (state == null) {
+            purgeIfFull(index);
+            state = windows.computeIfAbsent(key, k -> new AtomicLong());
+        }
+
+        while (true) {
+            long current = state.get();
+            long storedIndex = current >>> 32;
+            int previous = (int) (current >>> 16) & COUNT_MASK;
+            int count = (int) current & COUNT_MASK;
+
+            if (storedIndex != (index & INDEX_MASK)) {
+                // ウィンドウが進んだ。直前のウィンドウなら今の件数を「前」に回し、それより古ければ捨てる
+                previous = storedIndex == ((index - 1) & INDEX_MASK) ? count : 0;
+                count = 0;
+            }
+
+            if (previous * remaining + count >= cap) {
+                return false;
+            }
+
+            long next = ((index & INDEX_MASK) << 32) | ((long) previous << 16) | (count + 1);
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    int size() {
+        return windows.size();
+    }
+
+    // キー数が上限を超えたら、前のウィンドウより古いキーを捨てる（判定に使われないため）
+    private void purgeIfFull(long index) {
+        if (windows.size() < maxKeys) {
+            return;
+        }
+        long last = lastPurgedIndex.get();
+        if (last >= index || !lastPurgedIndex.compareAndSet(last, index)) {
+            return;
+        }
+        long expired = (index - 1) & INDEX_MASK;
+        windows.values().removeIf(state -> (state.get() >>> 32) < expired);
+    }
+}
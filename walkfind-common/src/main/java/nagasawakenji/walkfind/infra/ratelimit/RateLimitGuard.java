@@ -0,0 +1,77 @@
+package nagasawakenji.walkfind.infra.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 投票（POST /api/v1/votes）と写真投稿（POST /api/v1/photos）のレート制限の判定。
+ * IP 単位 → ユーザー単位の順に見て、どちらかが上限なら拒否する。
+ * それ以外のリクエストは常に許可する。
+ * 検索語の埋め込み作成の依頼（ml-worker のジョブ）は、検索のサービスが依頼する直前に IP 単位で判定する。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitGuard {
+
+    private static final String VOTES_PATH = "/api/v1/votes";
+    private static final String PHOTOS_PATH = "/api/v1/photos";
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties props;
+
+    /**
+     * @param userId   認証済みユーザーID（未認証なら null）
+     * @param clientIp 接続元 IP
+     */
+    public boolean allow(String method, String path, String userId, String clientIp) {
+        if (!props.isEnabled() || !"POST".equals(method)) {
+            return true;
+        }
+
+        boolean allowed;
+        if (VOTES_PATH.equals(path)) {
+            allowed = check("vote", userId, clientIp, props.getVotesPerUser(), props.getVotesPerIp());
+        } else if (PHOTOS_PATH.equals(path)) {
+            allowed = check("submit", userId, clientIp, props.getSubmissionsPerUser(), props.getSubmissionsPerIp());
+        } else {
+            return true;
+        }
+
+        if (!allowed) {
+            log.warn("Rate limited. path={}, userId={}, ip={}", path, userId, clientIp);
+        }
+        return allowed;
+    }
+
+    /**
+     * 未作成の検索語の埋め込みを ml-worker に依頼してよいか
+     *
+     * @param clientIp 接続元 IP（不明なら制限しない）
+     */
+    public boolean allowEmbeddingRequest(String clientIp) {
+        if (!props.isEnabled() || clientIp == null) {
+            return true;
+        }
+        boolean allowed = rateLimiter.tryAcquire("embed:ip:" + clientIp, props.getEmbeddingRequestsPerIp());
+        if (!allowed) {
+            log.warn("Rate limited. action=embed, ip={}", clientIp);
+        }
+        return allowed;
+    }
+
+    /**
+     * 429 の Retry-After（秒）
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1, rateLimiter.getWindowMillis() / 1000);
+    }
+
+    private boolean check(String action, String userId, String clientIp, int perUser, int perIp) {
+        if (clientIp != null && !rateLimiter.tryAcquire(action + ":ip:" + clientIp, perIp)) {
+            return false;
+        }
+        return userId == null || rateLimiter.tryAcquire(action + ":user:" + userId, perUser);
+    }
+}
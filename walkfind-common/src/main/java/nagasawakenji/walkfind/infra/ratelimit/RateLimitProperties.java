@@ -0,0 +1,32 @@
+package nagasawakenji.walkfind.infra.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "walkfind.rate-limit")
+public class RateLimitProperties {
+    /**
+     * 投票・投稿の連打を DB に届く前に弾く設定
+     * enabled=false の場合は制限しない（従来通り）
+     */
+
+    private boolean enabled = true;
+
+    // スライディングウィンドウの長さ
+    private long windowSeconds = 60;
+
+    // 1ウィンドウあたりの投票数の上限（ユーザー単位 / IP 単位）
+    private int votesPerUser = 30;
+    private int votesPerIp = 120;
+
+    // 1ウィンドウあたりの写真投稿数の上限（ユーザー単位 / IP 単位）
+    private int submissionsPerUser = 5;
+    private int submissionsPerIp = 20;
+
+    // 1ウィンドウあたりの検索語の埋め込み作成の依頼数の上限（IP 単位。作成済みの検索語の検索は数えない）
+    private int embeddingRequestsPerIp = 10;
+
+    // プロセス内に保持するキー数の目安。超えたら古いキーを捨てる
+    private int maxKeys = 100_000;
+}
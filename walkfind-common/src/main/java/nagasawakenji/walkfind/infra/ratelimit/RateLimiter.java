@@ -0,0 +1,17 @@
+package nagasawakenji.walkfind.infra.ratelimit;
+
+/**
+ * キー（ユーザーID・IP など）単位のスライディングウィンドウ方式のレート制限
+ */
+public interface RateLimiter {
+
+    /**
+     * 直近1ウィンドウのリクエスト数が limit 未満なら1回分を消費して true を返す
+     */
+    boolean tryAcquire(String key, int limit);
+
+    /**
+     * ウィンドウの長さ（429 の Retry-After に使う）
+     */
+    long getWindowMillis();
+}
@@ -0,0 +1,13 @@
+package nagasawakenji.walkfind.infra.scheduler;
+
+/**
+ * コンテストの開始・終了日時にステータスを切り替えるための予約。
+ * Web はプロセス内のタイマーホイール、Lambda は EventBridge Scheduler の1回限りのスケジュールで実装する。
+ */
+public interface ContestDeadlineScheduler {
+
+    /**
+     * コンテストが作成された・日時が変わった。予約を入れ直す
+     */
+    void onScheduleChanged(Long contestId);
+}
@@ -0,0 +1,119 @@
+package nagasawakenji.walkfind.infra.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 階層型タイマーホイール（1段 64 スロット）。
+ *
+ * 期限を tick（tickMillis 単位の通し番号）に直し、現在の tick と上位ビットが一致する最も下の段に置く。
+ * 上の段のスロットは、その段の区切りを跨いだ時に1つ下の段へ振り直す。
+ * 登録・取り出しとも O(1)（振り直しは1件あたり段数回まで）で、期限の来ていない間は何もしない。
+ * levels 段で表せない遠い期限は overflow に置き、最上段が一周するたびに振り直す。
+ *
+ * スレッドセーフではない。1つのスレッドから操作すること。
+ */
+public final class HierarchicalTimerWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final List<List<ArrayDeque<Entry<T>>>> wheels;
+    private final List<Entry<T>> overflow = new ArrayList<>();
+
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimerWheel(long tickMillis, int levels, long nowMillis) {
+        if (tickMillis <= 0 || levels <= 0 || BITS * levels >= 62) {
+            throw new IllegalArgumentException("Invalid timer wheel shape.");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.currentTick = nowMillis / tickMillis;
+        this.wheels = new ArrayList<>(levels);
+        for (int level = 0; level < levels; level++) {
+            List<ArrayDeque<Entry<T>>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new ArrayDeque<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    /**
+     * deadlineMillis に task を登録する。過ぎた期限は次の tick で取り出される
+     */
+    public void schedule(long deadlineMillis, T task) {
+        long deadlineTick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+        place(new Entry<>(deadlineTick, task));
+        size++;
+    }
+
+    /**
+     * nowMillis までの tick を進め、期限の来た task を onExpired に渡す
+     */
+    public void advanceTo(long nowMillis, Consumer<T> onExpired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+
+            ArrayDeque<Entry<T>> due = wheels.get(0).get((int) (currentTick & MASK));
+            Entry<T> entry;
+            while ((entry = due.poll()) != null) {
+                size--;
+                onExpired.accept(entry.task());
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    // 区切りを跨いだ段のスロットを、上の段から順に下の段へ振り直す
+    private void cascade() {
+        // 下位 6*(n) ビットが 0 なら n 段目の区切りを跨いだ
+        int crossed = 0;
+        while (crossed < levels && (currentTick & ((1L << (BITS * (crossed + 1))) - 1)) == 0) {
+            crossed++;
+        }
+        if (crossed == levels) {
+            // 最上段が一周した。遠い期限を振り直す
+            List<Entry<T>> far = new ArrayList<>(overflow);
+            overflow.clear();
+            far.forEach(this::place);
+        }
+        for (int level = Math.min(crossed, levels - 1); level >= 1; level--) {
+            ArrayDeque<Entry<T>> slot = wheels.get(level).get((int) ((currentTick >>> (BITS * level)) & MASK));
+            Entry<T> entry;
+            while ((entry = slot.poll()) != null) {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        for (int level = 0; level < levels; level++) {
+            int shift = BITS * (level + 1);
+            if ((entry.deadlineTick() >>> shift) == (currentTick >>> shift)) {
+                wheels.get(level).get((int) ((entry.deadlineTick() >>> (BITS * level)) & MASK)).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private record Entry<T>(long deadlineTick, T task) {
+    }
+}
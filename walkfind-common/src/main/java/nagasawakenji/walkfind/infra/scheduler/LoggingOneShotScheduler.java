@@ -0,0 +1,27 @@
+package nagasawakenji.walkfind.infra.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ローカル・テスト用: 予約をメモリに記録してログに出すだけ（実際には起動しない）
+ */
+@Slf4j
+public class LoggingOneShotScheduler implements OneShotScheduler {
+
+    private final Map<String, OffsetDateTime> scheduled = new ConcurrentHashMap<>();
+
+    @Override
+    public void scheduleAt(String name, OffsetDateTime at) {
+        scheduled.put(name, at);
+        log.info("[STUB] One-shot schedule registered. name={}, at={}", name, at);
+    }
+
+    public Optional<OffsetDateTime> find(String name) {
+        return Optional.ofNullable(scheduled.get(name));
+    }
+}
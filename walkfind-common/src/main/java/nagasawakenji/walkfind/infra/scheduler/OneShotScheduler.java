@@ -0,0 +1,12 @@
+package nagasawakenji.walkfind.infra.scheduler;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 指定日時に1回だけバッチを起動する予約（同じ name なら上書き）。
+ * 本番は EventBridge Scheduler、ローカルはログ出力のみの実装に差し替える。
+ */
+public interface OneShotScheduler {
+
+    void scheduleAt(String name, OffsetDateTime at);
+}
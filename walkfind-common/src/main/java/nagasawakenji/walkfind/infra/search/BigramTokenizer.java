@@ -0,0 +1,90 @@
+package nagasawakenji.walkfind.infra.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 日本語を含む文字列を n-gram（1文字 + 2文字）に分ける。形態素解析の辞書を持たずに部分一致で引くため。
+ *
+ * - NFKC で全角英数・半角カナを揃え、小文字にし、ひらがなをカタカナに寄せる（「さくら」で「サクラ」も引ける）
+ * - 文字・数字の連続（ラン）ごとに分け、記号や空白をまたぐ n-gram は作らない
+ * - 索引には 1文字と 2文字の両方を入れる。検索語は2文字以上のランなら 2文字、1文字のランならその1文字で引く
+ */
+public final class BigramTokenizer {
+
+    private BigramTokenizer() {
+    }
+
+    public static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            // ぁ(U+3041)〜ゖ(U+3096) → ァ〜ヶ
+            sb.append(c >= 'ぁ' && c <= 'ゖ' ? (char) (c + 0x60) : c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 索引に入れる語（重複あり。出現回数を tf に使う）
+     */
+    public static List<String> indexTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        for (int[] run : runs(normalize(text))) {
+            for (int i = 0; i < run.length; i++) {
+                terms.add(new String(run, i, 1));
+                if (i + 1 < run.length) {
+                    terms.add(new String(run, i, 2));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 検索語（重複なし）。すべてを含む文書が一致する
+     */
+    public static Set<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query == null || query.isEmpty()) {
+            return terms;
+        }
+        for (int[] run : runs(normalize(query))) {
+            if (run.length == 1) {
+                terms.add(new String(run, 0, 1));
+                continue;
+            }
+            for (int i = 0; i + 1 < run.length; i++) {
+                terms.add(new String(run, i, 2));
+            }
+        }
+        return terms;
+    }
+
+    // 文字・数字の連続をコードポイント配列で返す（サロゲートペアの漢字も1文字として扱う）
+    private static List<int[]> runs(String text) {
+        List<int[]> runs = new ArrayList<>();
+        int[] codePoints = text.codePoints().toArray();
+        int start = -1;
+        for (int i = 0; i <= codePoints.length; i++) {
+            boolean word = i < codePoints.length && Character.isLetterOrDigit(codePoints[i]);
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                int[] run = new int[i - start];
+                System.arraycopy(codePoints, start, run, 0, run.length);
+                runs.add(run);
+                start = -1;
+            }
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,221 @@
+package nagasawakenji.walkfind.infra.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * BigramTokenizer の語による転置インデックス（プロセス内）。
+ *
+ * 語 → (文書番号 → 重み付き tf) を持ち、検索語をすべて含む文書を BM25 で順位付けする。
+ * 絞り込みは文書数の少ない語から始め、以降の語はその候補に含まれるかだけを見る。
+ * タイトルの語は本文より重く数える（TITLE_WEIGHT）。
+ *
+ * 更新は1件ずつ（put / remove）行い、検索と並行してよい（読み書きロック）。
+ */
+public class InvertedIndex {
+
+    static final float TITLE_WEIGHT = 3f;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    public record Hit(SearchDocument document, double score) {}
+
+    private record Entry(SearchDocument document, Map<String, Float> termWeights, float length) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> docIdsByKey = new HashMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<String, Map<Integer, Float>> postings = new HashMap<>();
+    private int nextDocId;
+    private double totalLength;
+
+    /**
+     * 追加または置き換え
+     */
+    public void put(SearchDocument document) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String term : BigramTokenizer.indexTerms(document.title())) {
+            weights.merge(term, TITLE_WEIGHT, Float::sum);
+        }
+        for (String term : BigramTokenizer.indexTerms(document.body())) {
+            weights.merge(term, 1f, Float::sum);
+        }
+        float length = 0;
+        for (float w : weights.values()) {
+            length += w;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.key());
+            int docId = nextDocId++;
+            docIdsByKey.put(document.key(), docId);
+            entries.put(docId, new Entry(document, weights, length));
+            for (Map.Entry<String, Float> e : weights.entrySet()) {
+                postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(docId, e.getValue());
+            }
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(SearchDocument.Type type, long id) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(type.name() + ":" + id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 条件に合う文書をまとめて消す（コンテスト削除時にその写真も消すなど）
+     *
+     * @return 消した件数
+     */
+    public int removeIf(Predicate<SearchDocument> condition) {
+        lock.writeLock().lock();
+        try {
+            List<String> keys = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (condition.test(entry.document())) {
+                    keys.add(entry.document().key());
+                }
+            }
+            keys.forEach(this::removeLocked);
+            return keys.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param type  null なら種類を問わない
+     * @param limit 返す件数の上限
+     */
+    public List<Hit> search(String query, SearchDocument.Type type, int limit) {
+        Set<String> terms = BigramTokenizer.queryTerms(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<Integer, Float>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Integer, Float> p = postings.get(term);
+                if (p == null) {
+                    // すべての語を含む文書だけが一致する
+                    return List.of();
+                }
+                termPostings.add(p);
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));
+
+            int n = entries.size();
+            double avgLength = n == 0 ? 1 : Math.max(totalLength / n, 1);
+            double[] idf = new double[termPostings.size()];
+            for (int i = 0; i < idf.length; i++) {
+                int df = termPostings.get(i).size();
+                idf[i] = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+            candidates:
+            for (Map.Entry<Integer, Float> candidate : termPostings.get(0).entrySet()) {
+                Entry entry = entries.get(candidate.getKey());
+                if (type != null && entry.document().type() != type) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * entry.length() / avgLength);
+                double score = 0;
+                for (int i = 0; i < termPostings.size(); i++) {
+                    Float tf = i == 0 ? candidate.getValue() : termPostings.get(i).get(candidate.getKey());
+                    if (tf == null) {
+                        continue candidates;
+                    }
+                    score += idf[i] * tf * (K1 + 1) / (tf + norm);
+                }
+                if (top.size() < limit) {
+                    top.add(new Hit(entry.document(), score));
+                } else if (score > top.peek().score()) {
+                    top.poll();
+                    top.add(new Hit(entry.document(), score));
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparing(h -> h.document().type())
+                    .thenComparing(h -> -h.document().id()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * スナップショット用に全文書を返す
+     */
+    public List<SearchDocument> documents() {
+        lock.readLock().lock();
+        try {
+            List<SearchDocument> documents = new ArrayList<>(entries.size());
+            for (Entry entry : entries.values()) {
+                documents.add(entry.document());
+            }
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void putAll(Collection<SearchDocument> documents) {
+        documents.forEach(this::put);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeLocked(String key) {
+        Integer docId = docIdsByKey.remove(key);
+        if (docId == null) {
+            return false;
+        }
+        Entry entry = entries.remove(docId);
+        for (String term : entry.termWeights().keySet()) {
+            Map<Integer, Float> p = postings.get(term);
+            p.remove(docId);
+            if (p.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= entry.length();
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package nagasawakenji.walkfind.infra.search;
+
+/**
+ * 検索対象の1件（コンテスト: title=name・body=theme、投稿写真: title=title・body=description）。
+ * スナップショットにはこの形のまま保存する。
+ *
+ * @param contestId コンテストなら自身の id、写真なら投稿先のコンテスト
+ * @param photoUrl  写真の保存キー（コンテストは null）
+ */
+public record SearchDocument(
+        Type type,
+        long id,
+        long contestId,
+        String title,
+        String body,
+        String photoUrl
+) {
+
+    public enum Type {
+        CONTEST,
+        PHOTO
+    }
+
+    String key() {
+        return type.name() + ":" + id;
+    }
+}
@@ -0,0 +1,23 @@
+package nagasawakenji.walkfind.infra.snapshot;
+
+import java.util.Optional;
+
+/**
+ * 結果スナップショット（gzip 済み JSON）の保存先。
+ * Lambda では S3、walkfind-web ではローカルストレージに保存する。
+ */
+public interface ResultSnapshotStorage {
+
+    /**
+     * @param key  保存キー（例: "results-snapshots/1/page-0.json.gz"）
+     * @param gzippedJson gzip 圧縮済みの JSON
+     */
+    void put(String key, byte[] gzippedJson);
+
+    /**
+     * @return gzip 圧縮済みの JSON。存在しなければ Optional.empty()
+     */
+    Optional<byte[]> get(String key);
+
+    void delete(String key);
+}
@@ -3,6 +3,7 @@ package nagasawakenji.walkfind.service;
 import lombok.RequiredArgsConstructor;
 import nagasawakenji.walkfind.domain.dto.AdminContestsPageResponse;
 import nagasawakenji.walkfind.domain.dto.AdminContestResponse;
+import nagasawakenji.walkfind.domain.dto.AdminContestSearchRow;
 import nagasawakenji.walkfind.domain.model.User;
 import nagasawakenji.walkfind.domain.statusenum.UserRole;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
@@ -10,6 +11,10 @@ import nagasawakenji.walkfind.infra.mybatis.mapper.UserMapper;
 import org.springframework.stereotype.Service;
 
 import org.springframework.security.access.AccessDeniedException;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Optional;
 import java.util.List;
 
@@ -23,13 +28,20 @@ public class AdminContestsService {
     private final ContestMapper contestMapper;
     private final UserMapper userMapper;
 
+    /**
+     * 件数（totalCount）はカーソル無しの検索でだけ数え、nextCursor に含めて以降のページへ引き継ぐ。
+     *
+     * @param cursor 前のページの nextCursor。指定時は page を使わず、(created_at, id) のキーセットで次のページを取る
+     * @throws IllegalArgumentException cursor の形式が不正な場合
+     */
     public AdminContestsPageResponse listContests(
             String requesterUserId,
             int page,
             int size,
             String status,
             boolean includeRemoved,
-            String keyword
+            String keyword,
+            String cursor
     ) {
         Optional<User> requiredUserOpt = userMapper.findById(requesterUserId);
         if (requiredUserOpt == null || requiredUserOpt.isEmpty()) {
@@ -47,14 +59,83 @@ public class AdminContestsService {
 
         String kw = (keyword == null) ? null : keyword.trim();
         if (kw != null && kw.isBlank()) kw = null;
+        String keywordPattern = kw == null ? null : "%" + escapeLike(kw) + "%";
+
+        OffsetDateTime cursorCreatedAt = null;
+        Long cursorId = null;
+        long totalCount;
+        if (cursor != null && !cursor.isBlank()) {
+            long[] decoded = decodeCursor(cursor);
+            cursorCreatedAt = fromEpochMicros(decoded[0]);
+            cursorId = decoded[1];
+            // 件数は最初のページで数えたものをカーソルで引き継ぐ（ページごとに数え直さない）
+            totalCount = decoded[2];
+        } else {
+            totalCount = contestMapper.countAdminContests(status, includeRemoved, keywordPattern);
+        }
+
+        List<AdminContestSearchRow> rows = totalCount == 0
+                ? List.of()
+                : contestMapper.searchAdminContests(
+                        safeSize, offset, cursorCreatedAt, cursorId, status, includeRemoved, keywordPattern);
+
+        List<AdminContestResponse> contests = rows.stream()
+                .map(r -> new AdminContestResponse(
+                        r.getContestId(),
+                        r.getName(),
+                        r.getTheme(),
+                        r.getStartDate(),
+                        r.getEndDate(),
+                        r.getStatus(),
+                        r.getCreatedByUserId(),
+                        r.getRemovedAt()))
+                .toList();
+
+        String nextCursor = null;
+        if (rows.size() == safeSize) {
+            AdminContestSearchRow last = rows.get(rows.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getContestId(), totalCount);
+        }
 
-        List<AdminContestResponse> contests =
-                contestMapper.findAdminContests(safeSize, offset, status, includeRemoved, kw);
+        return new AdminContestsPageResponse(contests, totalCount, safePage, safeSize, nextCursor);
+    }
+
+    // カーソルは「created_at のエポックマイクロ秒-id-件数」（timestamptz はマイクロ秒精度。マイクロ秒は負になりうる）
+    private static String encodeCursor(OffsetDateTime createdAt, long contestId, long totalCount) {
+        Instant instant = createdAt.toInstant();
+        long micros = Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+        return micros + "-" + contestId + "-" + totalCount;
+    }
 
-        long totalCount =
-                contestMapper.countAdminContests(status, includeRemoved, kw);
+    private static long[] decodeCursor(String cursor) {
+        int totalSeparator = cursor.lastIndexOf('-');
+        int idSeparator = totalSeparator > 0 ? cursor.lastIndexOf('-', totalSeparator - 1) : -1;
+        try {
+            if (idSeparator <= 0) {
+                throw new NumberFormatException(cursor);
+            }
+            long totalCount = Long.parseLong(cursor.substring(totalSeparator + 1));
+            if (totalCount < 0) {
+                throw new NumberFormatException(cursor);
+            }
+            return new long[]{
+                    Long.parseLong(cursor.substring(0, idSeparator)),
+                    Long.parseLong(cursor.substring(idSeparator + 1, totalSeparator)),
+                    totalCount
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static OffsetDateTime fromEpochMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L)
+                .atOffset(ZoneOffset.UTC);
+    }
 
-        return new AdminContestsPageResponse(contests, totalCount, safePage, safeSize);
+    // ILIKE の % _ \ を文字として扱う（PostgreSQL の既定のエスケープ文字は \）
+    private static String escapeLike(String keyword) {
+        return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     private void requireAdmin(User user) {
@@ -3,12 +3,15 @@ package nagasawakenji.walkfind.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.domain.dto.AdminDeletingPhotoResponse;
+import nagasawakenji.walkfind.domain.event.PhotoRemovedEvent;
 import nagasawakenji.walkfind.domain.model.User;
 import nagasawakenji.walkfind.domain.model.UserPhoto;
 import nagasawakenji.walkfind.domain.statusenum.AdminDeletePhotoStatus;
 import nagasawakenji.walkfind.domain.statusenum.UserRole;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,6 +25,8 @@ public class AdminDeletingPhotoService {
 
     private final PhotoMapper photoMapper;
     private final UserMapper userMapper;
+    private final ContestMapper contestMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public AdminDeletingPhotoResponse deletePhoto(Long contestId, Long photoId, String requesterUserId) {
@@ -63,6 +68,13 @@ public class AdminDeletingPhotoService {
                     .build();
         }
 
+        // 論理削除した写真はギャラリーの総件数 (contests.photo_count) から外す
+        if (contestMapper.decrementPhotoCount(contestId) == 0) {
+            log.warn("Failed to decrement photo_count. contestId={}", contestId);
+        }
+        // コミット後にリーダーボードから外す
+        eventPublisher.publishEvent(new PhotoRemovedEvent(contestId, photoId));
+
         return AdminDeletingPhotoResponse.builder()
                 .contestId(contestId)
                 .photoId(photoId)
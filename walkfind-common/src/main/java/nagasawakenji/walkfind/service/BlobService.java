@@ -0,0 +1,261 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.exception.InvalidUploadException;
+import nagasawakenji.walkfind.infra.blob.BlobKeys;
+import nagasawakenji.walkfind.infra.blob.BlobStorage;
+import nagasawakenji.walkfind.infra.mybatis.mapper.BlobMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 内容アドレス（SHA-256）で保存した画像の参照数を管理する。
+ *
+ * 写真・見本写真・プロフィール画像の行を作るときに acquire、消すときに release を
+ * 同じトランザクションで呼ぶ。ロールバックすれば参照数も元に戻る。
+ * 従来のランダムなキー（blobs/ 以外）は1つの行だけが参照しているものとして扱う。
+ * blobs の行は sha256 で引く。キーの拡張子はサーバーが判定した画像形式のもので、sha256 から1つに決まる。
+ *
+ * 参照が無くなった実体は release では消さず、sweep-grace-minutes 経ってから sweepUnreferenced が消す。
+ * 保存したが登録しなかった実体も、呼び出し元は消さずに abandon で参照 0 の行として残す。
+ * sweepUnreferenced は削除する行に印を付けてコミットしてから実体を消し、acquire は印の付いた行の参照を増やさない。
+ * acquire は行をロックしてから実体を確かめるので、同時に走っても「登録できたのに実体が無い」状態にはならない。
+ */
+@Service
+@Slf4j
+public class BlobService {
+
+    private final BlobMapper blobMapper;
+    private final BlobStorage blobStorage;
+    private final ImageDerivativeService imageDerivativeService;
+    private final long maxBytes;
+    private final long sweepGraceMinutes;
+    private final int sweepBatchSize;
+
+    public BlobService(BlobMapper blobMapper,
+                       BlobStorage blobStorage,
+                       ImageDerivativeService imageDerivativeService,
+                       @Value("${walkfind.upload.max-bytes:20971520}") long maxBytes,
+                       @Value("${walkfind.blob.sweep-grace-minutes:1440}") long sweepGraceMinutes,
+                       @Value("${walkfind.blob.sweep-batch-size:100}") int sweepBatchSize) {
+        this.blobMapper = blobMapper;
+        this.blobStorage = blobStorage;
+        this.imageDerivativeService = imageDerivativeService;
+        this.maxBytes = maxBytes;
+        this.sweepGraceMinutes = sweepGraceMinutes;
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    /**
+     * 参照を1つ増やし、実体が保存先にあることを確かめる。
+     *
+     * @param storageKey  保存したキー
+     * @param contentType 画像の MIME タイプ
+     * @param sizeBytes   バイト数（不明なら null）
+     * @return この参照が最初の参照なら true（呼び出し元の失敗時にオブジェクトを消してよい）
+     * @throws InvalidUploadException 同じ内容が別のキー（拡張子）で登録済み・削除中の場合、
+     *                                実体が無い・上限を超える・中身がキーの SHA-256 と一致しない場合
+     *                                （呼び出し元はロールバックさせる）
+     */
+    @Transactional
+    public boolean acquire(String storageKey, String contentType, Long sizeBytes) {
+        String sha256 = BlobKeys.sha256Of(storageKey);
+        if (sha256 == null) {
+            return true;
+        }
+        Integer refCount = blobMapper.acquire(sha256, storageKey, contentType, sizeBytes);
+        if (refCount == null && blobMapper.isDeleting(sha256)) {
+            log.warn("Blob is being swept. key={}", storageKey);
+            throw new InvalidUploadException(
+                    "同じ内容の画像を削除しています。時間をおいて再度お試しください。", InvalidUploadException.Reason.EMPTY);
+        }
+        if (refCount == null) {
+            log.warn("Blob is stored under another key. key={}, storedKey={}",
+                    storageKey, blobMapper.findStorageKey(sha256));
+            throw new InvalidUploadException(
+                    "同じ内容の画像が別の形式で登録されています。", InvalidUploadException.Reason.UNSUPPORTED_TYPE);
+        }
+
+        // 行をロックした後に確かめる（ここから先は sweepUnreferenced がこの実体を消さない）
+        verifyStored(storageKey, sha256);
+
+        if (refCount > 1) {
+            log.info("Reusing stored blob. key={}, refCount={}", storageKey, refCount);
+        }
+        return refCount == 1;
+    }
+
+    /**
+     * S3 へ直接アップロードされたキーの参照を1つ増やす（内容は S3 が記録した SHA-256 で確かめる）
+     */
+    @Transactional
+    public boolean acquire(String storageKey) {
+        return acquire(storageKey, BlobKeys.contentTypeOf(storageKey), null);
+    }
+
+    /**
+     * 参照を1つ減らす。
+     *
+     * @return オブジェクトをすぐに削除してよいなら true（従来のランダムなキーのみ。
+     *         内容アドレスの実体は参照が無くなっても sweepUnreferenced が消す）
+     */
+    @Transactional
+    public boolean release(String storageKey) {
+        if (storageKey == null || storageKey.isBlank()) {
+            return false;
+        }
+        String sha256 = BlobKeys.sha256Of(storageKey);
+        if (sha256 == null) {
+            return true;
+        }
+        Integer refCount = blobMapper.release(sha256);
+        if (refCount == null) {
+            // 参照数の管理より前に作られた行など。他から参照されている可能性があるので消さない
+            log.warn("Released blob is not tracked. key={}", storageKey);
+        } else if (refCount == 0) {
+            log.info("Blob is no longer referenced. key={}", storageKey);
+        }
+        return false;
+    }
+
+    /**
+     * 保存したが登録しなかった実体を、参照 0 の行として sweepUnreferenced に任せる。
+     *
+     * 同じ内容を同時に登録しているリクエストが実体を確かめた後かもしれないので、内容アドレスの実体はその場で消さない。
+     * 行が既にあれば参照数は変えず、参照 0 なら猶予を数え直す。
+     *
+     * @return オブジェクトをすぐに削除してよいなら true（従来のランダムなキーと、
+     *         同じ内容が別のキー（拡張子）で登録済みで、このキーを参照する行が作られない場合）
+     */
+    @Transactional
+    public boolean abandon(String storageKey) {
+        String sha256 = BlobKeys.sha256Of(storageKey);
+        if (sha256 == null) {
+            return true;
+        }
+        Integer refCount = blobMapper.abandon(sha256, storageKey, BlobKeys.contentTypeOf(storageKey));
+        if (refCount == null) {
+            log.info("Abandoned blob is stored under another key. key={}", storageKey);
+            return true;
+        }
+        log.info("Blob left for sweep. key={}, refCount={}", storageKey, refCount);
+        return false;
+    }
+
+    /**
+     * このキーで同じ内容が既に保存されていて、アップロード（と検証）を省略できるか
+     */
+    @Transactional(readOnly = true)
+    public boolean isStored(String storageKey) {
+        String sha256 = BlobKeys.sha256Of(storageKey);
+        return sha256 != null && storageKey.equals(blobMapper.findStorageKey(sha256));
+    }
+
+    /**
+     * 同じ内容が保存済みならそのキー。撮影情報を取り除いて保存し直した内容なら、取り除いた内容のキー。無ければ null
+     *
+     * @param sha256 内容の SHA-256（小文字の16進）
+     */
+    @Transactional(readOnly = true)
+    public String findStoredKey(String sha256) {
+        String storedKey = blobMapper.findStorageKey(sha256);
+        return storedKey != null ? storedKey : blobMapper.findStorageKeyBySource(sha256);
+    }
+
+    /**
+     * 撮影情報を取り除いて別のキーへ保存し直したことを記録し、取り除く前の内容からも findStoredKey で引けるようにする
+     *
+     * @param sourceKey 撮影情報を含む、アップロードされたキー
+     * @param storedKey 取り除いた内容のキー
+     */
+    @Transactional
+    public void recordSource(String sourceKey, String storedKey) {
+        String sourceSha256 = BlobKeys.sha256Of(sourceKey);
+        String sha256 = BlobKeys.sha256Of(storedKey);
+        if (sourceSha256 == null || sha256 == null || sourceSha256.equals(sha256)) {
+            return;
+        }
+        blobMapper.insertSource(sourceSha256, sha256);
+    }
+
+    /**
+     * 参照が 0 のまま sweep-grace-minutes 経った実体（と縮小版）を、1回に sweep-batch-size 件まで削除する。
+     *
+     * 先に1文で削除中の印を付けてコミットし、ストレージの I/O は行ロックを持たずに行う。
+     * 印の付いた行は他の実行が取らず、acquire も参照を増やさない。
+     * 猶予の間に同じ内容がアップロードし直されていれば（更新日時が新しければ）消さない。
+     * 消さなかった行・削除に失敗した行は印を外し、次回に削除し直す。
+     *
+     * @return 削除した件数
+     */
+    public int sweepUnreferenced() {
+        OffsetDateTime before = OffsetDateTime.now().minusMinutes(sweepGraceMinutes);
+        List<String> keys = blobMapper.claimUnreferenced(before, sweepBatchSize);
+
+        int deleted = 0;
+        for (String key : keys) {
+            String sha256 = BlobKeys.sha256Of(key);
+            try {
+                Optional<BlobStorage.StoredObject> stored = blobStorage.head(key);
+                if (stored.isPresent() && stored.get().lastModified().isAfter(before.toInstant())) {
+                    log.info("Unreferenced blob was uploaded again, kept. key={}", key);
+                    blobMapper.unclaim(sha256);
+                    continue;
+                }
+                imageDerivativeService.deleteFor(key);
+                if (stored.isPresent()) {
+                    blobStorage.delete(key);
+                }
+                blobMapper.deleteIfUnreferenced(sha256);
+                deleted++;
+            } catch (Exception e) {
+                log.warn("Failed to delete unreferenced blob, will retry. key={}", key, e);
+                unclaimQuietly(sha256);
+            }
+        }
+        if (!keys.isEmpty()) {
+            log.info("Unreferenced blobs swept. candidates={}, deleted={}", keys.size(), deleted);
+        }
+        return deleted;
+    }
+
+    private void unclaimQuietly(String sha256) {
+        try {
+            blobMapper.unclaim(sha256);
+        } catch (Exception e) {
+            // 印が残っても、猶予を過ぎれば改めて削除の対象になる
+            log.warn("Failed to unclaim blob. sha256={}", sha256, e);
+        }
+    }
+
+    private void verifyStored(String storageKey, String sha256) {
+        Optional<BlobStorage.StoredObject> stored;
+        try {
+            stored = blobStorage.head(storageKey);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to check stored blob: " + storageKey, e);
+        }
+        if (stored.isEmpty()) {
+            log.warn("Blob object not found. key={}", storageKey);
+            throw new InvalidUploadException("アップロードされた画像が見つかりません。", InvalidUploadException.Reason.EMPTY);
+        }
+        if (stored.get().size() > maxBytes) {
+            throw new InvalidUploadException(
+                    "ファイルサイズが上限(" + maxBytes + " bytes)を超えています。",
+                    InvalidUploadException.Reason.TOO_LARGE);
+        }
+        String recorded = stored.get().sha256();
+        if (recorded != null && !recorded.equals(sha256)) {
+            log.warn("Blob checksum mismatch. key={}, recorded={}", storageKey, recorded);
+            throw new InvalidUploadException(
+                    "アップロードされた画像の内容がキーと一致しません。", InvalidUploadException.Reason.INVALID_IMAGE);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * contests.photo_count（投稿・削除時に増減させている投稿数）と実数のずれを補正する。
+ * 増減は投稿・削除と同じトランザクションで行っているが、
+ * 手動でのデータ修正などで生じたずれをここで吸収する。
+ *
+ * 数え直しの間に投稿・削除がコミットされると、その増減を古い実数で上書きしてしまう。
+ * そのため、ずれているコンテストの行を先にロック（投稿・削除の増減と同じ行ロック）してから、
+ * 別の文で数え直す。ロック後に始まった投稿の増減は補正のコミットを待ってから差分として加わる。
+ * EventBridge（Lambda）から定期実行される。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContestCountConsistencyService {
+
+    private final ContestMapper contestMapper;
+
+    /**
+     * @return 補正したコンテストのid
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<Long> repairPhotoCounts() {
+        List<Long> drifted = contestMapper.findPhotoCountDriftIds();
+        if (drifted.isEmpty()) {
+            log.info("photo_count is consistent for all contests.");
+            return List.of();
+        }
+
+        contestMapper.lockContestsForUpdate(drifted);
+        // ロックを待つ間に補正が要らなくなったコンテストは返らない
+        List<Long> repaired = contestMapper.repairPhotoCountsReturningIds(drifted);
+
+        if (repaired.isEmpty()) {
+            log.info("photo_count is consistent for all contests.");
+        } else {
+            log.warn("photo_count drift repaired. contests={}", repaired);
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,156 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.CalculationResult;
+import nagasawakenji.walkfind.domain.dto.ResultStageProgress;
+import nagasawakenji.walkfind.domain.statusenum.CalculationStatus;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 締め切られたコンテストの結果発表までを、1コンテスト単位で順に実行する。
+ *
+ *   1. 結果集計（contest_results の書き込み・ANNOUNCED への更新）
+ *   2. best_rank の更新（完了したら contests.best_rank_done_at を記録）
+ *   3. 結果スナップショットの作成（完了したら contests.snapshot_published_at を記録）
+ *
+ * 各段は別々のトランザクションで実行する（締め切りのコミット後に呼ばれるため、元のトランザクションには参加しない）。
+ * 各段は何度実行しても同じ結果になるため、失敗した段だけを間隔を空けて再実行する。
+ * 再実行しても失敗した場合は後続の段を実行せず、FAILED_DATABASE_ERROR / FAILED_POST_CALCULATION を返す。
+ * 完了を記録していない段は、定期実行（runAllPending）が集計済みのコンテストについても実行し直す。
+ */
+@Service
+@Slf4j
+public class ContestResultPipelineService {
+
+    private final ContestMapper contestMapper;
+    private final ResultCalculationService resultCalculationService;
+    private final UserProfileRankUpdateService userProfileRankUpdateService;
+    private final ResultSnapshotService resultSnapshotService;
+    private final TransactionTemplate stageTx;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public ContestResultPipelineService(ContestMapper contestMapper,
+                                        ResultCalculationService resultCalculationService,
+                                        UserProfileRankUpdateService userProfileRankUpdateService,
+                                        ResultSnapshotService resultSnapshotService,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${walkfind.result-pipeline.max-attempts:3}") int maxAttempts,
+                                        @Value("${walkfind.result-pipeline.backoff-ms:500}") long backoffMillis) {
+        this.contestMapper = contestMapper;
+        this.resultCalculationService = resultCalculationService;
+        this.userProfileRankUpdateService = userProfileRankUpdateService;
+        this.resultSnapshotService = resultSnapshotService;
+        this.stageTx = new TransactionTemplate(transactionManager);
+        this.stageTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+    }
+
+    /**
+     * 集計待ち・後続の段が残っているコンテストを全て処理する（定期実行・取りこぼし対策）
+     */
+    public List<CalculationResult> runAllPending() {
+        List<Long> contestIds = contestMapper.findContestIdsWithPendingResultStages();
+        if (contestIds.isEmpty()) {
+            return List.of(CalculationResult.builder()
+                    .status(CalculationStatus.NO_CONTESTS_TO_CALCULATE)
+                    .message("No contests found that require calculation.")
+                    .build());
+        }
+        return contestIds.stream()
+                .map(this::run)
+                .toList();
+    }
+
+    /**
+     * 1つのコンテストの集計 → best_rank → 結果スナップショットのうち、終わっていない段を実行する
+     */
+    public CalculationResult run(Long contestId) {
+        CalculationResult calculation;
+        try {
+            calculation = runStage("calculate", contestId, () -> resultCalculationService.calculateContest(contestId));
+        } catch (RuntimeException e) {
+            return CalculationResult.builder()
+                    .contestId(contestId)
+                    .status(CalculationStatus.FAILED_DATABASE_ERROR)
+                    .message("Calculation failed: " + e.getMessage())
+                    .photosProcessed(0)
+                    .build();
+        }
+
+        // 集計中（他の実行がロック中）・集計待ちでないコンテストは、コミット済みの記録だけを見て判断する
+        ResultStageProgress progress = contestMapper.findResultStageProgress(contestId);
+        if (progress == null || !progress.isAggregationCompleted()
+                || (progress.isBestRankDone() && progress.isSnapshotPublished())) {
+            log.info("[RESULT_PIPELINE] skipped. contestId={}, status={}", contestId, calculation.getStatus());
+            return calculation;
+        }
+
+        try {
+            if (!progress.isBestRankDone()) {
+                runStage("best-rank", contestId, () -> {
+                    userProfileRankUpdateService.updateBestRanksForContest(contestId);
+                    contestMapper.markBestRankDone(contestId);
+                    return null;
+                });
+            }
+            if (!progress.isSnapshotPublished()) {
+                runStage("snapshot", contestId, () -> {
+                    resultSnapshotService.publish(contestId);
+                    contestMapper.markSnapshotPublished(contestId);
+                    return null;
+                });
+            }
+        } catch (RuntimeException e) {
+            // 集計はコミット済み。完了を記録していない段は次の定期実行で実行し直す
+            return CalculationResult.builder()
+                    .contestId(contestId)
+                    .status(CalculationStatus.FAILED_POST_CALCULATION)
+                    .message(calculation.getMessage() + " Post-calculation stage failed: " + e.getMessage())
+                    .photosProcessed(calculation.getPhotosProcessed())
+                    .build();
+        }
+
+        log.info("[RESULT_PIPELINE] completed. contestId={}, calculation={}, photos={}",
+                contestId, calculation.getStatus(), calculation.getPhotosProcessed());
+        return calculation;
+    }
+
+    private <T> T runStage(String stage, Long contestId, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return stageTx.execute(status -> action.get());
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("[RESULT_PIPELINE] stage FAILED. stage={}, contestId={}, attempts={}", stage, contestId, attempt, e);
+                    throw e;
+                }
+                long wait = backoffMillis << (attempt - 1);
+                log.warn("[RESULT_PIPELINE] stage failed, retrying. stage={}, contestId={}, attempt={}, waitMs={}",
+                        stage, contestId, attempt, wait, e);
+                sleep(wait);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry.", e);
+        }
+    }
+}
@@ -3,8 +3,10 @@ package nagasawakenji.walkfind.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.domain.dto.ContestStatusUpdateResult;
+import nagasawakenji.walkfind.domain.event.ContestClosedEvent;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +20,7 @@ public class ContestStatusBatchService {
 
     private final ContestMapper contestMapper;
     private final ContestProjectionEventPublisher contestProjectionEventPublisher;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.ml.modelVersion:openclip-vitb32-v1}")
     private String modelVersion;
@@ -39,7 +42,13 @@ public class ContestStatusBatchService {
         }
 
         // IN_PROGRESS → CLOSED_VOTING
-        int closedVoting = contestMapper.updateToClosedVoting(now);
+        List<Long> movedToClosedVotingIds = contestMapper.updateToClosedVotingReturningIds(now);
+        int closedVoting = movedToClosedVotingIds.size();
+
+        // コミット後にそのコンテストの集計 → best_rank → 結果スナップショットを実行する
+        for (Long contestId : movedToClosedVotingIds) {
+            eventPublisher.publishEvent(new ContestClosedEvent(contestId));
+        }
 
         // CLOSED_VOTING → ANNOUNCED
         int announced = contestMapper.updateToAnnouncedIfCalculated();
@@ -3,11 +3,13 @@ package nagasawakenji.walkfind.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.domain.dto.CreatingContestResponse;
+import nagasawakenji.walkfind.domain.event.ContestScheduleChangedEvent;
 import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
 import nagasawakenji.walkfind.domain.statusenum.CreationContestStatus;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +21,7 @@ import java.time.OffsetDateTime;
 public class CreatingContestService {
 
     private final ContestMapper contestMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * (管理者用) コンテスト作成ロジック
@@ -96,6 +99,9 @@ public class CreatingContestService {
                 // データベース操作失敗は非チェック例外としてスローし、ロールバックさせる
                 throw new DatabaseOperationException("投稿データの保存に失敗しました。");
             }
+
+            // コミット後に開始・終了日時のステータス切り替えを予約する
+            eventPublisher.publishEvent(new ContestScheduleChangedEvent(createdContest.getId()));
             return mapToCreatingContestResponse(createdContest);
         }  catch (DatabaseOperationException e) {
             // 自らスローした例外。再スローしてトランザクションをロールバックさせる。
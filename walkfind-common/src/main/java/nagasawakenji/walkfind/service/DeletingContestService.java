@@ -3,6 +3,7 @@ package nagasawakenji.walkfind.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.domain.dto.DeletingContestResponse;
+import nagasawakenji.walkfind.domain.event.ContestDeletedEvent;
 import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.model.User;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
@@ -11,6 +12,7 @@ import nagasawakenji.walkfind.domain.statusenum.UserRole;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,7 @@ public class DeletingContestService {
 
     private final ContestMapper contestMapper;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      *コンテスト削除ロジック
@@ -82,6 +85,9 @@ public class DeletingContestService {
                 throw new DatabaseOperationException("コンテストの削除に失敗しました。");
             }
 
+            // 結果スナップショットが公開済みなら取り下げる
+            eventPublisher.publishEvent(new ContestDeletedEvent(contestId));
+
             return DeletingContestResponse.builder()
                     .contestId(contestId)
                     .status(DeleteContestStatus.SUCCESS)
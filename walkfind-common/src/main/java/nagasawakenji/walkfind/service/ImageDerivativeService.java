@@ -0,0 +1,168 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.model.ImageDerivative;
+import nagasawakenji.walkfind.domain.statusenum.ImageDerivativeVariant;
+import nagasawakenji.walkfind.infra.image.DerivativeKeys;
+import nagasawakenji.walkfind.infra.image.DerivativeStorage;
+import nagasawakenji.walkfind.infra.image.ImageInspector;
+import nagasawakenji.walkfind.infra.image.ImageResizer;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ImageDerivativeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.IIOException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 投稿写真の縮小版（幅 320 / 640 / 1280 px の JPEG）と、埋め込み計算用のモデル入力（224x224 px）を作る・消す。
+ *
+ * 作るのは投稿のコミット後（walkfind-web はワーカースレッド、Lambda はキュー経由の別関数）。
+ * 縮小版を作り終わるまでは一覧に原寸が表示される。
+ * どちらも再エンコードした JPEG なので、元画像の撮影情報（位置情報など）は含まない。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ImageDerivativeService {
+
+    private final ImageDerivativeMapper imageDerivativeMapper;
+    private final DerivativeStorage derivativeStorage;
+
+    @Value("${walkfind.derivative.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    /**
+     * 縮小版とモデル入力を作る（投稿写真用）
+     *
+     * @see #generate(String, boolean)
+     */
+    public int generate(String sourceKey) {
+        return generate(sourceKey, true);
+    }
+
+    /**
+     * 元画像から、まだ無いもの（幅ごとの縮小版・モデル入力）を1回のデコードで作り、保存して記録する。
+     * 同じ元画像（内容アドレスで共有されたものを含む）について全て作成済みなら元画像を読まない。
+     * 途中で失敗して一部の幅だけ残っていれば、残りの幅だけを作る。
+     * 元画像より広い幅は ImageResizer がヘッダーを読むだけで除くので、小さい元画像でもデコードし直さない。
+     *
+     * @param withThumbnails 縮小版も作るか（見本写真は一覧に出さないのでモデル入力だけ）
+     * @return 作った画像の数
+     * @throws UncheckedIOException 保存先の読み書きに失敗した場合（再実行すれば成功しうる）
+     */
+    public int generate(String sourceKey, boolean withThumbnails) {
+        List<ImageDerivative> existing = imageDerivativeMapper.findBySourceKey(sourceKey);
+        int[] missingWidths = withThumbnails ? missingWidths(existing) : new int[0];
+        boolean needsModelInput = existing.stream()
+                .noneMatch(d -> d.getVariant() == ImageDerivativeVariant.MODEL_INPUT);
+        if (missingWidths.length == 0 && !needsModelInput) {
+            log.debug("Derivatives already exist. sourceKey={}", sourceKey);
+            return 0;
+        }
+
+        ImageResizer.Renditions renditions;
+        long start = System.nanoTime();
+        try (InputStream in = derivativeStorage.open(sourceKey)) {
+            // ヘッダーから向きを読み、撮影情報を除いた残りをそのままデコーダーに渡す
+            ImageInspector.Result inspected = ImageInspector.inspect(in);
+            if (inspected == null) {
+                log.warn("Unsupported image format, derivatives skipped. sourceKey={}", sourceKey);
+                return 0;
+            }
+            renditions = ImageResizer.render(
+                    inspected.body(),
+                    inspected.info().orientation(),
+                    missingWidths,
+                    needsModelInput ? DerivativeKeys.MODEL_INPUT_SIZE : 0,
+                    jpegQuality);
+        } catch (IIOException | EOFException e) {
+            // 壊れた画像・ImageIO が扱えない色空間など。再実行しても同じなので原寸のままにする
+            log.warn("Failed to decode image, derivatives skipped. sourceKey={}", sourceKey, e);
+            return 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read source image: " + sourceKey, e);
+        }
+
+        for (ImageResizer.Rendition rendition : renditions.thumbnails()) {
+            save(sourceKey, ImageDerivativeVariant.THUMBNAIL,
+                    DerivativeKeys.keyOf(sourceKey, rendition.width()), rendition);
+        }
+        if (renditions.modelInput() != null) {
+            save(sourceKey, ImageDerivativeVariant.MODEL_INPUT,
+                    DerivativeKeys.modelInputKeyOf(sourceKey), renditions.modelInput());
+        }
+
+        int count = renditions.thumbnails().size() + (renditions.modelInput() != null ? 1 : 0);
+        log.info("Derivatives generated. sourceKey={}, count={}, elapsedMs={}",
+                sourceKey, count, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    // DerivativeKeys.WIDTHS のうち、縮小版が記録されていない幅
+    private static int[] missingWidths(List<ImageDerivative> existing) {
+        Set<Integer> generated = existing.stream()
+                .filter(d -> d.getVariant() == ImageDerivativeVariant.THUMBNAIL)
+                .map(ImageDerivative::getWidth)
+                .collect(Collectors.toSet());
+        return Arrays.stream(DerivativeKeys.WIDTHS)
+                .filter(w -> !generated.contains(w))
+                .toArray();
+    }
+
+    /**
+     * 記録済みのモデル入力のキー。無ければ null（ML ワーカーは原寸を読む）
+     */
+    public String findModelInputKey(String sourceKey) {
+        return imageDerivativeMapper.findBySourceKey(sourceKey).stream()
+                .filter(d -> d.getVariant() == ImageDerivativeVariant.MODEL_INPUT)
+                .map(ImageDerivative::getStorageKey)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void save(String sourceKey, ImageDerivativeVariant variant, String key, ImageResizer.Rendition rendition) {
+        try {
+            derivativeStorage.put(key, rendition.bytes(), ImageResizer.CONTENT_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write derivative: " + key, e);
+        }
+        imageDerivativeMapper.upsert(ImageDerivative.builder()
+                .sourceKey(sourceKey)
+                .variant(variant)
+                .width(rendition.width())
+                .height(rendition.height())
+                .storageKey(key)
+                .contentType(ImageResizer.CONTENT_TYPE)
+                .sizeBytes((long) rendition.bytes().length)
+                .build());
+    }
+
+    /**
+     * 元画像を削除するときに呼び、縮小版も削除する（オブジェクトの削除はベストエフォート）
+     */
+    @Transactional
+    public void deleteFor(String sourceKey) {
+        List<ImageDerivative> derivatives = imageDerivativeMapper.findBySourceKey(sourceKey);
+        if (derivatives.isEmpty()) {
+            return;
+        }
+        for (ImageDerivative derivative : derivatives) {
+            try {
+                derivativeStorage.delete(derivative.getStorageKey());
+            } catch (Exception e) {
+                log.warn("Failed to delete derivative (best-effort). key={}", derivative.getStorageKey(), e);
+            }
+        }
+        imageDerivativeMapper.deleteBySourceKey(sourceKey);
+    }
+}
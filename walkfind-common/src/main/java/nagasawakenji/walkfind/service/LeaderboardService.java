@@ -0,0 +1,209 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.MyContestRankResponse;
+import nagasawakenji.walkfind.domain.event.LeaderboardChangedEvent;
+import nagasawakenji.walkfind.domain.event.LeaderboardResetEvent;
+import nagasawakenji.walkfind.domain.model.UserPhoto;
+import nagasawakenji.walkfind.infra.leaderboard.ContestLeaderboard;
+import nagasawakenji.walkfind.infra.leaderboard.LeaderboardEntry;
+import nagasawakenji.walkfind.infra.leaderboard.LeaderboardStanding;
+import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * コンテストごとのリーダーボード（ライブ順位）をメモリ上に保持する。
+ *
+ * 初回アクセス時に findAllSubmissionsForCalculation から作り、以降は投票のたびに差分で更新する。
+ * 投稿・削除があった場合は作り直す。
+ * 表示用の途中経過であり、確定順位は集計処理（contest_results）が正とする。
+ * 読み込みと投票の反映が前後すると1票ずれることがあるため、rebuild-after-seconds ごとに DB から読み直す。
+ * 同じコンテストの読み込みは同時に1回だけ行い、その間に来た呼び出しは読み込みの完了を待って同じものを返す。
+ */
+@Service
+@Slf4j
+public class LeaderboardService {
+
+    private final PhotoMapper photoMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long rebuildAfterMillis;
+    private final int maxContests;
+
+    private final ConcurrentHashMap<Long, ContestLeaderboard> boards = new ConcurrentHashMap<>();
+    // 読み込み中のコンテスト
+    private final ConcurrentHashMap<Long, CompletableFuture<ContestLeaderboard>> loading = new ConcurrentHashMap<>();
+    // リーダーボードの版（読み直しても前の版より小さくならないよう、全コンテストで共有する）
+    private final AtomicLong versions = new AtomicLong();
+
+    public LeaderboardService(PhotoMapper photoMapper,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${walkfind.leaderboard.rebuild-after-seconds:300}") long rebuildAfterSeconds,
+                              @Value("${walkfind.leaderboard.max-contests:64}") int maxContests) {
+        this.photoMapper = photoMapper;
+        this.eventPublisher = eventPublisher;
+        this.rebuildAfterMillis = rebuildAfterSeconds * 1000;
+        this.maxContests = maxContests;
+    }
+
+    /**
+     * コンテストのリーダーボードを返す（未作成・期限切れなら DB から作る）
+     */
+    public ContestLeaderboard get(Long contestId) {
+        ContestLeaderboard board = boards.get(contestId);
+        if (board != null && !isStale(board)) {
+            return board;
+        }
+
+        CompletableFuture<ContestLeaderboard> mine = new CompletableFuture<>();
+        CompletableFuture<ContestLeaderboard> inFlight = loading.putIfAbsent(contestId, mine);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            // 待っている間に他の呼び出しが読み込みを終えていれば、それを使う
+            ContestLeaderboard current = boards.get(contestId);
+            if (current != null && current != board && !isStale(current)) {
+                mine.complete(current);
+                return current;
+            }
+
+            ContestLeaderboard loaded = load(contestId);
+            if (!boards.containsKey(contestId)) {
+                evictIfFull();
+            }
+            boards.put(contestId, loaded);
+            mine.complete(loaded);
+
+            if (board != null) {
+                // 期限切れで読み直した場合は、購読者に取り直してもらう
+                eventPublisher.publishEvent(new LeaderboardResetEvent(contestId));
+            }
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(contestId, mine);
+        }
+    }
+
+    /**
+     * ユーザーの投稿写真の現在順位を返す。コンテストに投稿していなければ Optional.empty()
+     */
+    public Optional<MyContestRankResponse> findMyRank(Long contestId, String userId) {
+        Optional<UserPhoto> photo = photoMapper.findByContestAndUser(contestId, userId);
+        if (photo.isEmpty()) {
+            return Optional.empty();
+        }
+        Long photoId = photo.get().getId();
+
+        ContestLeaderboard board = get(contestId);
+        Optional<LeaderboardStanding> standing = board.standingOf(photoId);
+        if (standing.isEmpty()) {
+            // 読み込み後に投稿された写真。作り直してもう一度だけ引く
+            invalidate(contestId);
+            board = get(contestId);
+            standing = board.standingOf(photoId);
+        }
+
+        int totalCount = board.size();
+        return standing.map(s -> MyContestRankResponse.builder()
+                .contestId(contestId)
+                .photoId(photoId)
+                .rank(s.rank())
+                .position(s.position())
+                .votes(s.votes())
+                .totalCount(totalCount)
+                .build());
+    }
+
+    /**
+     * ユーザーの投稿写真の現在順位を、メモリ上のリーダーボードを使わずに DB から数える。
+     * Lambda ではコンテナごとに別の投票しか反映されないため、こちらを使う。
+     * コンテストに投稿していなければ Optional.empty()
+     */
+    public Optional<MyContestRankResponse> findMyRankFromDatabase(Long contestId, String userId) {
+        return photoMapper.findMyRank(contestId, userId);
+    }
+
+    /**
+     * 投票を反映する。リーダーボードが未作成なら何もしない（次回アクセス時に DB から作る）
+     */
+    public void onVote(Long contestId, Long photoId) {
+        ContestLeaderboard board = boards.get(contestId);
+        if (board == null) {
+            return;
+        }
+        board.increment(photoId).ifPresentOrElse(
+                move -> eventPublisher.publishEvent(new LeaderboardChangedEvent(contestId, move)),
+                // 読み込み後に投稿された写真への投票。差分では反映できないので作り直す
+                () -> invalidate(contestId));
+    }
+
+    /**
+     * リーダーボードを破棄する（次回アクセス時に DB から作り直す）
+     */
+    public void invalidate(Long contestId) {
+        if (boards.remove(contestId) != null) {
+            log.info("Leaderboard invalidated. contestId={}", contestId);
+            eventPublisher.publishEvent(new LeaderboardResetEvent(contestId));
+        }
+    }
+
+    private ContestLeaderboard load(Long contestId) {
+        long start = System.currentTimeMillis();
+        List<UserPhoto> submissions = photoMapper.findAllSubmissionsForCalculation(contestId);
+
+        List<LeaderboardEntry> entries = submissions.stream()
+                .map(p -> new LeaderboardEntry(
+                        p.getId(),
+                        p.getTotalVotes() != null ? p.getTotalVotes() : 0,
+                        p.getSubmissionDate() != null ? p.getSubmissionDate().toInstant().toEpochMilli() : 0L))
+                .toList();
+
+        ContestLeaderboard board = new ContestLeaderboard(contestId, entries, System.currentTimeMillis(), versions);
+        log.info("Leaderboard loaded. contestId={}, size={}, elapsedMs={}",
+                contestId, entries.size(), System.currentTimeMillis() - start);
+        return board;
+    }
+
+    private static ContestLeaderboard await(CompletableFuture<ContestLeaderboard> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            // 読み込んだ側と同じ例外を投げる
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private boolean isStale(ContestLeaderboard board) {
+        return rebuildAfterMillis > 0
+                && System.currentTimeMillis() - board.getLoadedAtMillis() > rebuildAfterMillis;
+    }
+
+    // 保持数の上限を超える場合は、最も古く読み込んだものを捨てる
+    private void evictIfFull() {
+        while (boards.size() >= maxContests) {
+            boards.values().stream()
+                    .min(Comparator.comparingLong(ContestLeaderboard::getLoadedAtMillis))
+                    .ifPresent(oldest -> invalidate(oldest.getContestId()));
+            if (boards.isEmpty()) {
+                return;
+            }
+        }
+    }
+}
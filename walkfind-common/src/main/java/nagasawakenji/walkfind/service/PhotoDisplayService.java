@@ -2,7 +2,9 @@ package nagasawakenji.walkfind.service;
 
 import nagasawakenji.walkfind.domain.dto.PhotoListResponse;
 import nagasawakenji.walkfind.domain.dto.PhotoResponse;
+import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.statusenum.SimilarityStatus;
+import nagasawakenji.walkfind.infra.concurrent.ParallelQueryExecutor;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoEmbeddingMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
@@ -14,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +26,7 @@ public class PhotoDisplayService {
     private final PhotoMapper photoMapper;
     private final ContestMapper contestMapper; // コンテストの存在確認用
     private final PhotoEmbeddingMapper photoEmbeddingMapper;
+    private final ParallelQueryExecutor parallelQueryExecutor;
 
     /**
      * 特定のコンテストに投稿された全ての写真リストを取得する。
@@ -35,15 +39,24 @@ public class PhotoDisplayService {
     public PhotoListResponse getPhotosByContest(Long contestId, int page, int size, String requiredUserId) {
 
         // コンテストの存在確認
-        if (contestMapper.findById(contestId).isEmpty()) {
-            throw new ContestNotFoundException("Contest with ID " + contestId + " not found.", "NOT_FOUND");
-        }
+        Contest contest = contestMapper.findById(contestId)
+                .orElseThrow(() -> new ContestNotFoundException("Contest with ID " + contestId + " not found.", "NOT_FOUND"));
 
-        // DBからデータを取得
+        // 写真一覧・model embedding の準備状況は互いに独立しているので並列に取得する
         // PhotoMapper.xml内で user_photos と users をJOINし、投票数順でソートするクエリが実行される
-        List<PhotoResponse> photos = photoMapper.findAllPhotosByContest(contestId, page, size, page * size);
+        ParallelQueryExecutor.Batch batch = parallelQueryExecutor.batch();
+        Supplier<List<PhotoResponse>> photosResult =
+                batch.add(() -> photoMapper.findAllPhotosByContest(contestId, page, size, page * size));
+        Supplier<Boolean> modelEmbeddingReadyResult =
+                batch.add(() -> photoEmbeddingMapper.existsAnyModelEmbeddingReadyForContest(contestId));
+        batch.execute();
+
+        List<PhotoResponse> photos = photosResult.get();
 
-        long totalCount = photoMapper.countTotalPhotos(contestId);
+        // 総件数は投稿・削除時に更新している contests.photo_count を使う（COUNT(*) しない）
+        long totalCount = contest.getPhotoCount() != null
+                ? contest.getPhotoCount()
+                : photoMapper.countTotalPhotos(contestId);
 
         PhotoListResponse response = PhotoListResponse.builder()
                 .photoResponses(photos)
@@ -53,7 +66,7 @@ public class PhotoDisplayService {
         // similarityStatus は開催中は「自分の投稿」だけに付与する。
         // requiredUserId が null/blank の場合は一切付与しない（全件 null のまま）
         // model embedding が ready でない場合も一切付与しない（全件 null のまま）
-        boolean modelEmbeddingReady = photoEmbeddingMapper.existsAnyModelEmbeddingReadyForContest(contestId);
+        boolean modelEmbeddingReady = modelEmbeddingReadyResult.get();
         if (modelEmbeddingReady && requiredUserId != null && !requiredUserId.isBlank()) {
 
             // 自分の写真だけを対象にして READY 判定を行う（他人の写真の状態は見ない）
@@ -0,0 +1,55 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.DerivativeJobMessage;
+import nagasawakenji.walkfind.domain.dto.EmbeddingJobMessage;
+import nagasawakenji.walkfind.infra.queue.EmbeddingQueueClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 投稿写真・見本写真のコミット後の画像処理。
+ *
+ * 縮小版とモデル入力（224x224 px）を作ってから埋め込みジョブを積む。
+ * ML ワーカーは原寸をダウンロード・デコードせず、小さいモデル入力だけを読む。
+ * 画像処理に失敗した場合も、埋め込みジョブは原寸のキーで積む（埋め込みが作られないままにしない）。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PhotoImagePipelineService {
+
+    private final ImageDerivativeService imageDerivativeService;
+    private final EmbeddingQueueClient embeddingQueueClient;
+
+    @Value("${walkfind.embedding.model-version:openclip-vitb32-v1}")
+    private String modelVersion;
+
+    public void process(DerivativeJobMessage job) {
+        String modelInputKey = null;
+        try {
+            // 見本写真は一覧に出さないので、縮小版は投稿写真だけ
+            imageDerivativeService.generate(job.getKey(), "USER".equals(job.getPhotoType()));
+            modelInputKey = imageDerivativeService.findModelInputKey(job.getKey());
+        } catch (Exception e) {
+            log.error("Failed to generate derivatives, embedding uses the original. photoId={}, key={}",
+                    job.getPhotoId(), job.getKey(), e);
+        }
+        enqueueEmbedding(job, modelInputKey);
+    }
+
+    /**
+     * 埋め込みジョブを積む（画像処理のキュー・スレッドが使えない場合は modelInputKey = null で直接呼ぶ）
+     */
+    public void enqueueEmbedding(DerivativeJobMessage job, String modelInputKey) {
+        embeddingQueueClient.enqueue(EmbeddingJobMessage.builder()
+                .photoType(job.getPhotoType())
+                .contestId(job.getContestId())
+                .photoId(job.getPhotoId())
+                .key(job.getKey())
+                .modelInputKey(modelInputKey)
+                .modelVersion(modelVersion)
+                .build());
+    }
+}
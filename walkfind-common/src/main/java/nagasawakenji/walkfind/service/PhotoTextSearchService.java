@@ -0,0 +1,210 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.EnqueueResult;
+import nagasawakenji.walkfind.domain.dto.PhotoTextSearchItem;
+import nagasawakenji.walkfind.domain.dto.PhotoTextSearchResponse;
+import nagasawakenji.walkfind.domain.dto.PhotoTextSearchRow;
+import nagasawakenji.walkfind.domain.dto.TextEmbeddingJobMessage;
+import nagasawakenji.walkfind.domain.dto.TextEmbeddingRow;
+import nagasawakenji.walkfind.domain.statusenum.PhotoTextSearchStatus;
+import nagasawakenji.walkfind.exception.DatabaseOperationException;
+import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoEmbeddingMapper;
+import nagasawakenji.walkfind.infra.mybatis.mapper.TextEmbeddingMapper;
+import nagasawakenji.walkfind.infra.queue.MlWorkerQueueClient;
+import nagasawakenji.walkfind.infra.ratelimit.RateLimitGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 検索語（「夕焼けの海」など）に近い投稿写真を、CLIP の画像埋め込みとのコサイン類似度で返す。
+ *
+ * 検索語の埋め込みは ml-worker（TEXT_EMBEDDING ジョブ）が作り、text_embeddings に残す。
+ * 正規化した検索語とモデルで引くので、同じ検索語の2回目からは SQS もモデルも使わない。
+ * よく使われる検索語はプロセス内（LRU）にも持ち、DB への問い合わせは TopK の1回だけになる。
+ * 初めての検索語は EMBEDDING_PENDING を返し、フロントがポーリングする。
+ * 依頼は公開エンドポイントから作れるので、IP 単位の上限を超えたら依頼せず RATE_LIMITED を返す。
+ *
+ * 全コンテストの検索は HNSW インデックスで近い順に候補を取ってから削除済みなどを除くので、
+ * 候補数（hnsw.ef_search）を hnsw-ef-search まで広げて件数が欠けないようにする。
+ * コンテスト指定の検索はインデックスを使わず、そのコンテストの埋め込みを全件比べる。
+ */
+@Service
+@Slf4j
+public class PhotoTextSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    // pgvector の hnsw.ef_search の上限
+    private static final int MAX_EF_SEARCH = 1000;
+
+    private final TextEmbeddingMapper textEmbeddingMapper;
+    private final PhotoEmbeddingMapper photoEmbeddingMapper;
+    private final MlWorkerQueueClient mlWorkerQueueClient;
+    private final RateLimitGuard rateLimitGuard;
+    private final String modelVersion;
+    private final long retrySeconds;
+    private final int efSearch;
+    private final TransactionTemplate readOnlyTx;
+
+    // 検索語 → 埋め込み（アクセス順の LRU。モデルはプロセス内で1つなのでキーは検索語のみ）
+    private final Map<String, float[]> cache;
+
+    public PhotoTextSearchService(TextEmbeddingMapper textEmbeddingMapper,
+                                  PhotoEmbeddingMapper photoEmbeddingMapper,
+                                  MlWorkerQueueClient mlWorkerQueueClient,
+                                  RateLimitGuard rateLimitGuard,
+                                  @Value("${walkfind.embedding.model-version:openclip-vitb32-v1}") String modelVersion,
+                                  @Value("${walkfind.text-search.retry-seconds:60}") long retrySeconds,
+                                  @Value("${walkfind.text-search.cache-max-entries:1000}") int maxEntries,
+                                  @Value("${walkfind.text-search.hnsw-ef-search:400}") int efSearch,
+                                  PlatformTransactionManager transactionManager) {
+        this.textEmbeddingMapper = textEmbeddingMapper;
+        this.photoEmbeddingMapper = photoEmbeddingMapper;
+        this.mlWorkerQueueClient = mlWorkerQueueClient;
+        this.rateLimitGuard = rateLimitGuard;
+        this.modelVersion = modelVersion;
+        this.retrySeconds = retrySeconds;
+        this.efSearch = Math.min(efSearch, MAX_EF_SEARCH);
+        // SET LOCAL（set_config(..., true)）と検索を同じ接続・トランザクションで行う
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param contestId null なら全コンテストの投稿写真から探す
+     * @param clientIp  接続元 IP（埋め込み作成の依頼のレート制限に使う）
+     */
+    public PhotoTextSearchResponse search(String query, Long contestId, Integer limit, String clientIp) {
+        String text = normalize(query);
+        if (text.isEmpty() || text.length() > MAX_QUERY_LENGTH) {
+            return response(PhotoTextSearchStatus.INVALID_REQUEST, List.of());
+        }
+        int k = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        try {
+            float[] embedding = cached(text);
+            if (embedding == null) {
+                TextEmbeddingRow row = textEmbeddingMapper.findByText(text, modelVersion).orElse(null);
+                if (row == null || !"READY".equals(row.getStatus()) || row.getEmbedding() == null) {
+                    return response(requestEmbedding(text, row, clientIp), List.of());
+                }
+                embedding = row.getEmbedding();
+                remember(text, embedding);
+            }
+
+            List<PhotoTextSearchRow> rows = searchTopK(embedding, contestId, k);
+            List<PhotoTextSearchItem> photos = rows.stream()
+                    .map(r -> PhotoTextSearchItem.builder()
+                            .photoId(r.getPhotoId())
+                            .contestId(r.getContestId())
+                            .key(r.getKey())
+                            .title(r.getTitle())
+                            .description(r.getDescription())
+                            .similarity(r.getSimilarity())
+                            .build())
+                    .toList();
+            return response(PhotoTextSearchStatus.SUCCESS, photos);
+
+        } catch (Exception e) {
+            log.error("Failed to search photos by text. query={}, contestId={}", text, contestId, e);
+            throw new DatabaseOperationException("Failed to search photos by text", e);
+        }
+    }
+
+    private List<PhotoTextSearchRow> searchTopK(float[] embedding, Long contestId, int k) {
+        if (contestId != null) {
+            return photoEmbeddingMapper.searchUserPhotosByEmbedding(embedding, modelVersion, contestId, k);
+        }
+        return readOnlyTx.execute(status -> {
+            photoEmbeddingMapper.setLocalEfSearch(Math.max(efSearch, k));
+            return photoEmbeddingMapper.searchUserPhotosByEmbedding(embedding, modelVersion, null, k);
+        });
+    }
+
+    /**
+     * NFKC・小文字にし、前後の空白を除いて連続する空白を1つにする（キャッシュのキー）
+     */
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        return Normalizer.normalize(query, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+
+    // 未作成なら作成を依頼する。作成中・失敗のまま retry-seconds を過ぎていれば依頼し直す
+    private PhotoTextSearchStatus requestEmbedding(String text, TextEmbeddingRow row, String clientIp) {
+        boolean claimed;
+        if (row == null) {
+            if (!rateLimitGuard.allowEmbeddingRequest(clientIp)) {
+                return PhotoTextSearchStatus.RATE_LIMITED;
+            }
+            claimed = textEmbeddingMapper.insertPending(text, modelVersion) == 1;
+        } else {
+            OffsetDateTime staleBefore = OffsetDateTime.now().minusSeconds(retrySeconds);
+            boolean stale = row.getUpdatedAt() == null || row.getUpdatedAt().isBefore(staleBefore);
+            if (!stale) {
+                return "FAILED".equals(row.getStatus())
+                        ? PhotoTextSearchStatus.EMBEDDING_FAILED
+                        : PhotoTextSearchStatus.EMBEDDING_PENDING;
+            }
+            if (!rateLimitGuard.allowEmbeddingRequest(clientIp)) {
+                return PhotoTextSearchStatus.RATE_LIMITED;
+            }
+            // 0件なら別のリクエストが先に依頼し直している
+            claimed = textEmbeddingMapper.claimStale(text, modelVersion, staleBefore) == 1;
+        }
+
+        if (claimed) {
+            TextEmbeddingJobMessage msg = TextEmbeddingJobMessage.builder()
+                    .text(text)
+                    .modelVersion(modelVersion)
+                    .build();
+            EnqueueResult r = mlWorkerQueueClient.enqueue(msg, "TEXT_EMBEDDING modelVersion=" + modelVersion);
+            if (!r.ok()) {
+                // 行は PENDING のまま残るので、retry-seconds 後の検索で依頼し直す
+                log.warn("Failed to enqueue text embedding job. errorType={}, errorMessage={}",
+                        r.errorType(), r.errorMessage());
+            }
+        }
+        return PhotoTextSearchStatus.EMBEDDING_PENDING;
+    }
+
+    private float[] cached(String text) {
+        synchronized (cache) {
+            return cache.get(text);
+        }
+    }
+
+    private void remember(String text, float[] embedding) {
+        synchronized (cache) {
+            cache.put(text, embedding);
+        }
+    }
+
+    private static PhotoTextSearchResponse response(PhotoTextSearchStatus status, List<PhotoTextSearchItem> photos) {
+        return PhotoTextSearchResponse.builder()
+                .status(status)
+                .photos(photos)
+                .build();
+    }
+}
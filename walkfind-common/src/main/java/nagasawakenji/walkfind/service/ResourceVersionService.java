@@ -0,0 +1,72 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.ResultSnapshotMeta;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestVersionMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * 読み取り系 API の ETag を組み立てる。
+ *
+ * どれも本体のクエリより軽い（主キー参照・スナップショットの目次のみ）ので、
+ * If-None-Match が一致すれば本体のクエリ・presign を行わずに 304 を返せる。
+ *
+ * レスポンスに含まれるダウンロード URL は期限付きのため、ETag に時間枠を含め、
+ * 枠が変わったら（内容が同じでも）新しい URL を返し直す。
+ */
+@Service
+@Slf4j
+public class ResourceVersionService {
+
+    private final ContestVersionMapper contestVersionMapper;
+    private final long urlWindowMillis;
+
+    public ResourceVersionService(ContestVersionMapper contestVersionMapper,
+                                  @Value("${walkfind.http-cache.url-window-seconds:300}") long urlWindowSeconds) {
+        this.contestVersionMapper = contestVersionMapper;
+        this.urlWindowMillis = urlWindowSeconds * 1000;
+    }
+
+    /**
+     * ギャラリーの弱い ETag。投票・投稿・削除で contest_versions が増えると変わる。
+     * 自分の写真の類似度を含むため閲覧者ごとに別の ETag にする。埋め込みが READY になった場合も
+     * （photo_embeddings のトリガーで）contest_versions が増えるので変わる。
+     *
+     * @return コンテストが存在しなければ Optional.empty()（本体の処理で 404 にする）
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> galleryEtag(Long contestId, String userId) {
+        return contestVersionMapper.findGalleryVersion(contestId)
+                .map(version -> "W/\"g" + contestId + "." + version
+                        + "." + viewer(userId) + "." + urlWindow() + "\"");
+    }
+
+    /**
+     * コンテスト一覧の弱い ETag。contests の件数と updated_at の最大値から作る。
+     */
+    @Transactional(readOnly = true)
+    public String contestListEtag() {
+        return "W/\"c" + contestVersionMapper.findContestListVersion() + "." + urlWindow() + "\"";
+    }
+
+    /**
+     * 結果の弱い ETag。スナップショットは作り直されない限り同じ内容なので、作成日時を版とする。
+     * 時間枠ごとにダウンロード URL が変わり、バイト単位では同じにならないので弱い ETag にする。
+     */
+    public String resultsEtag(ResultSnapshotMeta meta) {
+        return "W/\"r" + meta.getContestId() + "." + meta.getPublishedAt().toInstant().toEpochMilli()
+                + "." + urlWindow() + "\"";
+    }
+
+    private long urlWindow() {
+        return System.currentTimeMillis() / urlWindowMillis;
+    }
+
+    private static String viewer(String userId) {
+        return userId == null ? "anon" : Integer.toHexString(userId.hashCode());
+    }
+}
@@ -3,11 +3,13 @@ package nagasawakenji.walkfind.service;
 import nagasawakenji.walkfind.domain.dto.CalculationResult;
 import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.model.ContestResult;
+import nagasawakenji.walkfind.domain.model.ContestStats;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
 import nagasawakenji.walkfind.domain.model.UserPhoto; // 順位決定に必要な情報を格納するDTO/Model
 import nagasawakenji.walkfind.domain.statusenum.CalculationStatus;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestResultMapper;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestStatsMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.VoteMapper;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
@@ -18,7 +20,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -29,29 +30,20 @@ public class ResultCalculationService {
     private final PhotoMapper photoMapper;
     private final ContestResultMapper contestResultMapper;
     private final VoteMapper voteMapper;
+    private final ContestStatsMapper contestStatsMapper;
 
     /**
-     * 定期実行Lambdaから呼び出される集計処理のメインメソッド。
-     * 投稿締め切り(END_DATE)を迎え、かつ未集計のコンテストを全て集計します。
-     * * @return 処理結果のリスト
+     * ContestResultPipelineService（締め切り直後・定期実行）から呼び出される、単一コンテストの集計。
+     * 行ロックを SKIP LOCKED で取ってから CLOSED_VOTING かを確かめるため、
+     * 締め切り直後と定期実行が重なっても二重に集計せず、集計中の側を待たずに ALREADY_CALCULATED を返す。
      */
     @Transactional
-    public List<CalculationResult> calculateAllClosedContests() {
-
-        // 1. 集計対象のコンテストリストを取得
-        // Mapper側で end_date < CURRENT_TIMESTAMP AND status = 'CLOSED_VOTING' をチェック
-        List<Contest> targetContests = contestMapper.findContestsNeedingCalculation();
-
-        if (targetContests.isEmpty()) {
-            return List.of(CalculationResult.builder()
-                    .status(CalculationStatus.NO_CONTESTS_TO_CALCULATE)
-                    .message("No contests found that require calculation.")
-                    .build());
+    public CalculationResult calculateContest(Long contestId) {
+        Contest contest = contestMapper.findContestNeedingCalculationForUpdate(contestId);
+        if (contest == null) {
+            return buildResult(contestId, CalculationStatus.ALREADY_CALCULATED, "Contest is not waiting for calculation or is being calculated.", 0);
         }
-
-        return targetContests.stream()
-                .map(this::processSingleContestCalculation)
-                .collect(Collectors.toList());
+        return processSingleContestCalculation(contest);
     }
 
     /**
@@ -71,7 +63,9 @@ public class ResultCalculationService {
             if (submissions.isEmpty()) {
                 // コンテストはあったが投稿がゼロの場合
                 // statusをANNOUNCEDに更新するのみ
+                saveContestStats(contestId, 0);
                 contestMapper.updateContestStatus(contestId, ContestStatus.ANNOUNCED);
+                contestMapper.markAggregationCompleted(contestId);
                 return buildResult(contestId, CalculationStatus.SUCCESS, "Contest closed, no submissions found.", 0);
             }
 
@@ -85,9 +79,13 @@ public class ResultCalculationService {
                 throw new DatabaseOperationException("Failed to insert all results.");
             }
 
+            // 参加者数・投票者数を確定させる (プロフィール表示で毎回 votes を走査しないため)
+            saveContestStats(contestId, submissions.size());
+
             // コンテストステータス更新 (CLOSED_VOTING -> ANNOUNCED)
             // この更新も同じトランザクション内で行う
             contestMapper.updateContestStatus(contestId, ContestStatus.ANNOUNCED);
+            contestMapper.markAggregationCompleted(contestId);
 
             log.info("Successfully calculated results for Contest ID {}. Inserted {} records.", contestId, insertedCount);
 
@@ -145,6 +143,20 @@ public class ResultCalculationService {
         return results;
     }
 
+    /**
+     * コンテスト単位の統計を contest_stats に書き込む。
+     * 結果発表後は投票・投稿が発生しないため、この時点の値が確定値となる。
+     */
+    private void saveContestStats(Long contestId, int participantCount) {
+        int voterCount = voteMapper.countDistinctVotersByContest(contestId);
+
+        contestStatsMapper.upsert(ContestStats.builder()
+                .contestId(contestId)
+                .participantCount(participantCount)
+                .voterCount(voterCount)
+                .build());
+    }
+
     private CalculationResult buildResult(Long contestId, CalculationStatus status, String message, Integer processedCount) {
         return CalculationResult.builder()
                 .contestId(contestId)
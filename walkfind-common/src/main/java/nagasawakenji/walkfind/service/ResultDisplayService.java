@@ -4,6 +4,7 @@ import nagasawakenji.walkfind.domain.dto.ContestResultListResponse;
 import nagasawakenji.walkfind.domain.dto.ContestResultResponse;
 import nagasawakenji.walkfind.domain.dto.ContestWinnerDto;
 import nagasawakenji.walkfind.domain.dto.ContestWinnerListResponse;
+import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestResultMapper;
@@ -34,9 +35,9 @@ public class ResultDisplayService {
     public ContestResultListResponse getFinalResults(Long contestId, int page, int size) {
 
         // コンテストの存在確認とステータス取得
-        ContestStatus status = contestMapper.findContestStatus(contestId)
-                .orElseThrow(() -> new ContestNotFoundException("Contest with ID " + contestId + " not found.", "NOT_FOUND"))
-                .getStatus();
+        Contest contest = contestMapper.findContestStatus(contestId)
+                .orElseThrow(() -> new ContestNotFoundException("Contest with ID " + contestId + " not found.", "NOT_FOUND"));
+        ContestStatus status = contest.getStatus();
 
         // 結果発表ステータスのチェック
         // CLOSED_VOTING (集計完了) または ANNOUNCED (発表済) でなければ表示不可
@@ -48,9 +49,11 @@ public class ResultDisplayService {
         // DBから確定結果を取得
         List<ContestResultResponse> results = contestResultMapper.findDetailedResultsByContestId(contestId, page, size);
 
-        // 総投稿数を取得
-        int totalCount =
-                contestResultMapper.countResultsByContestId(contestId);
+        // 総件数: 集計時に contest_stats へ確定させた件数を使う（結果発表後は変化しない）
+        // 未確定（集計前のデータ等）の場合のみ COUNT(*) する
+        int totalCount = contest.getResultCount() != null
+                ? contest.getResultCount()
+                : contestResultMapper.countResultsByContestId(contestId);
 
         if (results.isEmpty()) {
             log.warn("Contest ID {} is closed but results table is empty. Check calculation log.", contestId);
@@ -0,0 +1,224 @@
+package nagasawakenji.walkfind.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.ContestResultListResponse;
+import nagasawakenji.walkfind.domain.dto.ContestResultResponse;
+import nagasawakenji.walkfind.domain.dto.ContestWinnerDto;
+import nagasawakenji.walkfind.domain.dto.ContestWinnerListResponse;
+import nagasawakenji.walkfind.domain.dto.ResultSnapshotMeta;
+import nagasawakenji.walkfind.domain.dto.ResultSnapshotPage;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestResultMapper;
+import nagasawakenji.walkfind.infra.snapshot.ResultSnapshotStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 結果発表後のコンテスト結果を、ページ単位の gzip JSON として保存・配信する。
+ *
+ * 結果発表後は contest_results が変化しないため、結果ページの表示で毎回
+ * contest_results / user_photos / users を JOIN せずにスナップショットを返す。
+ * 退会（ユーザー名の匿名化）・コンテスト削除の際は作り直し・取り下げを行う。
+ *
+ * 保存レイアウト:
+ *   results-snapshots/{contestId}/page-{n}.json.gz
+ *   results-snapshots/{contestId}/winners.json.gz
+ *   results-snapshots/{contestId}/meta.json.gz   ← 最後に書く（これがあれば一式揃っている）
+ */
+@Service
+@Slf4j
+public class ResultSnapshotService {
+
+    private static final String PREFIX = "results-snapshots/";
+
+    private final ContestResultMapper contestResultMapper;
+    private final ResultSnapshotStorage storage;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+
+    public ResultSnapshotService(ContestResultMapper contestResultMapper,
+                                 ResultSnapshotStorage storage,
+                                 ObjectMapper objectMapper,
+                                 @Value("${walkfind.results-snapshot.page-size:20}") int pageSize) {
+        this.contestResultMapper = contestResultMapper;
+        this.storage = storage;
+        // null のフィールドは書き出さない（ページファイルを小さくする）
+        this.objectMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 集計済みコンテストのスナップショットを作成（上書き）する
+     */
+    @Transactional(readOnly = true)
+    public ResultSnapshotMeta publish(Long contestId) {
+        List<ContestResultResponse> all = contestResultMapper.findAllDetailedResultsByContestId(contestId);
+        List<ContestWinnerDto> winners = contestResultMapper.findWinnerPhotosByContestId(contestId);
+
+        int pageCount = (all.size() + pageSize - 1) / pageSize;
+        for (int page = 0; page < pageCount; page++) {
+            List<ContestResultResponse> items =
+                    all.subList(page * pageSize, Math.min(all.size(), (page + 1) * pageSize));
+            storage.put(pageKey(contestId, page), gzipJson(ResultSnapshotPage.builder()
+                    .page(page)
+                    .items(new ArrayList<>(items))
+                    .build()));
+        }
+        storage.put(winnersKey(contestId), gzipJson(winners));
+
+        ResultSnapshotMeta meta = ResultSnapshotMeta.builder()
+                .contestId(contestId)
+                .totalCount(all.size())
+                .pageSize(pageSize)
+                .pageCount(pageCount)
+                .publishedAt(OffsetDateTime.now())
+                .build();
+        storage.put(metaKey(contestId), gzipJson(meta));
+
+        log.info("Published result snapshot. contestId={}, totalCount={}, pages={}", contestId, all.size(), pageCount);
+        return meta;
+    }
+
+    /**
+     * 退会したユーザーの写真を含むコンテストのスナップショットを作り直す（ユーザー名の再描画）
+     */
+    @Transactional(readOnly = true)
+    public void republishForUser(String userId) {
+        List<Long> contestIds = contestResultMapper.findContestIdsByUserId(userId);
+        for (Long contestId : contestIds) {
+            if (storage.get(metaKey(contestId)).isPresent()) {
+                publish(contestId);
+            }
+        }
+    }
+
+    /**
+     * スナップショットを取り下げる（目次を消せば配信されなくなる）
+     */
+    public void unpublish(Long contestId) {
+        storage.delete(metaKey(contestId));
+        log.info("Unpublished result snapshot. contestId={}", contestId);
+    }
+
+    /**
+     * スナップショットから結果の1ページを組み立てる。スナップショットが無ければ Optional.empty()
+     */
+    public Optional<ContestResultListResponse> findResults(Long contestId, int page, int size) {
+        return findMeta(contestId).flatMap(meta -> findResults(meta, page, size));
+    }
+
+    /**
+     * 取得済みの目次を使って結果の1ページを組み立てる（ETag の判定で目次を読んだ後に使う）
+     */
+    public Optional<ContestResultListResponse> findResults(ResultSnapshotMeta meta, int page, int size) {
+        Long contestId = meta.getContestId();
+
+        long from = (long) page * size;
+        long to = Math.min(meta.getTotalCount(), from + size);
+
+        List<ContestResultResponse> items = new ArrayList<>();
+        if (from < to) {
+            // 要求された範囲にかかるスナップショットページだけを読む
+            int firstPage = (int) (from / meta.getPageSize());
+            int lastPage = (int) ((to - 1) / meta.getPageSize());
+            for (int p = firstPage; p <= lastPage; p++) {
+                Optional<ResultSnapshotPage> snapshotPage = read(pageKey(contestId, p), new TypeReference<ResultSnapshotPage>() {});
+                if (snapshotPage.isEmpty()) {
+                    log.warn("Result snapshot page missing. contestId={}, page={}", contestId, p);
+                    return Optional.empty();
+                }
+                long pageStart = (long) p * meta.getPageSize();
+                List<ContestResultResponse> pageItems = snapshotPage.get().getItems();
+                for (int i = 0; i < pageItems.size(); i++) {
+                    long index = pageStart + i;
+                    if (index >= from && index < to) {
+                        items.add(pageItems.get(i));
+                    }
+                }
+            }
+        }
+
+        return Optional.of(ContestResultListResponse.builder()
+                .contestResultResponses(items)
+                .totalCount(meta.getTotalCount())
+                .build());
+    }
+
+    /**
+     * スナップショットから優勝作品一覧を返す。スナップショットが無ければ Optional.empty()
+     */
+    public Optional<ContestWinnerListResponse> findWinners(Long contestId) {
+        return findMeta(contestId).flatMap(this::findWinners);
+    }
+
+    /**
+     * 取得済みの目次を使って優勝作品一覧を返す
+     */
+    public Optional<ContestWinnerListResponse> findWinners(ResultSnapshotMeta meta) {
+        return read(winnersKey(meta.getContestId()), new TypeReference<List<ContestWinnerDto>>() {})
+                .map(winners -> ContestWinnerListResponse.builder()
+                        .winners(winners)
+                        .totalWinnerCount(winners.size())
+                        .build());
+    }
+
+    /**
+     * スナップショットの目次を返す。未作成（または取り下げ済み）なら Optional.empty()
+     */
+    public Optional<ResultSnapshotMeta> findMeta(Long contestId) {
+        return read(metaKey(contestId), new TypeReference<ResultSnapshotMeta>() {});
+    }
+
+    private <T> Optional<T> read(String key, TypeReference<T> type) {
+        try {
+            Optional<byte[]> bytes = storage.get(key);
+            if (bytes.isEmpty()) {
+                return Optional.empty();
+            }
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes.get()))) {
+                return Optional.of(objectMapper.readValue(in, type));
+            }
+        } catch (Exception e) {
+            // スナップショットが読めない場合は DB から返せばよいので、例外にはしない
+            log.warn("Failed to read result snapshot. key={}", key, e);
+            return Optional.empty();
+        }
+    }
+
+    private byte[] gzipJson(Object value) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(buffer)) {
+            objectMapper.writeValue(out, value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize result snapshot.", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String metaKey(Long contestId) {
+        return PREFIX + contestId + "/meta.json.gz";
+    }
+
+    private static String pageKey(Long contestId, int page) {
+        return PREFIX + contestId + "/page-" + page + ".json.gz";
+    }
+
+    private static String winnersKey(Long contestId) {
+        return PREFIX + contestId + "/winners.json.gz";
+    }
+}
@@ -3,6 +3,7 @@ package nagasawakenji.walkfind.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.domain.dto.UpdatingContestResponse;
+import nagasawakenji.walkfind.domain.event.ContestScheduleChangedEvent;
 import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.model.User;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
@@ -11,6 +12,7 @@ import nagasawakenji.walkfind.domain.statusenum.UserRole;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,7 @@ public class UpdatingContestService {
 
     private final ContestMapper contestMapper;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * コンテスト更新ロジック
@@ -134,6 +137,9 @@ public class UpdatingContestService {
             if (updated == 0) {
                 throw new DatabaseOperationException("コンテスト情報の更新に失敗しました。");
             }
+
+            // コミット後に開始・終了日時のステータス切り替えを予約する
+            eventPublisher.publishEvent(new ContestScheduleChangedEvent(contest.getId()));
             return mapToUpdatingContestResponse(contest);
 
         } catch (DatabaseOperationException e) {
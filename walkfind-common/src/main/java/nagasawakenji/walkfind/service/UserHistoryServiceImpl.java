@@ -10,12 +10,14 @@ import nagasawakenji.walkfind.infra.mybatis.mapper.UserMapper;         // ⭐ Us
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserProfileMapper; // ⭐ UserProfileMapperをインポート
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserHistoryMapper; // ⭐ UserHistoryMapperをインポート
 import nagasawakenji.walkfind.exception.UserStatusException;
+import nagasawakenji.walkfind.infra.concurrent.ParallelQueryExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // 読み取りトランザクションを使用
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * UserHistoryServiceの実装クラス。
@@ -31,6 +33,7 @@ public class UserHistoryServiceImpl implements UserHistoryService {
     private final UserMapper userMapper;
     private final UserProfileMapper userProfileMapper;
     private final UserHistoryMapper userHistoryMapper;
+    private final ParallelQueryExecutor parallelQueryExecutor;
 
     private static final int RECENT_POSTS_LIMIT = 10;
 
@@ -82,15 +85,17 @@ public class UserHistoryServiceImpl implements UserHistoryService {
         userMapper.findById(userId)
                 .orElseThrow(() -> new UserStatusException("指定されたユーザーは存在しません。", "NOT_FOUND"));
 
-        // 1. コンテスト成績リストの取得 (UserHistoryMapperを使用)
-        List<ContestResultDto> contestResults = userHistoryMapper.getUserContestResults(userId);
-
-        // 2. 最近の公開投稿写真リストの取得 (UserHistoryMapperを使用)
-        List<PhotoDto> recentPublicPosts = userHistoryMapper.getUserRecentPosts(userId, RECENT_POSTS_LIMIT);
+        // 1. コンテスト成績リストと 2. 最近の公開投稿写真リストは独立しているので並列に取得する
+        ParallelQueryExecutor.Batch batch = parallelQueryExecutor.batch();
+        Supplier<List<ContestResultDto>> contestResults =
+                batch.add(() -> userHistoryMapper.getUserContestResults(userId));
+        Supplier<List<PhotoDto>> recentPublicPosts =
+                batch.add(() -> userHistoryMapper.getUserRecentPosts(userId, RECENT_POSTS_LIMIT));
+        batch.execute();
 
         return UserHistoryResponse.builder()
-                .contestResults(contestResults)
-                .recentPublicPosts(recentPublicPosts)
+                .contestResults(contestResults.get())
+                .recentPublicPosts(recentPublicPosts.get())
                 .build();
     }
 }
\ No newline at end of file
@@ -3,96 +3,111 @@ package nagasawakenji.walkfind.service;
 import nagasawakenji.walkfind.domain.model.User;
 import nagasawakenji.walkfind.domain.dto.UserProfileResponse;
 import nagasawakenji.walkfind.domain.model.UserProfile;
-import nagasawakenji.walkfind.domain.statusenum.UserRole;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserMapper;
 import nagasawakenji.walkfind.exception.UserStatusException;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserProfileMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.OffsetDateTime;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ユーザー情報のDB管理、同期、および基本情報取得を担うサービス。
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UserService {
 
     private final UserMapper userMapper;
     private final UserProfileMapper userProfileMapper;
+    private final long recentlySyncedMillis;
+    private final int maxRecentlySynced;
+
+    // 最近同期したユーザー（コンテナ単位）。この間の再ログインは DB に問い合わせない
+    private final ConcurrentHashMap<String, SyncedUser> recentlySynced = new ConcurrentHashMap<>();
+
+    public UserService(UserMapper userMapper,
+                       UserProfileMapper userProfileMapper,
+                       @Value("${walkfind.user-sync.recent-minutes:10}") long recentMinutes,
+                       @Value("${walkfind.user-sync.max-entries:10000}") int maxRecentlySynced) {
+        this.userMapper = userMapper;
+        this.userProfileMapper = userProfileMapper;
+        this.recentlySyncedMillis = recentMinutes * 60_000L;
+        this.maxRecentlySynced = maxRecentlySynced;
+    }
 
     /**
      * ユーザー情報の取得・同期を行う。
      * ユーザーが存在しない場合は新規作成し、
      * プロフィールが存在しない場合（不整合データ）は自動修復する。
+     *
+     * 作成・修復・取得は1文で行い（UserMapper.syncUser）、同じユーザーの同期は
+     * walkfind.user-sync.recent-minutes の間スキップする。
      */
     @Transactional
     public User syncUser(String cognitoId, String email, String username) {
 
-        log.info("/api/v1/auth/login  ユーザー情報を取得開始します  now_time:{}", OffsetDateTime.now());
-
-        // まずユーザーテーブルを確認
-        User user = userMapper.findById(cognitoId).orElse(null);
-
-        if (user == null) {
-            log.info("User not found in DB. Creating new user: {}", cognitoId);
-
-            user = new User();
-            user.setUserId(cognitoId);
-            user.setEmail(email);
-            user.setUserName(username);
-            user.setRole(UserRole.USER);
-            user.setActive(true);
-
-            try {
-                int insertedUser = userMapper.insert(cognitoId, username, email);
-                if (insertedUser == 0) {
-                    throw new DatabaseOperationException("User insertion failed. Rows affected: 0");
-                }
-            } catch (Exception e) {
-                // DB操作失敗時はロールバックさせるため例外を投げる
-                log.error("Failed to insert new user {} into DB.", cognitoId, e);
-                throw new DatabaseOperationException("Failed to insert new user into database.", e);
-            }
-        } else {
-            log.info("User found in DB: {}", cognitoId);
-            // 必要に応じて、ここでCognito側の最新情報(email, username)でDBを更新する処理を入れても良い
+        long now = System.currentTimeMillis();
+        SyncedUser recent = recentlySynced.get(cognitoId);
+        if (recent != null && now - recent.syncedAt() < recentlySyncedMillis) {
+            log.debug("User recently synced, skipping DB: {}", cognitoId);
+            return recent.user();
         }
 
-        // ユーザーが「新規作成」か「既存」かに関わらず、プロフィールデータが欠損していないか確認する。
-        // これにより、過去の不整合データ（ユーザーだけいてプロフィールがない状態）をログイン時に修復できる。
-        boolean profileExists = userProfileMapper.findByUserId(cognitoId).isPresent();
-
-        if (!profileExists) {
-            log.warn("UserProfile missing for user {}. Creating default profile (Auto-Repair).", cognitoId);
-
-            UserProfile newProfile = new UserProfile();
-            newProfile.setUserId(cognitoId);
-            // 初期値が必要であればここでセット (例: newProfile.setBio(""); )
-
-            try {
-                int insertedProfile = userProfileMapper.insert(newProfile);
-                if (insertedProfile == 0) {
-                    throw new DatabaseOperationException("Profile insertion failed. Rows affected: 0");
-                }
-                log.info("Created missing profile for user: {}", cognitoId);
-            } catch (Exception e) {
-                log.error("Failed to insert profile for user {}", cognitoId, e);
-                throw new DatabaseOperationException("Failed to insert profile.", e);
-            }
+        User user;
+        try {
+            user = userMapper.syncUser(cognitoId, username, email)
+                    // 同時に初回ログインした別トランザクションが先に作った（この文からは見えない）。
+                    // その行とプロフィールはコミット済みなので、読み直すだけでよい
+                    .or(() -> userMapper.findById(cognitoId))
+                    .orElseThrow(() -> new DatabaseOperationException("User sync returned no rows: " + cognitoId));
+        } catch (DatabaseOperationException e) {
+            throw e;
+        } catch (Exception e) {
+            // DB操作失敗時はロールバックさせるため例外を投げる
+            log.error("Failed to sync user {} into DB.", cognitoId, e);
+            throw new DatabaseOperationException("Failed to sync user into database.", e);
         }
 
-        log.info("/api/v1/auth/login  ユーザー情報レスポンスを返却します  now_time:{}", OffsetDateTime.now());
-
+        log.info("User synced: {}", cognitoId);
+        rememberAfterCommit(new SyncedUser(user, now));
         return user;
     }
 
+    // ロールバックされた同期を「同期済み」にしないよう、コミット後に覚える
+    private void rememberAfterCommit(SyncedUser synced) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(synced);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(synced);
+            }
+        });
+    }
+
+    private void remember(SyncedUser synced) {
+        if (recentlySynced.size() >= maxRecentlySynced) {
+            long expired = System.currentTimeMillis() - recentlySyncedMillis;
+            recentlySynced.values().removeIf(s -> s.syncedAt() <= expired);
+            if (recentlySynced.size() >= maxRecentlySynced) {
+                // 期限内のユーザーだけで埋まっている。次回のログインで DB に問い合わせるだけなので全部捨てる
+                recentlySynced.clear();
+            }
+        }
+        recentlySynced.put(synced.user().getUserId(), synced);
+    }
+
+    private record SyncedUser(User user, long syncedAt) {}
+
 
     @Transactional(readOnly = true)
     public UserProfileResponse getUserProfile(String userId) {
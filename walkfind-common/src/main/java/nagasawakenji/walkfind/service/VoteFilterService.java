@@ -0,0 +1,235 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.VoteFilterStatsResponse;
+import nagasawakenji.walkfind.domain.model.Vote;
+import nagasawakenji.walkfind.infra.bloom.VoteBloomFilter;
+import nagasawakenji.walkfind.infra.mybatis.mapper.VoteMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重複投票（投票済みの写真の再クリック）を見分けるための、コンテストごとの「投票済みかもしれない」フィルタ。
+ *
+ * 開催中コンテストへの最初の投票で votes から作り、以降は投票成功のたびに追加する。
+ * VotingService は写真の存在とコンテストの開催状況を確かめた後に判定し、votes のインデックス1回で確定させる
+ * （フィルタの有無で結果は変わらない）。
+ *
+ * 終了日時を過ぎたコンテスト、削除された写真・コンテストはフィルタから外す。
+ */
+@Service
+@Slf4j
+public class VoteFilterService {
+
+    private final VoteMapper voteMapper;
+    private final double targetFpp;
+    private final long maxBitsPerContest;
+    private final int minCapacity;
+    private final int maxContests;
+
+    private final ConcurrentHashMap<Long, ContestFilter> filters = new ConcurrentHashMap<>();
+    // 写真 → コンテスト（投票リクエストは photoId しか持たないため）
+    private final ConcurrentHashMap<Long, Long> photoContests = new ConcurrentHashMap<>();
+
+    public VoteFilterService(VoteMapper voteMapper,
+                             @Value("${walkfind.vote-filter.target-fpp:0.01}") double targetFpp,
+                             @Value("${walkfind.vote-filter.max-bits-per-contest:8388608}") long maxBitsPerContest,
+                             @Value("${walkfind.vote-filter.min-capacity:10000}") int minCapacity,
+                             @Value("${walkfind.vote-filter.max-contests:64}") int maxContests) {
+        this.voteMapper = voteMapper;
+        this.targetFpp = targetFpp;
+        this.maxBitsPerContest = maxBitsPerContest;
+        this.minCapacity = minCapacity;
+        this.maxContests = maxContests;
+    }
+
+    /**
+     * 投票済みの可能性があるか。false なら確実に未投票（または判定できない）
+     */
+    public boolean mightHaveVoted(Long photoId, String userId) {
+        Long contestId = photoContests.get(photoId);
+        if (contestId == null) {
+            return false;
+        }
+        ContestFilter filter = filters.get(contestId);
+        if (filter == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() >= filter.votingEndsAtMillis) {
+            // 投票期間が終わった。以降は通常の処理で VOTING_CLOSED を返す
+            drop(contestId, "voting ended");
+            return false;
+        }
+
+        filter.checks.incrementAndGet();
+        boolean positive = filter.bloom.mightContain(photoId, userId);
+        if (positive) {
+            filter.positives.incrementAndGet();
+        }
+        return positive;
+    }
+
+    /**
+     * 「投票済みかも」と答えたが DB では未投票だった
+     */
+    public void recordFalsePositive(Long photoId) {
+        Long contestId = photoContests.get(photoId);
+        ContestFilter filter = contestId != null ? filters.get(contestId) : null;
+        if (filter != null) {
+            filter.falsePositives.incrementAndGet();
+        }
+    }
+
+    /**
+     * 開催中と確認できた写真をフィルタの対象にする（コンテストのフィルタが無ければ votes から作る）
+     */
+    public void track(Long contestId, OffsetDateTime endDate, Long photoId) {
+        ContestFilter filter = filters.get(contestId);
+        if (filter == null) {
+            filter = load(contestId, endDate);
+        }
+        if (filter.photoIds.add(photoId)) {
+            photoContests.put(photoId, contestId);
+        }
+    }
+
+    /**
+     * 投票済みの (photoId, userId) を追加する。容量を超えたら破棄し、次の投票で作り直す
+     */
+    public void recordVote(Long contestId, Long photoId, String userId) {
+        ContestFilter filter = filters.get(contestId);
+        if (filter == null) {
+            return;
+        }
+        filter.bloom.put(photoId, userId);
+        if (filter.bloom.isSaturated()) {
+            drop(contestId, "saturated");
+        }
+    }
+
+    /**
+     * 削除された写真を外す（以降は通常の処理で PHOTO_NOT_FOUND を返す）
+     */
+    public void forgetPhoto(Long contestId, Long photoId) {
+        photoContests.remove(photoId);
+        ContestFilter filter = filters.get(contestId);
+        if (filter != null) {
+            filter.photoIds.remove(photoId);
+        }
+    }
+
+    public void invalidate(Long contestId) {
+        drop(contestId, "invalidated");
+    }
+
+    public List<VoteFilterStatsResponse> stats() {
+        return filters.values().stream()
+                .sorted(Comparator.comparing(f -> f.contestId))
+                .map(ContestFilter::toStats)
+                .toList();
+    }
+
+    private ContestFilter load(Long contestId, OffsetDateTime endDate) {
+        long start = System.currentTimeMillis();
+        List<Vote> keys = voteMapper.findVoteKeysByContest(contestId);
+
+        long voteCount = keys.stream().filter(k -> k.getUserId() != null).count();
+        // 開催中は増えていくので、今の件数の2倍（最低 min-capacity）を見込む
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(minCapacity, voteCount * 2));
+        ContestFilter filter = new ContestFilter(
+                contestId,
+                VoteBloomFilter.create(capacity, targetFpp, maxBitsPerContest),
+                endDate != null ? endDate.toInstant().toEpochMilli() : Long.MAX_VALUE);
+
+        for (Vote key : keys) {
+            filter.photoIds.add(key.getPhotoId());
+            if (key.getUserId() != null) {
+                filter.bloom.put(key.getPhotoId(), key.getUserId());
+            }
+        }
+
+        evictIfFull(contestId);
+        ContestFilter existing = filters.putIfAbsent(contestId, filter);
+        if (existing != null) {
+            // 並行して作られていた方を使う
+            return existing;
+        }
+        for (Long photoId : filter.photoIds) {
+            photoContests.put(photoId, contestId);
+        }
+
+        log.info("Vote filter loaded. contestId={}, photos={}, votes={}, bits={}, hashes={}, elapsedMs={}",
+                contestId, filter.photoIds.size(), voteCount, filter.bloom.getBitCount(),
+                filter.bloom.getHashCount(), System.currentTimeMillis() - start);
+        return filter;
+    }
+
+    private void drop(Long contestId, String reason) {
+        ContestFilter filter = filters.remove(contestId);
+        if (filter == null) {
+            return;
+        }
+        for (Long photoId : filter.photoIds) {
+            photoContests.remove(photoId, contestId);
+        }
+        VoteFilterStatsResponse stats = filter.toStats();
+        log.info("Vote filter dropped ({}). contestId={}, inserted={}, checks={}, positives={}, falsePositives={}, observedFpp={}, expectedFpp={}",
+                reason, contestId, stats.getInsertedCount(), stats.getChecks(), stats.getPositives(),
+                stats.getFalsePositives(), stats.getObservedFpp(), stats.getExpectedFpp());
+    }
+
+    // 保持数の上限を超える場合は、最も判定回数の少ないものを捨てる
+    private void evictIfFull(Long loading) {
+        while (filters.size() >= maxContests && !filters.containsKey(loading)) {
+            filters.values().stream()
+                    .min(Comparator.comparingLong(f -> f.checks.get()))
+                    .ifPresent(victim -> drop(victim.contestId, "evicted"));
+            if (filters.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private static final class ContestFilter {
+        private final Long contestId;
+        private final VoteBloomFilter bloom;
+        private final long votingEndsAtMillis;
+        private final Set<Long> photoIds = ConcurrentHashMap.newKeySet();
+        private final AtomicLong checks = new AtomicLong();
+        private final AtomicLong positives = new AtomicLong();
+        private final AtomicLong falsePositives = new AtomicLong();
+
+        private ContestFilter(Long contestId, VoteBloomFilter bloom, long votingEndsAtMillis) {
+            this.contestId = contestId;
+            this.bloom = bloom;
+            this.votingEndsAtMillis = votingEndsAtMillis;
+        }
+
+        private VoteFilterStatsResponse toStats() {
+            long fp = falsePositives.get();
+            // 真の陰性 = 判定回数 - 本当に投票済みだった回数
+            long negatives = checks.get() - (positives.get() - fp);
+            return VoteFilterStatsResponse.builder()
+                    .contestId(contestId)
+                    .photoCount(photoIds.size())
+                    .insertedCount(bloom.getInsertedCount())
+                    .capacity(bloom.getCapacity())
+                    .bitCount(bloom.getBitCount())
+                    .hashCount(bloom.getHashCount())
+                    .memoryBytes(bloom.getMemoryBytes())
+                    .expectedFpp(bloom.expectedFpp())
+                    .checks(checks.get())
+                    .positives(positives.get())
+                    .falsePositives(fp)
+                    .observedFpp(negatives > 0 ? (double) fp / negatives : 0.0)
+                    .build();
+        }
+    }
+}
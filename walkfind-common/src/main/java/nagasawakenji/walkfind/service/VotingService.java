@@ -2,6 +2,7 @@ package nagasawakenji.walkfind.service;
 
 import nagasawakenji.walkfind.domain.dto.VoteRequest;
 import nagasawakenji.walkfind.domain.dto.VoteResult;
+import nagasawakenji.walkfind.domain.event.VoteCastEvent;
 import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
 import nagasawakenji.walkfind.domain.model.UserPhoto;
@@ -13,6 +14,7 @@ import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.VoteMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,8 @@ public class VotingService {
     private final PhotoMapper photoMapper;
     private final ContestMapper contestMapper;
     private final UserProfileContestEntryService userProfileContestEntryService;
+    private final VoteFilterService voteFilterService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 投票のビジネスロジックを実行する。
@@ -53,10 +57,21 @@ public class VotingService {
                 return buildResult(photoId, VoteStatus.VOTING_CLOSED, "投票はコンテスト開催期間中のみ可能です。");
             }
 
+            voteFilterService.track(photo.getContestId(), contest.getEndDate(), photoId);
+
             // 重複投票チェック (1投稿につき1ユーザー1回のみ)
+            // 写真・コンテストを確かめた後に判定する（削除済み・期間外の写真に ALREADY_VOTED を返さない）。
+            // フィルタは他のインスタンスの投票を知らないので、「未投票」でも votes で確かめる
+            boolean mightHaveVoted = voteFilterService.mightHaveVoted(photoId, userId);
             if (voteMapper.findByPhotoAndUser(photoId, userId).isPresent()) {
+                if (!mightHaveVoted) {
+                    voteFilterService.recordVote(photo.getContestId(), photoId, userId);
+                }
                 return buildResult(photoId, VoteStatus.ALREADY_VOTED, "既にこの投稿に投票済みです。");
             }
+            if (mightHaveVoted) {
+                voteFilterService.recordFalsePositive(photoId);
+            }
 
             // 投票データの記録 (votesテーブル)
             Vote newVote = new Vote();
@@ -72,6 +87,11 @@ public class VotingService {
                         .incrementIfFirstEntry(userId, contest.getId());
                 log.info("Vote successful for photo {}. User {}", photoId, userId);
 
+                voteFilterService.recordVote(photo.getContestId(), photoId, userId);
+
+                // コミット後にリーダーボード（ライブ順位）へ反映する
+                eventPublisher.publishEvent(new VoteCastEvent(photo.getContestId(), photoId));
+
                 return buildResult(photoId, VoteStatus.SUCCESS, "投票が完了しました。");
             } else {
                 // データベース操作に不整合が発生した場合
@@ -0,0 +1,66 @@
+package nagasawakenji.walkfind.service.listener;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.event.ContestClosedEvent;
+import nagasawakenji.walkfind.service.ContestResultPipelineService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 投票が締め切られたら、定期実行を待たずにそのコンテストの結果発表までを実行する。
+ *
+ * パイプラインは再実行の待ち時間を含むため、締め切りをコミットしたスレッド
+ * （web では締め切りのタイマーのスレッド）では実行せず、専用のワーカーに渡す。
+ * 待ち行列が溢れた場合や失敗した場合は、定期実行（runAllPending）が終わっていない段から実行し直す。
+ */
+@Component
+@Slf4j
+public class ContestResultPipelineListener {
+
+    private final ContestResultPipelineService contestResultPipelineService;
+    private final ThreadPoolExecutor workers;
+
+    public ContestResultPipelineListener(ContestResultPipelineService contestResultPipelineService,
+                                         @Value("${walkfind.result-pipeline.threads:1}") int threads,
+                                         @Value("${walkfind.result-pipeline.queue-capacity:100}") int queueCapacity) {
+        this.contestResultPipelineService = contestResultPipelineService;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "result-pipeline-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onContestClosed(ContestClosedEvent e) {
+        try {
+            workers.execute(() -> contestResultPipelineService.run(e.contestId()));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Result pipeline queue is full, left to the periodic run. contestId={}", e.contestId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,25 @@
+package nagasawakenji.walkfind.service.listener;
+
+import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.domain.event.ContestScheduleChangedEvent;
+import nagasawakenji.walkfind.infra.scheduler.ContestDeadlineScheduler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * コミット済みのコンテスト作成・日時変更を、ステータス切り替えの予約に反映する
+ */
+@Component
+@RequiredArgsConstructor
+public class ContestScheduleListener {
+
+    // 予約を無効にしている環境では Bean が無い
+    private final ObjectProvider<ContestDeadlineScheduler> contestDeadlineScheduler;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onScheduleChanged(ContestScheduleChangedEvent e) {
+        contestDeadlineScheduler.ifAvailable(scheduler -> scheduler.onScheduleChanged(e.contestId()));
+    }
+}
@@ -0,0 +1,44 @@
+package nagasawakenji.walkfind.service.listener;
+
+import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.domain.event.ContestDeletedEvent;
+import nagasawakenji.walkfind.domain.event.PhotoRemovedEvent;
+import nagasawakenji.walkfind.domain.event.PhotoSubmittedEvent;
+import nagasawakenji.walkfind.domain.event.VoteCastEvent;
+import nagasawakenji.walkfind.service.LeaderboardService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * コミット済みの投票・投稿・削除をリーダーボードへ反映する
+ */
+@Component
+@RequiredArgsConstructor
+public class LeaderboardListener {
+
+    private final LeaderboardService leaderboardService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onVoteCast(VoteCastEvent e) {
+        leaderboardService.onVote(e.contestId(), e.photoId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPhotoSubmitted(PhotoSubmittedEvent e) {
+        // お手本写真（MODEL）は順位に関係しない
+        if ("USER".equals(e.getPhotoType())) {
+            leaderboardService.invalidate(e.getContestId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPhotoRemoved(PhotoRemovedEvent e) {
+        leaderboardService.invalidate(e.contestId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onContestDeleted(ContestDeletedEvent e) {
+        leaderboardService.invalidate(e.contestId());
+    }
+}
@@ -0,0 +1,41 @@
+package nagasawakenji.walkfind.service.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.event.ContestDeletedEvent;
+import nagasawakenji.walkfind.domain.event.UserAnonymizedEvent;
+import nagasawakenji.walkfind.service.ResultSnapshotService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 結果スナップショットの作り直し・取り下げをコミット後に行う。
+ * 作成は ContestResultPipelineService が best_rank 更新の後に行う。
+ * スナップショットが無くても結果は DB から返せるため、失敗はログ出力にとどめる。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ResultSnapshotListener {
+
+    private final ResultSnapshotService resultSnapshotService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserAnonymized(UserAnonymizedEvent e) {
+        try {
+            resultSnapshotService.republishForUser(e.userId());
+        } catch (Exception ex) {
+            log.warn("[RESULT_SNAPSHOT] republish FAILED. userId={}", e.userId(), ex);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onContestDeleted(ContestDeletedEvent e) {
+        try {
+            resultSnapshotService.unpublish(e.contestId());
+        } catch (Exception ex) {
+            log.warn("[RESULT_SNAPSHOT] unpublish FAILED. contestId={}", e.contestId(), ex);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package nagasawakenji.walkfind.service.listener;
+
+import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.domain.event.ContestDeletedEvent;
+import nagasawakenji.walkfind.domain.event.PhotoRemovedEvent;
+import nagasawakenji.walkfind.service.VoteFilterService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 削除された写真・コンテストを投票済みフィルタから外す
+ */
+@Component
+@RequiredArgsConstructor
+public class VoteFilterListener {
+
+    private final VoteFilterService voteFilterService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPhotoRemoved(PhotoRemovedEvent e) {
+        voteFilterService.forgetPhoto(e.contestId(), e.photoId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onContestDeleted(ContestDeletedEvent e) {
+        voteFilterService.invalidate(e.contestId());
+    }
+}
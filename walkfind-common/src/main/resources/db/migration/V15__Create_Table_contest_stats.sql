@@ -0,0 +1,13 @@
+--------------------------------------------------------
+--- contest_stats (集計時に一度だけ確定するコンテスト単位の統計)
+--------------------------------------------------------
+-- getUserContestResults がコンテストごとに votes を走査していたため、
+-- 結果発表時に ResultCalculationService が書き込んだ値を参照する
+CREATE TABLE contest_stats (
+    contest_id BIGINT PRIMARY KEY REFERENCES contests(id),
+    participant_count INTEGER NOT NULL DEFAULT 0, -- 投稿数（集計対象となった写真数）
+    voter_count INTEGER NOT NULL DEFAULT 0,       -- 投票したユーザー数（DISTINCT user_id）
+    calculated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE contest_stats IS '結果発表時に確定するコンテスト単位の参加者数・投票者数を保持します。';
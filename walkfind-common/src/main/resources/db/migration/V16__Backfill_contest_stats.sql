@@ -0,0 +1,16 @@
+-- 既に集計済みのコンテストについて contest_stats を埋める
+-- voter_count は旧 getUserContestResults の相関サブクエリと同じ式で算出する
+INSERT INTO contest_stats (contest_id, participant_count, voter_count)
+SELECT
+    c.id,
+    (SELECT COUNT(*)
+     FROM contest_results cr
+     WHERE cr.contest_id = c.id),
+    (SELECT COUNT(DISTINCT v.user_id)
+     FROM user_photos up_inner
+     JOIN votes v ON up_inner.id = v.photo_id
+     WHERE up_inner.contest_id = c.id)
+FROM contests c
+WHERE c.status = 'ANNOUNCED'
+   OR EXISTS (SELECT 1 FROM contest_results cr WHERE cr.contest_id = c.id)
+ON CONFLICT (contest_id) DO NOTHING;
@@ -0,0 +1,17 @@
+-- -----------------------------------------------------
+-- contests に投稿数（論理削除されていない写真の数）を持たせる
+-- ギャラリーのページングのたびに user_photos を COUNT(*) しないため
+-- 投稿・削除・管理者削除のトランザクション内で増減し、ContestCountConsistencyService が定期的にずれを補正する
+-- -----------------------------------------------------
+ALTER TABLE contests
+  ADD COLUMN photo_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE contests c
+SET photo_count = s.cnt
+FROM (
+    SELECT p.contest_id, COUNT(*) AS cnt
+    FROM user_photos p
+    WHERE p.removed_at IS NULL
+    GROUP BY p.contest_id
+) s
+WHERE c.id = s.contest_id;
@@ -0,0 +1,14 @@
+--------------------------------------------------------
+--- contest_versions (ギャラリーの ETag 用のコンテスト単位の更新カウンタ)
+--------------------------------------------------------
+-- 投票・投稿・削除のたびに増やし、ギャラリー表示の ETag に使う。
+-- 投票の多いコンテストで1行に更新が集中しないよう、(contest_id, shard) に分割して持ち、
+-- 読み取り時に SUM する（shard は 0〜7）。
+CREATE TABLE contest_versions (
+    contest_id BIGINT NOT NULL REFERENCES contests(id) ON DELETE CASCADE,
+    shard SMALLINT NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (contest_id, shard)
+);
+
+COMMENT ON TABLE contest_versions IS '投票・投稿・削除のたびに増えるコンテスト単位のバージョン（分割カウンタ）。ギャラリーの ETag に使います。';
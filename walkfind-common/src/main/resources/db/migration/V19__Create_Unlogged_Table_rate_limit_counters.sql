@@ -0,0 +1,17 @@
+--------------------------------------------------------
+--- rate_limit_counters (複数コンテナで共有するレート制限のカウンタ)
+--------------------------------------------------------
+-- Lambda はコンテナごとにメモリが分かれるため、投票・投稿のレート制限の件数をここで共有する。
+-- 失っても困らない一時データなので UNLOGGED にして WAL を書かない（クラッシュ時は空になる）。
+-- window_index は「エポックミリ秒 / ウィンドウ長」。expires_at_ms を過ぎた行は掃除してよい。
+CREATE UNLOGGED TABLE rate_limit_counters (
+    bucket_key VARCHAR(255) PRIMARY KEY,
+    window_index BIGINT NOT NULL,
+    prev_count INTEGER NOT NULL DEFAULT 0,
+    curr_count INTEGER NOT NULL DEFAULT 0,
+    expires_at_ms BIGINT NOT NULL
+);
+
+CREATE INDEX idx_rate_limit_counters_expires_at ON rate_limit_counters (expires_at_ms);
+
+COMMENT ON TABLE rate_limit_counters IS '投票・投稿のレート制限のスライディングウィンドウ（前ウィンドウ・今ウィンドウの件数）。UNLOGGED の一時データです。';
@@ -0,0 +1,23 @@
+--------------------------------------------------------
+--- blobs (内容の SHA-256 をキーにした画像の実体と参照数)
+--------------------------------------------------------
+-- 同じ画像は storage_key = blobs/{sha256 の先頭2文字}/{sha256}.{拡張子} に1つだけ置き、
+-- user_photos / contest_model_photos / user_profiles からはそのキーで参照する。
+-- ref_count はそれらの行からの参照数で、0 になった行はオブジェクトと一緒に削除する。
+-- size_bytes は S3 へ直接アップロードされた（サーバーがバイト列を見ていない）場合は NULL。
+CREATE TABLE blobs (
+    sha256 CHAR(64) PRIMARY KEY,
+    storage_key VARCHAR(1024) NOT NULL UNIQUE,
+    content_type VARCHAR(64) NOT NULL,
+    size_bytes BIGINT,
+    ref_count INTEGER NOT NULL DEFAULT 0 CHECK (ref_count >= 0),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE blobs IS 'アップロード画像の実体（SHA-256 で重複排除）と参照数。ref_count が 0 になったらオブジェクトごと削除します。';
+
+-- ML ワーカーが同じ内容・同じモデルの埋め込みを使い回すための検索
+CREATE INDEX idx_photo_embeddings_storage_key_model
+    ON photo_embeddings (storage_key, model_version)
+    WHERE status = 'READY';
@@ -0,0 +1,17 @@
+--------------------------------------------------------
+--- image_derivatives (一覧表示用に縮小した画像)
+--------------------------------------------------------
+-- 元画像のキー（source_key）と幅ごとに1行。内容アドレスのキーなら同じ画像の写真どうしで共有される。
+-- 元画像より大きい幅は作らないので、幅によっては行が無い（その場合は原寸を使う）。
+CREATE TABLE image_derivatives (
+    source_key VARCHAR(1024) NOT NULL,
+    width INTEGER NOT NULL,
+    height INTEGER NOT NULL,
+    storage_key VARCHAR(1024) NOT NULL,
+    content_type VARCHAR(64) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (source_key, width)
+);
+
+COMMENT ON TABLE image_derivatives IS '投稿写真の縮小版（幅 320 / 640 / 1280 px の JPEG）。元画像を削除するときに一緒に削除します。';
@@ -0,0 +1,15 @@
+-- image_derivatives に種類（variant）を追加する
+-- THUMBNAIL   : 一覧表示用の縮小版（幅 320 / 640 / 1280 px）
+-- MODEL_INPUT : 埋め込み計算用のモデル入力（中央を切り出した 224x224 px。撮影情報なし）
+ALTER TABLE image_derivatives
+  ADD COLUMN variant VARCHAR(16) NOT NULL DEFAULT 'THUMBNAIL'
+    CHECK (variant IN ('THUMBNAIL', 'MODEL_INPUT'));
+
+-- 同じ幅でも種類が違えば別の行にする
+ALTER TABLE image_derivatives
+  DROP CONSTRAINT image_derivatives_pkey;
+
+ALTER TABLE image_derivatives
+  ADD PRIMARY KEY (source_key, variant, width);
+
+COMMENT ON TABLE image_derivatives IS '投稿写真の縮小版（幅 320 / 640 / 1280 px の JPEG）と埋め込み計算用のモデル入力（224x224 px）。元画像を削除するときに一緒に削除します。';
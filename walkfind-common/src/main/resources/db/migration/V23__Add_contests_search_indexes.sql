@@ -0,0 +1,12 @@
+-- 管理画面のコンテスト検索（name / theme の部分一致 ILIKE）を pg_trgm の GIN インデックスで引く
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_contests_name_trgm
+  ON contests USING gin (name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_contests_theme_trgm
+  ON contests USING gin (theme gin_trgm_ops);
+
+-- 新しい順の一覧とキーセットページング（(created_at, id) がカーソルより前）
+CREATE INDEX IF NOT EXISTS idx_contests_created_at_id
+  ON contests (created_at DESC, id DESC);
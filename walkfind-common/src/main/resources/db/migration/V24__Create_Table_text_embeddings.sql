@@ -0,0 +1,21 @@
+--------------------------------------------------------
+--- text_embeddings (検索語の CLIP テキスト埋め込みのキャッシュ)
+--------------------------------------------------------
+-- 正規化した検索語とモデルごとに1行。Java が PENDING で作って ml-worker に依頼し、worker が READY にする。
+-- 同じ検索語は2回目から worker（SQS とモデル）を通らない。
+create table text_embeddings (
+  id bigserial primary key,
+  query_text varchar(200) not null,     -- NFKC・小文字・空白を詰めた検索語
+  model_version varchar(64) not null,
+  status varchar(16) not null,          -- 'PENDING' | 'READY' | 'FAILED'
+  embedding vector(512),
+  last_error text,
+  created_at timestamptz not null default now(),
+  updated_at timestamptz not null default now(),
+  unique(query_text, model_version)
+);
+
+-- 投稿写真を検索語で引くための近傍探索（MODEL 側は V12 で作成済み）
+create index if not exists idx_pe_user_hnsw_cosine
+on photo_embeddings using hnsw (embedding vector_cosine_ops)
+where photo_type = 'USER' and status = 'READY';
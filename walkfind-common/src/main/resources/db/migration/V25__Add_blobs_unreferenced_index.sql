@@ -0,0 +1,10 @@
+--------------------------------------------------------
+--- blobs の参照が無くなった実体の削除
+--------------------------------------------------------
+-- 参照が 0 になった実体は release では消さず、猶予を置いてから BlobService#sweepUnreferenced が消す
+-- （同じ内容の登録・アップロードし直しと削除が重ならないようにするため）。その対象を古い順に引く。
+CREATE INDEX idx_blobs_unreferenced
+    ON blobs (updated_at)
+    WHERE ref_count = 0;
+
+COMMENT ON TABLE blobs IS 'アップロード画像の実体（SHA-256 で重複排除）と参照数。ref_count が 0 のまま猶予を過ぎた行はオブジェクトごと削除します。';
@@ -0,0 +1,19 @@
+-- -----------------------------------------------------
+-- 結果発表の後続の段（best_rank 更新・結果スナップショット作成）の完了時刻
+-- -----------------------------------------------------
+-- 集計（aggregation_completed）のコミット後に別トランザクションで実行するため、段ごとに完了を記録する。
+-- 集計済みでどちらかが NULL のコンテストは、定期実行（ContestResultPipelineService#runAllPending）が実行し直す。
+ALTER TABLE contests
+ADD COLUMN best_rank_done_at TIMESTAMPTZ,
+ADD COLUMN snapshot_published_at TIMESTAMPTZ;
+
+-- 既に集計済みのコンテストは、従来どおり集計時に実行済みとして扱う（スナップショットが無くても DB から返せる）
+UPDATE contests
+SET best_rank_done_at = COALESCE(aggregation_completed_at, CURRENT_TIMESTAMP),
+    snapshot_published_at = COALESCE(aggregation_completed_at, CURRENT_TIMESTAMP)
+WHERE aggregation_completed = true;
+
+CREATE INDEX idx_contests_result_stages_pending
+    ON contests (id)
+    WHERE aggregation_completed = true
+      AND (best_rank_done_at IS NULL OR snapshot_published_at IS NULL);
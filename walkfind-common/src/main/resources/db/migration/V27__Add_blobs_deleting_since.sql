@@ -0,0 +1,8 @@
+--------------------------------------------------------
+--- blobs の削除中の印
+--------------------------------------------------------
+-- BlobService#sweepUnreferenced は削除する行に印を付けてコミットしてから、オブジェクトを消す
+-- （ストレージの I/O の間は行ロックを持たない）。印の付いた行には acquire で参照を増やせない。
+-- 削除に失敗した行は印を外す。印を付けたまま止まった行は、猶予を過ぎたら改めて削除の対象にする。
+ALTER TABLE blobs
+ADD COLUMN deleting_since TIMESTAMPTZ;
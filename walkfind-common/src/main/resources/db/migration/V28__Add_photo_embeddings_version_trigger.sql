@@ -0,0 +1,29 @@
+--------------------------------------------------------
+--- photo_embeddings の READY の増減で contest_versions を増やす
+--------------------------------------------------------
+-- ギャラリーの類似度は READY の埋め込みで決まる。埋め込みは ml-worker（Python）も書き込むため、
+-- アプリ側ではなくトリガーで contest_versions（ギャラリーの ETag 用）を増やす。
+-- これにより、ETag を作るときに埋め込みを数え直さずに済む（主キー参照だけになる）。
+CREATE OR REPLACE FUNCTION bump_contest_version_on_embedding() RETURNS trigger AS $$
+DECLARE
+    was_ready BOOLEAN := TG_OP <> 'INSERT' AND OLD.status = 'READY';
+    is_ready BOOLEAN := TG_OP <> 'DELETE' AND NEW.status = 'READY';
+    target BIGINT := CASE WHEN TG_OP = 'DELETE' THEN OLD.contest_id ELSE NEW.contest_id END;
+BEGIN
+    -- READY になった・READY でなくなった・READY のまま作り直された場合だけ
+    IF was_ready OR is_ready THEN
+        INSERT INTO contest_versions (contest_id, shard, version)
+        SELECT c.id, floor(random() * 8)::smallint, 1
+        FROM contests c
+        WHERE c.id = target
+        ON CONFLICT (contest_id, shard) DO UPDATE
+        SET version = contest_versions.version + 1;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_photo_embeddings_bump_contest_version
+AFTER INSERT OR UPDATE OF status, embedding OR DELETE ON photo_embeddings
+FOR EACH ROW
+EXECUTE FUNCTION bump_contest_version_on_embedding();
@@ -0,0 +1,15 @@
+--------------------------------------------------------
+--- blob_sources (撮影情報を取り除く前の内容から、取り除いた後の実体を引く)
+--------------------------------------------------------
+-- S3 へ直接アップロードされた内容アドレスのキーに撮影情報があれば、取り除いた内容の SHA-256 のキーへ保存し直す。
+-- クライアントは取り除く前の内容の SHA-256 で presigned URL を求めるので、この対応が無いと
+-- カメラで撮った写真は同じ内容でも毎回アップロードし直すことになる。
+-- 取り除く処理は決まった結果を返すので、1つの source_sha256 に対応する sha256 は1つ。
+-- 実体の行（blobs）が消えても対応は残るが、引くときに参照されている実体だけを返す。
+CREATE TABLE blob_sources (
+    source_sha256 CHAR(64) PRIMARY KEY,
+    sha256 CHAR(64) NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE blob_sources IS '撮影情報を取り除く前の内容の SHA-256 と、取り除いた後の内容の SHA-256 の対応。';
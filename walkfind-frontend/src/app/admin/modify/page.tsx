@@ -1,6 +1,6 @@
 'use client';
 
-import { useEffect, useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import Link from 'next/link';
 import { isAxiosError } from 'axios';
 import { useRouter } from 'next/navigation';
@@ -24,6 +24,7 @@ interface AdminContestsPageResponse {
   totalCount: number;
   page: number;
   size: number;
+  nextCursor: string | null;
 }
 
 interface DeletingContestResponse {
@@ -57,6 +58,8 @@ export default function AdminModifyPage() {
 
   const [page, setPage] = useState(0);
   const [size, setSize] = useState(20);
+  // cursors[p] = p ページ目を取るカーソル（前ページの nextCursor）。無いページは page で取る
+  const cursorsRef = useRef<(string | null)[]>([null]);
 
   const [status, setStatus] = useState<string>(''); // '' = 全部
   const [includeRemoved, setIncludeRemoved] = useState(false);
@@ -75,9 +78,11 @@ export default function AdminModifyPage() {
       setError(null);
 
       try {
+        const cursor = cursorsRef.current[page];
         const res = await api.get<AdminContestsPageResponse>('/admin/contests', {
           params: {
             page,
+            cursor: cursor ?? undefined,
             size,
             status: status || undefined,
             includeRemoved,
@@ -87,6 +92,7 @@ export default function AdminModifyPage() {
 
         const contestsData = res.data.contests;
         setTotalCount(res.data.totalCount);
+        cursorsRef.current = [...cursorsRef.current.slice(0, page + 1), res.data.nextCursor ?? null];
 
         // アイコンまとめ取得（失敗しても表示は継続）
         let contestsWithIcon: AdminContestResponse[] = contestsData;
@@ -136,9 +142,15 @@ export default function AdminModifyPage() {
     fetchContests();
   }, [router, page, size, status, includeRemoved, keywordQuery]);
 
+  // 検索条件・表示件数を変えたら先頭ページから取り直す
+  const resetPaging = () => {
+    cursorsRef.current = [null];
+    setPage(0);
+  };
+
   const handleSearch = () => {
     // 検索は page を 0 に戻し、入力値をクエリとして確定
-    setPage(0);
+    resetPaging();
     setKeywordQuery(keywordInput.trim());
   };
 
@@ -217,7 +229,7 @@ export default function AdminModifyPage() {
                 className="text-xs border border-gray-300 rounded px-2 py-1"
                 value={status}
                 onChange={(e) => {
-                  setPage(0);
+                  resetPaging();
                   setStatus(e.target.value);
                 }}
               >
@@ -234,7 +246,7 @@ export default function AdminModifyPage() {
                 type="checkbox"
                 checked={includeRemoved}
                 onChange={(e) => {
-                  setPage(0);
+                  resetPaging();
                   setIncludeRemoved(e.target.checked);
                 }}
               />
@@ -286,7 +298,7 @@ export default function AdminModifyPage() {
                     className="text-xs border border-gray-300 rounded px-2 py-1"
                     value={size}
                     onChange={(e) => {
-                      setPage(0);
+                      resetPaging();
                       setSize(Number(e.target.value));
                     }}
                   >
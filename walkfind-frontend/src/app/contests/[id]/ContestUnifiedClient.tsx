@@ -5,6 +5,7 @@ import Image from 'next/image';
 import Link from 'next/link';
 import axios from 'axios'; 
 import { ContestDetailResponse } from '@/types';
+import { sha256OfFile } from '@/lib/sha256';
 
 // ------------------------------------------
 // Types
@@ -18,6 +19,10 @@ interface PhotoDisplayResponse {
   userId: string;
   totalVotes: number;
   photoUrl: string;
+  // 縮小版（幅 320 / 640 / 1280 px）。まだ作られていなければ null
+  photoUrl320?: string | null;
+  photoUrl640?: string | null;
+  photoUrl1280?: string | null;
   similarityStatus?: SimilarityStatus | null;
   status?: SimilarityStatus | null;
 }
@@ -186,21 +191,27 @@ export default function ContestUnifiedClient({
       } else {
         const mimeType = submitFile.type || 'application/octet-stream';
         const key = `contest-photos/${contestId}/${Date.now()}_${submitFile.name}`;
+        const digest = await sha256OfFile(submitFile);
 
-        const presignRes = await api.get<{ photoUrl: string; key: string }>('/upload/presigned-url', {
+        const presignRes = await api.get<{ photoUrl: string | null; key: string; uploadRequired?: boolean }>('/upload/presigned-url', {
           params: {
             key,
             contentType: mimeType,
+            sha256: digest.hex,
           },
         });
 
-        const { photoUrl: uploadUrl, key: finalS3Key } = presignRes.data;
+        const { photoUrl: uploadUrl, key: finalS3Key, uploadRequired } = presignRes.data;
 
-        await axios.put(uploadUrl, submitFile, {
-          headers: {
-            'Content-Type': mimeType,
-          },
-        });
+        // 同じ画像が既に保存されていればアップロードを省略する
+        if (uploadRequired !== false && uploadUrl) {
+          await axios.put(uploadUrl, submitFile, {
+            headers: {
+              'Content-Type': mimeType,
+              'x-amz-checksum-sha256': digest.base64,
+            },
+          });
+        }
 
         await api.post('/photos', {
           contestId: Number(contestId),
@@ -303,7 +314,7 @@ export default function ContestUnifiedClient({
                 {/* Image */}
                 <div className="relative aspect-[4/3] bg-gray-100">
                    <Image
-                      src={photo.photoUrl}
+                      src={photo.photoUrl640 ?? photo.photoUrl}
                       alt={photo.title}
                       fill
                       className="object-cover"
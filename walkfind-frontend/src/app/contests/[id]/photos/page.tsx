@@ -16,6 +16,10 @@ interface PhotoDisplayResponse {
   userId: string;
   totalVotes: number;
   photoUrl: string;
+  // 縮小版（幅 320 / 640 / 1280 px）。まだ作られていなければ null
+  photoUrl320?: string | null;
+  photoUrl640?: string | null;
+  photoUrl1280?: string | null;
   submissionDate: string;
 
   // backend側の実装揺れに備えて両方受ける（どちらかが入る想定）
@@ -276,7 +280,7 @@ export default function PhotoListPage({ params }: PageProps) {
                   <div className="relative aspect-[4/3] w-full bg-gray-100 rounded-xl overflow-hidden shadow-sm transition-all duration-300 group-hover:shadow-xl group-hover:-translate-y-1">
                     {photo.photoUrl ? (
                       <Image
-                        src={photo.photoUrl}
+                        src={photo.photoUrl640 ?? photo.photoUrl}
                         alt={photo.title}
                         fill
                         className="object-cover transition-transform duration-700 group-hover:scale-105"
@@ -6,6 +6,7 @@ import Image from 'next/image';
 import Link from 'next/link';
 import axios, { isAxiosError } from 'axios';
 import { api } from '@/lib/api';
+import { sha256OfFile } from '@/lib/sha256';
 
 // 環境変数
 const IS_LOCAL = process.env.NEXT_PUBLIC_IS_LOCAL === 'true';
@@ -86,23 +87,29 @@ export default function SubmitPhotoPage({ params }: PageProps) {
         // 本番環境 (AWS): S3 Presigned URL 方式
         const mimeType = file.type || 'application/octet-stream';
         const key = `contest-photos/${contestId}/${Date.now()}_${file.name}`;
+        const digest = await sha256OfFile(file);
 
         // 1) 署名付きアップロードURLを取得（Cookie認証）
-        const presignRes = await api.get<{ photoUrl: string; key: string }>('/upload/presigned-url', {
+        //    内容の SHA-256 を渡すと、同じ画像が保存済みなら uploadRequired=false が返る
+        const presignRes = await api.get<{ photoUrl: string | null; key: string; uploadRequired?: boolean }>('/upload/presigned-url', {
           params: {
             key,
             contentType: mimeType,
+            sha256: digest.hex,
           },
         });
 
-        const { photoUrl: uploadUrl, key: finalS3Key } = presignRes.data;
+        const { photoUrl: uploadUrl, key: finalS3Key, uploadRequired } = presignRes.data;
 
         // 2) S3へ直接PUT（S3のURLは別ドメインなので api ではなく axios を使う）
-        await axios.put(uploadUrl, file, {
-          headers: {
-            'Content-Type': mimeType,
-          },
-        });
+        if (uploadRequired !== false && uploadUrl) {
+          await axios.put(uploadUrl, file, {
+            headers: {
+              'Content-Type': mimeType,
+              'x-amz-checksum-sha256': digest.base64,
+            },
+          });
+        }
 
         // 3) メタデータをDBに登録（Cookie認証）
         await api.post('/photos', {
@@ -5,6 +5,7 @@ import Link from 'next/link';
 import { useParams, useRouter } from 'next/navigation';
 import axios, { isAxiosError } from 'axios';
 import { api } from '@/lib/api';
+import { sha256OfFile } from '@/lib/sha256';
 
 // Environment variables
 const IS_LOCAL = process.env.NEXT_PUBLIC_IS_LOCAL === 'true';
@@ -38,6 +39,7 @@ interface ContestModelPhotoListResponse {
 interface PresignedUrlResponse {
   key: string;
   photoUrl: string;
+  uploadRequired?: boolean;
 }
 
 // ----------------------
@@ -151,20 +153,25 @@ export default function AdminModelPhotosPage() {
     }
     const dummyName = f.name || 'upload.png';
     const mimeType = f.type || 'application/octet-stream';
+    const digest = await sha256OfFile(f);
 
     const presign = await api.get<PresignedUrlResponse>('/upload/presigned-url', {
       params: {
         key: `contest-model-photos/${contestId}/${dummyName}`,
         contentType: mimeType,
+        sha256: digest.hex,
       },
     });
 
-    const { photoUrl: uploadUrl, key } = presign.data;
+    const { photoUrl: uploadUrl, key, uploadRequired } = presign.data;
 
-    await axios.put(uploadUrl, f, {
-      headers: { 'Content-Type': mimeType },
-      withCredentials: false,
-    });
+    // 同じ画像が既に保存されていればアップロードを省略する
+    if (uploadRequired !== false) {
+      await axios.put(uploadUrl, f, {
+        headers: { 'Content-Type': mimeType, 'x-amz-checksum-sha256': digest.base64 },
+        withCredentials: false,
+      });
+    }
 
     return key;
   };
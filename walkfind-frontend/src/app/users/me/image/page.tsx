@@ -5,6 +5,7 @@ import axios, { isAxiosError } from 'axios';
 import { useRouter } from 'next/navigation';
 import Link from 'next/link';
 import { api } from '@/lib/api';
+import { sha256OfFile } from '@/lib/sha256';
 
 // 環境変数（文字列なので boolean 化）
 const IS_LOCAL = process.env.NEXT_PUBLIC_IS_LOCAL === 'true';
@@ -13,6 +14,7 @@ const IS_LOCAL = process.env.NEXT_PUBLIC_IS_LOCAL === 'true';
 interface PresignedUrlResponse {
   photoUrl: string;
   key: string;
+  uploadRequired?: boolean;
 }
 
 export default function EditProfileImagePage() {
@@ -68,21 +70,27 @@ export default function EditProfileImagePage() {
         // ユニークなファイル名を生成 (profile-images/timestamp_filename)
         const uniqueFileName = `profile-images/${Date.now()}_${file.name}`;
         
+        const digest = await sha256OfFile(file);
+
         const presignRes = await api.get<PresignedUrlResponse>('/upload/presigned-url', {
             params: {
             key: uniqueFileName,
             contentType: file.type || 'application/octet-stream',
+            sha256: digest.hex,
             },
         });
 
-        const { photoUrl: uploadUrl, key: generatedKey } = presignRes.data;
+        const { photoUrl: uploadUrl, key: generatedKey, uploadRequired } = presignRes.data;
 
-        // 2. S3へPUT (axiosを使用、認証ヘッダなし)
-        await axios.put(uploadUrl, file, {
-            headers: {
-            'Content-Type': file.type || 'application/octet-stream',
-            },
-        });
+        // 2. S3へPUT (axiosを使用、認証ヘッダなし)。同じ画像が保存済みなら省略
+        if (uploadRequired !== false) {
+            await axios.put(uploadUrl, file, {
+                headers: {
+                'Content-Type': file.type || 'application/octet-stream',
+                'x-amz-checksum-sha256': digest.base64,
+                },
+            });
+        }
 
         // 3. DB更新 (PATCH)
         await api.patch('/me/profile/image', { profileImageUrl: generatedKey });
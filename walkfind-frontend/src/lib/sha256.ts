@@ -0,0 +1,14 @@
+/**
+ * ファイル内容の SHA-256 を計算する。
+ *
+ * hex は Presigned URL 発行時に渡し、サーバーは内容からキーを決める（同じ画像は1つにまとまる）。
+ * base64 は S3 への PUT の x-amz-checksum-sha256 ヘッダーに付ける（中身が違えば S3 が拒否する）。
+ */
+export async function sha256OfFile(file: Blob): Promise<{ hex: string; base64: string }> {
+  const digest = new Uint8Array(await crypto.subtle.digest('SHA-256', await file.arrayBuffer()));
+
+  const hex = Array.from(digest, (b) => b.toString(16).padStart(2, '0')).join('');
+  const base64 = btoa(String.fromCharCode(...digest));
+
+  return { hex, base64 };
+}
@@ -0,0 +1,34 @@
+package nagasawakenji.walkfind.config;
+
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.scheduler.EventBridgeOneShotScheduler;
+import nagasawakenji.walkfind.infra.scheduler.LoggingOneShotScheduler;
+import nagasawakenji.walkfind.infra.scheduler.OneShotScheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.scheduler.SchedulerClient;
+
+@Configuration
+@Slf4j
+public class ContestSchedulerConfig {
+
+    /**
+     * 起動先の ARN が無い環境（ローカル・テスト）では予約をログに出すだけにする
+     */
+    @Bean
+    public OneShotScheduler oneShotScheduler(
+            @Value("${walkfind.contest-scheduler.target-arn:}") String targetArn,
+            @Value("${walkfind.contest-scheduler.role-arn:}") String roleArn) {
+
+        if (targetArn.isBlank() || roleArn.isBlank()) {
+            log.warn("walkfind.contest-scheduler.target-arn / role-arn が未設定のため、ステータス切り替えの予約はログ出力のみです。");
+            return new LoggingOneShotScheduler();
+        }
+        return new EventBridgeOneShotScheduler(
+                SchedulerClient.builder().region(Region.AP_NORTHEAST_1).build(),
+                targetArn,
+                roleArn);
+    }
+}
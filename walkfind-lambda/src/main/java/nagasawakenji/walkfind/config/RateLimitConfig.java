@@ -0,0 +1,22 @@
+package nagasawakenji.walkfind.config;
+
+import nagasawakenji.walkfind.infra.mybatis.mapper.RateLimitMapper;
+import nagasawakenji.walkfind.infra.ratelimit.PostgresRateLimiter;
+import nagasawakenji.walkfind.infra.ratelimit.RateLimitProperties;
+import nagasawakenji.walkfind.infra.ratelimit.RateLimiter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    /**
+     * Lambda はコンテナごとにメモリが分かれるため、件数は DB（UNLOGGED テーブル）で共有する
+     */
+    @Bean
+    public RateLimiter rateLimiter(RateLimitMapper rateLimitMapper, RateLimitProperties props) {
+        return new PostgresRateLimiter(rateLimitMapper, props.getWindowSeconds() * 1000, props.getMaxKeys());
+    }
+}
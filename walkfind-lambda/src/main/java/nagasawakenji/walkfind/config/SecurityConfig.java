@@ -4,14 +4,19 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.auth.CognitoJwtDecoder;
+import nagasawakenji.walkfind.infra.auth.CognitoTokenVerifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpMethod; // 追加
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
@@ -103,6 +108,24 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * 検証済みトークンはコンテナ内でキャッシュする（issuer-uri からの discovery は行わない）。
+     * COGNITO_ISSUER_URI は API の関数にしか無いので、最初にトークンを検証するときに作り、
+     * JWKS もそのときに取得する（バッチ・ワーカーの関数のコールドスタートでは何もしない）。
+     */
+    @Bean
+    @Lazy
+    public CognitoTokenVerifier cognitoTokenVerifier(
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri:}") String issuerUri,
+            @Value("${walkfind.auth.token-cache.max-entries:1000}") int maxCachedTokens) {
+        return new CognitoTokenVerifier(issuerUri, maxCachedTokens);
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(@Lazy CognitoTokenVerifier cognitoTokenVerifier) {
+        return new CognitoJwtDecoder(cognitoTokenVerifier);
+    }
+
     @Bean
     public JwtAuthenticationConverter jwtAuthenticationConverter() {
         JwtGrantedAuthoritiesConverter converter = new JwtGrantedAuthoritiesConverter();
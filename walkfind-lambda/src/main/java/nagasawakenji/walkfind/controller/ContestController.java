@@ -3,12 +3,15 @@ package nagasawakenji.walkfind.controller;
 import nagasawakenji.walkfind.domain.dto.ContestDetailResponse;
 import nagasawakenji.walkfind.domain.dto.ContestResponse;
 import nagasawakenji.walkfind.service.ContestService;
+import nagasawakenji.walkfind.service.ResourceVersionService;
+import nagasawakenji.walkfind.infra.http.CachePolicies;
 import nagasawakenji.walkfind.exception.ContestNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,16 +22,22 @@ import java.util.List;
 public class ContestController {
 
     private final ContestService contestService;
+    private final ResourceVersionService resourceVersionService;
 
     /**
      * GET /api/v1/contests : 全てのアクティブなコンテストを一覧表示（認証不要）
      */
     @GetMapping
-    public ResponseEntity<List<ContestResponse>> getAllContests() {
+    public ResponseEntity<List<ContestResponse>> getAllContests(WebRequest webRequest) {
+
+        String etag = resourceVersionService.contestListEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CachePolicies.CONTEST_LIST).build();
+        }
 
         List<ContestResponse> contests = contestService.getAllActiveContests();
 
-        return ResponseEntity.ok(contests);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CachePolicies.CONTEST_LIST).body(contests);
     }
 
     /**
@@ -37,11 +46,17 @@ public class ContestController {
     @GetMapping("/announced")
     public ResponseEntity<List<ContestResponse>> getAnnouncedContests(
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "20") int size
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            WebRequest webRequest
     ) {
+        String etag = resourceVersionService.contestListEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CachePolicies.CONTEST_LIST).build();
+        }
+
         List<ContestResponse> contests = contestService.getAnnouncedContests(page, size);
 
-        return ResponseEntity.ok(contests);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CachePolicies.CONTEST_LIST).body(contests);
     }
 
     /**
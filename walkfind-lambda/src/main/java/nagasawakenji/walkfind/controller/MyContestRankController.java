@@ -0,0 +1,30 @@
+package nagasawakenji.walkfind.controller;
+
+import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.domain.dto.MyContestRankResponse;
+import nagasawakenji.walkfind.service.AuthService;
+import nagasawakenji.walkfind.service.LeaderboardService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/contests")
+@RequiredArgsConstructor
+public class MyContestRankController {
+
+    private final AuthService authService;
+    private final LeaderboardService leaderboardService;
+
+    /**
+     * GET /api/v1/contests/mine/{contestId}/rank : 自分の投稿写真の現在順位（認証必須）
+     * 投稿していない場合は 404
+     * メモリ上のリーダーボードは他のコンテナへの投票を反映しないため、DB から数える
+     */
+    @GetMapping("/mine/{contestId}/rank")
+    public ResponseEntity<MyContestRankResponse> getMyRank(@PathVariable("contestId") Long contestId) {
+        String userId = authService.getAuthenticatedUserId();
+        return leaderboardService.findMyRankFromDatabase(contestId, userId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -5,16 +5,21 @@ import nagasawakenji.walkfind.domain.dto.PhotoListResponse;
 import nagasawakenji.walkfind.domain.dto.PhotoResponse;
 import nagasawakenji.walkfind.service.AuthService;
 import nagasawakenji.walkfind.service.PhotoDisplayService;
+import nagasawakenji.walkfind.service.ResourceVersionService;
+import nagasawakenji.walkfind.infra.http.CachePolicies;
 import nagasawakenji.walkfind.exception.ContestNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.service.S3DownloadPresignService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URL;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/contests")
@@ -25,6 +30,7 @@ public class PhotoListController {
     private final PhotoDisplayService photoDisplayService;
     private final S3DownloadPresignService s3DownloadPresignService;
     private final AuthService authService;
+    private final ResourceVersionService resourceVersionService;
 
     /**
      * GET /api/v1/contests/{contestId}/photos : 特定コンテストの投稿写真リストを取得
@@ -36,12 +42,30 @@ public class PhotoListController {
     @GetMapping("/{contestId}/photos")
     public ResponseEntity<PhotoListResponse> getPhotos(@PathVariable("contestId") Long contestId,
                                                        @RequestParam(value = "page", defaultValue = "0") int page,
-                                                       @RequestParam(value = "size", defaultValue = "20") int size) {
+                                                       @RequestParam(value = "size", defaultValue = "20") int size,
+                                                       WebRequest webRequest) {
 
         String userId = authService.getAuthenticatedUserId();
+
+        // 本体のクエリより先に版だけを引き、変わっていなければ 304 を返す
+        // （版を先に読むので、間に投票が入っても ETag が古い側にずれるだけで、古い内容を新しい ETag で返すことはない）
+        Optional<String> etag = resourceVersionService.galleryEtag(contestId, userId);
+        if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag.get())
+                    .cacheControl(CachePolicies.GALLERY)
+                    .varyBy(HttpHeaders.COOKIE)
+                    .build();
+        }
+
         PhotoListResponse response = photoDisplayService.getPhotosByContest(contestId, page, size, userId);
         handlePhotoUrl(response);
-        return ResponseEntity.ok(response);
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .cacheControl(CachePolicies.GALLERY)
+                .varyBy(HttpHeaders.COOKIE);
+        etag.ifPresent(ok::eTag);
+        return ok.body(response);
     }
 
 
@@ -56,10 +80,18 @@ public class PhotoListController {
 
     private void handlePhotoUrl(PhotoListResponse response) {
         response.getPhotoResponses().forEach(photo -> {
-            if (photo.getPhotoUrl() != null && !photo.getPhotoUrl().isBlank()) {
-                URL url = s3DownloadPresignService.generatedDownloadUrl(photo.getPhotoUrl());
-                photo.setPhotoUrl(url.toString());
-            }
+            photo.setPhotoUrl(toUrl(photo.getPhotoUrl()));
+            photo.setPhotoUrl320(toUrl(photo.getPhotoUrl320()));
+            photo.setPhotoUrl640(toUrl(photo.getPhotoUrl640()));
+            photo.setPhotoUrl1280(toUrl(photo.getPhotoUrl1280()));
         });
     }
+
+    private String toUrl(String key) {
+        if (key == null || key.isBlank()) {
+            return key;
+        }
+        URL url = s3DownloadPresignService.generatedDownloadUrl(key);
+        return url.toString();
+    }
 }
\ No newline at end of file
@@ -3,12 +3,17 @@ package nagasawakenji.walkfind.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.domain.dto.PresignedUrlResponse;
+import nagasawakenji.walkfind.infra.blob.BlobKeys;
+import nagasawakenji.walkfind.infra.image.ImageTypeSniffer;
+import nagasawakenji.walkfind.service.BlobService;
 import nagasawakenji.walkfind.service.S3DownloadPresignService;
 import nagasawakenji.walkfind.service.S3UploadPresignService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URL;
+import java.util.Base64;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @RestController
@@ -19,12 +24,25 @@ public class S3PresignController {
 
     private final S3UploadPresignService presignService;
     private final S3DownloadPresignService s3DownloadPresignService;
+    private final BlobService blobService;
 
     @GetMapping("/presigned-url")
     public ResponseEntity<PresignedUrlResponse> getPresignedUrl(
             @RequestParam("key") String key,          // 例: "contest-icons/1/スクリーンショット.png"
-            @RequestParam("contentType") String contentType // 例: "image/png" (追加！)
+            @RequestParam("contentType") String contentType, // 例: "image/png" (追加！)
+            @RequestParam(value = "sha256", required = false) String sha256 // 内容の SHA-256（16進）
     ) {
+        // 内容の SHA-256 が分かっていれば、キーを内容から決めて同じ画像を1つにまとめる
+        String hex = BlobKeys.normalizeSha256(sha256);
+        if (hex != null) {
+            // キーの拡張子は対応する画像形式のものだけ（中身が一致するかは登録時に先頭バイトで確かめる）
+            if (ImageTypeSniffer.extensionOf(contentType).isEmpty()) {
+                log.warn("Unsupported content type for blob upload. contentType={}", contentType);
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(presignBlob(hex, contentType));
+        }
+
         // 拡張子の抽出
         String extension = "";
         int dotIndex = key.lastIndexOf('.');
@@ -49,11 +67,36 @@ public class S3PresignController {
         PresignedUrlResponse response = PresignedUrlResponse.builder()
                 .photoUrl(url)
                 .key(safeKey)
+                .uploadRequired(true)
                 .build();
 
         return ResponseEntity.ok(response);
     }
 
+    private PresignedUrlResponse presignBlob(String sha256, String contentType) {
+        // 既に同じ内容が保存されていれば、アップロードせずに登録済みのキーを使ってもらう
+        String storedKey = blobService.findStoredKey(sha256);
+        if (storedKey != null) {
+            log.info("Upload skipped, blob already stored. key={}", storedKey);
+            return PresignedUrlResponse.builder()
+                    .key(storedKey)
+                    .uploadRequired(false)
+                    .build();
+        }
+
+        String blobKey = BlobKeys.keyOf(sha256, contentType);
+
+        // 申告された SHA-256 と中身が一致しない PUT は S3 が拒否する
+        String checksum = Base64.getEncoder().encodeToString(HexFormat.of().parseHex(sha256));
+        URL url = presignService.generateUploadUrl(blobKey, contentType, checksum);
+
+        return PresignedUrlResponse.builder()
+                .photoUrl(url)
+                .key(blobKey)
+                .uploadRequired(true)
+                .build();
+    }
+
     /**
      * ダウンロード用 Presigned URL 発行
      */
@@ -5,8 +5,14 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.handler.StreamLambdaHandler;
+import nagasawakenji.walkfind.infra.profiling.ProfilingJackson2HttpMessageConverter;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
 import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
@@ -15,15 +21,23 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import jakarta.servlet.Filter;
 
+/**
+ * リクエスト単位の MDC 設定と処理時間の内訳（DB / presign / SQS / シリアライズ）の計測を行う。
+ * 計測結果は Server-Timing ヘッダーと1行の構造化ログとして出力する。
+ */
 @Slf4j
 @Component
+// RateLimitFilter の 429 も計測・ログに含めるため、その外側で動かす
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
 public class LoggingMdcFilter implements Filter {
 
     @Override
     public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
             throws IOException, ServletException {
+        RequestProfile profile = RequestProfile.start();
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
         try {
-            HttpServletRequest request = (HttpServletRequest) req;
 
             MDC.put("method", request.getMethod());
             MDC.put("path", request.getRequestURI());
@@ -36,8 +50,33 @@ public class LoggingMdcFilter implements Filter {
                 MDC.put("userId", "anonymous");
             }
 
+            // StreamLambdaHandler が MDC に積んだ cold/warm 情報を引き継ぐ
+            String initMs = MDC.get(StreamLambdaHandler.MDC_INIT_MS);
+            if (initMs != null) {
+                profile.markColdStart(Long.parseLong(initMs));
+            }
+
             chain.doFilter(req, res);
         } finally {
+            // JSON 以外のレスポンスは ProfilingJackson2HttpMessageConverter を通らないので、ここで付与する
+            if (!response.isCommitted()
+                    && !response.containsHeader(ProfilingJackson2HttpMessageConverter.SERVER_TIMING)) {
+                response.setHeader(ProfilingJackson2HttpMessageConverter.SERVER_TIMING, profile.toServerTiming());
+            }
+
+            profile.toLogFields().forEach(MDC::put);
+            MDC.put("status", String.valueOf(response.getStatus()));
+            log.info("request_profile invocation={} status={} totalMs={} dbMs={} dbCount={} presignMs={} sqsMs={} serMs={}",
+                    MDC.get(StreamLambdaHandler.MDC_INVOCATION),
+                    response.getStatus(),
+                    MDC.get("totalMs"),
+                    MDC.get("dbMs"),
+                    MDC.get("dbCount"),
+                    MDC.get("presignMs"),
+                    MDC.get("sqsMs"),
+                    MDC.get("serMs"));
+
+            RequestProfile.end();
             MDC.clear();
         }
 
@@ -0,0 +1,62 @@
+package nagasawakenji.walkfind.filter;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.infra.ratelimit.RateLimitGuard;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 投票・写真投稿の連打を、Service / Mapper に届く前に 429 で弾く。
+ * 認証（Spring Security）の後、LoggingMdcFilter の内側で動く。
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RateLimitFilter implements Filter {
+
+    private static final String BODY =
+            "{\"status\":\"RATE_LIMITED\",\"message\":\"リクエストが多すぎます。時間を置いて再度お試しください。\"}";
+
+    private final RateLimitGuard rateLimitGuard;
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+
+        String userId = null;
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth instanceof JwtAuthenticationToken jwt) {
+            userId = jwt.getToken().getClaimAsString("sub");
+        }
+
+        // API Gateway の sourceIp が remoteAddr に入る（X-Forwarded-For はクライアントが偽装できるため使わない）
+        if (rateLimitGuard.allow(request.getMethod(), request.getRequestURI(), userId, request.getRemoteAddr())) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        HttpServletResponse response = (HttpServletResponse) res;
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimitGuard.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(BODY);
+    }
+}
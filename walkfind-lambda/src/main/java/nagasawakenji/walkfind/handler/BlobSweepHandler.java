@@ -0,0 +1,40 @@
+package nagasawakenji.walkfind.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.WalkFindLambdaApplication;
+import nagasawakenji.walkfind.service.BlobService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 参照の無くなった内容アドレスの S3 オブジェクト（と縮小版）を削除するバッチLambdaハンドラ
+ * EventBridgeから定期実行される
+ */
+@Slf4j
+public class BlobSweepHandler implements RequestHandler<Object, Integer> {
+
+    private static ConfigurableApplicationContext applicationContext;
+
+    static {
+        applicationContext = SpringApplication.run(WalkFindLambdaApplication.class);
+        log.info("BlobSweep Spring Context initialized.");
+    }
+
+    private final BlobService blobService;
+
+    public BlobSweepHandler() {
+        this.blobService = applicationContext.getBean(BlobService.class);
+    }
+
+    @Override
+    public Integer handleRequest(Object event, Context context) {
+
+        int deleted = blobService.sweepUnreferenced();
+
+        log.info("Blob Sweep Result: deleted={}", deleted);
+
+        return deleted;
+    }
+}
@@ -0,0 +1,42 @@
+package nagasawakenji.walkfind.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.WalkFindLambdaApplication;
+import nagasawakenji.walkfind.service.ContestCountConsistencyService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+/**
+ * contests.photo_count の整合性チェック用のバッチLambdaハンドラ
+ * EventBridgeから定期実行される
+ */
+@Slf4j
+public class ContestCountConsistencyHandler implements RequestHandler<Object, List<Long>> {
+
+    private static ConfigurableApplicationContext applicationContext;
+
+    static {
+        applicationContext = SpringApplication.run(WalkFindLambdaApplication.class);
+        log.info("ContestCountConsistency Spring Context initialized.");
+    }
+
+    private final ContestCountConsistencyService consistencyService;
+
+    public ContestCountConsistencyHandler() {
+        this.consistencyService = applicationContext.getBean(ContestCountConsistencyService.class);
+    }
+
+    @Override
+    public List<Long> handleRequest(Object event, Context context) {
+
+        List<Long> repaired = consistencyService.repairPhotoCounts();
+
+        log.info("Contest Count Consistency Result: repaired={}", repaired.size());
+
+        return repaired;
+    }
+}
@@ -6,6 +6,7 @@ import nagasawakenji.walkfind.WalkFindLambdaApplication;
 import nagasawakenji.walkfind.domain.dto.ContestStatusUpdateResult;
 import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.service.ContestStatusBatchService;
+import nagasawakenji.walkfind.service.NextDeadlineContestScheduler;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
@@ -13,7 +14,8 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * コンテスト状態更新用のバッチLambdaハンドラ
- * EventBridgeから定期実行される
+ * 次の開始・終了日時に EventBridge Scheduler から起動され、実行後に次の予約を登録する
+ * （取りこぼし対策として日次の定期実行も残す）
  */
 @Slf4j
 public class ContestStatusBatchHandler implements RequestHandler<Object, ContestStatusUpdateResult> {
@@ -26,9 +28,11 @@ public class ContestStatusBatchHandler implements RequestHandler<Object, Contest
     }
 
     private final ContestStatusBatchService batchService;
+    private final NextDeadlineContestScheduler deadlineScheduler;
 
     public ContestStatusBatchHandler() {
         this.batchService = applicationContext.getBean(ContestStatusBatchService.class);
+        this.deadlineScheduler = applicationContext.getBean(NextDeadlineContestScheduler.class);
     }
 
     @Override
@@ -42,6 +46,8 @@ public class ContestStatusBatchHandler implements RequestHandler<Object, Contest
                 result.getMovedToAnnounced()
         );
 
+        deadlineScheduler.rescheduleNext();
+
         return result;
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package nagasawakenji.walkfind.handler;
 
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.exception.ApiError;
+import nagasawakenji.walkfind.exception.InvalidUploadException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,6 +12,22 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    /**
+     * アップロードされた画像を受け付けられない（サイズ超過 413・形式違い 415・壊れている 422・見つからない 400）
+     */
+    @ExceptionHandler(InvalidUploadException.class)
+    public ResponseEntity<ApiError> handleInvalidUpload(InvalidUploadException e) {
+        log.warn("Rejected upload. reason={}, message={}", e.getReason(), e.getMessage());
+        HttpStatus status = switch (e.getReason()) {
+            case TOO_LARGE -> HttpStatus.PAYLOAD_TOO_LARGE;
+            case UNSUPPORTED_TYPE -> HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+            case INVALID_IMAGE -> HttpStatus.UNPROCESSABLE_ENTITY;
+            case EMPTY -> HttpStatus.BAD_REQUEST;
+        };
+        return ResponseEntity.status(status)
+                .body(new ApiError(e.getMessage(), e.getReason().name()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handle(Exception e) {
         log.error("Unhandled exception", e);
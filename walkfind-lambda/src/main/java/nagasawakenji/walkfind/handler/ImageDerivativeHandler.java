@@ -0,0 +1,62 @@
+package nagasawakenji.walkfind.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.WalkFindLambdaApplication;
+import nagasawakenji.walkfind.domain.dto.DerivativeJobMessage;
+import nagasawakenji.walkfind.service.PhotoImagePipelineService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 画像処理キュー（SQS）のLambdaハンドラ。縮小版とモデル入力を作り、埋め込みジョブを積む。
+ * 失敗したメッセージだけを batchItemFailures で返し、そのメッセージだけ再配信させる
+ * （template.yml で ReportBatchItemFailures を有効にしている）。
+ * 画像処理そのものの失敗は PhotoImagePipelineService が原寸での埋め込みに切り替えるので、再配信しない。
+ */
+@Slf4j
+public class ImageDerivativeHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    // Springコンテキストを再利用するための静的変数
+    private static ConfigurableApplicationContext applicationContext;
+
+    // 初期化ブロック (Lambdaのコールドスタート時に一度だけ実行される)
+    static {
+        log.info("ImageDerivative Spring Context initialized.");
+        applicationContext = SpringApplication.run(WalkFindLambdaApplication.class);
+    }
+
+    private final PhotoImagePipelineService photoImagePipelineService;
+    private final ObjectMapper objectMapper;
+
+    public ImageDerivativeHandler() {
+        this.photoImagePipelineService = applicationContext.getBean(PhotoImagePipelineService.class);
+        this.objectMapper = applicationContext.getBean(ObjectMapper.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        List<Map<String, Object>> records = (List<Map<String, Object>>) event.getOrDefault("Records", List.of());
+        List<Map<String, String>> failures = new ArrayList<>();
+
+        for (Map<String, Object> record : records) {
+            String messageId = (String) record.get("messageId");
+            try {
+                DerivativeJobMessage job = objectMapper.readValue((String) record.get("body"), DerivativeJobMessage.class);
+                photoImagePipelineService.process(job);
+            } catch (Exception e) {
+                log.error("Failed to process derivative job. messageId={}", messageId, e);
+                failures.add(Map.of("itemIdentifier", messageId));
+            }
+        }
+
+        return Map.of("batchItemFailures", failures);
+    }
+}
@@ -5,8 +5,7 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.WalkFindLambdaApplication;
 import nagasawakenji.walkfind.domain.dto.CalculationResult;
-import nagasawakenji.walkfind.service.ResultCalculationService;
-import nagasawakenji.walkfind.service.UserProfileRankUpdateService;
+import nagasawakenji.walkfind.service.ContestResultPipelineService;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
@@ -14,7 +13,8 @@ import java.util.List;
 
 /**
  * 結果集計処理のためのLambdaハンドラ。
- * EventBridgeからのイベントを受け取り、ResultCalculationServiceを呼び出す。
+ * 通常は締め切り直後に ContestStatusBatchHandler 内で集計されるため、ここは取りこぼし対策の定期実行。
+ * 集計待ちのコンテストごとに 集計 → best_rank → 結果スナップショット を実行する。
  */
 @Slf4j
 public class ResultCalculationHandler implements RequestHandler<Object, List<CalculationResult>> {
@@ -30,27 +30,17 @@ public class ResultCalculationHandler implements RequestHandler<Object, List<Cal
         applicationContext = SpringApplication.run(WalkFindLambdaApplication.class);
     }
 
-    private final ResultCalculationService calculationService;
-    private final UserProfileRankUpdateService userProfileRankUpdateService;
+    private final ContestResultPipelineService pipelineService;
 
     public ResultCalculationHandler() {
         // 起動済みのSpringコンテキストからServiceを取得
-        this.calculationService = applicationContext.getBean(ResultCalculationService.class);
-        this.userProfileRankUpdateService = applicationContext.getBean(UserProfileRankUpdateService.class);
+        this.pipelineService = applicationContext.getBean(ContestResultPipelineService.class);
     }
 
     @Override
     public List<CalculationResult> handleRequest(Object event, Context context) {
 
-        // 結果集計を実行
-        List<CalculationResult> results = calculationService.calculateAllClosedContests();
-
-        // 集計済みコンテストごとに best_rank を更新
-        results.stream()
-                .map(CalculationResult::getContestId)
-                .distinct()
-                .forEach(userProfileRankUpdateService::updateBestRanksForContest);
-
-        return results;
+        // 集計待ちのコンテストごとに 集計 → best_rank → 結果スナップショット
+        return pipelineService.runAllPending();
     }
 }
\ No newline at end of file
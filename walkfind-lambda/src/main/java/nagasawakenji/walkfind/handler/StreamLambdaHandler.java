@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import nagasawakenji.walkfind.WalkFindLambdaApplication;
 import org.slf4j.MDC;
@@ -20,15 +21,24 @@ import org.slf4j.MDC;
 @Slf4j
 public class StreamLambdaHandler implements RequestStreamHandler {
 
+    // LoggingMdcFilter が参照する MDC キー
+    public static final String MDC_INVOCATION = "invocation";
+    public static final String MDC_INIT_MS = "initMs";
+
     private static SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler;
 
+    // コンテナ起動後、最初の1回だけ true（コールドスタート判定）
+    private static final AtomicBoolean COLD_START = new AtomicBoolean(true);
+    private static long initMillis;
+
     static {
+        long start = System.currentTimeMillis();
         try {
             // getStreamHandlerは静的メソッドとして存在します。
             handler = SpringBootLambdaContainerHandler.getAwsProxyHandler(WalkFindLambdaApplication.class);
 
-
-            log.info("SpringBootStreamHandler initialized successfully for Spring Boot 3.");
+            initMillis = System.currentTimeMillis() - start;
+            log.info("SpringBootStreamHandler initialized successfully for Spring Boot 3. initMs={}", initMillis);
         } catch (Exception e) {
             log.error("Failed to initialize Spring Boot application context.", e);
             // 初期化失敗は致命的なエラーとしてRuntimeExceptionをスロー
@@ -45,9 +55,15 @@ public class StreamLambdaHandler implements RequestStreamHandler {
         String requestId = context != null ? context.getAwsRequestId() : "unknown";
 
         MDC.put("requestId", requestId);
+        if (COLD_START.getAndSet(false)) {
+            MDC.put(MDC_INVOCATION, "cold");
+            MDC.put(MDC_INIT_MS, String.valueOf(initMillis));
+        } else {
+            MDC.put(MDC_INVOCATION, "warm");
+        }
         // ハンドラーにリクエスト処理を委譲
         handler.proxyStream(inputStream, outputStream, context);
         // Clear MDC to avoid leakage between Lambda invocations
         MDC.clear();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package nagasawakenji.walkfind.infra.blob;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * 内容アドレスのオブジェクトを写真と同じ S3 バケットで扱う。
+ * presigned URL のアップロードは x-amz-checksum-sha256 付きなので、S3 が記録した SHA-256 を HEAD で受け取れる。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class S3BlobStorage implements BlobStorage {
+
+    private final S3Client s3Client;
+
+    @Value("${S3_BUCKET_NAME}")
+    private String bucket;
+
+    @Override
+    public Optional<StoredObject> head(String key) {
+        HeadObjectResponse response;
+        try {
+            response = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .checksumMode(ChecksumMode.ENABLED)
+                    .build());
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        }
+        return Optional.of(new StoredObject(
+                response.contentLength() != null ? response.contentLength() : 0L,
+                toHex(response.checksumSHA256()),
+                response.lastModified()));
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build());
+    }
+
+    // マルチパートの合成チェックサム（"...-N"）は内容の SHA-256 ではないので扱わない
+    private static String toHex(String checksumBase64) {
+        if (checksumBase64 == null || checksumBase64.contains("-")) {
+            return null;
+        }
+        try {
+            return HexFormat.of().formatHex(Base64.getDecoder().decode(checksumBase64));
+        } catch (IllegalArgumentException e) {
+            log.warn("Unexpected S3 checksum format. checksum={}", checksumBase64);
+            return null;
+        }
+    }
+}
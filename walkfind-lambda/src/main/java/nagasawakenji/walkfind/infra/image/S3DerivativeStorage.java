@@ -0,0 +1,58 @@
+package nagasawakenji.walkfind.infra.image;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.InputStream;
+
+/**
+ * 縮小版を写真と同じ S3 バケットに保存する
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class S3DerivativeStorage implements DerivativeStorage {
+
+    // 縮小版のキーは元画像のキーから決まり、同じキーの中身は変わらない
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final S3Client s3Client;
+
+    @Value("${S3_BUCKET_NAME}")
+    private String bucket;
+
+    @Override
+    public InputStream open(String key) {
+        // 全体をメモリに載せず、デコーダーにそのまま流す
+        return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build());
+    }
+
+    @Override
+    public void put(String key, byte[] body, String contentType) {
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .cacheControl(CACHE_CONTROL)
+                        .build(),
+                RequestBody.fromBytes(body));
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build());
+    }
+}
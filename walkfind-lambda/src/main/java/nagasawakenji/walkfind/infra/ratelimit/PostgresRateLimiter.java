@@ -0,0 +1,101 @@
+package nagasawakenji.walkfind.infra.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.model.RateLimitCounter;
+import nagasawakenji.walkfind.infra.mybatis.mapper.RateLimitMapper;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 複数コンテナで件数を共有するレート制限（rate_limit_counters、UNLOGGED テーブル）。
+ *
+ * 先にコンテナ内のカウンタで判定し、そこで上限に達していれば DB には行かない
+ * （1コンテナに集中する連打は接続を使わずに弾く）。
+ * DB 側は1文の UPSERT で加算と読み取りを行い、拒否した分も件数に含める（連打し続ける限り解除されない）。
+ * DB が使えない場合は制限せずに通す。
+ * その間のログは障害ごとに最初の1回だけスタックトレース付きで出し、以降は件数を数えて復旧時にまとめて出す。
+ */
+@Slf4j
+public class PostgresRateLimiter implements RateLimiter {
+
+    private final RateLimitMapper rateLimitMapper;
+    private final InMemoryRateLimiter local;
+    private final long windowMillis;
+
+    // 期限切れ行の掃除は1コンテナあたり1ウィンドウに1回まで
+    private final AtomicLong lastPurgedIndex = new AtomicLong(-1);
+
+    // DB が使えずに通したリクエストの件数（起動からの累計と、今の障害の間の件数）
+    private final AtomicLong failOpenCount = new AtomicLong();
+    private final AtomicLong outageFailOpenCount = new AtomicLong();
+    private final AtomicBoolean unavailable = new AtomicBoolean();
+
+    public PostgresRateLimiter(RateLimitMapper rateLimitMapper, long windowMillis, int maxLocalKeys) {
+        this.rateLimitMapper = rateLimitMapper;
+        this.local = new InMemoryRateLimiter(windowMillis, maxLocalKeys);
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int limit) {
+        if (!local.tryAcquire(key, limit)) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        long index = now / windowMillis;
+        try {
+            // 2ウィンドウ後には判定に使われなくなる
+            RateLimitCounter counter = rateLimitMapper.hit(key, index, (index + 2) * windowMillis);
+            recovered();
+            purgeOncePerWindow(index, now);
+
+            double remaining = 1.0 - (double) (now % windowMillis) / windowMillis;
+            return counter.getPrevCount() * remaining + counter.getCurrCount() <= limit;
+        } catch (RuntimeException e) {
+            failOpen(key, e);
+            return true;
+        }
+    }
+
+    /**
+     * DB が使えずに制限せず通したリクエストの累計
+     */
+    public long getFailOpenCount() {
+        return failOpenCount.get();
+    }
+
+    @Override
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    private void failOpen(String key, RuntimeException e) {
+        failOpenCount.incrementAndGet();
+        outageFailOpenCount.incrementAndGet();
+        if (unavailable.compareAndSet(false, true)) {
+            log.warn("Shared rate limiter unavailable, allowing requests until it recovers. key={}", key, e);
+        } else {
+            log.debug("Shared rate limiter still unavailable, allowing request. key={}, error={}", key, e.toString());
+        }
+    }
+
+    private void recovered() {
+        if (unavailable.compareAndSet(true, false)) {
+            log.info("Shared rate limiter recovered. allowedWhileUnavailable={}, totalFailOpen={}",
+                    outageFailOpenCount.getAndSet(0), failOpenCount.get());
+        }
+    }
+
+    private void purgeOncePerWindow(long index, long now) {
+        long last = lastPurgedIndex.get();
+        if (last >= index || !lastPurgedIndex.compareAndSet(last, index)) {
+            return;
+        }
+        int deleted = rateLimitMapper.deleteExpired(now);
+        if (deleted > 0) {
+            log.debug("Purged expired rate limit counters. deleted={}", deleted);
+        }
+    }
+}
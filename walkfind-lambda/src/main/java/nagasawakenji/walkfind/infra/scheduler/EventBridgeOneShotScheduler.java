@@ -0,0 +1,68 @@
+package nagasawakenji.walkfind.infra.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.scheduler.SchedulerClient;
+import software.amazon.awssdk.services.scheduler.model.CreateScheduleRequest;
+import software.amazon.awssdk.services.scheduler.model.FlexibleTimeWindow;
+import software.amazon.awssdk.services.scheduler.model.FlexibleTimeWindowMode;
+import software.amazon.awssdk.services.scheduler.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.scheduler.model.Target;
+import software.amazon.awssdk.services.scheduler.model.UpdateScheduleRequest;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * EventBridge Scheduler の at() 式で、指定日時に1回だけ Lambda を起動する。
+ * 同じ name のスケジュールを上書きし続けるので、スケジュールは増えない。
+ */
+@Slf4j
+public class EventBridgeOneShotScheduler implements OneShotScheduler {
+
+    private static final DateTimeFormatter AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final SchedulerClient schedulerClient;
+    private final String targetArn;
+    private final String roleArn;
+
+    public EventBridgeOneShotScheduler(SchedulerClient schedulerClient, String targetArn, String roleArn) {
+        this.schedulerClient = schedulerClient;
+        this.targetArn = targetArn;
+        this.roleArn = roleArn;
+    }
+
+    @Override
+    public void scheduleAt(String name, OffsetDateTime at) {
+        String expression = "at(" + at.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS).format(AT_FORMAT) + ")";
+        Target target = Target.builder()
+                .arn(targetArn)
+                .roleArn(roleArn)
+                .input("{}")
+                .build();
+        FlexibleTimeWindow window = FlexibleTimeWindow.builder()
+                .mode(FlexibleTimeWindowMode.OFF)
+                .build();
+
+        try {
+            schedulerClient.updateSchedule(UpdateScheduleRequest.builder()
+                    .name(name)
+                    .scheduleExpression(expression)
+                    .scheduleExpressionTimezone("UTC")
+                    .flexibleTimeWindow(window)
+                    .target(target)
+                    .build());
+        } catch (ResourceNotFoundException e) {
+            // 初回のみ作成する
+            schedulerClient.createSchedule(CreateScheduleRequest.builder()
+                    .name(name)
+                    .scheduleExpression(expression)
+                    .scheduleExpressionTimezone("UTC")
+                    .flexibleTimeWindow(window)
+                    .target(target)
+                    .build());
+        }
+        log.info("One-shot schedule registered. name={}, expression={}", name, expression);
+    }
+}
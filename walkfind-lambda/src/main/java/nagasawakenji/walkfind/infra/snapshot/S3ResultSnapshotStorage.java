@@ -0,0 +1,59 @@
+package nagasawakenji.walkfind.infra.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.util.Optional;
+
+/**
+ * 結果スナップショットを写真と同じ S3 バケットに保存する
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class S3ResultSnapshotStorage implements ResultSnapshotStorage {
+
+    private final S3Client s3Client;
+
+    @Value("${S3_BUCKET_NAME}")
+    private String bucket;
+
+    @Override
+    public void put(String key, byte[] body) {
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType("application/json")
+                        .contentEncoding("gzip")
+                        .build(),
+                RequestBody.fromBytes(body));
+    }
+
+    @Override
+    public Optional<byte[]> get(String key) {
+        try {
+            return Optional.of(s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .build()).asByteArray());
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build());
+    }
+}
@@ -3,12 +3,15 @@ package nagasawakenji.walkfind.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.domain.dto.CognitoDeleteResponse;
+import nagasawakenji.walkfind.domain.dto.CognitoUser;
+import nagasawakenji.walkfind.domain.event.UserAnonymizedEvent;
 import nagasawakenji.walkfind.domain.dto.CognitoTokenResponse;
 import nagasawakenji.walkfind.domain.statusenum.CognitoDeleteStatus;
 import nagasawakenji.walkfind.infra.CognitoOAuthClient;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserProfileMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
@@ -23,10 +26,13 @@ import java.util.UUID;
 public class AuthApplicationService {
 
     private final CognitoOAuthClient cognitoOAuthClient;
+    private final CognitoUserParserService cognitoUserParserService;
     private final UserMapper userMapper;
     private final UserProfileMapper userProfileMapper;
     private final S3DeleteService s3DeleteService;
+    private final BlobService blobService;
     private final CognitoIdentityProviderClient cognitoIdentityProviderClient;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${aws.cognito.userPoolId:}")
     private String userPoolId;
@@ -45,13 +51,12 @@ public class AuthApplicationService {
         CognitoTokenResponse token = cognitoOAuthClient.fetchToken(code);
 
         try {
-            // IDトークンをデコードしてユーザー情報を取得
-            com.auth0.jwt.interfaces.DecodedJWT jwt =
-                    com.auth0.jwt.JWT.decode(token.getIdToken());
+            // IDトークンを検証してユーザー情報を取得
+            CognitoUser parsedUser = cognitoUserParserService.parse(token.getIdToken());
 
-            String sub = jwt.getSubject(); // users.id (CognitoのUUID)
-            String username = jwt.getClaim("cognito:username").asString();
-            String email = jwt.getClaim("email").asString();
+            String sub = parsedUser.userId(); // users.id (CognitoのUUID)
+            String username = parsedUser.username();
+            String email = parsedUser.email();
 
             log.info("Cognito login user: sub={}, username={}, email={}", sub, username, email);
 
@@ -84,7 +89,8 @@ public class AuthApplicationService {
                 var profileOpt = userProfileMapper.findByUserId(requiredUserId);
                 if (profileOpt.isPresent()) {
                     String currentImageUrl = profileOpt.get().getProfileImageUrl();
-                    if (currentImageUrl != null) {
+                    // 同じ内容を他から参照していなければ削除する
+                    if (currentImageUrl != null && blobService.release(currentImageUrl)) {
                         s3DeleteService.delete(currentImageUrl);
                     }
                 }
@@ -113,6 +119,9 @@ public class AuthApplicationService {
                 throw new RuntimeException("Failed to update user record");
             }
 
+            // 公開済みの結果スナップショットに残っている旧ユーザー名をコミット後に差し替える
+            eventPublisher.publishEvent(new UserAnonymizedEvent(requiredUserId));
+
             try {
                 cognitoIdentityProviderClient.adminDeleteUser(AdminDeleteUserRequest.builder()
                         .userPoolId(userPoolId)
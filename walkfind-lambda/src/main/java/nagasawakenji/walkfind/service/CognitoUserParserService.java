@@ -1,21 +1,23 @@
 package nagasawakenji.walkfind.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import nagasawakenji.walkfind.domain.dto.CognitoUser;
 import nagasawakenji.walkfind.exception.AuthenticationProcessingException;
+import nagasawakenji.walkfind.infra.auth.CognitoTokenVerifier;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
-
 @Service
 public class CognitoUserParserService {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CognitoTokenVerifier cognitoTokenVerifier;
+
+    // 検証器は最初の parse で作る（SecurityConfig#cognitoTokenVerifier）
+    public CognitoUserParserService(@Lazy CognitoTokenVerifier cognitoTokenVerifier) {
+        this.cognitoTokenVerifier = cognitoTokenVerifier;
+    }
 
     /**
-     * Cognito の idToken (JWT) から
+     * Cognito の idToken (JWT) を検証し、
      *  - userId (sub)
      *  - username (cognito:username があればそれ、なければ sub)
      *  - email
@@ -23,44 +25,33 @@ public class CognitoUserParserService {
      */
     public CognitoUser parse(String idToken) {
         try {
-            String[] parts = idToken.split("\\.");
-            if (parts.length < 2) {
-                throw new AuthenticationProcessingException(
-                        "INVALID_JWT_FORMAT",
-                        "Invalid JWT format"
-                );
-            }
-
-            String payloadJson =
-                    new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
-
-            JsonNode payload = objectMapper.readTree(payloadJson);
+            CognitoTokenVerifier.VerifiedToken token = cognitoTokenVerifier.verify(idToken);
 
             // 必須フィールド検証
-            if (!payload.hasNonNull("sub")) {
+            if (!token.hasClaim("sub")) {
                 throw new AuthenticationProcessingException(
                         "MISSING_SUB",
                         "Cognito token does not contain sub"
                 );
             }
 
-            if (!payload.hasNonNull("cognito:username")) {
+            if (!token.hasClaim("cognito:username")) {
                 throw new AuthenticationProcessingException(
                         "MISSING_USERNAME",
                         "Cognito token does not contain cognito:username"
                 );
             }
 
-            if (!payload.hasNonNull("email")) {
+            if (!token.hasClaim("email")) {
                 throw new AuthenticationProcessingException(
                         "MISSING_EMAIL",
                         "Cognito token does not contain email"
                 );
             }
 
-            String userId = payload.get("sub").asText();
-            String username = payload.get("cognito:username").asText();
-            String email = payload.get("email").asText();
+            String userId = token.subject();
+            String username = token.claimAsString("cognito:username");
+            String email = token.claimAsString("email");
 
             return new CognitoUser(userId, username, email);
         } catch (AuthenticationProcessingException e) {
@@ -9,6 +9,7 @@ import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.model.ContestModelPhoto;
 import nagasawakenji.walkfind.domain.statusenum.ContestModelPhotoCreateStatus;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
+import nagasawakenji.walkfind.exception.InvalidUploadException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestModelPhotoMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoEmbeddingMapper;
@@ -28,6 +29,8 @@ public class ContestModelPhotoService {
     private final S3DeleteService s3DeleteService;
     private final ApplicationEventPublisher eventPublisher;
     private final PhotoEmbeddingMapper photoEmbeddingMapper;
+    private final BlobService blobService;
+    private final S3ImageInspectionService s3ImageInspectionService;
 
     /**
      * POST /api/v1/contests/{contestId}/modelPhoto
@@ -61,10 +64,30 @@ public class ContestModelPhotoService {
                     .build();
         }
 
+        // 画像の検証と撮影情報の除去（同じ内容が登録済みなら検証済み）
+        // 撮影情報を取り除いた内容アドレスのキーは、取り除いた内容のキーに変わる
+        String storedKey = req.getKey();
+        if (!blobService.isStored(req.getKey())) {
+            try {
+                storedKey = s3ImageInspectionService.inspect(req.getKey());
+            } catch (InvalidUploadException e) {
+                log.warn("Rejected uploaded model photo. key={}, reason={}", req.getKey(), e.getReason());
+                bestEffortDeleteS3(req.getKey());
+                return ContestModelPhotoListResponse.builder()
+                        .status(ContestModelPhotoCreateStatus.INVALID_REQUEST)
+                        .photos(List.of())
+                        .build();
+            }
+        }
+
+        // 同じ内容を他の行が参照していれば、失敗しても S3 は消さない
+        boolean ownsObject = false;
         try {
+            ownsObject = blobService.acquire(storedKey);
+
             ContestModelPhoto photo = new ContestModelPhoto();
             photo.setContestId(contestId);
-            photo.setPhotoUrl(req.getKey()); // DBのphoto_urlに「S3 key」を保存
+            photo.setPhotoUrl(storedKey); // DBのphoto_urlに「S3 key」を保存
             photo.setTitle(req.getTitle());
             photo.setDescription(req.getDescription());
 
@@ -95,9 +118,15 @@ public class ContestModelPhotoService {
                     .photos(List.of(body))
                     .build();
 
+        } catch (InvalidUploadException e) {
+            // 登録時の実体の確認（BlobService#acquire）で弾かれた。参照数はロールバックで戻る
+            log.warn("Rejected uploaded model photo on registration. key={}, reason={}", storedKey, e.getReason());
+            throw e;
         } catch (Exception e) {
             // ★補償: DB登録に失敗したので、ベストエフォートでS3を消す
-            bestEffortDeleteS3(req.getKey());
+            if (ownsObject) {
+                bestEffortDeleteS3(storedKey);
+            }
 
             // ★ロールバック優先: S3削除エラーは握りつぶして、例外を投げてTxを落とす
             throw new DatabaseOperationException("Failed to create contest model photo. contestId=" + contestId, e);
@@ -161,8 +190,10 @@ public class ContestModelPhotoService {
         try {
             contestModelPhotoMapper.deleteById(modelPhotoId);
 
-            // DBは消したので、S3はベストエフォートで消す（失敗は握りつぶし）
-            bestEffortDeleteS3(existing.getPhotoUrl());
+            // DBは消したので、他から参照されていなければS3はベストエフォートで消す（失敗は握りつぶし）
+            if (blobService.release(existing.getPhotoUrl())) {
+                bestEffortDeleteS3(existing.getPhotoUrl());
+            }
 
             ContestModelPhotoCreateResponse body = ContestModelPhotoCreateResponse.builder()
                     .id(existing.getId())
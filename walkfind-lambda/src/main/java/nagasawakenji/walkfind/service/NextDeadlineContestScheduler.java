@@ -0,0 +1,53 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
+import nagasawakenji.walkfind.infra.scheduler.ContestDeadlineScheduler;
+import nagasawakenji.walkfind.infra.scheduler.OneShotScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+
+/**
+ * コンテストの開始・終了日時にステータスを切り替える（Lambda 用）。
+ *
+ * Lambda は常駐しないため、次に来る期限を1件だけ求めて、その時刻にステータス更新バッチを
+ * 起動する1回限りのスケジュールを登録する。バッチは実行後にここを呼んで次の予約を登録する。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NextDeadlineContestScheduler implements ContestDeadlineScheduler {
+
+    static final String SCHEDULE_NAME = "walkfind-contest-status-next";
+
+    // 過去の日時は登録できないため、最短でもこの分だけ先に予約する
+    private static final long MIN_LEAD_SECONDS = 60;
+
+    private final ContestMapper contestMapper;
+    private final OneShotScheduler oneShotScheduler;
+
+    @Override
+    public void onScheduleChanged(Long contestId) {
+        rescheduleNext();
+    }
+
+    /**
+     * 次の開始・終了日時に予約を付け替える。期限が無ければ何もしない（日次の定期実行が残る）
+     */
+    public void rescheduleNext() {
+        try {
+            OffsetDateTime next = contestMapper.findNextStatusDeadline();
+            if (next == null) {
+                log.info("No upcoming contest deadline.");
+                return;
+            }
+            OffsetDateTime earliest = OffsetDateTime.now().plusSeconds(MIN_LEAD_SECONDS);
+            oneShotScheduler.scheduleAt(SCHEDULE_NAME, next.isBefore(earliest) ? earliest : next);
+        } catch (Exception e) {
+            // 予約に失敗しても日次の定期実行で切り替わる
+            log.error("Failed to schedule next contest status update.", e);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import nagasawakenji.walkfind.domain.model.UserPhoto;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
 import nagasawakenji.walkfind.domain.statusenum.SubmitPhotoStatus;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
+import nagasawakenji.walkfind.exception.InvalidUploadException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserProfileMapper;
@@ -26,6 +27,8 @@ public class PhotoSubmissionService {
     private final PhotoMapper photoMapper;
     private final ContestMapper contestMapper;
     private final S3DeleteService s3DeleteService;
+    private final BlobService blobService;
+    private final S3ImageInspectionService s3ImageInspectionService;
     private final UserProfileMapper userProfileMapper;
     private final UserProfileContestEntryService userProfileContestEntryService;
     private final ApplicationEventPublisher eventPublisher;
@@ -61,16 +64,34 @@ public class PhotoSubmissionService {
             return buildResult(null, SubmitPhotoStatus.BUSINESS_RULE_VIOLATION, "このコンテストには既に投稿済みです。");
         }
 
+        // 画像の検証と撮影情報の除去（同じ内容が登録済みなら検証済み）
+        // 撮影情報を取り除いた内容アドレスのキーは、取り除いた内容のキーに変わる
+        String storedKey = s3Key;
+        if (!blobService.isStored(s3Key)) {
+            try {
+                storedKey = s3ImageInspectionService.inspect(s3Key);
+            } catch (InvalidUploadException e) {
+                log.warn("Rejected uploaded image. key={}, reason={}", s3Key, e.getReason());
+                safeDeleteFromS3(s3Key);
+                return buildResult(null, SubmitPhotoStatus.VALIDATION_FAILED, e.getMessage());
+            }
+        }
+
         // Modelの構築 (ControllerからのリクエストDTOと認証IDをModelに変換)
         UserPhoto newPhoto = new UserPhoto();
         newPhoto.setContestId(contestId);
         newPhoto.setUserId(userId);
-        newPhoto.setPhotoUrl(request.getPhotoUrl());
+        newPhoto.setPhotoUrl(storedKey);
         newPhoto.setTitle(request.getTitle());
         newPhoto.setDescription(request.getDescription());
 
         // 4. DB登録
+        // 失敗時に S3 のオブジェクトを消してよいか（同じ内容を他の写真が参照していれば消さない）
+        boolean ownsObject = false;
         try {
+            // 同じ内容の画像が既にあれば参照数を増やすだけ（ロールバックで元に戻る）
+            ownsObject = blobService.acquire(storedKey);
+
             int result = photoMapper.insert(newPhoto);
 
             if (result == 0) {
@@ -79,6 +100,11 @@ public class PhotoSubmissionService {
                 throw new DatabaseOperationException("投稿データの保存に失敗しました。");
             }
 
+            // ギャラリーの総件数 (contests.photo_count) を同じトランザクションで更新
+            if (contestMapper.incrementPhotoCount(contestId) == 0) {
+                log.warn("Failed to increment photo_count. contestId={}", contestId);
+            }
+
             userProfileContestEntryService
                     .incrementIfFirstEntry(userId, contest.getId());
 
@@ -96,19 +122,27 @@ public class PhotoSubmissionService {
                             "USER",
                             contestId,
                             newPhoto.getId(),
-                            s3Key
+                            storedKey
                     )
             );
 
             // 成功結果の返却
             return buildResult(newPhoto.getId(), SubmitPhotoStatus.SUCCESS, "写真の投稿が完了しました。");
 
+        } catch (InvalidUploadException e) {
+            // 登録時の実体の確認（BlobService#acquire）で弾かれた。参照数はロールバックで戻る
+            log.warn("Rejected uploaded image on registration. key={}, reason={}", storedKey, e.getReason());
+            throw e;
         } catch (DatabaseOperationException e) {
-            safeDeleteFromS3(s3Key);
+            if (ownsObject) {
+                safeDeleteFromS3(storedKey);
+            }
             // 自らスローした例外。再スローしてトランザクションをロールバックさせる。
             throw e;
         } catch (Exception e) {
-            safeDeleteFromS3(s3Key);
+            if (ownsObject) {
+                safeDeleteFromS3(storedKey);
+            }
             // SQL/接続エラーなど予期せぬエラー。RuntimeExceptionにラップしてスロー。
             log.error("Database error during photo submission.", e);
             throw new RuntimeException("DB処理中に予期せぬエラーが発生しました。", e); // ★ RuntimeExceptionを再スロー
@@ -2,6 +2,7 @@ package nagasawakenji.walkfind.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
@@ -29,11 +30,16 @@ public class S3DownloadPresignService {
                 .key(key)
                 .build();
 
-        PresignedGetObjectRequest presigned = presigner.presignGetObject(
-                p -> p.signatureDuration(Duration.ofMinutes(10)) // 10分有効
-                        .getObjectRequest(objectRequest)
-        );
+        long start = System.nanoTime();
+        try {
+            PresignedGetObjectRequest presigned = presigner.presignGetObject(
+                    p -> p.signatureDuration(Duration.ofMinutes(10)) // 10分有効
+                            .getObjectRequest(objectRequest)
+            );
 
-        return presigned.url();
+            return presigned.url();
+        } finally {
+            RequestProfile.record(RequestProfile.Segment.PRESIGN, System.nanoTime() - start);
+        }
     }
 }
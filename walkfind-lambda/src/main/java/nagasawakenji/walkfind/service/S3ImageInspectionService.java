@@ -0,0 +1,175 @@
+package nagasawakenji.walkfind.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.exception.InvalidUploadException;
+import nagasawakenji.walkfind.infra.blob.BlobKeys;
+import nagasawakenji.walkfind.infra.image.ImageInspector;
+import nagasawakenji.walkfind.infra.image.UploadImageValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * クライアントが presigned URL で S3 へ直接アップロードした画像を、DB に登録する前に検証する。
+ *
+ * ヘッダーだけを読み（画素データはダウンロードしない）、形式と縦横のサイズを確かめる。
+ * 撮影情報（EXIF・位置情報など）が含まれていれば取り除く。
+ * 内容アドレスのキーは上書きせず、取り除いた内容の SHA-256 のキーへ保存し直して、参照されていない元のオブジェクトを消す
+ * （キーと中身の SHA-256 が常に一致し、walkfind-web と同じく撮影情報を除いた内容で共有される）。
+ * 取り除く前の SHA-256 から取り除いた内容のキーを引けるように記録し、同じ写真のアップロードを省略させる。
+ * 従来のランダムなキーは同じキーを上書きする。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class S3ImageInspectionService {
+
+    private final S3Client s3Client;
+    private final UploadImageValidator uploadImageValidator;
+    private final BlobService blobService;
+
+    @Value("${S3_BUCKET_NAME}")
+    private String bucket;
+
+    @Value("${walkfind.upload.max-bytes:20971520}")
+    private long maxBytes;
+
+    /**
+     * @return 登録に使うキー。撮影情報を取り除いた内容アドレスのキーなら、取り除いた内容のキー
+     * @throws InvalidUploadException 画像として受け付けられない場合（オブジェクトの削除は呼び出し元が行う）
+     */
+    public String inspect(String key) {
+        ResponseInputStream<GetObjectResponse> object;
+        try {
+            object = s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .build());
+        } catch (NoSuchKeyException e) {
+            throw new InvalidUploadException("アップロードされた画像が見つかりません。", InvalidUploadException.Reason.EMPTY);
+        }
+
+        boolean drained = false;
+        try {
+            Long contentLength = object.response().contentLength();
+            if (contentLength != null && contentLength > maxBytes) {
+                throw new InvalidUploadException(
+                        "ファイルサイズが上限(" + maxBytes + " bytes)を超えています。",
+                        InvalidUploadException.Reason.TOO_LARGE);
+            }
+
+            ImageInspector.Result inspected = uploadImageValidator.inspect(object);
+            ImageInspector.ImageInfo info = inspected.info();
+            // 内容アドレスのキーの拡張子はクライアントが申告した形式なので、先頭バイトの判定と突き合わせる
+            if (BlobKeys.isBlobKey(key) && !BlobKeys.matchesContentType(key, info.contentType())) {
+                throw new InvalidUploadException(
+                        "ファイルの形式が申告された形式と一致しません。",
+                        InvalidUploadException.Reason.UNSUPPORTED_TYPE);
+            }
+            if (!inspected.stripped()) {
+                return key;
+            }
+
+            byte[] body = readAll(inspected.body());
+            drained = true;
+            String storedKey = BlobKeys.isBlobKey(key)
+                    ? storeStripped(key, body, info.contentType())
+                    : overwrite(key, body, info.contentType());
+
+            log.info("Image metadata stripped. key={}, storedKey={}, size={}, originalSize={}",
+                    key, storedKey, body.length, contentLength);
+            return storedKey;
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to inspect uploaded image: " + key, e);
+        } finally {
+            // 途中までしか読んでいなければ、残りをダウンロードせずに接続を切る
+            if (!drained) {
+                object.abort();
+            }
+            try {
+                object.close();
+            } catch (IOException e) {
+                log.debug("Failed to close S3 object stream. key={}", key, e);
+            }
+        }
+    }
+
+    // 取り除いた内容の SHA-256 のキーへ保存する（S3 が x-amz-checksum-sha256 で内容を確かめる）
+    private String storeStripped(String key, byte[] body, String contentType) {
+        byte[] digest = sha256(body);
+        String storedKey = BlobKeys.keyOf(HexFormat.of().formatHex(digest), contentType);
+        // 同じ内容が登録済みなら保存し直さない（登録時に BlobService#acquire が実体を確かめる）
+        if (!blobService.isStored(storedKey)) {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(storedKey)
+                            .contentType(contentType)
+                            .checksumSHA256(Base64.getEncoder().encodeToString(digest))
+                            .build(),
+                    RequestBody.fromBytes(body));
+        }
+        // 次に同じ写真をアップロードするクライアントが、取り除く前の SHA-256 で保存済みのキーを受け取れるようにする
+        blobService.recordSource(key, storedKey);
+
+        // 撮影情報を含む元のオブジェクトは、どの行からも参照されていなければ消す
+        // （参照されていれば、参照が無くなった後に BlobService#sweepUnreferenced が消す）
+        if (blobService.isStored(key)) {
+            log.info("Unstripped upload is referenced, left for sweep. key={}", key);
+            return storedKey;
+        }
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to delete unstripped upload (best-effort). key={}", key, e);
+        }
+        return storedKey;
+    }
+
+    private String overwrite(String key, byte[] body, String contentType) {
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .build(),
+                RequestBody.fromBytes(body));
+        return key;
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private byte[] readAll(InputStream in) throws IOException {
+        byte[] body = in.readNBytes((int) Math.min(maxBytes + 1, Integer.MAX_VALUE - 8));
+        if (body.length > maxBytes) {
+            throw new InvalidUploadException(
+                    "ファイルサイズが上限(" + maxBytes + " bytes)を超えています。",
+                    InvalidUploadException.Reason.TOO_LARGE);
+        }
+        return body;
+    }
+}
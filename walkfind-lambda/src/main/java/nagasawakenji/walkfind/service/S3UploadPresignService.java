@@ -1,6 +1,7 @@
 package nagasawakenji.walkfind.service;
 
 import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
@@ -27,6 +28,17 @@ public class S3UploadPresignService {
      * @param contentType ファイルのMIMEタイプ (例: image/png)
      */
     public URL generateUploadUrl(String key, String contentType) {
+        return generateUploadUrl(key, contentType, null);
+    }
+
+    /**
+     * 内容の SHA-256 を署名に含めて Presigned URL を発行する。
+     * フロントエンドは x-amz-checksum-sha256 ヘッダーに同じ値を付けて PUT し、
+     * 中身がキーの SHA-256 と違えば S3 が拒否する。
+     *
+     * @param sha256Base64 SHA-256 の Base64 表現（null なら検証しない）
+     */
+    public URL generateUploadUrl(String key, String contentType, String sha256Base64) {
 
         // 署名付きリクエストの作成
         // ★重要: ここで指定する ContentType と、フロントエンドが送るヘッダーが完全一致する必要があります
@@ -34,13 +46,19 @@ public class S3UploadPresignService {
                 .bucket(bucket)
                 .key(key)
                 .contentType(contentType) // 引数のcontentTypeを使用
+                .checksumSHA256(sha256Base64)
                 .build();
 
-        PresignedPutObjectRequest presigned = presigner.presignPutObject(
-                p -> p.signatureDuration(Duration.ofMinutes(10)) // 10分有効
-                        .putObjectRequest(objectRequest)
-        );
+        long start = System.nanoTime();
+        try {
+            PresignedPutObjectRequest presigned = presigner.presignPutObject(
+                    p -> p.signatureDuration(Duration.ofMinutes(10)) // 10分有効
+                            .putObjectRequest(objectRequest)
+            );
 
-        return presigned.url();
+            return presigned.url();
+        } finally {
+            RequestProfile.record(RequestProfile.Segment.PRESIGN, System.nanoTime() - start);
+        }
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import nagasawakenji.walkfind.domain.dto.UpdatingUserProfileResponse;
 import nagasawakenji.walkfind.domain.model.UserProfile;
 import nagasawakenji.walkfind.domain.statusenum.UpdateUserProfileStatus;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
+import nagasawakenji.walkfind.exception.InvalidUploadException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserProfileMapper;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
@@ -31,6 +32,8 @@ public class UserProfileUpdateService {
 
     private final UserProfileMapper userProfileMapper;
     private final S3DeleteService s3DeleteService;
+    private final BlobService blobService;
+    private final S3ImageInspectionService s3ImageInspectionService;
 
     /**
      * bio のみ更新
@@ -101,7 +104,32 @@ public class UserProfileUpdateService {
                     .build();
         }
 
+        // 画像の検証と撮影情報の除去（同じ内容が登録済みなら検証済み）
+        // 撮影情報を取り除いた内容アドレスのキーは、取り除いた内容のキーに変わる
+        if (!blobService.isStored(newImageKey)) {
+            try {
+                newImageKey = s3ImageInspectionService.inspect(newImageKey);
+            } catch (InvalidUploadException e) {
+                log.warn("[UserProfileUpdateService] rejected uploaded profile image. userId={}, key={}, reason={}",
+                        userId, newImageKey, e.getReason());
+                try {
+                    s3DeleteService.delete(newImageKey);
+                } catch (Exception ex) {
+                    log.warn("[UserProfileUpdateService] failed to delete rejected profile image in S3. key={}", newImageKey, ex);
+                }
+                return UpdatingUserProfileResponse.builder()
+                        .userId(userId)
+                        .bio(null)
+                        .profileImageUrl(null)
+                        .status(UpdateUserProfileStatus.FAILED)
+                        .message(e.getMessage())
+                        .build();
+            }
+        }
+
         String oldImageKey = null;
+        // 失敗時に新しい画像を消してよいか（同じ内容を他が参照していれば消さない）
+        boolean ownsNewImage = !blobService.isStored(newImageKey);
 
         try {
             // ① 現在のプロフィールを取得して、古い画像キーを退避
@@ -111,8 +139,10 @@ public class UserProfileUpdateService {
 
                 // プロフィールレコードが無い場合、S3 にアップロードされてしまった画像があれば削除しておく
                 try {
-                    s3DeleteService.delete(newImageKey);
-                    log.info("[UserProfileUpdateService] compensation delete NEW profile image in S3 (profile not found). key={}", newImageKey);
+                    if (ownsNewImage) {
+                        s3DeleteService.delete(newImageKey);
+                        log.info("[UserProfileUpdateService] compensation delete NEW profile image in S3 (profile not found). key={}", newImageKey);
+                    }
                 } catch (Exception ex) {
                     log.warn("[UserProfileUpdateService] failed to delete NEW profile image in S3 (profile not found). key={}", newImageKey, ex);
                 }
@@ -131,7 +161,8 @@ public class UserProfileUpdateService {
             oldImageKey = existing.getProfileImageUrl();
             log.debug("[UserProfileUpdateService] existing profile image key. userId={}, oldKey={}", userId, oldImageKey);
 
-            // ② DB を新しいキーで更新
+            // ② 新しい画像の参照を増やし、DB を新しいキーで更新
+            ownsNewImage = blobService.acquire(newImageKey);
             int updated = userProfileMapper.updateProfileImage(userId, newImageKey);
             log.debug("[UserProfileUpdateService] updateProfileImageByKey DB result. userId={}, updatedRows={}", userId, updated);
 
@@ -140,8 +171,10 @@ public class UserProfileUpdateService {
 
                 // 念のため補償: 新しい画像を削除
                 try {
-                    s3DeleteService.delete(newImageKey);
-                    log.info("[UserProfileUpdateService] compensation delete NEW profile image in S3 (updated=0). key={}", newImageKey);
+                    if (ownsNewImage) {
+                        s3DeleteService.delete(newImageKey);
+                        log.info("[UserProfileUpdateService] compensation delete NEW profile image in S3 (updated=0). key={}", newImageKey);
+                    }
                 } catch (Exception ex) {
                     log.warn("[UserProfileUpdateService] failed to delete NEW profile image in S3 (updated=0). key={}", newImageKey, ex);
                 }
@@ -157,8 +190,8 @@ public class UserProfileUpdateService {
 
             log.info("[UserProfileUpdateService] profile image key updated successfully. userId={}", userId);
 
-            // ③ 古い画像キーがあればベストエフォートで S3 から削除
-            if (oldImageKey != null && !oldImageKey.isBlank()) {
+            // ③ 古い画像キーがあれば参照を外し、参照が無くなればベストエフォートで S3 から削除
+            if (oldImageKey != null && !oldImageKey.isBlank() && blobService.release(oldImageKey)) {
                 try {
                     s3DeleteService.delete(oldImageKey);
                     log.info("[UserProfileUpdateService] old profile image deleted from S3. userId={}, oldKey={}", userId, oldImageKey);
@@ -182,8 +215,10 @@ public class UserProfileUpdateService {
 
             // ★ 補償: DB 更新に失敗した場合、新しい画像を削除しておく
             try {
-                s3DeleteService.delete(newImageKey);
-                log.info("[UserProfileUpdateService] compensation delete NEW profile image in S3 after DB error. key={}", newImageKey);
+                if (ownsNewImage) {
+                    s3DeleteService.delete(newImageKey);
+                    log.info("[UserProfileUpdateService] compensation delete NEW profile image in S3 after DB error. key={}", newImageKey);
+                }
             } catch (Exception ex) {
                 log.warn("[UserProfileUpdateService] failed to delete NEW profile image in S3 after DB error. key={}", newImageKey, ex);
             }
@@ -194,8 +229,10 @@ public class UserProfileUpdateService {
             log.error("[UserProfileUpdateService] Unexpected error while updating profile image by key. userId={}", userId, e);
 
             try {
-                s3DeleteService.delete(newImageKey);
-                log.info("[UserProfileUpdateService] compensation delete NEW profile image in S3 after unexpected error. key={}", newImageKey);
+                if (ownsNewImage) {
+                    s3DeleteService.delete(newImageKey);
+                    log.info("[UserProfileUpdateService] compensation delete NEW profile image in S3 after unexpected error. key={}", newImageKey);
+                }
             } catch (Exception ex) {
                 log.warn("[UserProfileUpdateService] failed to delete NEW profile image in S3 after unexpected error. key={}", newImageKey, ex);
             }
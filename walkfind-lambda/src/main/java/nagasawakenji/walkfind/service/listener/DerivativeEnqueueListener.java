@@ -0,0 +1,36 @@
+package nagasawakenji.walkfind.service.listener;
+
+import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.domain.dto.DerivativeJobMessage;
+import nagasawakenji.walkfind.domain.event.PhotoSubmittedEvent;
+import nagasawakenji.walkfind.infra.queue.DerivativeQueueClient;
+import nagasawakenji.walkfind.service.PhotoImagePipelineService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 投稿写真・見本写真のコミット後に、画像処理ジョブをキューへ積む（Lambda 用）。
+ * API の Lambda ではデコードせず、ImageDerivativeHandler がキューから処理して埋め込みジョブを積む。
+ * 画像処理のキューに積めなければ、埋め込みジョブを原寸のキーで直接積む。
+ */
+@Component
+@RequiredArgsConstructor
+public class DerivativeEnqueueListener {
+
+    private final DerivativeQueueClient queueClient;
+    private final PhotoImagePipelineService photoImagePipelineService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommitted(PhotoSubmittedEvent e) {
+        DerivativeJobMessage job = DerivativeJobMessage.builder()
+                .photoType(e.getPhotoType())
+                .contestId(e.getContestId())
+                .photoId(e.getPhotoId())
+                .key(e.getKey())
+                .build();
+        if (!queueClient.enqueue(job)) {
+            photoImagePipelineService.enqueueEmbedding(job, null);
+        }
+    }
+}
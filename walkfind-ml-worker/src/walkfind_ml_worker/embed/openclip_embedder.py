@@ -20,6 +20,7 @@ class OpenClipEmbedder:
             device=self.device,
         )
         self.model.eval()
+        self.tokenizer = open_clip.get_tokenizer(self.model_name)
 
     @torch.inference_mode()
     def encode_image_bytes(self, image_bytes: bytes) -> List[float]:
@@ -27,4 +28,12 @@ class OpenClipEmbedder:
         x = self.preprocess(img).unsqueeze(0).to(self.device)  # (1, C, H, W)
         feat = self.model.encode_image(x)                      # (1, D)
         feat = feat / feat.norm(dim=-1, keepdim=True)         # 正規化（cos類似度用）
-        return feat.squeeze(0).cpu().numpy().astype("float32").tolist()
\ No newline at end of file
+        return feat.squeeze(0).cpu().numpy().astype("float32").tolist()
+
+    @torch.inference_mode()
+    def encode_text(self, text: str) -> List[float]:
+        # 画像と同じ空間・同じ正規化にするので、画像埋め込みとの内積がそのままコサイン類似度になる
+        tokens = self.tokenizer([text]).to(self.device)       # (1, 77)
+        feat = self.model.encode_text(tokens)                 # (1, D)
+        feat = feat / feat.norm(dim=-1, keepdim=True)
+        return feat.squeeze(0).cpu().numpy().astype("float32").tolist()
@@ -13,6 +13,7 @@ from .infra.local_object_store import LocalObjectStore
 from .embed.openclip_embedder import OpenClipEmbedder
 from .service.embedding_service import EmbeddingService
 from .service.pca_service import PcaBasisService
+from .service.text_embedding_service import TextEmbeddingService
 
 # =====================================================
 # Process-level singletons (Lambda container reuse friendly)
@@ -38,6 +39,9 @@ _SVC_CACHE: Dict[int, EmbeddingService] = {}
 # PCA service singleton (does not depend on object store)
 _PCA_SVC = None
 
+# Text embedding service singleton (does not depend on object store)
+_TEXT_SVC = None
+
 
 def get_pca_service() -> PcaBasisService:
     """Return a cached PCA service.
@@ -55,6 +59,14 @@ def get_pca_service() -> PcaBasisService:
     return _PCA_SVC
 
 
+def get_text_service() -> TextEmbeddingService:
+    """Return a cached text embedding service (shares the lazily loaded OpenCLIP model)."""
+    global _TEXT_SVC
+    if _TEXT_SVC is None:
+        _TEXT_SVC = TextEmbeddingService(db=_db, embedder=get_embedder())
+    return _TEXT_SVC
+
+
 def _get_payload_value(payload: Dict[str, Any], *keys: str, default: Any = None) -> Any:
     """Fetch the first existing key from payload (supports camelCase/snake_case)."""
     for k in keys:
@@ -213,6 +225,26 @@ def handle_message(payload: Dict[str, Any], *, store: Any, raw_message: Optional
             # Treat SKIPPED as success (ack). Next scheduler run can enqueue again.
             return True
 
+        # -----------------------------------------------------
+        # Text (search query) embedding job
+        # -----------------------------------------------------
+        if msg_type in {"TEXT_EMBEDDING", "TEXT"}:
+            text = _get_payload_value(payload, "text", "queryText", "query_text")
+            model_version = _get_payload_value(payload, "modelVersion", "model_version")
+
+            if not text or not str(text).strip() or model_version is None:
+                raise ValueError("TEXT_EMBEDDING requires text and modelVersion/model_version")
+
+            res = get_text_service().run_once(str(text), str(model_version))
+            dt_ms = int((time.time() - t0) * 1000)
+            _logger.info(
+                "[worker] text embedding job done modelVersion=%s result=%s elapsedMs=%s",
+                model_version,
+                res,
+                dt_ms,
+            )
+            return True
+
         # Preferred: EmbeddingJob.from_dict
         if hasattr(EmbeddingJob, "from_dict"):
             job = EmbeddingJob.from_dict(payload)  # type: ignore[attr-defined]
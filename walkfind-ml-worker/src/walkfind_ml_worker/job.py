@@ -16,6 +16,8 @@ class EmbeddingJob:
     # - In local dev (LocalObjectStore), bucket is meaningless.
     # Keep this optional for backward compatibility with older payloads/code.
     bucket: str = ""
+    # 224x224 px に縮めたモデル入力（Java 側が作成済みの場合だけ入る）。無ければ storageKey の原寸を読む
+    modelInputKey: Optional[str] = None
 
     @staticmethod
     def from_dict(d: Dict[str, Any]) -> "EmbeddingJob":
@@ -42,6 +44,8 @@ class EmbeddingJob:
         # Bucket is optional (ElasticMQ/local dev usually won't include it)
         bucket = d.get("bucket") or d.get("Bucket") or ""
 
+        model_input_key = d.get("modelInputKey") or d.get("model_input_key")
+
         # Validate type early to avoid downstream surprises
         if photo_type is not None:
             photo_type = str(photo_type).upper()
@@ -69,4 +73,5 @@ class EmbeddingJob:
             storageKey=str(photo_key),
             modelVersion=str(model_version),
             bucket=str(bucket),
+            modelInputKey=str(model_input_key) if model_input_key else None,
         )
\ No newline at end of file
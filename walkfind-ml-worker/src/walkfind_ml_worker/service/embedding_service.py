@@ -1,9 +1,12 @@
+import logging
 from dataclasses import dataclass
-from typing import List, Protocol
+from typing import List, Optional, Protocol
 from ..job import EmbeddingJob
 from ..infra.db import Db
 from ..embed.openclip_embedder import OpenClipEmbedder
 
+logger = logging.getLogger(__name__)
+
 class ObjectStore(Protocol):
     """Storage abstraction.
 
@@ -30,11 +33,55 @@ class EmbeddingService:
                 raise ValueError(f"unknown photoType: {job.photoType}")
             return cur.fetchone() is not None
 
+    def _find_reusable_embedding(self, job) -> Optional[List[float]]:
+        """同じ内容（blobs/ のキーは SHA-256 で決まる）・同じモデルの埋め込みが既にあれば返す。"""
+        if not job.storageKey.startswith("blobs/"):
+            return None
+
+        conn = self.db.connect()
+        try:
+            with conn.cursor() as cur:
+                cur.execute(
+                    """
+                    SELECT embedding
+                    FROM photo_embeddings
+                    WHERE storage_key = %s
+                      AND model_version = %s
+                      AND status = 'READY'
+                      AND embedding IS NOT NULL
+                    LIMIT 1
+                    """,
+                    (job.storageKey, job.modelVersion),
+                )
+                row = cur.fetchone()
+            conn.rollback()
+            return row[0] if row else None
+        finally:
+            conn.close()
+
+    def _load_image_bytes(self, job: EmbeddingJob) -> bytes:
+        """モデル入力（224x224 px・撮影情報なし）があればそれを読み、無ければ原寸を読む。"""
+        if job.modelInputKey:
+            try:
+                return self.store.get_bytes(job.modelInputKey)
+            except Exception:
+                logger.warning(
+                    "model input not found, falling back to original. modelInputKey=%s storageKey=%s",
+                    job.modelInputKey,
+                    job.storageKey,
+                    exc_info=True,
+                )
+        return self.store.get_bytes(job.storageKey)
+
     def run_once(self, job: EmbeddingJob) -> None:
-        img_bytes = self.store.get_bytes(job.storageKey)
+        # 1) 同じ画像の埋め込みがあれば、ダウンロードと推論を省略する
+        emb = self._find_reusable_embedding(job)
+
+        if emb is None:
+            img_bytes = self._load_image_bytes(job)
 
-        # 2) embedding算出
-        emb: List[float] = self.embedder.encode_image_bytes(img_bytes)
+            # 2) embedding算出
+            emb = self.embedder.encode_image_bytes(img_bytes)
 
         # 3) DBへUPSERT（READYにする）
         conn = self.db.connect()
@@ -0,0 +1,111 @@
+import logging
+from dataclasses import dataclass
+
+from ..infra.db import Db
+from ..embed.openclip_embedder import OpenClipEmbedder
+
+logger = logging.getLogger(__name__)
+
+
+@dataclass
+class TextEmbeddingService:
+    """検索語の CLIP テキスト埋め込みを作り、text_embeddings（検索語のキャッシュ）に書く。
+
+    Java 側が正規化した検索語で PENDING の行を作ってから依頼するので、ここでは READY / FAILED にするだけ。
+    同じ検索語の依頼が重なっても、READY 済みならモデルを呼ばずに終える。
+    """
+
+    db: Db
+    embedder: OpenClipEmbedder
+
+    def _is_ready(self, text: str, model_version: str) -> bool:
+        conn = self.db.connect()
+        try:
+            with conn.cursor() as cur:
+                cur.execute(
+                    """
+                    SELECT 1
+                    FROM text_embeddings
+                    WHERE query_text = %s
+                      AND model_version = %s
+                      AND status = 'READY'
+                      AND embedding IS NOT NULL
+                    """,
+                    (text, model_version),
+                )
+                row = cur.fetchone()
+            conn.rollback()
+            return row is not None
+        finally:
+            conn.close()
+
+    def _mark_failed(self, text: str, model_version: str, error: str) -> None:
+        conn = self.db.connect()
+        try:
+            with conn.cursor() as cur:
+                cur.execute(
+                    """
+                    UPDATE text_embeddings
+                    SET status = 'FAILED',
+                        last_error = %s,
+                        updated_at = NOW()
+                    WHERE query_text = %s
+                      AND model_version = %s
+                      AND status <> 'READY'
+                    """,
+                    (error[:1000], text, model_version),
+                )
+            conn.commit()
+        except Exception:
+            conn.rollback()
+            logger.warning("failed to mark text embedding FAILED. text=%s", text, exc_info=True)
+        finally:
+            conn.close()
+
+    def run_once(self, text: str, model_version: str) -> str:
+        # 1) 既に作成済みなら推論しない（重複した依頼・SQS の再配信）
+        if self._is_ready(text, model_version):
+            return "SKIPPED"
+
+        # 2) embedding算出
+        try:
+            emb = self.embedder.encode_text(text)
+        except Exception as e:
+            self._mark_failed(text, model_version, repr(e))
+            raise
+
+        # 3) DBへUPSERT（READYにする）
+        conn = self.db.connect()
+        try:
+            with conn.cursor() as cur:
+                cur.execute(
+                    """
+                    INSERT INTO text_embeddings (
+                        query_text,
+                        model_version,
+                        status,
+                        embedding,
+                        created_at,
+                        updated_at
+                    )
+                    VALUES (%(text)s, %(model_version)s, 'READY', %(embedding)s, NOW(), NOW())
+                    ON CONFLICT (query_text, model_version)
+                    DO UPDATE SET
+                        status = 'READY',
+                        embedding = EXCLUDED.embedding,
+                        last_error = NULL,
+                        updated_at = NOW()
+                    """,
+                    {
+                        "text": text,
+                        "model_version": model_version,
+                        "embedding": emb,
+                    },
+                )
+            conn.commit()
+            return "READY"
+        except Exception:
+            conn.rollback()
+            raise
+        finally:
+            conn.close()
@@ -0,0 +1,25 @@
+package nagasawakenji.walkfind.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * multipart の解析をハンドラーが実際にパートへアクセスするまで遅らせる。
+ *
+ * 写真投稿（POST /api/v1/photos）はリクエストボディを MultipartStreamReader で直接読み、
+ * Tomcat に一時ファイルへ書き出させない。@RequestPart / @RequestParam で MultipartFile を
+ * 受け取る他のエンドポイントは、引数の解決時にこれまで通り解析される。
+ */
+@Configuration
+public class MultipartConfig {
+
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public MultipartResolver multipartResolver() {
+        StandardServletMultipartResolver resolver = new StandardServletMultipartResolver();
+        resolver.setResolveLazily(true);
+        return resolver;
+    }
+}
@@ -0,0 +1,21 @@
+package nagasawakenji.walkfind.config;
+
+import nagasawakenji.walkfind.infra.ratelimit.InMemoryRateLimiter;
+import nagasawakenji.walkfind.infra.ratelimit.RateLimitProperties;
+import nagasawakenji.walkfind.infra.ratelimit.RateLimiter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    /**
+     * Web は1プロセスなので、件数はメモリ上で数える
+     */
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties props) {
+        return new InMemoryRateLimiter(props.getWindowSeconds() * 1000, props.getMaxKeys());
+    }
+}
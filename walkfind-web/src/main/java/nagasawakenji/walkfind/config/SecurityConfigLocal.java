@@ -2,15 +2,18 @@ package nagasawakenji.walkfind.config;
 
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import nagasawakenji.walkfind.infra.auth.CognitoJwtDecoder;
+import nagasawakenji.walkfind.infra.auth.CognitoTokenVerifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
 import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
 import org.springframework.security.web.SecurityFilterChain;
@@ -111,9 +114,24 @@ public class SecurityConfigLocal {
         return source;
     }
 
+    /**
+     * JWKS（issuer + /.well-known/jwks.json）は起動完了時に取得し、検証済みトークンはキャッシュする
+     */
+    @Bean
+    public CognitoTokenVerifier cognitoTokenVerifier() {
+        String issuer = "https://cognito-idp.ap-northeast-1.amazonaws.com/ap-northeast-1_EEmnkKMbG";
+        return new CognitoTokenVerifier(issuer, CognitoTokenVerifier.DEFAULT_MAX_CACHED_TOKENS);
+    }
+
+    // 最初のリクエストで JWKS の取得を待たないようにする（失敗しても起動は止めない）
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetchJwks() {
+        // @Configuration のプロキシ経由なので、Bean と同じインスタンス
+        cognitoTokenVerifier().prefetch();
+    }
+
     @Bean
-    public JwtDecoder jwtDecoder() {
-        String jwkSetUri = "https://cognito-idp.ap-northeast-1.amazonaws.com/ap-northeast-1_EEmnkKMbG/.well-known/jwks.json";
-        return NimbusJwtDecoder.withJwkSetUri(jwkSetUri).build();
+    public JwtDecoder jwtDecoder(CognitoTokenVerifier cognitoTokenVerifier) {
+        return new CognitoJwtDecoder(cognitoTokenVerifier);
     }
 }
\ No newline at end of file
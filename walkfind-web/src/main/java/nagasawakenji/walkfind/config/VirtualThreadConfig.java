@@ -0,0 +1,63 @@
+package nagasawakenji.walkfind.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.thread.VirtualThreadPinningMonitor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 仮想スレッドモード（Java 21 + spring.threads.virtual.enabled=true）で有効になる設定。
+ *
+ * Tomcat のリクエスト処理・applicationTaskExecutor（@Async）・スケジューラーは
+ * Spring Boot が仮想スレッドに切り替えるので、ここではその前提で必要な調整だけを行う。
+ *  - 仮想スレッドは同時実行数の上限にならないため、DB への同時接続数は Hikari のプールで絞る
+ *  - ピン留めの検出（JFR）
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Hikari の上限をそのまま「DB に同時に入れるリクエスト数」として扱う。
+     * 待ちは connectionTimeout で打ち切り、数千の仮想スレッドがプール待ちで積み上がらないようにする。
+     */
+    @Bean
+    public static BeanPostProcessor hikariVirtualThreadCap(
+            @Value("${walkfind.threads.virtual.max-db-connections:20}") int maxDbConnections,
+            @Value("${walkfind.threads.virtual.db-connection-timeout-ms:3000}") long connectionTimeoutMs) {
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    if (hikari.getMaximumPoolSize() > maxDbConnections) {
+                        hikari.setMaximumPoolSize(maxDbConnections);
+                    }
+                    if (hikari.getConnectionTimeout() > connectionTimeoutMs) {
+                        hikari.setConnectionTimeout(connectionTimeoutMs);
+                    }
+                    log.info("virtual threads: {} maximumPoolSize={}, connectionTimeout={}ms",
+                            beanName, hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "walkfind.threads.virtual.pinning-monitor", name = "enabled",
+            havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${walkfind.threads.virtual.pinning-monitor.threshold-ms:20}") long thresholdMs) {
+        return new VirtualThreadPinningMonitor(Duration.ofMillis(thresholdMs));
+    }
+}
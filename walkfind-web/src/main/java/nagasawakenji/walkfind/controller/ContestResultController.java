@@ -6,15 +6,21 @@ import nagasawakenji.walkfind.domain.dto.ContestResultListResponse;
 import nagasawakenji.walkfind.domain.dto.ContestResultResponse;
 import nagasawakenji.walkfind.domain.dto.ContestWinnerDto;
 import nagasawakenji.walkfind.domain.dto.ContestWinnerListResponse;
+import nagasawakenji.walkfind.domain.dto.ResultSnapshotMeta;
 import nagasawakenji.walkfind.exception.ContestNotFoundException;
 import nagasawakenji.walkfind.exception.ContestStatusException;
+import nagasawakenji.walkfind.infra.http.CachePolicies;
 import nagasawakenji.walkfind.service.LocalStorageDownloadService;
+import nagasawakenji.walkfind.service.ResourceVersionService;
 import nagasawakenji.walkfind.service.ResultDisplayService;
+import nagasawakenji.walkfind.service.ResultSnapshotService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URL;
+import java.util.Optional;
 
 @RestController
 @Slf4j
@@ -23,6 +29,8 @@ import java.net.URL;
 public class ContestResultController {
 
     private final ResultDisplayService resultDisplayService;
+    private final ResultSnapshotService resultSnapshotService;
+    private final ResourceVersionService resourceVersionService;
     private final LocalStorageDownloadService localStorageDownloadService;
 
     /**
@@ -31,7 +39,22 @@ public class ContestResultController {
     @GetMapping("/{contestId}")
     public ResponseEntity<ContestResultListResponse> getContestResults(@PathVariable("contestId") Long contestId,
                                                                          @RequestParam(value = "page", defaultValue = "0") int page,
-                                                                         @RequestParam(value = "size", defaultValue = "20") int size) {
+                                                                         @RequestParam(value = "size", defaultValue = "20") int size,
+                                                                         WebRequest webRequest) {
+
+        // 結果発表済みならスナップショットから返す（DB へは問い合わせない）
+        Optional<ResultSnapshotMeta> meta = resultSnapshotService.findMeta(contestId);
+        if (meta.isPresent()) {
+            String etag = resourceVersionService.resultsEtag(meta.get());
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CachePolicies.RESULTS).build();
+            }
+            Optional<ContestResultListResponse> snapshot = resultSnapshotService.findResults(meta.get(), page, size);
+            if (snapshot.isPresent()) {
+                handlePhotoUrl(snapshot.get());
+                return ResponseEntity.ok().eTag(etag).cacheControl(CachePolicies.RESULTS).body(snapshot.get());
+            }
+        }
 
         ContestResultListResponse response = resultDisplayService.getFinalResults(contestId, page, size);
         handlePhotoUrl(response);
@@ -44,7 +67,21 @@ public class ContestResultController {
      * GET /api/v1/results/{contestId}/winner : 終了したコンテストの優勝作品を表示(認証不要)
      */
     @GetMapping("/{contestId}/winner")
-    public ResponseEntity<ContestWinnerListResponse> getContestWinner(@PathVariable("contestId") Long contestId) {
+    public ResponseEntity<ContestWinnerListResponse> getContestWinner(@PathVariable("contestId") Long contestId,
+                                                                      WebRequest webRequest) {
+
+        Optional<ResultSnapshotMeta> meta = resultSnapshotService.findMeta(contestId);
+        if (meta.isPresent()) {
+            String etag = resourceVersionService.resultsEtag(meta.get());
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CachePolicies.RESULTS).build();
+            }
+            Optional<ContestWinnerListResponse> snapshot = resultSnapshotService.findWinners(meta.get());
+            if (snapshot.isPresent()) {
+                handleWinnerPhotoUrl(snapshot.get());
+                return ResponseEntity.ok().eTag(etag).cacheControl(CachePolicies.RESULTS).body(snapshot.get());
+            }
+        }
 
        ContestWinnerListResponse response = resultDisplayService.getFinalWinners(contestId);
        handleWinnerPhotoUrl(response);
@@ -0,0 +1,41 @@
+package nagasawakenji.walkfind.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.exception.ContestNotFoundException;
+import nagasawakenji.walkfind.service.LeaderboardStreamService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/contests")
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardStreamController {
+
+    private final LeaderboardStreamService leaderboardStreamService;
+
+    /**
+     * GET /api/v1/contests/{contestId}/leaderboard/stream : 開催中コンテストの順位をリアルタイムに配信（認証不要）
+     *
+     * event: snapshot … 上位 limit 件（接続時・作り直し時）
+     * event: move     … 1票ごとの順位の変化（previousPosition → position）
+     */
+    @GetMapping(value = "/{contestId}/leaderboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable("contestId") Long contestId,
+                             @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return leaderboardStreamService.subscribe(contestId, limit);
+    }
+
+    /**
+     * コンテストが見つからない例外を捕捉し、404 Not Foundを返す
+     */
+    @ExceptionHandler(ContestNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(ContestNotFoundException ex) {
+        log.warn("Contest not found: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+}
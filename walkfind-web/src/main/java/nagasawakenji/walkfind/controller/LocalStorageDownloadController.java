@@ -1,46 +1,166 @@
 package nagasawakenji.walkfind.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import nagasawakenji.walkfind.domain.dto.LocalStorageDownloadRequest;
-import nagasawakenji.walkfind.domain.dto.LocalStorageDownloadResponse;
-import nagasawakenji.walkfind.service.LocalStorageDownloadService;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.*;
-import org.springframework.validation.annotation.Validated;
+import nagasawakenji.walkfind.infra.http.CachePolicies;
+import nagasawakenji.walkfind.infra.storage.ByteRange;
+import nagasawakenji.walkfind.infra.storage.LocalObjectStore;
+import nagasawakenji.walkfind.infra.storage.LocalObjectStore.LocalObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriUtils;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
 
+/**
+ * ローカルストレージの画像配信（本番の S3 / CloudFront の代わり）。
+ *
+ * 本文はアプリのヒープを通さず、Tomcat の sendfile（使えない場合は FileChannel.transferTo）で送る。
+ * Range / If-Range による部分取得と、強い ETag による If-None-Match → 304 に対応する。
+ */
 @RestController
 @RequestMapping("/api/v1/local-storage")
 @RequiredArgsConstructor
 @Slf4j
 public class LocalStorageDownloadController {
 
-    private final LocalStorageDownloadService localStorageDownloadService;
+    private static final String PREFIX = "/api/v1/local-storage/";
+
+    // Tomcat（NIO）の sendfile。レスポンスを返した後にコネクタがファイルを直接ソケットへ送る
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final LocalObjectStore localObjectStore;
 
-    private static final String LOCAL_STORAGE_DIR =
-            "/Users/ishidzuka/Downloads/walkfind/walkfind-web/local-storage";
     /**
-     * ローカル限定 GET /api/v1/local-storage/{photoKey}
+     * ローカル限定 GET /api/v1/local-storage/{key}（key は "contest-1/uuid.jpg" のようにスラッシュを含む）
      * ブラウザはここに直接アクセスする
      */
-    @GetMapping("/{photoKey}")
-    public ResponseEntity<Resource> downloadLocalFile(@PathVariable("photoKey") String photoKey) {
+    @GetMapping("/**")
+    public void downloadLocalFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        String uri = request.getRequestURI();
+        int at = uri.indexOf(PREFIX);
+        String key = at < 0 ? "" : UriUtils.decode(uri.substring(at + PREFIX.length()), StandardCharsets.UTF_8);
+
+        Optional<LocalObject> found = localObjectStore.find(key);
+        if (found.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        LocalObject object = found.get();
+
+        response.setHeader(HttpHeaders.ETAG, object.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, object.lastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, (object.immutable()
+                ? CachePolicies.IMMUTABLE_OBJECT
+                : CachePolicies.MUTABLE_OBJECT).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), object.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // If-Range が今の版と一致しない場合は Range を無視して全体を返す
+        ByteRange range = ifRangeMatches(request, object)
+                ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), object.size())
+                : null;
+
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + object.size());
+            return;
+        }
+
+        long start = 0;
+        long length = object.size();
+        if (range != null) {
+            start = range.start();
+            length = range.length();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range.start() + "-" + range.end() + "/" + object.size());
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+        response.setContentType(object.contentType());
+        response.setContentLengthLong(length);
 
-        Path filePath = Paths.get(LOCAL_STORAGE_DIR, photoKey);
-        Resource resource = new FileSystemResource(filePath.toFile());
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
 
-        if (!resource.exists()) {
-            return ResponseEntity.notFound().build();
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, object.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_JPEG)   // PNG の場合は IMAGE_PNG
-                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
-                .body(resource);
+        transfer(object, start, length, response);
+    }
+
+    private void transfer(LocalObject object, long start, long length, HttpServletResponse response) throws IOException {
+        try (FileChannel file = FileChannel.open(object.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException e) {
+            // ヘッダー送信後の切断（ブラウザのキャンセル・動画のシーク等）はよくあるので、エラーにしない
+            log.debug("Local file transfer aborted. path={}", object.path(), e);
+        }
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, LocalObject object) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            // 強い比較
+            return ifRange.equals(object.etag());
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date >= 0 && date / 1000 == object.lastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match は弱い比較
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
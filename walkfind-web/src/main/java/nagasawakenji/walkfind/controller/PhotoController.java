@@ -4,17 +4,26 @@ import nagasawakenji.walkfind.domain.dto.SubmitPhotoRequest;
 import nagasawakenji.walkfind.domain.dto.SubmitPhotoResult;
 import nagasawakenji.walkfind.domain.statusenum.SubmitPhotoStatus;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
+import nagasawakenji.walkfind.exception.InvalidUploadException;
+import nagasawakenji.walkfind.infra.upload.MultipartStreamReader;
 import nagasawakenji.walkfind.service.AuthService;
 import nagasawakenji.walkfind.service.LocalPhotoSubmissionService;
 
-import jakarta.validation.Valid;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/photos")
@@ -22,31 +31,81 @@ import org.springframework.web.multipart.MultipartFile;
 @Slf4j
 public class PhotoController {
 
+    // request パート（JSON）の上限
+    private static final int MAX_REQUEST_PART_BYTES = 64 * 1024;
+
     private final LocalPhotoSubmissionService photoService;
     private final AuthService authService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     /**
      * POST /api/v1/photos : 写真投稿エンドポイント
-     * @param request 投稿リクエストDTO
+     *
+     * multipart を Spring/Tomcat に解析させず、リクエストボディから順に読む。
+     * "request" パート（JSON）を先に読んで検証・投稿可否を判定し、"file" パートは一時ファイルを経由せず
+     * そのまま保存先へ書き込む。そのため "request" パートは "file" パートより前に送る必要がある。
+     * "request" パートは 64 KiB までで、超えた場合は 413 を返す。
+     *
      * @return 処理結果DTOとHTTPステータス
      */
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<SubmitPhotoResult> submitPhoto(
-            @Valid @RequestPart("request") SubmitPhotoRequest request,
-            @RequestPart("file") MultipartFile file
-            ) {
+    public ResponseEntity<SubmitPhotoResult> submitPhoto(HttpServletRequest httpRequest) throws IOException {
 
         // 1. 認証情報（ユーザーID）の取得 (Controllerの責務)
         // Spring SecurityのContextから取得することを想定
         String userId = authService.getAuthenticatedUserId();
 
-        // 2. Service層の呼び出し
-        SubmitPhotoResult result = photoService.submitPhoto(request, userId, file);
+        String boundary = MultipartStreamReader.boundaryOf(httpRequest.getContentType());
+        if (boundary == null) {
+            return validationFailed("multipart/form-data の boundary がありません。");
+        }
+        MultipartStreamReader reader = new MultipartStreamReader(httpRequest.getInputStream(), boundary);
+
+        // 2. request パート（JSON）の読み込みと検証
+        MultipartStreamReader.Part part = reader.next();
+        if (part == null || !"request".equals(part.name())) {
+            return validationFailed("request パートを file パートより前に送信してください。");
+        }
+        byte[] json = part.body().readNBytes(MAX_REQUEST_PART_BYTES + 1);
+        if (json.length > MAX_REQUEST_PART_BYTES) {
+            throw new InvalidUploadException(
+                    "request パートが上限(" + MAX_REQUEST_PART_BYTES + " bytes)を超えています。",
+                    InvalidUploadException.Reason.TOO_LARGE);
+        }
+        SubmitPhotoRequest request;
+        try {
+            request = objectMapper.readValue(json, SubmitPhotoRequest.class);
+        } catch (JsonProcessingException e) {
+            return validationFailed("request パートの JSON が不正です。");
+        }
+        Set<ConstraintViolation<SubmitPhotoRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return validationFailed(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
 
-        // 3. 結果ステータスに基づいたHTTPステータスコードの返却
+        // 3. file パートを保存しながら Service層を呼び出す
+        part = reader.next();
+        if (part == null || !"file".equals(part.name())) {
+            return validationFailed("file パートがありません。");
+        }
+        SubmitPhotoResult result = photoService.submitPhoto(request, userId, part.body());
+
+        // 4. 結果ステータスに基づいたHTTPステータスコードの返却
         return handleSubmissionResult(result);
     }
 
+    private ResponseEntity<SubmitPhotoResult> validationFailed(String message) {
+        return handleSubmissionResult(SubmitPhotoResult.builder()
+                .photoId(null)
+                .status(SubmitPhotoStatus.VALIDATION_FAILED)
+                .message(message)
+                .build());
+    }
+
     /**
      * Service層の処理結果に基づいてResponseEntityを構築するヘルパーメソッド
      */
@@ -69,6 +128,28 @@ public class PhotoController {
         };
     }
 
+    /**
+     * サイズ超過（413）・画像以外（415）・空ファイル（400）
+     */
+    @ExceptionHandler(InvalidUploadException.class)
+    public ResponseEntity<SubmitPhotoResult> handleInvalidUpload(InvalidUploadException ex) {
+        log.warn("Rejected photo upload. reason={}, message={}", ex.getReason(), ex.getMessage());
+
+        HttpStatus status = switch (ex.getReason()) {
+            case TOO_LARGE -> HttpStatus.PAYLOAD_TOO_LARGE;
+            case UNSUPPORTED_TYPE -> HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+            case INVALID_IMAGE -> HttpStatus.UNPROCESSABLE_ENTITY;
+            case EMPTY -> HttpStatus.BAD_REQUEST;
+        };
+        SubmitPhotoResult errorResult = SubmitPhotoResult.builder()
+                .photoId(null)
+                .status(SubmitPhotoStatus.VALIDATION_FAILED)
+                .message(ex.getMessage())
+                .build();
+
+        return new ResponseEntity<>(errorResult, status);
+    }
+
     /**
      * データベース例外など、Service層からスローされたRuntimeExceptionを捕捉する
      */
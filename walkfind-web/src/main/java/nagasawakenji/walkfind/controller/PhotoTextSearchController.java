@@ -0,0 +1,69 @@
+package nagasawakenji.walkfind.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.domain.dto.PhotoTextSearchResponse;
+import nagasawakenji.walkfind.domain.statusenum.PhotoTextSearchStatus;
+import nagasawakenji.walkfind.infra.ratelimit.RateLimitGuard;
+import nagasawakenji.walkfind.service.PhotoTextSearchService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/contests")
+public class PhotoTextSearchController {
+
+    private final PhotoTextSearchService photoTextSearchService;
+    private final RateLimitGuard rateLimitGuard;
+
+    /**
+     * GET /api/v1/contests/photos/search?q=... : 全コンテストの投稿写真を検索語の意味で探す
+     * このエンドポイントは公開（認証不要）です。初めての検索語は EMBEDDING_PENDING なので、フロントはポーリングする
+     * 初めての検索語の埋め込み依頼が IP 単位の上限を超えると 429（RATE_LIMITED）
+     */
+    @GetMapping("/photos/search")
+    public ResponseEntity<PhotoTextSearchResponse> searchAll(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpServletRequest request
+    ) {
+        return toResponse(photoTextSearchService.search(query, null, limit, request.getRemoteAddr()));
+    }
+
+    /**
+     * GET /api/v1/contests/{contestId}/photos/search?q=... : 特定コンテストの投稿写真から探す
+     */
+    @GetMapping("/{contestId}/photos/search")
+    public ResponseEntity<PhotoTextSearchResponse> searchContest(
+            @PathVariable("contestId") Long contestId,
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpServletRequest request
+    ) {
+        return toResponse(photoTextSearchService.search(query, contestId, limit, request.getRemoteAddr()));
+    }
+
+    // remoteAddr は API Gateway の sourceIp（X-Forwarded-For はクライアントが偽装できるため使わない）
+    private ResponseEntity<PhotoTextSearchResponse> toResponse(PhotoTextSearchResponse res) {
+        if (res.getStatus() == PhotoTextSearchStatus.RATE_LIMITED) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimitGuard.retryAfterSeconds()))
+                    .body(res);
+        }
+        return ResponseEntity.status(toHttpStatus(res.getStatus())).body(res);
+    }
+
+    private HttpStatus toHttpStatus(PhotoTextSearchStatus status) {
+        if (status == null) return HttpStatus.OK;
+
+        return switch (status) {
+            case SUCCESS, EMBEDDING_PENDING -> HttpStatus.OK; // ポーリング継続系
+            case INVALID_REQUEST -> HttpStatus.BAD_REQUEST;
+            case EMBEDDING_FAILED -> HttpStatus.SERVICE_UNAVAILABLE;
+            case RATE_LIMITED -> HttpStatus.TOO_MANY_REQUESTS;
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package nagasawakenji.walkfind.controller;
+
+import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.domain.dto.SearchResponse;
+import nagasawakenji.walkfind.infra.search.SearchDocument;
+import nagasawakenji.walkfind.service.SearchIndexService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchIndexService searchIndexService;
+
+    /**
+     * GET /api/v1/search?q=... : コンテスト（名前・テーマ）と投稿写真（タイトル・説明）を検索する
+     * このエンドポイントは公開（認証不要）です。
+     *
+     * @param type contest / photo（省略時は両方）
+     */
+    @GetMapping
+    public ResponseEntity<SearchResponse> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        SearchDocument.Type documentType = type == null || type.isBlank()
+                ? null
+                : SearchDocument.Type.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        return ResponseEntity.ok(searchIndexService.search(query, documentType, limit));
+    }
+
+    // type が contest / photo 以外
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest() {
+        return ResponseEntity.badRequest().build();
+    }
+}
@@ -23,11 +23,12 @@ public class AdminContestsController {
             @RequestParam(value = "size", defaultValue = "20") int size,
             @RequestParam(value = "status", required = false) String status,
             @RequestParam(value = "includeRemoved", defaultValue = "false") boolean includeRemoved,
-            @RequestParam(value = "keyword", required = false) String keyword
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
         String userId = authService.getAuthenticatedUserId();
         AdminContestsPageResponse res =
-                adminContestsService.listContests(userId, page, size, status, includeRemoved, keyword);
+                adminContestsService.listContests(userId, page, size, status, includeRemoved, keyword, cursor);
         return ResponseEntity.ok(res);
     }
 
@@ -35,4 +36,10 @@ public class AdminContestsController {
     public ResponseEntity<Void> handleDenied() {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
     }
+
+    // cursor の形式が不正
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest() {
+        return ResponseEntity.badRequest().build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package nagasawakenji.walkfind.controller.debug;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.service.ContestCountConsistencyService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * ローカル専用：contests.photo_count の整合性チェックを手動実行するデバッグ用コントローラー
+ */
+@RestController
+@RequestMapping("/_debug/contest-counts")
+@RequiredArgsConstructor
+@Slf4j
+@Profile("local")
+public class ContestCountDebugController {
+
+    private final ContestCountConsistencyService contestCountConsistencyService;
+
+    /**
+     * POST /_debug/contest-counts/repair
+     * photo_count のずれを補正し、補正したコンテストIDを返す
+     */
+    @PostMapping("/repair")
+    public ResponseEntity<List<Long>> repairPhotoCounts() {
+
+        log.info("[DEBUG] Contest photo_count repair triggered.");
+
+        return ResponseEntity.ok(contestCountConsistencyService.repairPhotoCounts());
+    }
+}
@@ -0,0 +1,32 @@
+package nagasawakenji.walkfind.controller.debug;
+
+import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.domain.dto.VoteFilterStatsResponse;
+import nagasawakenji.walkfind.service.VoteFilterService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * ローカル専用：投票済みフィルタのメモリ使用量と誤判定率を確認するデバッグ用コントローラー
+ */
+@RestController
+@RequestMapping("/_debug/vote-filter")
+@RequiredArgsConstructor
+@Profile("local")
+public class VoteFilterDebugController {
+
+    private final VoteFilterService voteFilterService;
+
+    /**
+     * GET /_debug/vote-filter
+     */
+    @GetMapping
+    public ResponseEntity<List<VoteFilterStatsResponse>> stats() {
+        return ResponseEntity.ok(voteFilterService.stats());
+    }
+}
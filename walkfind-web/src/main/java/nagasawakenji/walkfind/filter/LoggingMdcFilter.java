@@ -5,29 +5,61 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.profiling.ProfilingJackson2HttpMessageConverter;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
 import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import jakarta.servlet.Filter;
+
+/**
+ * リクエスト単位の MDC 設定と処理時間の内訳（DB / presign / SQS / シリアライズ）の計測を行う。
+ * 計測結果は Server-Timing ヘッダーと1行の構造化ログとして出力する。
+ */
 @Slf4j
 @Component
+// RateLimitFilter の 429 も計測・ログに含めるため、その外側で動かす
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
 public class LoggingMdcFilter implements Filter {
 
     @Override
     public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
             throws IOException, ServletException {
-
+        RequestProfile profile = RequestProfile.start();
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
         try {
-            HttpServletRequest request = (HttpServletRequest) req;
+
             MDC.put("method", request.getMethod());
             MDC.put("path", request.getRequestURI());
             MDC.put("userId", "anonymous"); // Web ではJWTなし
 
             chain.doFilter(req, res);
         } finally {
+            // JSON 以外のレスポンスは ProfilingJackson2HttpMessageConverter を通らないので、ここで付与する
+            if (!response.isCommitted()
+                    && !response.containsHeader(ProfilingJackson2HttpMessageConverter.SERVER_TIMING)) {
+                response.setHeader(ProfilingJackson2HttpMessageConverter.SERVER_TIMING, profile.toServerTiming());
+            }
+
+            profile.toLogFields().forEach(MDC::put);
+            MDC.put("status", String.valueOf(response.getStatus()));
+            log.info("request_profile status={} totalMs={} dbMs={} dbCount={} presignMs={} sqsMs={} serMs={}",
+                    response.getStatus(),
+                    MDC.get("totalMs"),
+                    MDC.get("dbMs"),
+                    MDC.get("dbCount"),
+                    MDC.get("presignMs"),
+                    MDC.get("sqsMs"),
+                    MDC.get("serMs"));
+
+            RequestProfile.end();
             MDC.clear();
         }
     }
-}
\ No newline at end of file
+}
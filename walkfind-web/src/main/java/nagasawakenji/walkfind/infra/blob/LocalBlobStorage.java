@@ -0,0 +1,50 @@
+package nagasawakenji.walkfind.infra.blob;
+
+import nagasawakenji.walkfind.infra.storage.LocalObjectStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * 内容アドレスのオブジェクトをローカルストレージ（app.local-storage-dir）で扱う。
+ * キーは LocalStorageUploadService が書き込みながら求めた SHA-256 なので、SHA-256 は記録しない。
+ */
+@Component
+public class LocalBlobStorage implements BlobStorage {
+
+    private final LocalObjectStore localObjectStore;
+    private final Path root;
+
+    public LocalBlobStorage(LocalObjectStore localObjectStore,
+                            @Value("${app.local-storage-dir}") String storageRoot) {
+        this.localObjectStore = localObjectStore;
+        this.root = Paths.get(storageRoot).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public Optional<StoredObject> head(String key) {
+        return localObjectStore.find(key)
+                .map(o -> new StoredObject(o.size(), null, Instant.ofEpochMilli(o.lastModified())));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        localObjectStore.forget(key);
+        Files.deleteIfExists(resolve(key));
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(StringUtils.cleanPath(key)).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+}
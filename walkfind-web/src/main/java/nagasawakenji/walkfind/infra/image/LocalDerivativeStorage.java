@@ -0,0 +1,66 @@
+package nagasawakenji.walkfind.infra.image;
+
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.storage.LocalObjectStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 縮小版をローカルストレージ（app.local-storage-dir）に保存する
+ */
+@Component
+@Slf4j
+public class LocalDerivativeStorage implements DerivativeStorage {
+
+    private final LocalObjectStore localObjectStore;
+    private final Path root;
+
+    public LocalDerivativeStorage(LocalObjectStore localObjectStore,
+                                  @Value("${app.local-storage-dir}") String storageRoot) {
+        this.localObjectStore = localObjectStore;
+        this.root = Paths.get(storageRoot).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public void put(String key, byte[] body, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+
+        // 配信中のファイルを書きかけの状態で見せないよう、書き終えてから置き換える
+        Path partial = Files.createTempFile(target.getParent(), ".derivative-", ".part");
+        try {
+            Files.write(partial, body);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        localObjectStore.register(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        localObjectStore.forget(key);
+        Files.deleteIfExists(resolve(key));
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(StringUtils.cleanPath(key)).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,60 @@
+package nagasawakenji.walkfind.infra.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+/**
+ * 結果スナップショットをローカルストレージ（app.local-storage-dir）に保存する
+ */
+@Component
+@Slf4j
+public class LocalResultSnapshotStorage implements ResultSnapshotStorage {
+
+    @Value("${app.local-storage-dir}")
+    private String storageRoot;
+
+    @Override
+    public void put(String key, byte[] body) {
+        Path target = resolve(key);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.write(target, body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot: " + target, e);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> get(String key) {
+        try {
+            return Optional.of(Files.readAllBytes(resolve(key)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot: " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete snapshot: " + key, e);
+        }
+    }
+
+    private Path resolve(String key) {
+        return Paths.get(storageRoot, StringUtils.cleanPath(key));
+    }
+}
@@ -0,0 +1,143 @@
+package nagasawakenji.walkfind.infra.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.image.ImageTypeSniffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * ローカルストレージ（app.local-storage-dir）上のオブジェクトの配信用メタデータ。
+ *
+ * Content-Type はアップロード時に先頭バイトから1回だけ判定して覚えておく
+ * （再起動後やアップロード以外で置かれたファイルは、最初の配信時に判定する）。
+ * ファイルのサイズ・更新日時が変わっていれば判定し直す。
+ */
+@Component
+@Slf4j
+public class LocalObjectStore {
+
+    // ファイル名（拡張子を除く）が SHA-256 の16進なら内容から決まるキー（中身が変わらない）
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int MAX_CACHED = 10_000;
+
+    private final Path root;
+    private final Map<String, LocalObject> cache = new ConcurrentHashMap<>();
+
+    public LocalObjectStore(@Value("${app.local-storage-dir}") String storageRoot) {
+        this.root = Paths.get(storageRoot).toAbsolutePath().normalize();
+    }
+
+    /**
+     * 配信用のメタデータを返す。存在しない・ルート外のキーなら Optional.empty()
+     */
+    public Optional<LocalObject> find(String key) {
+        Path path = resolve(key);
+        if (path == null) {
+            return Optional.empty();
+        }
+
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            cache.remove(key);
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Failed to stat local object. key={}", key, e);
+            return Optional.empty();
+        }
+        if (!attrs.isRegularFile()) {
+            return Optional.empty();
+        }
+
+        long size = attrs.size();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        LocalObject cached = cache.get(key);
+        if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+            return Optional.of(cached);
+        }
+        return Optional.of(remember(key, path, size, lastModified));
+    }
+
+    /**
+     * アップロード直後に呼び、Content-Type を判定しておく
+     */
+    public void register(String key) {
+        find(key);
+    }
+
+    public void forget(String key) {
+        cache.remove(key);
+    }
+
+    private LocalObject remember(String key, Path path, long size, long lastModified) {
+        String fileName = path.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        boolean immutable = CONTENT_ADDRESSED.matcher(baseName).matches();
+
+        // 内容から決まるキーはハッシュそのもの、それ以外は更新日時とサイズを版とする
+        String etag = immutable
+                ? "\"" + baseName + "\""
+                : "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\"";
+
+        LocalObject object = new LocalObject(path, size, lastModified, sniffContentType(path, fileName), etag, immutable);
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        cache.put(key, object);
+        return object;
+    }
+
+    private Path resolve(String key) {
+        if (!StringUtils.hasText(key)) {
+            return null;
+        }
+        Path path = root.resolve(StringUtils.cleanPath(key)).normalize();
+        // ../ でルートの外へ出るキーは扱わない
+        return path.startsWith(root) && !path.equals(root) ? path : null;
+    }
+
+    private static String sniffContentType(Path path, String fileName) {
+        byte[] head = new byte[ImageTypeSniffer.HEAD_BYTES];
+        int n = 0;
+        try (InputStream in = Files.newInputStream(path)) {
+            int r;
+            while (n < head.length && (r = in.read(head, n, head.length - n)) > 0) {
+                n += r;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read head of local object. path={}", path, e);
+        }
+
+        String imageType = ImageTypeSniffer.sniff(head, n);
+        if (imageType != null) {
+            return imageType;
+        }
+        if (fileName.endsWith(".json.gz")) {
+            return "application/gzip";
+        }
+        return "application/octet-stream";
+    }
+
+    /**
+     * 配信に必要な情報（ETag は強い ETag）
+     */
+    public record LocalObject(Path path, long size, long lastModified, String contentType, String etag,
+                              boolean immutable) {
+    }
+}
@@ -0,0 +1,87 @@
+package nagasawakenji.walkfind.infra.thread;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * JFR の jdk.VirtualThreadPinned イベントを購読し、
+ * 仮想スレッドがキャリアスレッドにピン留めされた（synchronized 内でブロックした）箇所をログに出す。
+ *
+ * JDBC ドライバや自前コードの synchronized が原因で仮想スレッドの恩恵が消えていないかを
+ * 本番相当の負荷で確認するためのもの。
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    static final String EVENT_NAME = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Consumer<RecordedEvent> reporter;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        this(threshold, VirtualThreadPinningMonitor::report);
+    }
+
+    /**
+     * イベントの出力先を差し替える（テスト用）
+     */
+    public VirtualThreadPinningMonitor(Duration threshold, Consumer<RecordedEvent> reporter) {
+        this.threshold = threshold;
+        this.reporter = reporter;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EVENT_NAME).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT_NAME, reporter);
+        stream.startAsync();
+        log.info("VirtualThreadPinningMonitor started. threshold={}ms", threshold.toMillis());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream == null) {
+            return;
+        }
+        stream.close();
+        stream = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+
+    private static void report(RecordedEvent event) {
+        log.warn("virtual_thread_pinned durationMs={} thread={} stack={}",
+                event.getDuration().toMillis(),
+                event.getThread() != null ? event.getThread().getJavaName() : "unknown",
+                formatStack(event.getStackTrace()));
+    }
+
+    private static String formatStack(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "-";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(MAX_FRAMES)
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+}
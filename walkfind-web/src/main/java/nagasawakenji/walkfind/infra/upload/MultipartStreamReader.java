@@ -0,0 +1,239 @@
+package nagasawakenji.walkfind.infra.upload;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * multipart/form-data をリクエストボディから順に読む（一時ファイルにもメモリにも全体を溜めない）。
+ *
+ * next() で次のパートへ進み、Part#body() はパートの区切りまでを返す InputStream。
+ * 前のパートを読み切らずに next() を呼ぶと、残りは読み捨てる。
+ * 区切りは新しく読んだ分（と前回の末尾の区切りの長さ - 1 バイト）だけを探すので、パートの長さに比例する時間で読める。
+ * スレッドセーフではない。
+ */
+public final class MultipartStreamReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+
+    private final InputStream in;
+    // 区切りは "\r\n--boundary"。先頭の区切りにも合うよう、バッファの先頭に "\r\n" を置いておく
+    private final byte[] delimiter;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int head = 0;
+    private int tail = 2;
+    private boolean finished;
+    private PartInputStream current;
+    // 現在のパートで、区切りの先頭になり得る位置（これより前は探索済みで区切りが無い）
+    private int scanFrom;
+    // 現在のパートで見つけた区切りの位置。見つけていなければ -1
+    private int delimiterAt = -1;
+
+    public MultipartStreamReader(InputStream in, String boundary) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        // 最初の区切りより前（プリアンブル）は読み捨てる
+        this.current = new PartInputStream();
+    }
+
+    /**
+     * Content-Type ヘッダーから boundary を取り出す。multipart でなければ null
+     */
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return null;
+        }
+        String boundary = parameters(contentType).get("boundary");
+        return boundary == null || boundary.isEmpty() ? null : boundary;
+    }
+
+    /**
+     * 次のパートを返す。最後のパートの後は null
+     */
+    public Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (current != null) {
+            current.skipToEnd();
+            current = null;
+        }
+
+        // 区切りの直後は "--"（終端）か "\r\n"（ヘッダーが続く）
+        fill(2);
+        if (buffer[head] == '-' && buffer[head + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        if (buffer[head] != '\r' || buffer[head + 1] != '\n') {
+            throw new IOException("Malformed multipart boundary.");
+        }
+        head += 2;
+
+        Map<String, String> headers = readHeaders();
+        Map<String, String> disposition = parameters(headers.getOrDefault("content-disposition", ""));
+        current = new PartInputStream();
+        return new Part(disposition.get("name"), disposition.get("filename"), headers.get("content-type"), current);
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        int end;
+        while ((end = indexOf(HEADER_END, head, tail)) < 0) {
+            if (tail - head >= MAX_HEADER_BYTES) {
+                throw new IOException("Multipart headers too large.");
+            }
+            fill(tail - head + 1);
+        }
+        String block = new String(buffer, head, end - head, StandardCharsets.UTF_8);
+        head = end + HEADER_END.length;
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String line : block.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    // 未読部分が min バイト以上になるまで読む（バッファの前詰めを含む）
+    private void fill(int min) throws IOException {
+        if (head + min > BUFFER_SIZE || tail == BUFFER_SIZE) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            scanFrom = Math.max(0, scanFrom - head);
+            if (delimiterAt >= 0) {
+                delimiterAt -= head;
+            }
+            head = 0;
+        }
+        while (tail - head < min) {
+            int n = in.read(buffer, tail, BUFFER_SIZE - tail);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of multipart stream.");
+            }
+            tail += n;
+        }
+    }
+
+    private int indexOf(byte[] pattern, int from, int to) {
+        int last = to - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    // "form-data; name=\"file\"; filename=\"a.jpg\"" のようなヘッダー値の引数部分
+    private static Map<String, String> parameters(String value) {
+        Map<String, String> params = new LinkedHashMap<>();
+        int i = value.indexOf(';');
+        while (i >= 0 && i < value.length()) {
+            int eq = value.indexOf('=', i + 1);
+            if (eq < 0) {
+                break;
+            }
+            String name = value.substring(i + 1, eq).trim().toLowerCase(Locale.ROOT);
+            int pos = eq + 1;
+            StringBuilder v = new StringBuilder();
+            if (pos < value.length() && value.charAt(pos) == '"') {
+                pos++;
+                while (pos < value.length() && value.charAt(pos) != '"') {
+                    if (value.charAt(pos) == '\\' && pos + 1 < value.length()) {
+                        pos++;
+                    }
+                    v.append(value.charAt(pos++));
+                }
+                pos++;
+            } else {
+                while (pos < value.length() && value.charAt(pos) != ';') {
+                    v.append(value.charAt(pos++));
+                }
+            }
+            params.put(name, v.toString().trim());
+            i = value.indexOf(';', pos);
+        }
+        return params;
+    }
+
+    /**
+     * 1つのパート。body は次の区切りの手前で終わる
+     */
+    public record Part(String name, String filename, String contentType, InputStream body) {
+    }
+
+    private final class PartInputStream extends InputStream {
+
+        private boolean done;
+
+        PartInputStream() {
+            scanFrom = head;
+            delimiterAt = -1;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                if (delimiterAt < 0) {
+                    // 新しく読んだ分と、その直前の区切りの長さ - 1 バイトだけを探す
+                    int found = indexOf(delimiter, Math.max(head, scanFrom), tail);
+                    if (found >= 0) {
+                        delimiterAt = found;
+                    } else {
+                        scanFrom = Math.max(head, tail - (delimiter.length - 1));
+                    }
+                }
+                if (delimiterAt == head) {
+                    head += delimiter.length;
+                    delimiterAt = -1;
+                    done = true;
+                    return -1;
+                }
+                // 区切りの手前まで、区切りが見つからなければ区切りの途中かもしれない末尾を残して返す
+                int available = delimiterAt >= 0 ? delimiterAt - head : tail - head - (delimiter.length - 1);
+                if (available > 0) {
+                    int n = Math.min(len, available);
+                    System.arraycopy(buffer, head, b, off, n);
+                    head += n;
+                    return n;
+                }
+                fill(tail - head + 1);
+            }
+        }
+
+        void skipToEnd() throws IOException {
+            byte[] discard = new byte[8192];
+            while (read(discard, 0, discard.length) >= 0) {
+                // 読み捨てる
+            }
+        }
+    }
+}
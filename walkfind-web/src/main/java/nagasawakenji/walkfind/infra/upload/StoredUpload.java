@@ -0,0 +1,12 @@
+package nagasawakenji.walkfind.infra.upload;
+
+/**
+ * ストレージへ書き込んだファイルの情報（書き込みと同じ1パスで求めたもの）
+ *
+ * @param key         保存したキー（相対パス）
+ * @param size        バイト数
+ * @param sha256      内容の SHA-256（16進小文字）
+ * @param contentType 先頭バイトから判定した MIME タイプ
+ */
+public record StoredUpload(String key, long size, String sha256, String contentType) {
+}
@@ -1,6 +1,7 @@
 package nagasawakenji.walkfind.service;
 
 import nagasawakenji.walkfind.domain.dto.CognitoDeleteResponse;
+import nagasawakenji.walkfind.domain.event.UserAnonymizedEvent;
 import nagasawakenji.walkfind.domain.model.User;
 import nagasawakenji.walkfind.domain.statusenum.CognitoDeleteStatus;
 import nagasawakenji.walkfind.exception.AuthenticationProcessingException;
@@ -16,6 +17,7 @@ import nagasawakenji.walkfind.infra.CognitoOAuthClient;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserProfileMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
@@ -41,6 +43,8 @@ public class AuthApplicationService {
     private final UserProfileMapper userProfileMapper;
     private final CognitoIdentityProviderClient cognitoIdentityProviderClient;
     private final LocalStorageUploadService localStorageUploadService;
+    private final BlobService blobService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${aws.cognito.userPoolId}")
     private String userPoolId;
@@ -87,7 +91,8 @@ public class AuthApplicationService {
                 var profileOpt = userProfileMapper.findByUserId(requiredUserId);
                 if (profileOpt.isPresent()) {
                     String currentImageUrl = profileOpt.get().getProfileImageUrl();
-                    if (currentImageUrl != null) {
+                    // 同じ内容を他から参照していなければ削除する
+                    if (currentImageUrl != null && blobService.release(currentImageUrl)) {
                         localStorageUploadService.deleteFile(currentImageUrl);
                     }
                 }
@@ -116,6 +121,9 @@ public class AuthApplicationService {
                 throw new RuntimeException("Failed to update user record");
             }
 
+            // 公開済みの結果スナップショットに残っている旧ユーザー名をコミット後に差し替える
+            eventPublisher.publishEvent(new UserAnonymizedEvent(requiredUserId));
+
             try {
                 cognitoIdentityProviderClient.adminDeleteUser(AdminDeleteUserRequest.builder()
                         .userPoolId(userPoolId)
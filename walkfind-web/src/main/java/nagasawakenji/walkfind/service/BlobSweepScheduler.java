@@ -0,0 +1,62 @@
+package nagasawakenji.walkfind.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 参照の無くなった内容アドレスのファイルを sweep-minutes ごとに削除する（Web 用。Lambda は BlobSweepHandler）。
+ * 1回に消しきれなければ、残りが無くなるまで続けて実行する。
+ */
+@Service
+@Slf4j
+public class BlobSweepScheduler {
+
+    private final BlobService blobService;
+    private final long sweepMinutes;
+    private final int batchSize;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "blob-sweep");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public BlobSweepScheduler(BlobService blobService,
+                              @Value("${walkfind.blob.sweep-minutes:60}") long sweepMinutes,
+                              @Value("${walkfind.blob.sweep-batch-size:100}") int batchSize) {
+        this.blobService = blobService;
+        this.sweepMinutes = sweepMinutes;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker.scheduleWithFixedDelay(this::sweep, sweepMinutes, sweepMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void sweep() {
+        try {
+            while (blobService.sweepUnreferenced() >= batchSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            // 次の実行で削除し直す
+            log.error("Failed to sweep unreferenced blobs.", e);
+        }
+    }
+}
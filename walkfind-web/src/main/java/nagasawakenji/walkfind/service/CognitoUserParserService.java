@@ -1,20 +1,18 @@
 package nagasawakenji.walkfind.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import nagasawakenji.walkfind.domain.dto.CognitoUser;
+import nagasawakenji.walkfind.infra.auth.CognitoTokenVerifier;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
-
 @Service
+@RequiredArgsConstructor
 public class CognitoUserParserService {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CognitoTokenVerifier cognitoTokenVerifier;
 
     /**
-     * Cognito の idToken (JWT) から
+     * Cognito の idToken (JWT) を検証し、
      *  - userId (sub)
      *  - username (cognito:username があればそれ、なければ sub)
      *  - email (local 環境用にダミー生成)
@@ -22,29 +20,21 @@ public class CognitoUserParserService {
      */
     public CognitoUser parse(String idToken) {
         try {
-            String[] parts = idToken.split("\\.");
-            if (parts.length < 2) {
-                throw new IllegalArgumentException("Invalid JWT format");
-            }
-
-            String payloadJson =
-                    new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
-
-            JsonNode payload = objectMapper.readTree(payloadJson);
+            CognitoTokenVerifier.VerifiedToken token = cognitoTokenVerifier.verify(idToken);
 
-            String userId = payload.get("sub").asText();
+            String userId = token.subject();
 
             String username;
-            if (payload.has("cognito:username")) {
-                username = payload.get("cognito:username").asText();
+            if (token.hasClaim("cognito:username")) {
+                username = token.claimAsString("cognito:username");
             } else {
                 username = userId;
             }
 
             // local環境用のダミーemailを自動生成
             String email;
-            if (payload.has("email")) {
-                email = payload.get("email").asText();
+            if (token.hasClaim("email")) {
+                email = token.claimAsString("email");
             } else {
                 email = "local+" + userId + "@example.com";
             }
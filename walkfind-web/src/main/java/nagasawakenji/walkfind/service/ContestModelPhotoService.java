@@ -12,13 +12,13 @@ import nagasawakenji.walkfind.exception.DatabaseOperationException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestModelPhotoMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoEmbeddingMapper;
+import nagasawakenji.walkfind.infra.upload.StoredUpload;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +30,7 @@ public class ContestModelPhotoService {
     private final LocalStorageUploadService localStorageUploadService;
     private final ApplicationEventPublisher eventPublisher;
     private final PhotoEmbeddingMapper photoEmbeddingMapper;
+    private final BlobService blobService;
 
 
 
@@ -67,26 +68,21 @@ public class ContestModelPhotoService {
                     .build();
         }
 
-        // ストレージへの写真保存の実行
-        String savedPhotoUrl = null; // 削除用にスコープを外に出す
+        // ストレージへの写真保存の実行（同じ内容が保存済みなら書き込まずにそのキーを使う）
+        StoredUpload stored;
         try {
-            // getOriginalFilename()を使用。拡張子を維持するのが望ましい。
-            String originalFilename = file.getOriginalFilename();
-            String ext = "";
-            if (originalFilename != null && originalFilename.lastIndexOf(".") > 0) {
-                ext = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String key = UUID.randomUUID().toString() + ext;
-
-            // 戻り値をキャッチする
-            savedPhotoUrl = localStorageUploadService.saveFile(file, key);
-
+            stored = localStorageUploadService.saveBlob(file);
         } catch (Exception e) {
             log.error("Storage upload failed: " + e.getMessage());
             throw new RuntimeException("モデル写真の保存に失敗しました", e);
         }
+        String savedPhotoUrl = stored.key();
 
+        boolean firstReference = false;
         try {
+            // 同じ内容の画像が既にあれば参照数を増やすだけ（ロールバックで元に戻る）
+            firstReference = blobService.acquire(savedPhotoUrl, stored.contentType(), stored.size());
+
             ContestModelPhoto photo = new ContestModelPhoto();
             photo.setContestId(contestId);
             photo.setPhotoUrl(savedPhotoUrl);
@@ -122,8 +118,10 @@ public class ContestModelPhotoService {
                     .build();
 
         } catch (Exception e) {
-            // DB登録に失敗したので、ベストエフォートでS3を消す
-            bestEffortDeleteS3(savedPhotoUrl);
+            // DB登録に失敗したので、他から参照されていなければベストエフォートで消す
+            if (firstReference) {
+                bestEffortDeleteS3(savedPhotoUrl);
+            }
 
             // ストレージ削除エラーは握りつぶして、例外を投げてTxを落とす
             throw new DatabaseOperationException("Failed to create contest model photo. contestId=" + contestId, e);
@@ -187,8 +185,10 @@ public class ContestModelPhotoService {
         try {
             contestModelPhotoMapper.deleteById(modelPhotoId);
 
-            // DBは消したので、ストレージはベストエフォートで消す（失敗は握りつぶし）
-            bestEffortDeleteS3(existing.getPhotoUrl());
+            // DBは消したので、他から参照されていなければストレージはベストエフォートで消す（失敗は握りつぶし）
+            if (blobService.release(existing.getPhotoUrl())) {
+                bestEffortDeleteS3(existing.getPhotoUrl());
+            }
 
             ContestModelPhotoCreateResponse body = ContestModelPhotoCreateResponse.builder()
                     .id(existing.getId())
@@ -0,0 +1,352 @@
+package nagasawakenji.walkfind.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.LeaderboardSnapshotResponse;
+import nagasawakenji.walkfind.domain.event.LeaderboardChangedEvent;
+import nagasawakenji.walkfind.domain.event.LeaderboardResetEvent;
+import nagasawakenji.walkfind.domain.model.Contest;
+import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
+import nagasawakenji.walkfind.exception.ContestNotFoundException;
+import nagasawakenji.walkfind.infra.leaderboard.LeaderboardView;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * リーダーボードの変化を Server-Sent Events で配信する。
+ *
+ * 購読開始時に上位 N 件（snapshot）を送り、以降は1票ごとの順位の変化（move）だけを送る。
+ * move の JSON は1回だけ作って全購読者に同じものを送るので、購読者が増えても DB への問い合わせは増えない。
+ *
+ * 送信は購読者ごとの送信待ち行列から別々のスレッド（仮想スレッドモードでは仮想スレッド）で行い、
+ * 遅い購読者が他の購読者や投票リクエストのスレッドを待たせない。待ち行列が溢れた購読者は切断する。
+ * snapshot は購読者を登録してから送信スレッドで作るので、その間の move を取りこぼさない。
+ * イベントの id はリーダーボードの版で、snapshot に含まれる版以前の move は送らない。
+ */
+@Service
+@Slf4j
+public class LeaderboardStreamService {
+
+    // 送信待ちの1件。version は move の版（move 以外は -1）
+    private record Frame(String name, long version, String json) {
+    }
+
+    private static final Frame PING = new Frame(null, -1, null);
+
+    private final LeaderboardService leaderboardService;
+    private final ContestMapper contestMapper;
+    private final ObjectMapper objectMapper;
+    private final Supplier<SseEmitter> emitters;
+    private final int maxLimit;
+    private final int queueCapacity;
+    private final Executor senders;
+
+    private final Map<Long, List<Watcher>> watchers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "leaderboard-sse-heartbeat");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Autowired
+    public LeaderboardStreamService(LeaderboardService leaderboardService,
+                                    ContestMapper contestMapper,
+                                    ObjectMapper objectMapper,
+                                    @Value("${walkfind.leaderboard.sse.timeout-ms:1800000}") long timeoutMillis,
+                                    @Value("${walkfind.leaderboard.sse.heartbeat-seconds:20}") long heartbeatSeconds,
+                                    @Value("${walkfind.leaderboard.sse.max-limit:100}") int maxLimit,
+                                    @Value("${walkfind.leaderboard.sse.queue-capacity:256}") int queueCapacity,
+                                    @Value("${walkfind.leaderboard.sse.sender-threads:4}") int senderThreads,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(leaderboardService, contestMapper, objectMapper, () -> new SseEmitter(timeoutMillis),
+                heartbeatSeconds, maxLimit, queueCapacity, senders(senderThreads, virtualThreads));
+    }
+
+    public LeaderboardStreamService(LeaderboardService leaderboardService,
+                                    ContestMapper contestMapper,
+                                    ObjectMapper objectMapper,
+                                    Supplier<SseEmitter> emitters,
+                                    long heartbeatSeconds,
+                                    int maxLimit,
+                                    int queueCapacity,
+                                    Executor senders) {
+        this.leaderboardService = leaderboardService;
+        this.contestMapper = contestMapper;
+        this.objectMapper = objectMapper;
+        this.emitters = emitters;
+        this.maxLimit = maxLimit;
+        this.queueCapacity = queueCapacity;
+        this.senders = senders;
+
+        // プロキシにアイドル切断されないよう、定期的にコメント行を送る
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 購読を開始する。開催中でないコンテストは snapshot を1回送って終了する
+     */
+    public SseEmitter subscribe(Long contestId, int limit) {
+        Contest contest = contestMapper.findContestStatus(contestId)
+                .orElseThrow(() -> new ContestNotFoundException("Contest with ID " + contestId + " not found.", "NOT_FOUND"));
+
+        SseEmitter emitter = emitters.get();
+        int clampedLimit = Math.max(1, Math.min(limit, maxLimit));
+
+        if (contest.getStatus() != ContestStatus.IN_PROGRESS) {
+            // 投票期間外は順位が動かない
+            try {
+                LeaderboardView view = leaderboardService.get(contestId).view(clampedLimit);
+                emitter.send(SseEmitter.event()
+                        .name("snapshot")
+                        .id(String.valueOf(view.version()))
+                        .data(toJson(snapshot(contestId, view))));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return emitter;
+        }
+
+        // 先に登録して move を溜め、snapshot は送信スレッドで作って最初に送る
+        List<Watcher> list = watchers.computeIfAbsent(contestId, id -> new CopyOnWriteArrayList<>());
+        Watcher watcher = new Watcher(contestId, list, emitter, clampedLimit);
+        list.add(watcher);
+        emitter.onCompletion(watcher::close);
+        emitter.onTimeout(watcher::close);
+        emitter.onError(e -> watcher.close());
+        watcher.requestSnapshot();
+
+        log.info("Leaderboard stream subscribed. contestId={}, watchers={}", contestId, list.size());
+        return emitter;
+    }
+
+    @EventListener
+    public void onChanged(LeaderboardChangedEvent e) {
+        List<Watcher> list = watchers.get(e.contestId());
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+        Frame frame = new Frame("move", e.move().version(), toJson(e.move()));
+        for (Watcher watcher : list) {
+            watcher.offer(frame);
+        }
+    }
+
+    @EventListener
+    public void onReset(LeaderboardResetEvent e) {
+        List<Watcher> list = watchers.get(e.contestId());
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+        // 読み直し（DB）は各購読者の送信スレッドで行う（LeaderboardService#get は同時に1回だけ読み込む）
+        for (Watcher watcher : list) {
+            watcher.requestSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        if (senders instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        } else if (senders instanceof SimpleAsyncTaskExecutor asyncTaskExecutor) {
+            asyncTaskExecutor.close();
+        }
+        watchers.values().forEach(list -> list.forEach(w -> w.emitter.complete()));
+    }
+
+    private void sendHeartbeat() {
+        watchers.values().forEach(list -> list.forEach(watcher -> watcher.offer(PING)));
+    }
+
+    private LeaderboardSnapshotResponse snapshot(Long contestId, LeaderboardView view) {
+        return LeaderboardSnapshotResponse.builder()
+                .contestId(contestId)
+                .totalCount(view.totalCount())
+                .standings(view.standings())
+                .build();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize leaderboard frame.", e);
+        }
+    }
+
+    // 仮想スレッドモードでは送信ごとに仮想スレッド、それ以外は固定数のスレッド
+    private static Executor senders(int threads, boolean virtualThreads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("leaderboard-sse-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        AtomicInteger seq = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60, TimeUnit.SECONDS,
+                // 購読者ごとに送信タスクは高々1つなので、購読者数を超えて積み上がらない
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "leaderboard-sse-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 1人の購読者。送信待ち行列を、同時に1つの送信タスクだけが順に送る
+     */
+    private final class Watcher {
+
+        private final Long contestId;
+        private final List<Watcher> list;
+        private final SseEmitter emitter;
+        private final int limit;
+        private final BlockingQueue<Frame> frames = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean snapshotRequested = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        // 最後に送った snapshot の版（送信タスクだけが読み書きする）
+        private long snapshotVersion = -1;
+
+        private Watcher(Long contestId, List<Watcher> list, SseEmitter emitter, int limit) {
+            this.contestId = contestId;
+            this.list = list;
+            this.emitter = emitter;
+            this.limit = limit;
+        }
+
+        void offer(Frame frame) {
+            if (closed) {
+                return;
+            }
+            if (!frames.offer(frame)) {
+                log.warn("Leaderboard stream is too slow, disconnected. contestId={}, queued={}", contestId, frames.size());
+                close();
+                completeQuietly();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void requestSnapshot() {
+            snapshotRequested.set(true);
+            scheduleDrain();
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            list.remove(this);
+            frames.clear();
+        }
+
+        private void scheduleDrain() {
+            if (closed || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close();
+                completeQuietly();
+            }
+        }
+
+        private void drain() {
+            try {
+                if (!closed && snapshotRequested.getAndSet(false)) {
+                    sendSnapshot();
+                }
+                Frame frame;
+                while (!closed && (frame = frames.poll()) != null) {
+                    send(frame);
+                }
+            } finally {
+                draining.set(false);
+            }
+            // 送り終えた後に積まれたものがあれば続ける
+            if (!closed && (snapshotRequested.get() || !frames.isEmpty())) {
+                scheduleDrain();
+            }
+        }
+
+        private void sendSnapshot() {
+            try {
+                LeaderboardView view = leaderboardService.get(contestId).view(limit);
+                emitter.send(SseEmitter.event()
+                        .name("snapshot")
+                        .id(String.valueOf(view.version()))
+                        .data(toJson(snapshot(contestId, view))));
+                snapshotVersion = view.version();
+            } catch (IOException | IllegalStateException e) {
+                // 切断済みのクライアント
+                close();
+            } catch (RuntimeException e) {
+                log.warn("Failed to build leaderboard snapshot. contestId={}", contestId, e);
+                close();
+                completeQuietly();
+            }
+        }
+
+        private void send(Frame frame) {
+            if (frame.version() >= 0 && frame.version() <= snapshotVersion) {
+                // 送った snapshot に含まれる
+                return;
+            }
+            try {
+                if (frame == PING) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } else {
+                    emitter.send(SseEmitter.event().name(frame.name()).id(String.valueOf(frame.version())).data(frame.json()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 切断済みのクライアント
+                close();
+            }
+        }
+
+        private void completeQuietly() {
+            try {
+                emitter.complete();
+            } catch (RuntimeException ignored) {
+                // 既に終了している
+            }
+        }
+    }
+}
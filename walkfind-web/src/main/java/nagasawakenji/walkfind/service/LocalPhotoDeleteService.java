@@ -3,11 +3,14 @@ package nagasawakenji.walkfind.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nagasawakenji.walkfind.domain.dto.DeletingPhotoResponse;
+import nagasawakenji.walkfind.domain.event.PhotoRemovedEvent;
 import nagasawakenji.walkfind.domain.model.UserPhoto;
 import nagasawakenji.walkfind.domain.statusenum.DeletePhotoStatus;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoEmbeddingMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -21,7 +24,11 @@ public class LocalPhotoDeleteService {
 
     private final PhotoMapper photoMapper;
     private final PhotoEmbeddingMapper photoEmbeddingMapper;
+    private final ContestMapper contestMapper;
+    private final ApplicationEventPublisher eventPublisher;
     private final LocalStorageUploadService localStorageUploadService;
+    private final BlobService blobService;
+    private final ImageDerivativeService imageDerivativeService;
 
     /**
      * ローカル環境用の写真削除。
@@ -84,14 +91,27 @@ public class LocalPhotoDeleteService {
                         .build();
             }
 
-            // DB削除が成功した場合のみストレージから削除
-            if (StringUtils.hasText(photoKey)) {
+            // ギャラリーの総件数 (contests.photo_count) を同じトランザクションで更新
+            if (contestMapper.decrementPhotoCount(photo.getContestId()) == 0) {
+                log.warn("Failed to decrement photo_count. contestId={}", photo.getContestId());
+            }
+            // コミット後にリーダーボードから外す
+            eventPublisher.publishEvent(new PhotoRemovedEvent(photo.getContestId(), photoId));
+
+            // DB削除が成功し、同じ内容を他の写真が参照していない場合のみストレージから削除
+            if (StringUtils.hasText(photoKey) && blobService.release(photoKey)) {
                 try {
                     localStorageUploadService.deleteFile(photoKey);
                 } catch (Exception e) {
                     // ストレージ削除失敗はログにとどめ、DB側の削除は優先
                     log.error("Failed to delete local file. key={}, photoId={}", photoKey, photoId, e);
                 }
+                // 縮小版も元画像と一緒に消す（元画像の削除に失敗しても消す）
+                try {
+                    imageDerivativeService.deleteFor(photoKey);
+                } catch (Exception e) {
+                    log.error("Failed to delete derivatives. key={}, photoId={}", photoKey, photoId, e);
+                }
             }
 
             // ベストエフォートで embedding を削除（失敗しても写真削除は継続する）
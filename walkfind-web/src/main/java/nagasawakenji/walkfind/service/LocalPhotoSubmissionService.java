@@ -9,16 +9,17 @@ import nagasawakenji.walkfind.domain.model.UserPhoto;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
 import nagasawakenji.walkfind.domain.statusenum.SubmitPhotoStatus;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
+import nagasawakenji.walkfind.exception.InvalidUploadException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserProfileMapper;
+import nagasawakenji.walkfind.infra.upload.StoredUpload;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.context.ApplicationEventPublisher;
 
+import java.io.InputStream;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @Slf4j
@@ -29,54 +30,101 @@ public class LocalPhotoSubmissionService {
     private final ContestMapper contestMapper;
     private final UserProfileMapper userProfileMapper;
     private final LocalStorageUploadService localStorageUploadService;
+    private final BlobService blobService;
     private final UserProfileContestEntryService userProfileContestEntryService;
     private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    public SubmitPhotoResult submitPhoto(SubmitPhotoRequest request, String userId, MultipartFile file) {
+    /**
+     * リクエストボディから読み進めている写真をそのまま保存して投稿する。
+     *
+     * 受信（ファイル書き込み）の間は DB コネクションを持たないよう、トランザクションは
+     * 保存後の登録だけに張る。受信中に期間終了・重複投稿が起きた場合に備え、登録時にもう一度判定する。
+     *
+     * @param fileStream multipart の file パートの本文
+     */
+    public SubmitPhotoResult submitPhoto(SubmitPhotoRequest request, String userId, InputStream fileStream) {
 
-        // DTOのバリデーションはController層で完了している前提
         Long contestId = request.getContestId();
 
+        // 受信前に弾けるものは弾く（不要なアップロードを書き込まない）
+        Optional<SubmitPhotoResult> rejected = checkSubmittable(contestId, userId);
+        if (rejected.isPresent()) {
+            return rejected.get();
+        }
+
+        StoredUpload stored = localStorageUploadService.saveBlob(fileStream);
+        log.info("Photo stream stored. contestId={}, key={}, size={}",
+                contestId, stored.key(), stored.size());
+
+        try {
+            return transactionTemplate.execute(status -> {
+                Optional<SubmitPhotoResult> rejectedAfterUpload = checkSubmittable(contestId, userId);
+                if (rejectedAfterUpload.isPresent()) {
+                    // 登録しない実体は参照 0 の行として残す（このトランザクションでコミットする）
+                    if (blobService.abandon(stored.key())) {
+                        localStorageUploadService.deleteFile(stored.key());
+                    }
+                    return rejectedAfterUpload.get();
+                }
+                return register(request, userId, stored);
+            });
+        } catch (RuntimeException e) {
+            // 登録・登録前の判定・コミットのどこで失敗しても、この投稿のために書き込んだファイルを残さない
+            // （同じ内容を同時に登録しているリクエストがあり得るため、内容アドレスの実体は sweepUnreferenced が消す）
+            abandon(stored.key());
+            throw e;
+        }
+    }
+
+    private void abandon(String key) {
+        try {
+            if (blobService.abandon(key)) {
+                localStorageUploadService.deleteFile(key);
+            }
+        } catch (Exception e) {
+            // 元の例外を隠さないよう、ここでのエラーはログのみ（残ったファイルは参照されない）
+            log.warn("Failed to clean up stored photo after registration failure. key={}", key, e);
+        }
+    }
+
+    /**
+     * 投稿可能か（コンテストが開催中で、まだ投稿していないか）を判定する。投稿できなければその結果を返す
+     */
+    private Optional<SubmitPhotoResult> checkSubmittable(Long contestId, String userId) {
+
         // コンテスト期間チェック (ビジネスルール)
         Optional<Contest> contestOpt = contestMapper.findContestStatus(contestId);
 
         if (contestOpt.isEmpty()) {
             log.warn("Contest ID {} not found.", contestId);
-            return buildResult(null, SubmitPhotoStatus.BUSINESS_RULE_VIOLATION, "指定されたコンテストは存在しません。");
+            return Optional.of(buildResult(null, SubmitPhotoStatus.BUSINESS_RULE_VIOLATION, "指定されたコンテストは存在しません。"));
         }
 
         Contest contest = contestOpt.get();
 
         if (contest.getStatus() != ContestStatus.IN_PROGRESS) {
             log.warn("Contest {} is not in progress. Current status: {}", contestId, contest.getStatus());
-            return buildResult(null, SubmitPhotoStatus.BUSINESS_RULE_VIOLATION, "投稿はコンテスト開催期間中のみ可能です。");
+            return Optional.of(buildResult(null, SubmitPhotoStatus.BUSINESS_RULE_VIOLATION, "投稿はコンテスト開催期間中のみ可能です。"));
         }
 
         // 重複投稿チェック (ビジネスルール: 1コンテストにつき1枚のみ)
         if (photoMapper.findByContestAndUser(contestId, userId).isPresent()) {
             log.warn("User {} already submitted to contest {}.", userId, contestId);
-            return buildResult(null, SubmitPhotoStatus.BUSINESS_RULE_VIOLATION, "このコンテストには既に投稿済みです。");
+            return Optional.of(buildResult(null, SubmitPhotoStatus.BUSINESS_RULE_VIOLATION, "このコンテストには既に投稿済みです。"));
         }
 
-        // ストレージへの写真保存の実行
-        String savedPhotoUrl = null; // 削除用にスコープを外に出す
-        try {
-            // getOriginalFilename()を使用。拡張子を維持するのが望ましい。
-            String originalFilename = file.getOriginalFilename();
-            String ext = "";
-            if (originalFilename != null && originalFilename.lastIndexOf(".") > 0) {
-                ext = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String key = UUID.randomUUID().toString() + ext;
+        return Optional.empty();
+    }
 
-            // 戻り値をキャッチする
-            savedPhotoUrl = localStorageUploadService.saveFile(file, key);
+    /**
+     * 保存済みの写真を DB に登録する。
+     * 失敗した場合は例外を投げる（保存したファイルは呼び出し元がロールバック後に片付ける）
+     */
+    private SubmitPhotoResult register(SubmitPhotoRequest request, String userId, StoredUpload stored) {
 
-        } catch (Exception e) {
-            log.error("Storage upload failed: " + e.getMessage());
-            throw new RuntimeException("写真の保存に失敗しました", e);
-        }
+        Long contestId = request.getContestId();
+        String savedPhotoUrl = stored.key();
 
         // Modelの構築 (ControllerからのリクエストDTOと認証IDをModelに変換)
         UserPhoto newPhoto = new UserPhoto();
@@ -88,6 +136,9 @@ public class LocalPhotoSubmissionService {
 
         // 4. DB登録
         try {
+            // 同じ内容の画像が既にあれば参照数を増やすだけ（ロールバックで元に戻る）
+            blobService.acquire(savedPhotoUrl, stored.contentType(), stored.size());
+
             int result = photoMapper.insert(newPhoto);
 
             if (result == 0) {
@@ -96,8 +147,13 @@ public class LocalPhotoSubmissionService {
                 throw new DatabaseOperationException("投稿データの保存に失敗しました。");
             }
 
+            // ギャラリーの総件数 (contests.photo_count) を同じトランザクションで更新
+            if (contestMapper.incrementPhotoCount(contestId) == 0) {
+                log.warn("Failed to increment photo_count. contestId={}", contestId);
+            }
+
             userProfileContestEntryService
-                    .incrementIfFirstEntry(userId, contest.getId());
+                    .incrementIfFirstEntry(userId, contestId);
 
 
             int updated = userProfileMapper.incrementTotalPosts(userId);
@@ -118,19 +174,14 @@ public class LocalPhotoSubmissionService {
             // 成功結果の返却
             return buildResult(newPhoto.getId(), SubmitPhotoStatus.SUCCESS, "写真の投稿が完了しました。");
 
+        } catch (InvalidUploadException e) {
+            // 登録時の実体の確認（BlobService#acquire）で弾かれた。参照数はロールバックで戻る
+            throw e;
         } catch (DatabaseOperationException e) {
             // 自らスローした例外。再スローしてトランザクションをロールバックさせる。
-            if (savedPhotoUrl != null) {
-                // ※ LocalStorageUploadServiceに deleteFile メソッドを追加してください
-                localStorageUploadService.deleteFile(savedPhotoUrl);
-            }
             throw e;
         } catch (Exception e) {
             // SQL/接続エラーなど予期せぬエラー。RuntimeExceptionにラップしてスロー。
-            if (savedPhotoUrl != null) {
-                // ※ LocalStorageUploadServiceに deleteFile メソッドを追加してください
-                localStorageUploadService.deleteFile(savedPhotoUrl);
-            }
             log.error("Database error during photo submission.", e);
             throw new RuntimeException("DB処理中に予期せぬエラーが発生しました。", e); // ★ RuntimeExceptionを再スロー
         }
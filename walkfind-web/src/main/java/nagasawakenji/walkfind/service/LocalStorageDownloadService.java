@@ -2,6 +2,7 @@ package nagasawakenji.walkfind.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
 import org.springframework.stereotype.Service;
 
 import java.net.URL;
@@ -15,6 +16,7 @@ public class LocalStorageDownloadService {
     private final String storageRoot = Paths.get("walkfind-web", "local-storage").toAbsolutePath().toString();
 
     public URL generatedDownloadUrl(String key) {
+        long start = System.nanoTime();
         try {
             // ローカル配信コントローラーのHTTPエンドポイントを組み立てる
             // 本番のS3 presigned URLと同じ役割
@@ -27,6 +29,9 @@ public class LocalStorageDownloadService {
         } catch (Exception e) {
             log.error("Failed to generate local HTTP download URL for key: {}", key, e);
             throw new RuntimeException("ローカルHTTP画像URLの生成に失敗しました: " + key, e);
+        } finally {
+            // S3 presign と同じ区間として計測する
+            RequestProfile.record(RequestProfile.Segment.PRESIGN, System.nanoTime() - start);
         }
     }
 
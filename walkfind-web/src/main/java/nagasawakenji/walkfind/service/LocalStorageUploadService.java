@@ -1,6 +1,14 @@
 package nagasawakenji.walkfind.service;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.exception.InvalidUploadException;
+import nagasawakenji.walkfind.infra.blob.BlobKeys;
+import nagasawakenji.walkfind.infra.image.ImageInspector;
+import nagasawakenji.walkfind.infra.image.ImageTypeSniffer;
+import nagasawakenji.walkfind.infra.image.UploadImageValidator;
+import nagasawakenji.walkfind.infra.storage.LocalObjectStore;
+import nagasawakenji.walkfind.infra.upload.StoredUpload;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -8,20 +16,42 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.BiFunction;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class LocalStorageUploadService {
 
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final LocalObjectStore localObjectStore;
+    private final UploadImageValidator uploadImageValidator;
+
     @Value("${app.local-storage-dir}")
     private String storageRoot;
 
+    // 1ファイルあたりの上限（超えた時点で受信を打ち切る）
+    @Value("${walkfind.upload.max-bytes:20971520}")
+    private long maxBytes;
+
     /**
      * ローカル用のファイルアップロード処理
      *
      * @param file MultipartFile（フロントから送られる）
-     * @param key  保存するキー（例: "contest-1/uuid.jpg"）
+     * @param key  保存するキー（例: "contest-1/uuid.jpg"）。空なら判定した形式の拡張子で自動生成する
      * @return 保存後のローカルパス（キー）
      */
     public String saveFile(MultipartFile file, String key) {
@@ -30,42 +60,125 @@ public class LocalStorageUploadService {
             throw new IllegalArgumentException("Uploaded file is empty.");
         }
 
-        // key が null / 空 なら、新しいキーを自動生成する
-        String cleanKey;
-        if (!StringUtils.hasText(key)) {
-            String originalFilename = file.getOriginalFilename();
-            String ext = "";
-            if (StringUtils.hasText(originalFilename)) {
-                int dotIndex = originalFilename.lastIndexOf('.');
-                if (dotIndex >= 0 && dotIndex < originalFilename.length() - 1) {
-                    ext = originalFilename.substring(dotIndex);
-                }
-            }
-            // 汎用に使える一意なファイル名を生成（例: "550e8400-e29b-41d4-a716-446655440000.png"）
-            cleanKey = java.util.UUID.randomUUID().toString() + ext;
-        } else {
-            cleanKey = StringUtils.cleanPath(key);
+        // transferTo で別ファイルへ複製せず、受信済みの内容を1回だけ読んで書き込む
+        try (InputStream in = file.getInputStream()) {
+            return store(in, (sha256, contentType) -> StringUtils.hasText(key)
+                    ? key
+                    // 汎用に使える一意なファイル名を生成（例: "550e8400-e29b-41d4-a716-446655440000.png"）
+                    : UUID.randomUUID() + ImageTypeSniffer.extensionOf(contentType)).key();
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to read uploaded file: " + key, ex);
         }
+    }
 
-        File destination = new File(storageRoot, cleanKey);
+    /**
+     * 内容アドレス（blobs/{sha256}）で保存する。同じ内容が既にあれば書き込まずにそのキーを返す。
+     * 参照数の管理（BlobService#acquire）は呼び出し元が DB 登録と同じトランザクションで行う。
+     */
+    public StoredUpload saveBlob(MultipartFile file) {
 
-        // ディレクトリを作成
-        File parentDir = destination.getParentFile();
-        if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs()) {
-            throw new RuntimeException("Failed to create directory: " + parentDir.getAbsolutePath());
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Uploaded file is empty.");
         }
 
-        // 保存
-        try {
-            file.transferTo(destination);
+        try (InputStream in = file.getInputStream()) {
+            return saveBlob(in);
         } catch (IOException ex) {
-            throw new RuntimeException("Failed to save file: " + destination.getAbsolutePath(), ex);
+            throw new RuntimeException("Failed to read uploaded file.", ex);
         }
+    }
+
+    /**
+     * リクエストボディのストリームをそのまま内容アドレスで保存する。
+     * 先にヘッダーだけを読んで画像形式・縦横のサイズを検証し、撮影情報（EXIF・位置情報など）を取り除く。
+     * 残りは1回の読み込みで SHA-256・サイズを求め、上限超過はその時点で打ち切る。
+     * キーの SHA-256 は撮影情報を取り除いた後の内容のもの。
+     *
+     * @param in パートの本文
+     */
+    public StoredUpload saveBlob(InputStream in) {
+        return store(in, BlobKeys::keyOf);
+    }
 
-        log.info("Local file saved. key={}, path={}", cleanKey, destination.getAbsolutePath());
+    private StoredUpload store(InputStream in, BiFunction<String, String, String> keyFor) {
+        Path root = Paths.get(storageRoot).toAbsolutePath().normalize();
+        Path partial = null;
+        try {
+            // 画像でない・ヘッダーが壊れている・大きすぎる画像は、ファイルを作る前に打ち切る
+            ImageInspector.Result inspected = uploadImageValidator.inspect(in);
+            String contentType = inspected.info().contentType();
 
-        // DB などにはこの cleanKey（相対パス）を保存する想定
-        return cleanKey;
+            Files.createDirectories(root);
+            // 同じファイルシステム上に書き、完了後に rename する（読み手に書きかけを見せない）
+            partial = Files.createTempFile(root, ".upload-", ".part");
+
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long size = 0;
+
+            // body は元のストリームの続きなので閉じない（閉じるのは呼び出し元）
+            InputStream body = inspected.body();
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                int n;
+                while ((n = body.read(buffer)) >= 0) {
+                    size += n;
+                    if (size > maxBytes) {
+                        throw new InvalidUploadException(
+                                "ファイルサイズが上限(" + maxBytes + " bytes)を超えています。",
+                                InvalidUploadException.Reason.TOO_LARGE);
+                    }
+                    sha256.update(buffer, 0, n);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, n);
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                }
+            }
+
+            if (inspected.stripped()) {
+                log.info("Image metadata stripped. contentType={}, width={}, height={}",
+                        contentType, inspected.info().width(), inspected.info().height());
+            }
+
+            String digest = HexFormat.of().formatHex(sha256.digest());
+            String cleanKey = StringUtils.cleanPath(keyFor.apply(digest, contentType));
+            Path destination = root.resolve(cleanKey).normalize();
+            if (!destination.startsWith(root) || destination.equals(root)) {
+                throw new IllegalArgumentException("Invalid storage key: " + cleanKey);
+            }
+            StoredUpload stored = new StoredUpload(cleanKey, size, digest, contentType);
+
+            // 同じ内容が保存済みなら書き込んだものは捨てる（finally で削除）
+            if (BlobKeys.isBlobKey(cleanKey) && Files.exists(destination)) {
+                log.info("Local blob already stored. key={}, size={}", cleanKey, size);
+                return stored;
+            }
+
+            Files.createDirectories(destination.getParent());
+            Files.move(partial, destination, StandardCopyOption.ATOMIC_MOVE);
+            partial = null;
+
+            // 配信時に毎回判定しないよう、ここで Content-Type を判定しておく
+            localObjectStore.register(cleanKey);
+
+            log.info("Local file saved. key={}, size={}, contentType={}", cleanKey, size, contentType);
+
+            // DB などにはこの key（相対パス）を保存する想定
+            return stored;
+
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to save file under: " + root, ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        } finally {
+            if (partial != null) {
+                try {
+                    Files.deleteIfExists(partial);
+                } catch (IOException e) {
+                    log.warn("Failed to delete partial upload: {}", partial, e);
+                }
+            }
+        }
     }
 
     /**
@@ -81,6 +194,7 @@ public class LocalStorageUploadService {
         try {
             String cleanKey = StringUtils.cleanPath(key);
             File target = new File(storageRoot + File.separator + cleanKey);
+            localObjectStore.forget(cleanKey);
 
             if (target.exists()) {
                 if (target.delete()) {
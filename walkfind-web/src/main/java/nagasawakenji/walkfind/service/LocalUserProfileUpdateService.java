@@ -8,6 +8,7 @@ import nagasawakenji.walkfind.domain.model.UserProfile;
 import nagasawakenji.walkfind.domain.statusenum.UpdateUserProfileStatus;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserProfileMapper;
+import nagasawakenji.walkfind.infra.upload.StoredUpload;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,6 +26,7 @@ public class LocalUserProfileUpdateService {
     // ローカルストレージ連携サービス
     private final LocalStorageUploadService localStorageUploadService;
     private final LocalStorageDownloadService localStorageDownloadService;
+    private final BlobService blobService;
 
     /**
      * bio のみ更新
@@ -69,12 +71,12 @@ public class LocalUserProfileUpdateService {
      * プロフィール画像のみ更新（ローカルストレージに画像を保存する版）
      *
      * フロー:
-     *  1. 画像ファイルをローカルストレージに保存 → newStoredKey を取得
+     *  1. 画像ファイルを内容アドレスでローカルストレージに保存 → newStoredKey を取得し、参照数を増やす
      *  2. 既存プロフィールから oldImageUrl を取得し、ローカル管理なら oldStoredKey を抽出
      *  3. newStoredKey から新しいダウンロード用 URL を生成
      *  4. user_profiles.profile_image_url を新 URL で更新
-     *  5. DB 更新成功後、古い画像ファイル(oldStoredKey)をベストエフォートで削除
-     *  6. DB 更新に失敗した場合、新しいファイル(newStoredKey)を補償削除
+     *  5. DB 更新成功後、古い画像の参照を外し、参照が無くなればファイル(oldStoredKey)をベストエフォートで削除
+     *  6. DB 更新に失敗した場合、新しいファイル(newStoredKey)が最初の参照なら補償削除
      */
     @Transactional
     public UpdatingUserProfileResponse updateProfileImageWithLocalUpload(String userId, MultipartFile imageFile) {
@@ -94,6 +96,8 @@ public class LocalUserProfileUpdateService {
 
         String newStoredKey = null;
         String oldStoredKey = null;
+        // 新しい画像が最初の参照か（false なら同じ内容を他が参照しているので補償削除しない）
+        boolean firstReference = false;
 
         try {
             // 既存プロフィールを取得
@@ -118,16 +122,18 @@ public class LocalUserProfileUpdateService {
                 if (oldImageUrl.startsWith(prefix)) {
                     oldStoredKey = oldImageUrl.substring(prefix.length());
                     log.debug("[UserProfileUpdateService] extracted oldStoredKey. userId={}, key={}", userId, oldStoredKey);
+                } else if (!oldImageUrl.startsWith("http")) {
+                    // profile_image_url にはストレージキーを保存している
+                    oldStoredKey = oldImageUrl;
                 } else {
                     log.debug("[UserProfileUpdateService] old image url is not local-storage managed. userId={}, url={}",
                             userId, oldImageUrl);
                 }
             }
 
-            // 新しい画像ファイルを保存
-            // 第2引数は既存の storedKey (oldStoredKey) を渡す想定。
-            // 実装側で上書き・新規生成などを判断できるようにする。
-            newStoredKey = localStorageUploadService.saveFile(imageFile, oldStoredKey);
+            // 新しい画像ファイルを内容アドレスで保存（同じ内容が保存済みなら書き込まない）
+            StoredUpload stored = localStorageUploadService.saveBlob(imageFile);
+            newStoredKey = stored.key();
             log.info("[UserProfileUpdateService] profile image file saved. userId={}, key={}", userId, newStoredKey);
 
             // saveFile が null や空文字を返した場合は異常とみなして終了
@@ -143,6 +149,8 @@ public class LocalUserProfileUpdateService {
                         .build();
             }
 
+            firstReference = blobService.acquire(newStoredKey, stored.contentType(), stored.size());
+
             // DB 更新: profile_image_url にはストレージキー（newStoredKey）を保存する
             int updated = userProfileMapper.updateProfileImage(userId, newStoredKey);
             log.debug("[UserProfileUpdateService] updateProfileImageWithLocalUpload DB result. userId={}, updatedRows={}",
@@ -152,7 +160,7 @@ public class LocalUserProfileUpdateService {
                 log.warn("[UserProfileUpdateService] user_profiles not found for image update(with local upload). userId={}", userId);
 
                 // ★ 補償：新しいファイルを削除
-                if (newStoredKey != null) {
+                if (newStoredKey != null && firstReference) {
                     try {
                         localStorageUploadService.deleteFile(newStoredKey);
                         log.info("[UserProfileUpdateService] compensation delete NEW profile image file (not found). key={}", newStoredKey);
@@ -180,7 +188,7 @@ public class LocalUserProfileUpdateService {
                 log.warn("[UserProfileUpdateService] user_profiles not found for image update(with local upload). userId={}", userId);
 
                 // ★ 補償：新しいファイルを削除
-                if (newStoredKey != null) {
+                if (newStoredKey != null && firstReference) {
                     try {
                         localStorageUploadService.deleteFile(newStoredKey);
                         log.info("[UserProfileUpdateService] compensation delete NEW profile image file (not found). key={}", newStoredKey);
@@ -201,7 +209,7 @@ public class LocalUserProfileUpdateService {
             log.info("[UserProfileUpdateService] profile image updated(with local upload) successfully. userId={}", userId);
 
             // ⑥ 古い画像ファイルを削除（ベストエフォート）
-            if (oldStoredKey != null) {
+            if (oldStoredKey != null && blobService.release(oldStoredKey)) {
                 try {
                     localStorageUploadService.deleteFile(oldStoredKey);
                     log.info("[UserProfileUpdateService] old profile image file deleted. userId={}, key={}", userId, oldStoredKey);
@@ -221,7 +229,7 @@ public class LocalUserProfileUpdateService {
         } catch (DataAccessException e) {
             log.error("[UserProfileUpdateService] DB error while updating profile image(with local upload). userId={}", userId, e);
 
-            if (newStoredKey != null) {
+            if (newStoredKey != null && firstReference) {
                 try {
                     localStorageUploadService.deleteFile(newStoredKey);
                     log.info("[UserProfileUpdateService] compensation delete NEW profile image file after DB error. key={}", newStoredKey);
@@ -235,7 +243,7 @@ public class LocalUserProfileUpdateService {
         } catch (RuntimeException e) {
             log.error("[UserProfileUpdateService] Unexpected error while updating profile image(with local upload). userId={}", userId, e);
 
-            if (newStoredKey != null) {
+            if (newStoredKey != null && firstReference) {
                 try {
                     localStorageUploadService.deleteFile(newStoredKey);
                     log.info("[UserProfileUpdateService] compensation delete NEW profile image file after unexpected error. key={}", newStoredKey);
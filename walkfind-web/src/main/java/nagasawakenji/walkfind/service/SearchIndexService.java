@@ -0,0 +1,240 @@
+package nagasawakenji.walkfind.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.SearchDocumentRow;
+import nagasawakenji.walkfind.domain.dto.SearchHitItem;
+import nagasawakenji.walkfind.domain.dto.SearchResponse;
+import nagasawakenji.walkfind.infra.mybatis.mapper.SearchDocumentMapper;
+import nagasawakenji.walkfind.infra.search.InvertedIndex;
+import nagasawakenji.walkfind.infra.search.SearchDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * コンテスト（名前・テーマ）と投稿写真（タイトル・説明）の全文検索（Web 用）。
+ *
+ * インデックスはメモリ上に持ち、作成・更新・削除のイベントで1件ずつ直す。
+ * 起動時はまずディスクのスナップショットから戻して検索できるようにし、続けて DB から作り直して差し替える
+ * （停止中の変更はここで反映される）。スナップショットは変更があった場合だけ snapshot-minutes ごとに書き出す。
+ * インデックスの更新とスナップショットは専用スレッドからのみ行い、検索は任意のスレッドから読む。
+ */
+@Service
+@Slf4j
+public class SearchIndexService {
+
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MAX_LIMIT = 50;
+
+    private final SearchDocumentMapper searchDocumentMapper;
+    private final ObjectMapper objectMapper;
+    private final Path snapshotPath;
+    private final long snapshotMinutes;
+    private final int batchSize;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search-index");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile InvertedIndex index = new InvertedIndex();
+
+    private volatile boolean dirty;
+
+    record Snapshot(int version, List<SearchDocument> documents) {}
+
+    public SearchIndexService(SearchDocumentMapper searchDocumentMapper,
+                              ObjectMapper objectMapper,
+                              @Value("${app.local-storage-dir}") String storageRoot,
+                              @Value("${walkfind.search.snapshot-minutes:5}") long snapshotMinutes,
+                              @Value("${walkfind.search.batch-size:1000}") int batchSize) {
+        this.searchDocumentMapper = searchDocumentMapper;
+        this.objectMapper = objectMapper;
+        this.snapshotPath = Paths.get(storageRoot, "search-index", "index.json.gz");
+        this.snapshotMinutes = snapshotMinutes;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker.execute(this::loadSnapshot);
+        worker.execute(this::rebuild);
+        worker.scheduleWithFixedDelay(this::writeSnapshotIfDirty, snapshotMinutes, snapshotMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @param type  CONTEST / PHOTO（null なら両方）
+     * @param limit 1〜50 に丸める
+     */
+    public SearchResponse search(String query, SearchDocument.Type type, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        List<SearchHitItem> hits = index.search(query, type, size).stream()
+                .map(hit -> SearchHitItem.builder()
+                        .type(hit.document().type().name())
+                        .id(hit.document().id())
+                        .contestId(hit.document().contestId())
+                        .title(hit.document().title())
+                        .body(hit.document().body())
+                        .photoUrl(hit.document().photoUrl())
+                        .score(hit.score())
+                        .build())
+                .toList();
+        return SearchResponse.builder()
+                .query(query)
+                .hits(hits)
+                .build();
+    }
+
+    public void onContestChanged(Long contestId) {
+        worker.execute(() -> apply(() -> searchDocumentMapper.findContestDocument(contestId)
+                .ifPresentOrElse(
+                        row -> index.put(toContest(row)),
+                        () -> index.remove(SearchDocument.Type.CONTEST, contestId))));
+    }
+
+    public void onContestDeleted(Long contestId) {
+        // 写真は削除イベントが来ないので、投稿先で一緒に消す
+        worker.execute(() -> apply(() -> index.removeIf(doc -> doc.contestId() == contestId)));
+    }
+
+    public void onPhotoChanged(Long photoId) {
+        worker.execute(() -> apply(() -> searchDocumentMapper.findPhotoDocument(photoId)
+                .ifPresentOrElse(
+                        row -> index.put(toPhoto(row)),
+                        () -> index.remove(SearchDocument.Type.PHOTO, photoId))));
+    }
+
+    public void onPhotoRemoved(Long photoId) {
+        worker.execute(() -> apply(() -> index.remove(SearchDocument.Type.PHOTO, photoId)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+        try {
+            if (!worker.awaitTermination(5, TimeUnit.SECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // 次回の起動を速くするため、最後の変更も書き出しておく
+        writeSnapshotIfDirty();
+    }
+
+    private void apply(Runnable update) {
+        try {
+            update.run();
+            dirty = true;
+        } catch (Exception e) {
+            // 次回の起動時の作り直しで揃う
+            log.error("Failed to update search index.", e);
+        }
+    }
+
+    private void loadSnapshot() {
+        long startedAt = System.nanoTime();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshotPath))) {
+            Snapshot snapshot = objectMapper.readValue(in, Snapshot.class);
+            if (snapshot.version() != SNAPSHOT_VERSION) {
+                log.info("Search index snapshot version mismatch, ignored. version={}", snapshot.version());
+                return;
+            }
+            InvertedIndex loaded = new InvertedIndex();
+            loaded.putAll(snapshot.documents());
+            index = loaded;
+            log.info("Search index restored from snapshot. documents={}, elapsedMs={}",
+                    loaded.size(), (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (NoSuchFileException e) {
+            log.info("Search index snapshot not found. path={}", snapshotPath);
+        } catch (Exception e) {
+            // DB からの作り直しで揃うので、読めないスナップショットは無視する
+            log.warn("Failed to read search index snapshot. path={}", snapshotPath, e);
+        }
+    }
+
+    private void rebuild() {
+        long startedAt = System.nanoTime();
+        try {
+            InvertedIndex rebuilt = new InvertedIndex();
+            loadAll(rebuilt, afterId -> searchDocumentMapper.findContestDocuments(afterId, batchSize), this::toContest);
+            loadAll(rebuilt, afterId -> searchDocumentMapper.findPhotoDocuments(afterId, batchSize), this::toPhoto);
+            index = rebuilt;
+            dirty = true;
+            log.info("Search index rebuilt. documents={}, terms={}, elapsedMs={}",
+                    rebuilt.size(), rebuilt.termCount(), (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (Exception e) {
+            // スナップショットの内容（または空）のまま、イベントでの更新を続ける
+            log.error("Failed to rebuild search index.", e);
+        }
+    }
+
+    private void loadAll(InvertedIndex target,
+                         Function<Long, List<SearchDocumentRow>> page,
+                         Function<SearchDocumentRow, SearchDocument> toDocument) {
+        long afterId = 0;
+        while (true) {
+            List<SearchDocumentRow> rows = page.apply(afterId);
+            for (SearchDocumentRow row : rows) {
+                target.put(toDocument.apply(row));
+            }
+            if (rows.size() < batchSize) {
+                return;
+            }
+            afterId = rows.get(rows.size() - 1).getId();
+        }
+    }
+
+    private void writeSnapshotIfDirty() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            Files.createDirectories(snapshotPath.getParent());
+            // 書きかけのファイルを次の起動で読まないよう、書き終えてから置き換える
+            Path partial = Files.createTempFile(snapshotPath.getParent(), ".index-", ".part");
+            try {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+                    objectMapper.writeValue(out, new Snapshot(SNAPSHOT_VERSION, index.documents()));
+                }
+                Files.move(partial, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+        } catch (Exception e) {
+            dirty = true;
+            log.warn("Failed to write search index snapshot. path={}", snapshotPath, e);
+        }
+    }
+
+    private SearchDocument toContest(SearchDocumentRow row) {
+        return new SearchDocument(SearchDocument.Type.CONTEST, row.getId(), row.getContestId(),
+                row.getTitle(), row.getBody(), null);
+    }
+
+    private SearchDocument toPhoto(SearchDocumentRow row) {
+        return new SearchDocument(SearchDocument.Type.PHOTO, row.getId(), row.getContestId(),
+                row.getTitle(), row.getBody(), row.getPhotoUrl());
+    }
+}
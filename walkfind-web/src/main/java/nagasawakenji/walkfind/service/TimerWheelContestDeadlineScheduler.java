@@ -0,0 +1,159 @@
+package nagasawakenji.walkfind.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.ContestDeadlineRow;
+import nagasawakenji.walkfind.domain.dto.ContestStatusUpdateResult;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
+import nagasawakenji.walkfind.infra.scheduler.ContestDeadlineScheduler;
+import nagasawakenji.walkfind.infra.scheduler.HierarchicalTimerWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * コンテストの開始・終了日時にステータスを切り替える（Web 用）。
+ *
+ * horizon-hours 以内に来る start_date / end_date をタイマーホイールに載せ、期限が来た tick でだけ
+ * ContestStatusBatchService を実行する。期限の無い間は DB に問い合わせない（tick はメモリ上の処理のみ）。
+ * 作成・日時変更はイベントで追加し、horizon より先の予定は reload-hours ごとの読み直しで拾う。
+ * 切り替えに失敗した期限は retry-backoff-ms から倍々の間隔（最大 retry-max-backoff-ms）で
+ * retry-max-attempts 回まで載せ直し、それでも失敗したら次の読み直しに任せる。
+ * ホイールと再試行の回数は専用スレッドからのみ操作する。
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(prefix = "walkfind.contest-scheduler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TimerWheelContestDeadlineScheduler implements ContestDeadlineScheduler {
+
+    private final ContestMapper contestMapper;
+    private final ContestStatusBatchService contestStatusBatchService;
+    private final long tickMillis;
+    private final long horizonHours;
+    private final long reloadHours;
+    private final long retryBackoffMillis;
+    private final long retryMaxBackoffMillis;
+    private final int retryMaxAttempts;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "contest-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private HierarchicalTimerWheel<Long> wheel;
+    // contestId -> 連続して失敗した回数
+    private final Map<Long, Integer> failures = new HashMap<>();
+
+    public TimerWheelContestDeadlineScheduler(ContestMapper contestMapper,
+                                              ContestStatusBatchService contestStatusBatchService,
+                                              @Value("${walkfind.contest-scheduler.tick-ms:1000}") long tickMillis,
+                                              @Value("${walkfind.contest-scheduler.horizon-hours:48}") long horizonHours,
+                                              @Value("${walkfind.contest-scheduler.reload-hours:12}") long reloadHours,
+                                              @Value("${walkfind.contest-scheduler.retry-backoff-ms:1000}") long retryBackoffMillis,
+                                              @Value("${walkfind.contest-scheduler.retry-max-backoff-ms:60000}") long retryMaxBackoffMillis,
+                                              @Value("${walkfind.contest-scheduler.retry-max-attempts:6}") int retryMaxAttempts) {
+        this.contestMapper = contestMapper;
+        this.contestStatusBatchService = contestStatusBatchService;
+        this.tickMillis = tickMillis;
+        this.horizonHours = horizonHours;
+        this.reloadHours = reloadHours;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.retryMaxBackoffMillis = retryMaxBackoffMillis;
+        this.retryMaxAttempts = retryMaxAttempts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // 起動時の読み込みで、停止中に過ぎた期限も次の tick で処理される
+        worker.scheduleAtFixedRate(this::reload, 0, reloadHours, TimeUnit.HOURS);
+        worker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onScheduleChanged(Long contestId) {
+        // 古い予定は残るが、期限が来ても切り替え対象が無ければ何も起きないので消さない
+        worker.execute(() -> load(contestId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void reload() {
+        try {
+            wheel = new HierarchicalTimerWheel<>(tickMillis, 4, System.currentTimeMillis());
+            failures.clear();
+            load(null);
+        } catch (Exception e) {
+            log.error("Failed to load contest deadlines.", e);
+        }
+    }
+
+    private void load(Long contestId) {
+        if (wheel == null) {
+            return;
+        }
+        OffsetDateTime horizon = OffsetDateTime.now().plusHours(horizonHours);
+        List<ContestDeadlineRow> deadlines = contestMapper.findStatusDeadlines(horizon, contestId);
+        for (ContestDeadlineRow deadline : deadlines) {
+            wheel.schedule(deadline.getDueAt().toInstant().toEpochMilli(), deadline.getContestId());
+        }
+        log.info("Contest deadlines scheduled. contestId={}, count={}, pending={}",
+                contestId != null ? contestId : "ALL", deadlines.size(), wheel.size());
+    }
+
+    private void tick() {
+        if (wheel == null) {
+            return;
+        }
+        List<Long> due = new ArrayList<>();
+        wheel.advanceTo(System.currentTimeMillis(), due::add);
+        if (due.isEmpty()) {
+            return;
+        }
+
+        try {
+            // 同じ tick に期限が来たものはまとめて1回で切り替える
+            ContestStatusUpdateResult result = contestStatusBatchService.updateAllStatuses();
+            log.info("Contest deadlines reached. contestIds={}, IN_PROGRESS={}, CLOSED_VOTING={}, ANNOUNCED={}",
+                    due, result.getMovedToInProgress(), result.getMovedToClosedVoting(), result.getMovedToAnnounced());
+            due.forEach(failures::remove);
+        } catch (Exception e) {
+            log.error("Failed to update contest statuses at deadline. contestIds={}", due, e);
+            retryLater(due);
+        }
+    }
+
+    // 失敗した期限を間隔を空けて載せ直す。上限を超えたものは次の読み直し（reload-hours ごと）で過ぎた期限として拾う
+    private void retryLater(List<Long> due) {
+        long now = System.currentTimeMillis();
+        List<Long> gaveUp = new ArrayList<>();
+        for (Long contestId : due) {
+            int attempt = failures.merge(contestId, 1, Integer::sum);
+            if (attempt > retryMaxAttempts) {
+                failures.remove(contestId);
+                gaveUp.add(contestId);
+                continue;
+            }
+            long backoff = Math.min(retryMaxBackoffMillis, retryBackoffMillis << Math.min(attempt - 1, 30));
+            wheel.schedule(now + backoff, contestId);
+        }
+        if (!gaveUp.isEmpty()) {
+            log.error("Gave up retrying contest status update, left to the next reload. contestIds={}, reloadHours={}",
+                    gaveUp, reloadHours);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package nagasawakenji.walkfind.service.listener;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nagasawakenji.walkfind.domain.dto.DerivativeJobMessage;
+import nagasawakenji.walkfind.domain.event.PhotoSubmittedEvent;
+import nagasawakenji.walkfind.service.PhotoImagePipelineService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 投稿写真・見本写真のコミット後に、縮小版とモデル入力をワーカースレッドで作り、
+ * 埋め込みジョブを積む（walkfind-web 用）。
+ *
+ * デコードは CPU とメモリを使うので、スレッド数と待ち行列の長さを固定する。
+ * 溢れた分は作らず、埋め込みジョブだけを原寸のキーで積む（一覧には原寸が表示される）。
+ */
+@Component
+@Slf4j
+public class LocalImageDerivativeListener {
+
+    private final PhotoImagePipelineService photoImagePipelineService;
+    private final ThreadPoolExecutor workers;
+
+    public LocalImageDerivativeListener(PhotoImagePipelineService photoImagePipelineService,
+                                        @Value("${walkfind.derivative.threads:2}") int threads,
+                                        @Value("${walkfind.derivative.queue-capacity:100}") int queueCapacity) {
+        this.photoImagePipelineService = photoImagePipelineService;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "image-derivative-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommitted(PhotoSubmittedEvent e) {
+        DerivativeJobMessage job = DerivativeJobMessage.builder()
+                .photoType(e.getPhotoType())
+                .contestId(e.getContestId())
+                .photoId(e.getPhotoId())
+                .key(e.getKey())
+                .build();
+        try {
+            workers.execute(() -> photoImagePipelineService.process(job));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Derivative queue is full, skipped. photoId={}, key={}", e.getPhotoId(), e.getKey());
+            photoImagePipelineService.enqueueEmbedding(job, null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package nagasawakenji.walkfind.service.listener;
+
+import lombok.RequiredArgsConstructor;
+import nagasawakenji.walkfind.domain.event.ContestDeletedEvent;
+import nagasawakenji.walkfind.domain.event.ContestScheduleChangedEvent;
+import nagasawakenji.walkfind.domain.event.PhotoRemovedEvent;
+import nagasawakenji.walkfind.domain.event.PhotoSubmittedEvent;
+import nagasawakenji.walkfind.service.SearchIndexService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * コミット後に、作成・更新・削除されたコンテストと投稿写真を検索インデックスへ反映する
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchIndexListener {
+
+    private final SearchIndexService searchIndexService;
+
+    // 作成時と更新時（名前・テーマの変更を含む）に発行される
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onContestChanged(ContestScheduleChangedEvent e) {
+        searchIndexService.onContestChanged(e.contestId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onContestDeleted(ContestDeletedEvent e) {
+        searchIndexService.onContestDeleted(e.contestId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPhotoSubmitted(PhotoSubmittedEvent e) {
+        // 見本写真（MODEL）は検索対象にしない
+        if ("USER".equals(e.getPhotoType())) {
+            searchIndexService.onPhotoChanged(e.getPhotoId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPhotoRemoved(PhotoRemovedEvent e) {
+        searchIndexService.onPhotoRemoved(e.photoId());
+    }
+}
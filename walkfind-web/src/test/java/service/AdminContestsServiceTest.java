@@ -0,0 +1,146 @@
+package service;
+
+import nagasawakenji.walkfind.domain.dto.AdminContestSearchRow;
+import nagasawakenji.walkfind.domain.dto.AdminContestsPageResponse;
+import nagasawakenji.walkfind.domain.model.User;
+import nagasawakenji.walkfind.domain.statusenum.UserRole;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
+import nagasawakenji.walkfind.infra.mybatis.mapper.UserMapper;
+import nagasawakenji.walkfind.service.AdminContestsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminContestsServiceTest {
+
+    private static final String ADMIN_ID = "admin-1";
+
+    @Mock
+    private ContestMapper contestMapper;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @InjectMocks
+    private AdminContestsService adminContestsService;
+
+    @BeforeEach
+    void setup() {
+        User admin = new User();
+        admin.setUserId(ADMIN_ID);
+        admin.setRole(UserRole.ADMIN);
+        lenient().when(userMapper.findById(ADMIN_ID)).thenReturn(Optional.of(admin));
+    }
+
+    private AdminContestSearchRow row(long id, OffsetDateTime createdAt) {
+        AdminContestSearchRow row = new AdminContestSearchRow();
+        row.setContestId(id);
+        row.setName("contest-" + id);
+        row.setTheme("theme");
+        row.setStatus("IN_PROGRESS");
+        row.setCreatedAt(createdAt);
+        return row;
+    }
+
+    // ----------------------------------------
+    // 1. 件数は最初のページでだけ数え、次ページはカーソルのキーセットで取る
+    // ----------------------------------------
+    @Test
+    @DisplayName("listContests: 件数は最初のページで数えて nextCursor に引き継ぎ、(created_at, id) の続きから取る")
+    void testKeysetPaging() {
+        OffsetDateTime t1 = OffsetDateTime.parse("2025-03-01T10:00:00.123456Z");
+        OffsetDateTime t2 = OffsetDateTime.parse("2025-02-01T10:00:00Z");
+        when(contestMapper.countAdminContests(null, false, null)).thenReturn(3L);
+        when(contestMapper.searchAdminContests(eq(2), eq(0), isNull(), isNull(), isNull(), eq(false), isNull()))
+                .thenReturn(List.of(row(30L, t1), row(20L, t2)));
+
+        AdminContestsPageResponse first = adminContestsService.listContests(ADMIN_ID, 0, 2, null, false, "  ", null);
+
+        assertThat(first.getContests()).extracting("contestId").containsExactly(30L, 20L);
+        assertThat(first.getTotalCount()).isEqualTo(3);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        ArgumentCaptor<OffsetDateTime> cursorCreatedAt = ArgumentCaptor.forClass(OffsetDateTime.class);
+        when(contestMapper.searchAdminContests(eq(2), anyInt(), cursorCreatedAt.capture(), eq(20L), isNull(), eq(false), isNull()))
+                .thenReturn(List.of(row(10L, t2.minusDays(1))));
+
+        AdminContestsPageResponse second =
+                adminContestsService.listContests(ADMIN_ID, 1, 2, null, false, null, first.getNextCursor());
+
+        assertThat(cursorCreatedAt.getValue()).isEqualTo(t2);
+        assertThat(second.getContests()).extracting("contestId").containsExactly(10L);
+        assertThat(second.getTotalCount()).isEqualTo(3);
+        assertThat(second.getNextCursor()).isNull();
+        // 2ページ目では数え直さない
+        verify(contestMapper, times(1)).countAdminContests(any(), anyBoolean(), any());
+    }
+
+    // ----------------------------------------
+    // 2. キーワードは LIKE のワイルドカードをエスケープして部分一致にする
+    // ----------------------------------------
+    @Test
+    @DisplayName("listContests: キーワードの % _ \\ はエスケープして '%...%' で件数と行を検索する")
+    void testKeywordIsEscaped() {
+        String pattern = "%100\\%\\_桜\\\\%";
+        when(contestMapper.countAdminContests("ANNOUNCED", true, pattern)).thenReturn(1L);
+        when(contestMapper.searchAdminContests(anyInt(), anyInt(), any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(List.of());
+
+        AdminContestsPageResponse res = adminContestsService.listContests(ADMIN_ID, 0, 20, "ANNOUNCED", true, " 100%_桜\\ ", null);
+
+        verify(contestMapper).searchAdminContests(20, 0, null, null, "ANNOUNCED", true, pattern);
+        assertThat(res.getTotalCount()).isEqualTo(1);
+    }
+
+    // ----------------------------------------
+    // 3. 該当が無ければ行を検索しない
+    // ----------------------------------------
+    @Test
+    @DisplayName("listContests: 件数が 0 なら行の検索を省き、page 指定（OFFSET）でも件数は数える")
+    void testZeroCountSkipsRowQuery() {
+        when(contestMapper.countAdminContests(null, false, null)).thenReturn(0L);
+
+        AdminContestsPageResponse res = adminContestsService.listContests(ADMIN_ID, 5, 20, null, false, null, null);
+
+        assertThat(res.getTotalCount()).isZero();
+        assertThat(res.getContests()).isEmpty();
+        assertThat(res.getNextCursor()).isNull();
+        verify(contestMapper, never()).searchAdminContests(anyInt(), anyInt(), any(), any(), any(), anyBoolean(), any());
+    }
+
+    // ----------------------------------------
+    // 4. 不正なカーソル・管理者以外
+    // ----------------------------------------
+    @Test
+    @DisplayName("listContests: 不正なカーソルは IllegalArgumentException、管理者以外は AccessDeniedException")
+    void testInvalidCursorAndNonAdmin() {
+        assertThatThrownBy(() -> adminContestsService.listContests(ADMIN_ID, 0, 20, null, false, null, "abc"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> adminContestsService.listContests(ADMIN_ID, 0, 20, null, false, null, "1740823200000000-30"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        User user = new User();
+        user.setUserId("user-1");
+        user.setRole(UserRole.USER);
+        when(userMapper.findById("user-1")).thenReturn(Optional.of(user));
+
+        assertThatThrownBy(() -> adminContestsService.listContests("user-1", 0, 20, null, false, null, null))
+                .isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(contestMapper);
+    }
+}
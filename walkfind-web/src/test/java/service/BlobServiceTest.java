@@ -0,0 +1,235 @@
+package service;
+
+import nagasawakenji.walkfind.exception.InvalidUploadException;
+import nagasawakenji.walkfind.infra.blob.BlobStorage;
+import nagasawakenji.walkfind.infra.mybatis.mapper.BlobMapper;
+import nagasawakenji.walkfind.service.BlobService;
+import nagasawakenji.walkfind.service.ImageDerivativeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlobServiceTest {
+
+    private static final String SHA = "ab" + "0".repeat(62);
+    private static final String KEY = "blobs/ab/" + SHA + ".jpg";
+    private static final String OTHER_SHA = "cd" + "1".repeat(62);
+    private static final String OTHER_KEY = "blobs/cd/" + OTHER_SHA + ".png";
+
+    @Mock
+    private BlobMapper blobMapper;
+
+    @Mock
+    private BlobStorage blobStorage;
+
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    private BlobService blobService;
+
+    @BeforeEach
+    void setUp() {
+        blobService = new BlobService(blobMapper, blobStorage, imageDerivativeService, 1_000, 60, 10);
+    }
+
+    private static BlobStorage.StoredObject object(long size, String sha256, Instant lastModified) {
+        return new BlobStorage.StoredObject(size, sha256, lastModified);
+    }
+
+    // ----------------------------------------
+    // 1. 行をロックしてから実体を確かめる
+    // ----------------------------------------
+    @Test
+    @DisplayName("acquire: sha256 で参照を増やした後に HEAD で実体を確かめ、最初の参照なら true")
+    void testAcquireVerifiesAfterLock() throws IOException {
+        when(blobMapper.acquire(SHA, KEY, "image/jpeg", null)).thenReturn(1);
+        when(blobStorage.head(KEY)).thenReturn(Optional.of(object(500, SHA, Instant.now())));
+
+        assertThat(blobService.acquire(KEY)).isTrue();
+
+        InOrder inOrder = inOrder(blobMapper, blobStorage);
+        inOrder.verify(blobMapper).acquire(SHA, KEY, "image/jpeg", null);
+        inOrder.verify(blobStorage).head(KEY);
+    }
+
+    @Test
+    @DisplayName("acquire: 2つ目以降の参照は false（失敗しても呼び出し元は実体を消さない）")
+    void testAcquireExistingReference() throws IOException {
+        when(blobMapper.acquire(SHA, KEY, "image/jpeg", 500L)).thenReturn(3);
+        when(blobStorage.head(KEY)).thenReturn(Optional.of(object(500, null, Instant.now())));
+
+        assertThat(blobService.acquire(KEY, "image/jpeg", 500L)).isFalse();
+    }
+
+    // ----------------------------------------
+    // 2. 実体が無い・大きすぎる・SHA-256 が違う
+    // ----------------------------------------
+    @Test
+    @DisplayName("acquire: 実体が無ければ EMPTY、上限超過は TOO_LARGE、S3 の SHA-256 がキーと違えば INVALID_IMAGE")
+    void testAcquireRejectsUnverifiedObject() throws IOException {
+        when(blobMapper.acquire(eq(SHA), eq(KEY), anyString(), isNull())).thenReturn(1);
+
+        when(blobStorage.head(KEY)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> blobService.acquire(KEY))
+                .isInstanceOfSatisfying(InvalidUploadException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(InvalidUploadException.Reason.EMPTY));
+
+        when(blobStorage.head(KEY)).thenReturn(Optional.of(object(1_001, SHA, Instant.now())));
+        assertThatThrownBy(() -> blobService.acquire(KEY))
+                .isInstanceOfSatisfying(InvalidUploadException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(InvalidUploadException.Reason.TOO_LARGE));
+
+        when(blobStorage.head(KEY)).thenReturn(Optional.of(object(500, OTHER_SHA, Instant.now())));
+        assertThatThrownBy(() -> blobService.acquire(KEY))
+                .isInstanceOfSatisfying(InvalidUploadException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(InvalidUploadException.Reason.INVALID_IMAGE));
+    }
+
+    @Test
+    @DisplayName("acquire: 同じ内容が別の拡張子で登録済みなら UNSUPPORTED_TYPE で、実体は見ない")
+    void testAcquireRejectsOtherKeyForSameContent() {
+        String pngKey = "blobs/ab/" + SHA + ".png";
+        when(blobMapper.acquire(SHA, pngKey, "image/png", null)).thenReturn(null);
+        when(blobMapper.findStorageKey(SHA)).thenReturn(KEY);
+
+        assertThatThrownBy(() -> blobService.acquire(pngKey))
+                .isInstanceOfSatisfying(InvalidUploadException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(InvalidUploadException.Reason.UNSUPPORTED_TYPE));
+        verifyNoInteractions(blobStorage);
+    }
+
+    @Test
+    @DisplayName("acquire: 従来のランダムなキーは管理せず true")
+    void testAcquireLegacyKey() {
+        assertThat(blobService.acquire("photos/1/550e8400-e29b-41d4-a716-446655440000.jpg")).isTrue();
+        verifyNoInteractions(blobMapper, blobStorage);
+    }
+
+    // ----------------------------------------
+    // 3. release は実体を消さない（従来のキーのみ呼び出し元が消す）
+    // ----------------------------------------
+    @Test
+    @DisplayName("release: sha256 で参照を減らし、0 になっても false（実体は sweepUnreferenced が消す）")
+    void testReleaseNeverDeletesBlob() {
+        when(blobMapper.release(SHA)).thenReturn(0);
+
+        assertThat(blobService.release(KEY)).isFalse();
+        assertThat(blobService.release("photos/1/old.jpg")).isTrue();
+        assertThat(blobService.release(" ")).isFalse();
+
+        verify(blobMapper, times(1)).release(anyString());
+        verify(blobMapper, never()).deleteIfUnreferenced(anyString());
+        verifyNoInteractions(blobStorage);
+    }
+
+    @Test
+    @DisplayName("abandon: 内容アドレスの実体は参照 0 の行として残して false、従来のキーと別のキーで登録済みの内容は true")
+    void testAbandonLeavesBlobForSweep() {
+        String pngKey = "blobs/ab/" + SHA + ".png";
+        when(blobMapper.abandon(SHA, KEY, "image/jpeg")).thenReturn(0);
+        when(blobMapper.abandon(SHA, pngKey, "image/png")).thenReturn(null);
+
+        assertThat(blobService.abandon(KEY)).isFalse();
+        assertThat(blobService.abandon(pngKey)).isTrue();
+        assertThat(blobService.abandon("photos/1/old.jpg")).isTrue();
+
+        verify(blobMapper, never()).deleteIfUnreferenced(anyString());
+        verifyNoInteractions(blobStorage, imageDerivativeService);
+    }
+
+    @Test
+    @DisplayName("isStored: 同じ sha256 の行があっても、キーが一致しなければ false")
+    void testIsStoredComparesKey() {
+        when(blobMapper.findStorageKey(SHA)).thenReturn(KEY);
+
+        assertThat(blobService.isStored(KEY)).isTrue();
+        assertThat(blobService.isStored("blobs/ab/" + SHA + ".png")).isFalse();
+        assertThat(blobService.isStored("photos/1/old.jpg")).isFalse();
+    }
+
+    @Test
+    @DisplayName("findStoredKey: 同じ内容が無ければ、撮影情報を取り除いて保存し直した内容のキーを返す")
+    void testFindStoredKeyFallsBackToSource() {
+        when(blobMapper.findStorageKey(SHA)).thenReturn(null);
+        when(blobMapper.findStorageKeyBySource(SHA)).thenReturn(OTHER_KEY);
+        when(blobMapper.findStorageKey(OTHER_SHA)).thenReturn(OTHER_KEY);
+
+        assertThat(blobService.findStoredKey(SHA)).isEqualTo(OTHER_KEY);
+        assertThat(blobService.findStoredKey(OTHER_SHA)).isEqualTo(OTHER_KEY);
+        verify(blobMapper, never()).findStorageKeyBySource(OTHER_SHA);
+    }
+
+    @Test
+    @DisplayName("recordSource: 取り除く前と後の sha256 を記録し、同じ内容・従来のキーは記録しない")
+    void testRecordSource() {
+        blobService.recordSource(KEY, OTHER_KEY);
+        blobService.recordSource(KEY, KEY);
+        blobService.recordSource("photos/1/old.jpg", OTHER_KEY);
+
+        verify(blobMapper).insertSource(SHA, OTHER_SHA);
+        verify(blobMapper, times(1)).insertSource(anyString(), anyString());
+    }
+
+    // ----------------------------------------
+    // 4. 参照の無くなった実体の削除
+    // ----------------------------------------
+    @Test
+    @DisplayName("sweepUnreferenced: 印を付けた行の縮小版・実体・行を消し、アップロードし直された実体と削除に失敗した実体は印を外す")
+    void testSweepUnreferenced() throws IOException {
+        String reuploadedSha = "ef" + "2".repeat(62);
+        String reuploadedKey = "blobs/ef/" + reuploadedSha + ".jpg";
+        Instant old = Instant.now().minus(2, ChronoUnit.DAYS);
+
+        when(blobMapper.claimUnreferenced(any(), eq(10))).thenReturn(List.of(KEY, reuploadedKey, OTHER_KEY));
+        when(blobStorage.head(KEY)).thenReturn(Optional.of(object(500, SHA, old)));
+        when(blobStorage.head(reuploadedKey)).thenReturn(Optional.of(object(500, reuploadedSha, Instant.now())));
+        when(blobStorage.head(OTHER_KEY)).thenReturn(Optional.of(object(500, OTHER_SHA, old)));
+        doThrow(new IOException("S3 unavailable")).when(blobStorage).delete(OTHER_KEY);
+
+        int deleted = blobService.sweepUnreferenced();
+
+        assertThat(deleted).isEqualTo(1);
+        InOrder inOrder = inOrder(blobMapper, blobStorage);
+        inOrder.verify(blobMapper).claimUnreferenced(any(), eq(10));
+        inOrder.verify(blobStorage).delete(KEY);
+        inOrder.verify(blobMapper).deleteIfUnreferenced(SHA);
+        verify(imageDerivativeService).deleteFor(KEY);
+        verify(blobMapper, never()).unclaim(SHA);
+
+        verify(imageDerivativeService, never()).deleteFor(reuploadedKey);
+        verify(blobStorage, never()).delete(reuploadedKey);
+        verify(blobMapper, never()).deleteIfUnreferenced(reuploadedSha);
+        verify(blobMapper).unclaim(reuploadedSha);
+
+        verify(blobMapper, never()).deleteIfUnreferenced(OTHER_SHA);
+        verify(blobMapper).unclaim(OTHER_SHA);
+    }
+
+    @Test
+    @DisplayName("acquire: 削除中の印が付いた内容は EMPTY で弾き、実体は見ない")
+    void testAcquireRejectsBlobBeingSwept() {
+        when(blobMapper.acquire(SHA, KEY, "image/jpeg", null)).thenReturn(null);
+        when(blobMapper.isDeleting(SHA)).thenReturn(true);
+
+        assertThatThrownBy(() -> blobService.acquire(KEY))
+                .isInstanceOfSatisfying(InvalidUploadException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(InvalidUploadException.Reason.EMPTY));
+        verify(blobMapper, never()).findStorageKey(anyString());
+        verifyNoInteractions(blobStorage);
+    }
+}
@@ -0,0 +1,307 @@
+package service;
+
+import nagasawakenji.walkfind.exception.AuthenticationProcessingException;
+import nagasawakenji.walkfind.infra.auth.CognitoTokenVerifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CognitoTokenVerifierTest {
+
+    private static final String ISSUER = "https://cognito-idp.ap-northeast-1.amazonaws.com/ap-northeast-1_TEST";
+    private static final long START = 1_700_000_000_000L;
+    private static final long REFRESH_AHEAD = 3_600_000L;
+    private static final long MIN_REFRESH_INTERVAL = 30_000L;
+    private static final long SKEW = 60_000L;
+
+    private KeyPair key1;
+    private KeyPair key2;
+    private List<String> publishedKids;
+    private AtomicInteger jwksFetches;
+    private AtomicLong now;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        key1 = generator.generateKeyPair();
+        key2 = generator.generateKeyPair();
+        publishedKids = new ArrayList<>(List.of("k1"));
+        jwksFetches = new AtomicInteger();
+        now = new AtomicLong(START);
+    }
+
+    private CognitoTokenVerifier verifier(int maxCachedTokens) {
+        return new CognitoTokenVerifier(
+                ISSUER,
+                () -> {
+                    jwksFetches.incrementAndGet();
+                    return jwks();
+                },
+                maxCachedTokens,
+                REFRESH_AHEAD,
+                MIN_REFRESH_INTERVAL,
+                SKEW,
+                Runnable::run,
+                now::get);
+    }
+
+    // ---------------------------------------------------------------
+    // 1. 初回は署名を検証し、同じトークンの2回目はキャッシュから返す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("検証済みトークンの2回目以降は署名検証をせずキャッシュのクレームを返す")
+    void testVerifyAndCacheHit() throws Exception {
+        CognitoTokenVerifier verifier = verifier(100);
+        verifier.prefetch();
+        String token = token("k1", key1, ISSUER, "user-1", START / 1000 + 3600);
+
+        CognitoTokenVerifier.VerifiedToken first = verifier.verify(token);
+        CognitoTokenVerifier.VerifiedToken second = verifier.verify(token);
+
+        assertThat(first.subject()).isEqualTo("user-1");
+        assertThat(first.claimAsString("cognito:username")).isEqualTo("alice");
+        assertThat(first.expiresAt()).isEqualTo(Instant.ofEpochSecond(START / 1000 + 3600));
+        assertThat(first.claims().get("iat")).isEqualTo(Instant.ofEpochSecond(START / 1000));
+        assertThat(second).isSameAs(first);
+        assertThat(verifier.missCount()).isEqualTo(1);
+        assertThat(verifier.hitCount()).isEqualTo(1);
+        assertThat(jwksFetches).hasValue(1);
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 期限切れ・署名不正・issuer 違いは弾き、キャッシュにも入れない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("期限切れ・署名の改ざん・別の issuer のトークンは拒否しキャッシュしない")
+    void testRejectInvalidTokens() throws Exception {
+        CognitoTokenVerifier verifier = verifier(100);
+        long exp = START / 1000 + 3600;
+
+        String expired = token("k1", key1, ISSUER, "user-1", START / 1000 - 120);
+        assertThatThrownBy(() -> verifier.verify(expired))
+                .isInstanceOf(AuthenticationProcessingException.class)
+                .hasFieldOrPropertyWithValue("errorCode", "TOKEN_EXPIRED");
+
+        String forged = token("k1", key2, ISSUER, "user-1", exp);
+        assertThatThrownBy(() -> verifier.verify(forged))
+                .hasFieldOrPropertyWithValue("errorCode", "TOKEN_SIGNATURE_INVALID");
+        assertThatThrownBy(() -> verifier.verify(forged))
+                .isInstanceOf(AuthenticationProcessingException.class);
+
+        String otherIssuer = token("k1", key1, "https://example.com/other", "user-1", exp);
+        assertThatThrownBy(() -> verifier.verify(otherIssuer))
+                .isInstanceOf(AuthenticationProcessingException.class);
+
+        assertThatThrownBy(() -> verifier.verify("not-a-jwt"))
+                .isInstanceOf(AuthenticationProcessingException.class);
+
+        assertThat(verifier.cachedTokenCount()).isZero();
+        assertThat(verifier.hitCount()).isZero();
+    }
+
+    // ---------------------------------------------------------------
+    // 3. キャッシュ済みでも exp を過ぎたら使わない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("キャッシュ済みのトークンも exp（+ 許容誤差）を過ぎたら拒否する")
+    void testCachedTokenExpires() throws Exception {
+        CognitoTokenVerifier verifier = verifier(100);
+        String token = token("k1", key1, ISSUER, "user-1", START / 1000 + 60);
+        verifier.verify(token);
+
+        now.set(START + 60_000 + SKEW - 1);
+        assertThat(verifier.verify(token).subject()).isEqualTo("user-1");
+        assertThat(verifier.hitCount()).isEqualTo(1);
+
+        now.set(START + 60_000 + SKEW);
+        assertThatThrownBy(() -> verifier.verify(token))
+                .hasFieldOrPropertyWithValue("errorCode", "TOKEN_EXPIRED");
+        assertThat(verifier.cachedTokenCount()).isZero();
+    }
+
+    // ---------------------------------------------------------------
+    // 4. 鍵のローテーション: 知らない kid で取り直す（間隔は空ける）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("知らない kid は JWKS を取り直して検証し、でたらめな kid では連続して取り直さない")
+    void testUnknownKidRefresh() throws Exception {
+        CognitoTokenVerifier verifier = verifier(100);
+        verifier.prefetch();
+        assertThat(jwksFetches).hasValue(1);
+
+        // 新しい鍵が公開された
+        publishedKids.add("k2");
+        now.addAndGet(MIN_REFRESH_INTERVAL);
+        String rotated = token("k2", key2, ISSUER, "user-2", START / 1000 + 3600);
+        assertThat(verifier.verify(rotated).subject()).isEqualTo("user-2");
+        assertThat(jwksFetches).hasValue(2);
+
+        // 間隔内の未知の kid は取り直さずに拒否する
+        String unknown = token("k9", key2, ISSUER, "user-3", START / 1000 + 3600);
+        assertThatThrownBy(() -> verifier.verify(unknown))
+                .isInstanceOf(AuthenticationProcessingException.class);
+        assertThatThrownBy(() -> verifier.verify(unknown))
+                .isInstanceOf(AuthenticationProcessingException.class);
+        assertThat(jwksFetches).hasValue(2);
+    }
+
+    // ---------------------------------------------------------------
+    // 5. refresh-ahead: 古くなった鍵は検証を止めずに取り直す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("JWKS が古くなったら手元の鍵で検証しつつ取り直し、取得に失敗しても手元の鍵を使い続ける")
+    void testRefreshAhead() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        CognitoTokenVerifier verifier = new CognitoTokenVerifier(
+                ISSUER,
+                () -> {
+                    if (jwksFetches.incrementAndGet() > 2) {
+                        failures.incrementAndGet();
+                        throw new IOException("JWKS endpoint is down");
+                    }
+                    return jwks();
+                },
+                100, REFRESH_AHEAD, MIN_REFRESH_INTERVAL, SKEW, Runnable::run, now::get);
+        verifier.prefetch();
+
+        now.addAndGet(REFRESH_AHEAD);
+        long exp = now.get() / 1000 + 3600;
+        assertThat(verifier.verify(token("k1", key1, ISSUER, "user-1", exp)).subject()).isEqualTo("user-1");
+        assertThat(jwksFetches).hasValue(2);
+
+        now.addAndGet(REFRESH_AHEAD);
+        assertThat(verifier.verify(token("k1", key1, ISSUER, "user-2", exp + 3600)).subject()).isEqualTo("user-2");
+        assertThat(failures).hasValue(1);
+    }
+
+    // ---------------------------------------------------------------
+    // 6. 件数の上限を超えたら、最も長く使われていないトークンから捨てる
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("キャッシュは件数上限を超えると最も長く使われていないトークンから捨てる")
+    void testLruEviction() throws Exception {
+        CognitoTokenVerifier verifier = verifier(2);
+        long exp = START / 1000 + 3600;
+        String a = token("k1", key1, ISSUER, "a", exp);
+        String b = token("k1", key1, ISSUER, "b", exp);
+        String c = token("k1", key1, ISSUER, "c", exp);
+
+        verifier.verify(a);
+        verifier.verify(b);
+        verifier.verify(a); // a を最近使ったことにする
+        verifier.verify(c); // b が追い出される
+
+        assertThat(verifier.cachedTokenCount()).isEqualTo(2);
+        long misses = verifier.missCount();
+        verifier.verify(a);
+        verifier.verify(c);
+        assertThat(verifier.missCount()).isEqualTo(misses);
+        verifier.verify(b);
+        assertThat(verifier.missCount()).isEqualTo(misses + 1);
+    }
+
+    // ---------------------------------------------------------------
+    // 7. マイクロベンチマーク（-Dwalkfind.benchmark=true のときだけ実行）
+    //    mvn -pl walkfind-web test -Dtest=CognitoTokenVerifierTest -Dwalkfind.benchmark=true
+    // ---------------------------------------------------------------
+    @Test
+    @EnabledIfSystemProperty(named = "walkfind.benchmark", matches = "true")
+    @DisplayName("[benchmark] 署名検証とキャッシュヒットの1秒あたりの検証数")
+    void benchmarkThroughput() throws Exception {
+        int distinct = 2_000;
+        long exp = START / 1000 + 3600;
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < distinct; i++) {
+            tokens.add(token("k1", key1, ISSUER, "user-" + i, exp));
+        }
+
+        // キャッシュなし（毎回 RSA 検証 + JSON 解析）
+        CognitoTokenVerifier uncached = verifier(0);
+        uncached.prefetch();
+        double coldOps = measure(uncached, tokens, 3);
+
+        // キャッシュあり（全件ヒット）
+        CognitoTokenVerifier cached = verifier(distinct);
+        cached.prefetch();
+        tokens.forEach(cached::verify);
+        double warmOps = measure(cached, tokens, 200);
+
+        System.out.printf("CognitoTokenVerifier: uncached %.0f ops/s, cached %.0f ops/s (x%.1f)%n",
+                coldOps, warmOps, warmOps / coldOps);
+        assertThat(cached.missCount()).isEqualTo(distinct);
+        assertThat(warmOps).isGreaterThan(coldOps);
+    }
+
+    private double measure(CognitoTokenVerifier verifier, List<String> tokens, int rounds) {
+        // ウォームアップ（JIT）
+        for (String token : tokens) {
+            verifier.verify(token);
+        }
+        long begin = System.nanoTime();
+        long ops = 0;
+        for (int r = 0; r < rounds; r++) {
+            for (String token : tokens) {
+                verifier.verify(token);
+                ops++;
+            }
+        }
+        return ops / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    // ---------------------------------------------------------------
+    // helpers
+    // ---------------------------------------------------------------
+
+    private String jwks() {
+        List<String> keys = new ArrayList<>();
+        for (String kid : publishedKids) {
+            RSAPublicKey publicKey = (RSAPublicKey) ("k1".equals(kid) ? key1 : key2).getPublic();
+            keys.add("{\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\",\"kid\":\"" + kid + "\""
+                    + ",\"n\":\"" + base64Url(unsigned(publicKey.getModulus())) + "\""
+                    + ",\"e\":\"" + base64Url(unsigned(publicKey.getPublicExponent())) + "\"}");
+        }
+        return "{\"keys\":[" + String.join(",", keys) + "]}";
+    }
+
+    private String token(String kid, KeyPair signer, String issuer, String sub, long exp) throws Exception {
+        String header = "{\"kid\":\"" + kid + "\",\"alg\":\"RS256\"}";
+        String payload = "{\"sub\":\"" + sub + "\",\"iss\":\"" + issuer + "\",\"token_use\":\"access\""
+                + ",\"cognito:username\":\"alice\",\"cognito:groups\":[\"admin\"]"
+                + ",\"iat\":" + START / 1000 + ",\"exp\":" + exp + "}";
+        String signingInput = base64Url(header.getBytes(StandardCharsets.UTF_8))
+                + "." + base64Url(payload.getBytes(StandardCharsets.UTF_8));
+
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(signer.getPrivate());
+        signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + base64Url(signature.sign());
+    }
+
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,61 @@
+package service;
+
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
+import nagasawakenji.walkfind.service.ContestCountConsistencyService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContestCountConsistencyServiceTest {
+
+    @Mock
+    private ContestMapper contestMapper;
+
+    @InjectMocks
+    private ContestCountConsistencyService contestCountConsistencyService;
+
+    // ---------------------------------------------------------------
+    // 1. ずれているコンテストの行をロックしてから数え直す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ずれあり → 対象の行をロックしてから数え直し、補正したidを返す")
+    void testLockBeforeRecount() {
+        when(contestMapper.findPhotoCountDriftIds()).thenReturn(List.of(1L, 3L));
+        when(contestMapper.lockContestsForUpdate(List.of(1L, 3L))).thenReturn(List.of(1L, 3L));
+        // 3 はロックを待つ間に補正が要らなくなった
+        when(contestMapper.repairPhotoCountsReturningIds(List.of(1L, 3L))).thenReturn(List.of(1L));
+
+        List<Long> repaired = contestCountConsistencyService.repairPhotoCounts();
+
+        assertThat(repaired).containsExactly(1L);
+        InOrder inOrder = inOrder(contestMapper);
+        inOrder.verify(contestMapper).findPhotoCountDriftIds();
+        inOrder.verify(contestMapper).lockContestsForUpdate(List.of(1L, 3L));
+        inOrder.verify(contestMapper).repairPhotoCountsReturningIds(List.of(1L, 3L));
+    }
+
+    // ---------------------------------------------------------------
+    // 2. ずれが無ければロックを取らない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ずれなし → ロックも更新もしない")
+    void testNoDriftTakesNoLock() {
+        when(contestMapper.findPhotoCountDriftIds()).thenReturn(List.of());
+
+        assertThat(contestCountConsistencyService.repairPhotoCounts()).isEmpty();
+
+        verify(contestMapper, never()).lockContestsForUpdate(anyList());
+        verify(contestMapper, never()).repairPhotoCountsReturningIds(anyList());
+    }
+}
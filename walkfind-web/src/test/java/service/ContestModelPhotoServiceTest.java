@@ -8,6 +8,9 @@ import nagasawakenji.walkfind.domain.statusenum.ContestModelPhotoCreateStatus;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestModelPhotoMapper;
+import nagasawakenji.walkfind.infra.mybatis.mapper.BlobMapper;
+import nagasawakenji.walkfind.infra.upload.StoredUpload;
+import nagasawakenji.walkfind.service.BlobService;
 import nagasawakenji.walkfind.service.ContestModelPhotoService;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoEmbeddingMapper;
 import org.springframework.context.ApplicationEventPublisher;
@@ -21,6 +24,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -38,6 +42,7 @@ class ContestModelPhotoServiceTest {
     @Mock LocalStorageUploadService localStorageUploadService;
     @Mock ApplicationEventPublisher eventPublisher;
     @Mock PhotoEmbeddingMapper photoEmbeddingMapper;
+    @Mock BlobMapper blobMapper;
 
 
     ContestModelPhotoService service;
@@ -49,10 +54,16 @@ class ContestModelPhotoServiceTest {
                 contestModelPhotoMapper,
                 localStorageUploadService,
                 eventPublisher,
-                photoEmbeddingMapper
+                photoEmbeddingMapper,
+                // blobs/ 以外のキーは参照数を持たないので、実体のまま使う
+                new BlobService(blobMapper)
         );
     }
 
+    private static StoredUpload stored(String key) {
+        return new StoredUpload(key, 3L, "ab".repeat(32), MediaType.IMAGE_PNG_VALUE);
+    }
+
     private MockMultipartFile dummyFile() {
         return new MockMultipartFile(
                 "file",
@@ -112,7 +123,7 @@ class ContestModelPhotoServiceTest {
     }
 
     @Test
-    @DisplayName("create: 正常系 - saveFile→insert→findByIdして1件返却し、補償削除は呼ばれない")
+    @DisplayName("create: 正常系 - saveBlob→insert→findByIdして1件返却し、補償削除は呼ばれない")
     void create_success_insertsAndReturnsCreatedPhoto_andNoCompensationDelete() {
         long contestId = 1L;
         String owner = "owner";
@@ -123,7 +134,7 @@ class ContestModelPhotoServiceTest {
         when(contestMapper.findById(contestId)).thenReturn(Optional.of(contest));
 
         MockMultipartFile file = dummyFile();
-        when(localStorageUploadService.saveFile(any(), anyString())).thenReturn("saved-key.png");
+        when(localStorageUploadService.saveBlob(any(MultipartFile.class))).thenReturn(stored("saved-key.png"));
 
         // insert時にuseGeneratedKeys相当でidが採番される想定を模擬
         doAnswer(inv -> {
@@ -152,7 +163,7 @@ class ContestModelPhotoServiceTest {
         assertEquals(generatedId, res.getPhotos().get(0).getId());
         assertEquals(created.getPhotoUrl(), res.getPhotos().get(0).getKey());
 
-        verify(localStorageUploadService).saveFile(eq(file), anyString());
+        verify(localStorageUploadService).saveBlob(file);
         verify(contestModelPhotoMapper).insert(any(ContestModelPhoto.class));
         verify(contestModelPhotoMapper).findById(generatedId);
         verify(localStorageUploadService, never()).deleteFile(anyString());
@@ -160,7 +171,7 @@ class ContestModelPhotoServiceTest {
     }
 
     @Test
-    @DisplayName("create: ストレージ保存(saveFile)した戻り値が photoUrl として insert される")
+    @DisplayName("create: ストレージ保存(saveBlob)した戻り値が photoUrl として insert される")
     void create_setsSavedKeyIntoInsertedEntity() {
         long contestId = 1L;
         String owner = "owner";
@@ -170,7 +181,7 @@ class ContestModelPhotoServiceTest {
         when(contestMapper.findById(contestId)).thenReturn(Optional.of(contest));
 
         MockMultipartFile file = dummyFile();
-        when(localStorageUploadService.saveFile(any(), anyString())).thenReturn("saved-key.png");
+        when(localStorageUploadService.saveBlob(any(MultipartFile.class))).thenReturn(stored("saved-key.png"));
 
         doAnswer(inv -> {
             ContestModelPhoto arg = inv.getArgument(0);
@@ -211,7 +222,7 @@ class ContestModelPhotoServiceTest {
 
         MockMultipartFile file = dummyFile();
         doThrow(new RuntimeException("upload failed"))
-                .when(localStorageUploadService).saveFile(any(), anyString());
+                .when(localStorageUploadService).saveBlob(any(MultipartFile.class));
 
         ContestModelPhotoCreateRequest req = new ContestModelPhotoCreateRequest();
         req.setTitle("title");
@@ -233,7 +244,7 @@ class ContestModelPhotoServiceTest {
         when(contestMapper.findById(contestId)).thenReturn(Optional.of(contest));
 
         MockMultipartFile file = dummyFile();
-        when(localStorageUploadService.saveFile(any(), anyString())).thenReturn("saved-key.png");
+        when(localStorageUploadService.saveBlob(any(MultipartFile.class))).thenReturn(stored("saved-key.png"));
 
         doThrow(new RuntimeException("db down"))
                 .when(contestModelPhotoMapper).insert(any(ContestModelPhoto.class));
@@ -262,7 +273,7 @@ class ContestModelPhotoServiceTest {
         when(contestMapper.findById(contestId)).thenReturn(Optional.of(contest));
 
         MockMultipartFile file = dummyFile();
-        when(localStorageUploadService.saveFile(any(), anyString())).thenReturn("saved-key.png");
+        when(localStorageUploadService.saveBlob(any(MultipartFile.class))).thenReturn(stored("saved-key.png"));
 
         doThrow(new RuntimeException("db down"))
                 .when(contestModelPhotoMapper).insert(any(ContestModelPhoto.class));
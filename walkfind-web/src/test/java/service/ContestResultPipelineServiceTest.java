@@ -0,0 +1,234 @@
+package service;
+
+import nagasawakenji.walkfind.domain.dto.CalculationResult;
+import nagasawakenji.walkfind.domain.dto.ResultStageProgress;
+import nagasawakenji.walkfind.domain.event.ContestClosedEvent;
+import nagasawakenji.walkfind.domain.statusenum.CalculationStatus;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
+import nagasawakenji.walkfind.service.ContestResultPipelineService;
+import nagasawakenji.walkfind.service.ResultCalculationService;
+import nagasawakenji.walkfind.service.ResultSnapshotService;
+import nagasawakenji.walkfind.service.UserProfileRankUpdateService;
+import nagasawakenji.walkfind.service.listener.ContestResultPipelineListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContestResultPipelineServiceTest {
+
+    @Mock
+    private ContestMapper contestMapper;
+    @Mock
+    private ResultCalculationService resultCalculationService;
+    @Mock
+    private UserProfileRankUpdateService userProfileRankUpdateService;
+    @Mock
+    private ResultSnapshotService resultSnapshotService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ContestResultPipelineService pipelineService;
+
+    @BeforeEach
+    void setUp() {
+        // 3回まで、待ち時間なしで再実行する
+        pipelineService = new ContestResultPipelineService(contestMapper, resultCalculationService,
+                userProfileRankUpdateService, resultSnapshotService, transactionManager, 3, 0);
+    }
+
+    // ---------------------------------------------------------------
+    // 1. 集計 → best_rank → スナップショットの順に、段ごとのトランザクションで実行する
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("集計成功 → best_rank 更新 → スナップショット作成の順に実行し、段ごとに完了を記録する")
+    void testStagesInOrder() {
+        when(resultCalculationService.calculateContest(1L)).thenReturn(success(1L));
+        when(contestMapper.findResultStageProgress(1L)).thenReturn(progress(true, false, false));
+
+        CalculationResult result = pipelineService.run(1L);
+
+        assertThat(result.getStatus()).isEqualTo(CalculationStatus.SUCCESS);
+        InOrder inOrder = inOrder(resultCalculationService, userProfileRankUpdateService, resultSnapshotService, contestMapper);
+        inOrder.verify(resultCalculationService).calculateContest(1L);
+        inOrder.verify(userProfileRankUpdateService).updateBestRanksForContest(1L);
+        inOrder.verify(contestMapper).markBestRankDone(1L);
+        inOrder.verify(resultSnapshotService).publish(1L);
+        inOrder.verify(contestMapper).markSnapshotPublished(1L);
+        verify(transactionManager, times(3)).getTransaction(any());
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 集計済み（他で実行済み） → 後続の段は実行しない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("集計済みで全段完了 / 他で集計中 → best_rank・スナップショットは実行しない")
+    void testAlreadyCalculated() {
+        when(resultCalculationService.calculateContest(anyLong())).thenReturn(alreadyCalculated());
+        when(contestMapper.findResultStageProgress(1L)).thenReturn(progress(true, true, true));
+        // 他の実行が集計中（未コミット）
+        when(contestMapper.findResultStageProgress(2L)).thenReturn(progress(false, false, false));
+
+        assertThat(pipelineService.run(1L).getStatus()).isEqualTo(CalculationStatus.ALREADY_CALCULATED);
+        assertThat(pipelineService.run(2L).getStatus()).isEqualTo(CalculationStatus.ALREADY_CALCULATED);
+        verifyNoInteractions(userProfileRankUpdateService, resultSnapshotService);
+    }
+
+    @Test
+    @DisplayName("集計済みでスナップショットだけ未完了 → スナップショットの段だけを実行する")
+    void testResumeUnfinishedStage() {
+        when(resultCalculationService.calculateContest(1L)).thenReturn(alreadyCalculated());
+        when(contestMapper.findResultStageProgress(1L)).thenReturn(progress(true, true, false));
+
+        CalculationResult result = pipelineService.run(1L);
+
+        assertThat(result.getStatus()).isEqualTo(CalculationStatus.ALREADY_CALCULATED);
+        verifyNoInteractions(userProfileRankUpdateService);
+        verify(resultSnapshotService).publish(1L);
+        verify(contestMapper).markSnapshotPublished(1L);
+        verify(contestMapper, never()).markBestRankDone(anyLong());
+    }
+
+    // ---------------------------------------------------------------
+    // 3. 一時的な失敗 → 失敗した段だけを再実行する
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("best_rank 更新が1回失敗 → その段だけ再実行して最後まで進む")
+    void testRetryFailedStageOnly() {
+        when(resultCalculationService.calculateContest(1L)).thenReturn(success(1L));
+        when(contestMapper.findResultStageProgress(1L)).thenReturn(progress(true, false, false));
+        doThrow(new RuntimeException("connection reset"))
+                .doNothing()
+                .when(userProfileRankUpdateService).updateBestRanksForContest(1L);
+
+        CalculationResult result = pipelineService.run(1L);
+
+        assertThat(result.getStatus()).isEqualTo(CalculationStatus.SUCCESS);
+        verify(resultCalculationService, times(1)).calculateContest(1L);
+        verify(userProfileRankUpdateService, times(2)).updateBestRanksForContest(1L);
+        verify(resultSnapshotService, times(1)).publish(1L);
+    }
+
+    // ---------------------------------------------------------------
+    // 4. 再実行しても失敗 → 後続の段は実行しない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("集計が3回とも失敗 → FAILED_DATABASE_ERROR、後続の段は実行しない")
+    void testGiveUpAfterMaxAttempts() {
+        when(resultCalculationService.calculateContest(1L)).thenThrow(new RuntimeException("DB failure"));
+
+        CalculationResult result = pipelineService.run(1L);
+
+        assertThat(result.getStatus()).isEqualTo(CalculationStatus.FAILED_DATABASE_ERROR);
+        verify(resultCalculationService, times(3)).calculateContest(1L);
+        verify(transactionManager, times(3)).rollback(any());
+        verifyNoInteractions(userProfileRankUpdateService, resultSnapshotService);
+    }
+
+    @Test
+    @DisplayName("スナップショットが3回とも失敗 → FAILED_POST_CALCULATION、完了は記録しない")
+    void testPostCalculationFailure() {
+        when(resultCalculationService.calculateContest(1L)).thenReturn(success(1L));
+        when(contestMapper.findResultStageProgress(1L)).thenReturn(progress(true, false, false));
+        when(resultSnapshotService.publish(1L)).thenThrow(new RuntimeException("S3 unavailable"));
+
+        CalculationResult result = pipelineService.run(1L);
+
+        assertThat(result.getStatus()).isEqualTo(CalculationStatus.FAILED_POST_CALCULATION);
+        assertThat(result.getPhotosProcessed()).isEqualTo(2);
+        verify(contestMapper).markBestRankDone(1L);
+        verify(resultSnapshotService, times(3)).publish(1L);
+        verify(contestMapper, never()).markSnapshotPublished(anyLong());
+    }
+
+    // ---------------------------------------------------------------
+    // 5. 定期実行 → 集計待ちのコンテストを1件ずつ処理する
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("runAllPending: 集計待ち・後続の段が残っているコンテストごとにパイプラインを実行する")
+    void testRunAllPending() {
+        when(contestMapper.findContestIdsWithPendingResultStages()).thenReturn(List.of(1L, 2L));
+        when(resultCalculationService.calculateContest(anyLong()))
+                .thenAnswer(inv -> success(inv.getArgument(0)));
+        when(contestMapper.findResultStageProgress(anyLong())).thenReturn(progress(true, false, false));
+
+        List<CalculationResult> results = pipelineService.runAllPending();
+
+        assertThat(results).extracting(CalculationResult::getContestId).containsExactly(1L, 2L);
+        verify(resultSnapshotService).publish(1L);
+        verify(resultSnapshotService).publish(2L);
+    }
+
+    @Test
+    @DisplayName("runAllPending: 集計待ちのコンテストが無い → NO_CONTESTS_TO_CALCULATE")
+    void testRunAllPendingWithoutContests() {
+        when(contestMapper.findContestIdsWithPendingResultStages()).thenReturn(List.of());
+
+        List<CalculationResult> results = pipelineService.runAllPending();
+
+        assertThat(results).extracting(CalculationResult::getStatus)
+                .containsExactly(CalculationStatus.NO_CONTESTS_TO_CALCULATE);
+        verifyNoInteractions(resultCalculationService, transactionManager);
+    }
+
+    // ---------------------------------------------------------------
+    // 6. 締め切りのコミット後はワーカーで実行する
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ContestResultPipelineListener: 締め切りを発行したスレッドではなくワーカーでパイプラインを実行する")
+    void testListenerRunsOnWorker() throws Exception {
+        ContestResultPipelineService pipeline = mock(ContestResultPipelineService.class);
+        ContestResultPipelineListener listener = new ContestResultPipelineListener(pipeline, 1, 10);
+        CompletableFuture<Thread> ranOn = new CompletableFuture<>();
+        when(pipeline.run(1L)).thenAnswer(inv -> {
+            ranOn.complete(Thread.currentThread());
+            return success(1L);
+        });
+
+        try {
+            listener.onContestClosed(new ContestClosedEvent(1L));
+
+            assertThat(ranOn.get(1, TimeUnit.SECONDS)).isNotSameAs(Thread.currentThread());
+            assertThat(ranOn.get().getName()).startsWith("result-pipeline-");
+        } finally {
+            listener.shutdown();
+        }
+    }
+
+    private static ResultStageProgress progress(boolean aggregated, boolean bestRankDone, boolean snapshotPublished) {
+        ResultStageProgress progress = new ResultStageProgress();
+        progress.setAggregationCompleted(aggregated);
+        progress.setBestRankDone(bestRankDone);
+        progress.setSnapshotPublished(snapshotPublished);
+        return progress;
+    }
+
+    private static CalculationResult alreadyCalculated() {
+        return CalculationResult.builder()
+                .contestId(1L)
+                .status(CalculationStatus.ALREADY_CALCULATED)
+                .message("Contest is not waiting for calculation or is being calculated.")
+                .build();
+    }
+
+    private static CalculationResult success(Long contestId) {
+        return CalculationResult.builder()
+                .contestId(contestId)
+                .status(CalculationStatus.SUCCESS)
+                .message("Calculation complete.")
+                .photosProcessed(2)
+                .build();
+    }
+}
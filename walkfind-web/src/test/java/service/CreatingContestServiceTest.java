@@ -1,6 +1,7 @@
 package service;
 
 import nagasawakenji.walkfind.domain.dto.CreatingContestResponse;
+import nagasawakenji.walkfind.domain.event.ContestScheduleChangedEvent;
 import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
 import nagasawakenji.walkfind.domain.statusenum.CreationContestStatus;
@@ -14,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
@@ -27,6 +29,9 @@ class CreatingContestServiceTest {
     @Mock
     private ContestMapper contestMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CreatingContestService creatingContestService;
 
@@ -140,6 +145,9 @@ class CreatingContestServiceTest {
         assertThat(res.getStatus()).isEqualTo(CreationContestStatus.SUCCESS);
         assertThat(res.getContestId()).isEqualTo(10L);
         assertThat(res.getName()).isEqualTo("AAA");
+
+        // 開始・終了日時の切り替えを予約するイベント
+        verify(eventPublisher).publishEvent(new ContestScheduleChangedEvent(10L));
     }
 
     // -------------------------------------
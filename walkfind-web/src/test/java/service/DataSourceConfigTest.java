@@ -0,0 +1,66 @@
+package service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import nagasawakenji.walkfind.config.DataSourceConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ローカル（AWS_LAMBDA_FUNCTION_NAME 未設定）での接続先。Bean を作るだけで DB には接続しない。
+ */
+class DataSourceConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(DataSourceConfig.class);
+
+    // ---------------------------------------------------------------
+    // 1. transaction モード → アプリはプーラー経由、Flyway は直接接続
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("pooler.mode=TRANSACTION → アプリの DataSource はプーラーのポートにサーバーサイド prepared statement 無しで接続する")
+    void testAppDataSourceUsesTransactionPoolingSettings() {
+        runner.withPropertyValues("walkfind.datasource.pooler.mode=TRANSACTION", "walkfind.datasource.pooler.local-port=6432")
+                .run(context -> {
+                    HikariDataSource primary = context.getBean("primaryDataSource", HikariDataSource.class);
+                    assertThat(primary.getJdbcUrl()).isEqualTo(
+                            "jdbc:postgresql://localhost:6432/walkfind?prepareThreshold=0&preparedStatementCacheQueries=0");
+                    // レプリカが無い場合、アプリ（MyBatis・TransactionManager）が使うのはプライマリそのもの
+                    assertThat(context.getBean(DataSource.class)).isSameAs(primary);
+                });
+    }
+
+    @Test
+    @DisplayName("pooler.mode=TRANSACTION → Flyway 用の DataSource はプーラーを通さず、パラメータ無しの直接の URL")
+    void testFlywayUsesDirectUrl() {
+        runner.withPropertyValues("walkfind.datasource.pooler.mode=TRANSACTION")
+                .run(context -> {
+                    assertThat(context).hasBean("flywayDataSource");
+                    // Flyway の自動設定は @FlywayDataSource の付いた DataSource を優先する
+                    assertThat(context.getBeanFactory().findAnnotationOnBean("flywayDataSource", FlywayDataSource.class))
+                            .isNotNull();
+
+                    SimpleDriverDataSource flyway = context.getBean("flywayDataSource", SimpleDriverDataSource.class);
+                    assertThat(flyway.getUrl()).isEqualTo("jdbc:postgresql://localhost:5432/walkfind");
+                });
+    }
+
+    // ---------------------------------------------------------------
+    // 2. direct モード → 従来どおり（Flyway もアプリの DataSource を使う）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("pooler.mode 未指定 → 5432 へパラメータ無しで接続し、Flyway 専用の DataSource は作らない")
+    void testDirectModeIsUnchanged() {
+        runner.run(context -> {
+            assertThat(context.getBean("primaryDataSource", HikariDataSource.class).getJdbcUrl())
+                    .isEqualTo("jdbc:postgresql://localhost:5432/walkfind");
+            assertThat(context).doesNotHaveBean("flywayDataSource");
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package service;
+
+import nagasawakenji.walkfind.infra.scheduler.HierarchicalTimerWheel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HierarchicalTimerWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    // ---------------------------------------------------------------
+    // 1. 過ぎた期限は次の tick で、先の期限はその tick まで出てこない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("過ぎた期限は次の tick で取り出し、未来の期限は期限の tick で取り出す")
+    void testOverdueAndFuture() {
+        HierarchicalTimerWheel<Long> wheel = new HierarchicalTimerWheel<>(1000, 3, START);
+        wheel.schedule(START - 60_000, 1L);
+        wheel.schedule(START + 5_000, 2L);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(START + 1_000, fired::add);
+        assertThat(fired).containsExactly(1L);
+
+        wheel.advanceTo(START + 4_000, fired::add);
+        assertThat(fired).containsExactly(1L);
+
+        wheel.advanceTo(START + 5_000, fired::add);
+        assertThat(fired).containsExactly(1L, 2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 上位レベル・範囲外の期限も、早すぎず遅すぎず1回だけ取り出す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ランダムな期限（上位レベル・範囲外を含む）を期限の tick で1回だけ取り出す")
+    void testRandomDeadlines() {
+        // 2 レベル = 64 * 64 tick を超える期限はオーバーフローに入る
+        HierarchicalTimerWheel<Long> wheel = new HierarchicalTimerWheel<>(1000, 2, START);
+        Map<Long, Long> deadlines = new HashMap<>();
+        Random random = new Random(7);
+        for (long id = 0; id < 2000; id++) {
+            long deadline = START + random.nextInt(10_000) * 1000L + random.nextInt(1000);
+            deadlines.put(id, deadline);
+            wheel.schedule(deadline, id);
+        }
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long now = START; now <= START + 10_040_000L; now += 37_000) {
+            long at = now;
+            wheel.advanceTo(now, id -> assertThat(firedAt.put(id, at)).isNull());
+        }
+
+        assertThat(firedAt).hasSize(deadlines.size());
+        assertThat(wheel.size()).isZero();
+        firedAt.forEach((id, at) -> {
+            long deadline = deadlines.get(id);
+            // 期限より前には出てこない。遅れは tick の切り上げ分と advanceTo の間隔まで
+            assertThat(at).isGreaterThanOrEqualTo(deadline);
+            assertThat(at).isLessThan(deadline + 37_000 + 1000);
+        });
+    }
+}
@@ -0,0 +1,281 @@
+package service;
+
+import nagasawakenji.walkfind.domain.model.ImageDerivative;
+import nagasawakenji.walkfind.domain.statusenum.ImageDerivativeVariant;
+import nagasawakenji.walkfind.infra.image.DerivativeStorage;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ImageDerivativeMapper;
+import nagasawakenji.walkfind.service.ImageDerivativeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageDerivativeServiceTest {
+
+    private static final String SOURCE_KEY = "blobs/ab/ab" + "0".repeat(62) + ".png";
+
+    @Mock
+    private ImageDerivativeMapper imageDerivativeMapper;
+
+    private InMemoryStorage storage;
+    private ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() {
+        storage = new InMemoryStorage();
+        service = new ImageDerivativeService(imageDerivativeMapper, storage);
+        ReflectionTestUtils.setField(service, "jpegQuality", 0.8f);
+    }
+
+    // ---------------------------------------------------------------
+    // 1. 元画像より小さい幅だけ JPEG で作り、記録する（モデル入力も同じデコードで作る）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("幅 800px の画像からは 320 / 640 とモデル入力を作り、1280 は作らない")
+    void testGenerateSmallerWidthsOnly() throws Exception {
+        storage.objects.put(SOURCE_KEY, png(800, 600));
+        when(imageDerivativeMapper.findBySourceKey(SOURCE_KEY)).thenReturn(List.of());
+
+        int generated = service.generate(SOURCE_KEY);
+
+        assertThat(generated).isEqualTo(3);
+
+        ArgumentCaptor<ImageDerivative> captor = ArgumentCaptor.forClass(ImageDerivative.class);
+        verify(imageDerivativeMapper, times(3)).upsert(captor.capture());
+        assertThat(captor.getAllValues())
+                .extracting(ImageDerivative::getVariant, ImageDerivative::getWidth, ImageDerivative::getHeight,
+                        ImageDerivative::getStorageKey)
+                .containsExactly(
+                        tuple(ImageDerivativeVariant.THUMBNAIL, 320, 240, "derivatives/w320/blobs/ab/ab" + "0".repeat(62) + ".jpg"),
+                        tuple(ImageDerivativeVariant.THUMBNAIL, 640, 480, "derivatives/w640/blobs/ab/ab" + "0".repeat(62) + ".jpg"),
+                        tuple(ImageDerivativeVariant.MODEL_INPUT, 224, 224, "derivatives/model224/blobs/ab/ab" + "0".repeat(62) + ".jpg"));
+
+        // 書き込んだものは縮小済みの JPEG
+        byte[] small = storage.objects.get("derivatives/w320/blobs/ab/ab" + "0".repeat(62) + ".jpg");
+        assertThat(small).startsWith((byte) 0xFF, (byte) 0xD8, (byte) 0xFF);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(small));
+        assertThat(decoded.getWidth()).isEqualTo(320);
+        assertThat(decoded.getHeight()).isEqualTo(240);
+        assertThat(storage.contentTypes).containsOnly(Map.entry("derivatives/w320/blobs/ab/ab" + "0".repeat(62) + ".jpg", "image/jpeg"),
+                Map.entry("derivatives/w640/blobs/ab/ab" + "0".repeat(62) + ".jpg", "image/jpeg"),
+                Map.entry("derivatives/model224/blobs/ab/ab" + "0".repeat(62) + ".jpg", "image/jpeg"));
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 同じ元画像の縮小版があれば作り直さない（内容アドレスで共有）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("全ての幅の縮小版とモデル入力が既にあれば元画像を読まない")
+    void testSkipWhenAlreadyGenerated() {
+        when(imageDerivativeMapper.findBySourceKey(SOURCE_KEY)).thenReturn(List.of(
+                thumbnail(320), thumbnail(640), thumbnail(1280),
+                ImageDerivative.builder().sourceKey(SOURCE_KEY).variant(ImageDerivativeVariant.MODEL_INPUT)
+                        .width(224).storageKey("m").build()));
+
+        assertThat(service.generate(SOURCE_KEY)).isZero();
+
+        assertThat(storage.opened).isZero();
+        verify(imageDerivativeMapper, never()).upsert(any());
+    }
+
+    @Test
+    @DisplayName("一部の幅だけ作成済みなら、元画像より小さい残りの幅だけを作る")
+    void testGenerateMissingWidthsOnly() throws Exception {
+        storage.objects.put(SOURCE_KEY, png(800, 600));
+        when(imageDerivativeMapper.findBySourceKey(SOURCE_KEY)).thenReturn(List.of(
+                thumbnail(320),
+                ImageDerivative.builder().sourceKey(SOURCE_KEY).variant(ImageDerivativeVariant.MODEL_INPUT)
+                        .width(224).storageKey("m").build()));
+
+        assertThat(service.generate(SOURCE_KEY)).isEqualTo(1);
+
+        ArgumentCaptor<ImageDerivative> captor = ArgumentCaptor.forClass(ImageDerivative.class);
+        verify(imageDerivativeMapper).upsert(captor.capture());
+        assertThat(captor.getValue().getVariant()).isEqualTo(ImageDerivativeVariant.THUMBNAIL);
+        assertThat(captor.getValue().getWidth()).isEqualTo(640);
+        assertThat(storage.objects).containsOnlyKeys(SOURCE_KEY, "derivatives/w640/blobs/ab/ab" + "0".repeat(62) + ".jpg");
+    }
+
+    // ---------------------------------------------------------------
+    // 3. 画像として読めない → 何も作らず、例外も投げない（原寸を使う）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ImageIO が読めない内容なら縮小版を作らない")
+    void testUndecodableSourceIsSkipped() {
+        storage.objects.put(SOURCE_KEY, "not an image".getBytes(StandardCharsets.UTF_8));
+        when(imageDerivativeMapper.findBySourceKey(SOURCE_KEY)).thenReturn(List.of());
+
+        assertThat(service.generate(SOURCE_KEY)).isZero();
+
+        assertThat(storage.objects).containsOnlyKeys(SOURCE_KEY);
+        verify(imageDerivativeMapper, never()).upsert(any());
+    }
+
+    // ---------------------------------------------------------------
+    // 4. Exif の向き → 表示の向きに回して作る
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("Orientation=6（90度回転）の 800x600 からは縦長の 320x427 を作る")
+    void testGenerateAppliesExifOrientation() throws Exception {
+        String key = "blobs/cd/cd" + "0".repeat(62) + ".jpg";
+        storage.objects.put(key, withOrientation(jpeg(800, 600), 6));
+        when(imageDerivativeMapper.findBySourceKey(key)).thenReturn(List.of());
+
+        service.generate(key);
+
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(
+                storage.objects.get("derivatives/w320/blobs/cd/cd" + "0".repeat(62) + ".jpg")));
+        assertThat(thumbnail.getWidth()).isEqualTo(320);
+        assertThat(thumbnail.getHeight()).isEqualTo(427);
+        // 元画像の左上（オレンジ）は、時計回りに90度回すと右上に来る
+        assertThat(isOrange(thumbnail.getRGB(thumbnail.getWidth() - 10, 10))).isTrue();
+        assertThat(isOrange(thumbnail.getRGB(10, 10))).isFalse();
+    }
+
+    // ---------------------------------------------------------------
+    // 5. 見本写真 → モデル入力だけ作る
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("縮小版なしで呼ぶとモデル入力だけを作り、findModelInputKey で引ける")
+    void testGenerateModelInputOnly() throws Exception {
+        storage.objects.put(SOURCE_KEY, png(1600, 900));
+        when(imageDerivativeMapper.findBySourceKey(SOURCE_KEY)).thenReturn(List.of());
+
+        assertThat(service.generate(SOURCE_KEY, false)).isEqualTo(1);
+
+        String modelInputKey = "derivatives/model224/blobs/ab/ab" + "0".repeat(62) + ".jpg";
+        assertThat(storage.objects).containsOnlyKeys(SOURCE_KEY, modelInputKey);
+        BufferedImage modelInput = ImageIO.read(new ByteArrayInputStream(storage.objects.get(modelInputKey)));
+        assertThat(modelInput.getWidth()).isEqualTo(224);
+        assertThat(modelInput.getHeight()).isEqualTo(224);
+
+        when(imageDerivativeMapper.findBySourceKey(SOURCE_KEY)).thenReturn(List.of(
+                ImageDerivative.builder().sourceKey(SOURCE_KEY).variant(ImageDerivativeVariant.MODEL_INPUT)
+                        .width(224).storageKey(modelInputKey).build()));
+        assertThat(service.findModelInputKey(SOURCE_KEY)).isEqualTo(modelInputKey);
+    }
+
+    // ---------------------------------------------------------------
+    // 6. 削除 → オブジェクトと行を消す（オブジェクト削除の失敗は握りつぶす）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("deleteFor: 縮小版のオブジェクトを消し、行を削除する")
+    void testDeleteFor() {
+        storage.objects.put("derivatives/w320/a.jpg", new byte[]{1});
+        storage.failOnDelete = "derivatives/w640/a.jpg";
+        when(imageDerivativeMapper.findBySourceKey("a.png")).thenReturn(List.of(
+                ImageDerivative.builder().sourceKey("a.png").width(320).storageKey("derivatives/w320/a.jpg").build(),
+                ImageDerivative.builder().sourceKey("a.png").width(640).storageKey("derivatives/w640/a.jpg").build()));
+
+        service.deleteFor("a.png");
+
+        assertThat(storage.objects).doesNotContainKey("derivatives/w320/a.jpg");
+        verify(imageDerivativeMapper, times(1)).deleteBySourceKey("a.png");
+    }
+
+    private static ImageDerivative thumbnail(int width) {
+        return ImageDerivative.builder().sourceKey(SOURCE_KEY).variant(ImageDerivativeVariant.THUMBNAIL)
+                .width(width).storageKey("derivatives/w" + width + "/k.jpg").build();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, width / 2, height);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, width / 4, height / 4);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * SOI の直後に Orientation だけを持つ Exif（APP1）を入れる
+     */
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = {
+                (byte) 0xFF, (byte) 0xE1, 0x00, 0x22,
+                'E', 'x', 'i', 'f', 0x00, 0x00,
+                'I', 'I', 0x2A, 0x00, 0x08, 0x00, 0x00, 0x00,
+                0x01, 0x00,
+                0x12, 0x01, 0x03, 0x00, 0x01, 0x00, 0x00, 0x00, (byte) orientation, 0x00, 0x00, 0x00,
+                0x00, 0x00, 0x00, 0x00
+        };
+        byte[] out = new byte[jpeg.length + exif.length];
+        System.arraycopy(jpeg, 0, out, 0, 2);
+        System.arraycopy(exif, 0, out, 2, exif.length);
+        System.arraycopy(jpeg, 2, out, 2 + exif.length, jpeg.length - 2);
+        return out;
+    }
+
+    private static boolean isOrange(int rgb) {
+        Color c = new Color(rgb);
+        return c.getRed() > 200 && c.getGreen() > 150 && c.getBlue() < 80;
+    }
+
+    private static class InMemoryStorage implements DerivativeStorage {
+        private final Map<String, byte[]> objects = new HashMap<>();
+        private final Map<String, String> contentTypes = new HashMap<>();
+        private int opened;
+        private String failOnDelete;
+
+        @Override
+        public InputStream open(String key) throws IOException {
+            opened++;
+            byte[] body = objects.get(key);
+            if (body == null) {
+                throw new FileNotFoundException(key);
+            }
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void put(String key, byte[] body, String contentType) {
+            objects.put(key, body);
+            contentTypes.put(key, contentType);
+        }
+
+        @Override
+        public void delete(String key) throws IOException {
+            if (key.equals(failOnDelete)) {
+                throw new IOException("delete failed");
+            }
+            objects.remove(key);
+        }
+    }
+}
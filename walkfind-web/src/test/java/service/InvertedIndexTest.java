@@ -0,0 +1,143 @@
+package service;
+
+import nagasawakenji.walkfind.infra.search.BigramTokenizer;
+import nagasawakenji.walkfind.infra.search.InvertedIndex;
+import nagasawakenji.walkfind.infra.search.SearchDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new InvertedIndex();
+    }
+
+    private static SearchDocument contest(long id, String name, String theme) {
+        return new SearchDocument(SearchDocument.Type.CONTEST, id, id, name, theme, null);
+    }
+
+    private static SearchDocument photo(long id, long contestId, String title, String description) {
+        return new SearchDocument(SearchDocument.Type.PHOTO, id, contestId, title, description, "photos/" + id + ".jpg");
+    }
+
+    private List<Long> ids(String query, SearchDocument.Type type) {
+        return index.search(query, type, 10).stream().map(hit -> hit.document().id()).toList();
+    }
+
+    // ----------------------------------------
+    // 1. 分かち書きの無い日本語を 2文字単位で部分一致させる
+    // ----------------------------------------
+    @Test
+    @DisplayName("search: 日本語は2文字単位ですべての語を含む文書に一致し、ひらがな・全角英数は正規化する")
+    void testJapaneseBigramMatch() {
+        index.put(contest(1L, "サクラ並木の散歩道", "春の川沿いを歩こう"));
+        index.put(contest(2L, "ＷＡＬＫ 2025 夏", "海辺の夕焼け"));
+
+        assertThat(ids("さくら", null)).containsExactly(1L);
+        assertThat(ids("並木", null)).containsExactly(1L);
+        assertThat(ids("並木道", null)).isEmpty(); // 「木道」は無い
+        assertThat(ids("川沿い", null)).containsExactly(1L);
+        assertThat(ids("walk", null)).containsExactly(2L);
+        assertThat(ids("夏", null)).containsExactly(2L); // 1文字の検索語
+        assertThat(ids("  ", null)).isEmpty();
+
+        assertThat(BigramTokenizer.queryTerms("さくら 夏")).containsExactly("サク", "クラ", "夏");
+    }
+
+    // ----------------------------------------
+    // 2. タイトルの一致を本文より上にし、種類で絞り込める
+    // ----------------------------------------
+    @Test
+    @DisplayName("search: タイトルに含む文書を本文のみの文書より上位にし、type で絞り込む")
+    void testRankingAndTypeFilter() {
+        index.put(contest(1L, "街角スナップ", "夕焼けの商店街を撮ろう"));
+        index.put(photo(10L, 1L, "夕焼けの商店街", "帰り道に撮影"));
+        index.put(photo(11L, 1L, "路地裏の猫", "夕焼けの時間に見つけた"));
+
+        // 本文のみの一致どうしは短い文書を上にする
+        assertThat(ids("夕焼け", null)).containsExactly(10L, 11L, 1L);
+        assertThat(ids("夕焼け", SearchDocument.Type.PHOTO)).containsExactly(10L, 11L);
+        assertThat(ids("夕焼け", SearchDocument.Type.CONTEST)).containsExactly(1L);
+
+        List<InvertedIndex.Hit> top = index.search("夕焼け", null, 1);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).document().id()).isEqualTo(10L);
+    }
+
+    // ----------------------------------------
+    // 3. 更新・削除を1件ずつ反映する
+    // ----------------------------------------
+    @Test
+    @DisplayName("put / remove / removeIf: 更新は置き換え、コンテスト削除でその写真もまとめて消える")
+    void testUpdateAndRemove() {
+        index.put(contest(1L, "紅葉狩り", "山の紅葉"));
+        index.put(photo(10L, 1L, "赤い紅葉", null));
+        index.put(photo(20L, 2L, "紅葉と滝", null));
+
+        index.put(contest(1L, "雪景色", "冬の山"));
+        assertThat(ids("紅葉", SearchDocument.Type.CONTEST)).isEmpty();
+        assertThat(ids("雪景色", null)).containsExactly(1L);
+
+        assertThat(index.remove(SearchDocument.Type.PHOTO, 20L)).isTrue();
+        assertThat(index.remove(SearchDocument.Type.PHOTO, 20L)).isFalse();
+        assertThat(ids("紅葉", null)).containsExactly(10L);
+
+        assertThat(index.removeIf(doc -> doc.contestId() == 1L)).isEqualTo(2);
+        assertThat(index.size()).isZero();
+        assertThat(index.termCount()).isZero();
+    }
+
+    // ----------------------------------------
+    // 4. スナップショットの文書から同じ結果を返せる
+    // ----------------------------------------
+    @Test
+    @DisplayName("documents / putAll: 書き出した文書から作り直したインデックスは同じ順位を返す")
+    void testRestoreFromDocuments() {
+        index.put(contest(1L, "街角スナップ", "夕焼けの商店街を撮ろう"));
+        index.put(photo(10L, 1L, "夕焼けの商店街", "帰り道に撮影"));
+        index.put(photo(11L, 1L, "路地裏の猫", "夕焼けの時間に見つけた"));
+
+        InvertedIndex restored = new InvertedIndex();
+        restored.putAll(index.documents());
+
+        assertThat(restored.search("夕焼け", null, 10)).isEqualTo(index.search("夕焼け", null, 10));
+    }
+
+    // ----------------------------------------
+    // 計測（-Dwalkfind.benchmark=true のときのみ）
+    // ----------------------------------------
+    @Test
+    @EnabledIfSystemProperty(named = "walkfind.benchmark", matches = "true")
+    @DisplayName("benchmark: 10万件で検索1回あたりの時間を表示する")
+    void benchmark() {
+        String[] words = {"桜", "並木", "夕焼け", "商店街", "海辺", "路地裏", "猫", "紅葉", "雪景色", "散歩道", "川沿い", "駅前"};
+        Random random = new Random(1);
+        for (long id = 1; id <= 100_000; id++) {
+            String title = words[random.nextInt(words.length)] + "の" + words[random.nextInt(words.length)];
+            String body = words[random.nextInt(words.length)] + "を撮影した" + words[random.nextInt(words.length)];
+            index.put(photo(id, id % 500, title, body));
+        }
+
+        String[] queries = {"夕焼け", "商店街 猫", "さんぽ", "紅葉の", "駅前"};
+        for (int i = 0; i < 200; i++) {
+            index.search(queries[i % queries.length], null, 20);
+        }
+        int runs = 1_000;
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            index.search(queries[i % queries.length], null, 20);
+        }
+        double micros = (System.nanoTime() - startedAt) / 1_000.0 / runs;
+        System.out.printf("documents=%d, terms=%d, avg=%.1f us/search%n", index.size(), index.termCount(), micros);
+    }
+}
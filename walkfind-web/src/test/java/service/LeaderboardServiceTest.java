@@ -0,0 +1,353 @@
+package service;
+
+import nagasawakenji.walkfind.domain.dto.MyContestRankResponse;
+import nagasawakenji.walkfind.domain.event.LeaderboardChangedEvent;
+import nagasawakenji.walkfind.domain.event.LeaderboardResetEvent;
+import nagasawakenji.walkfind.domain.model.UserPhoto;
+import nagasawakenji.walkfind.infra.leaderboard.ContestLeaderboard;
+import nagasawakenji.walkfind.infra.leaderboard.LeaderboardEntry;
+import nagasawakenji.walkfind.infra.leaderboard.LeaderboardMove;
+import nagasawakenji.walkfind.infra.leaderboard.LeaderboardStanding;
+import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
+import nagasawakenji.walkfind.service.LeaderboardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceTest {
+
+    @Mock
+    private PhotoMapper photoMapper;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private LeaderboardService leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        leaderboardService = new LeaderboardService(photoMapper, eventPublisher, 0, 8);
+    }
+
+    // ---------------------------------------------------------------
+    // 1. 初回アクセスで DB から作り、以降は DB を参照しない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("初回アクセス時のみ findAllSubmissionsForCalculation を呼ぶ")
+    void testLoadOnce() {
+        when(photoMapper.findAllSubmissionsForCalculation(1L))
+                .thenReturn(List.of(photo(10L, 5, 0), photo(11L, 3, 1)));
+
+        leaderboardService.get(1L);
+        ContestLeaderboard board = leaderboardService.get(1L);
+
+        assertThat(board.size()).isEqualTo(2);
+        verify(photoMapper, times(1)).findAllSubmissionsForCalculation(1L);
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 投票 → 順位の変化をイベントで通知（同票は投稿日時の古い方が上、順位は同順位）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("投票で追い付いた写真は同順位、追い越した写真は位置が上がる")
+    void testVoteMovesPhoto() {
+        // 10: 5票, 11: 4票, 12: 4票（12 の方が新しい）
+        when(photoMapper.findAllSubmissionsForCalculation(1L))
+                .thenReturn(List.of(photo(10L, 5, 0), photo(11L, 4, 1), photo(12L, 4, 2)));
+        leaderboardService.get(1L);
+
+        // 12 が 5票 → 10 と同順位(1位)、位置は 10 の後ろ(2)
+        leaderboardService.onVote(1L, 12L);
+
+        ArgumentCaptor<LeaderboardChangedEvent> captor = ArgumentCaptor.forClass(LeaderboardChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        LeaderboardMove move = captor.getValue().move();
+        assertThat(move.photoId()).isEqualTo(12L);
+        assertThat(move.votes()).isEqualTo(5);
+        assertThat(move.previousPosition()).isEqualTo(3);
+        assertThat(move.position()).isEqualTo(2);
+        assertThat(move.rank()).isEqualTo(1);
+
+        List<LeaderboardStanding> standings = leaderboardService.get(1L).range(0, 10);
+        assertThat(standings).extracting(LeaderboardStanding::photoId).containsExactly(10L, 12L, 11L);
+        assertThat(standings).extracting(LeaderboardStanding::rank).containsExactly(1, 1, 3);
+    }
+
+    // ---------------------------------------------------------------
+    // 3. 未ロードのコンテストへの投票は何もしない / 未知の写真は作り直し
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("未ロードなら無視、未知の写真への投票なら作り直す")
+    void testVoteOnUnknown() {
+        leaderboardService.onVote(1L, 10L);
+        verifyNoInteractions(eventPublisher);
+
+        when(photoMapper.findAllSubmissionsForCalculation(1L))
+                .thenReturn(List.of(photo(10L, 1, 0)));
+        leaderboardService.get(1L);
+
+        leaderboardService.onVote(1L, 99L);
+
+        verify(eventPublisher).publishEvent(new LeaderboardResetEvent(1L));
+        leaderboardService.get(1L);
+        verify(photoMapper, times(2)).findAllSubmissionsForCalculation(1L);
+    }
+
+    // ---------------------------------------------------------------
+    // 4. ランダムな投票列で、全件ソートした結果と一致する
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ランダムな投票後も、全件ソートと同じ順位・位置になる")
+    void testMatchesFullSort() {
+        int n = 300;
+        List<UserPhoto> photos = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            photos.add(photo(1000L + i, 0, i % 17));
+        }
+        when(photoMapper.findAllSubmissionsForCalculation(1L)).thenReturn(photos);
+        ContestLeaderboard board = leaderboardService.get(1L);
+
+        int[] votes = new int[n];
+        Random random = new Random(42);
+        for (int v = 0; v < 5000; v++) {
+            int i = random.nextInt(n);
+            votes[i]++;
+            leaderboardService.onVote(1L, 1000L + i);
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            expected.add(i);
+        }
+        expected.sort(Comparator.<Integer>comparingInt(i -> -votes[i])
+                .thenComparingInt(i -> i % 17)
+                .thenComparingInt(i -> i));
+
+        List<LeaderboardStanding> standings = board.range(0, n);
+        for (int pos = 0; pos < n; pos++) {
+            int i = expected.get(pos);
+            LeaderboardStanding s = standings.get(pos);
+            assertThat(s.photoId()).isEqualTo(1000L + i);
+            assertThat(s.position()).isEqualTo(pos + 1);
+
+            int higher = 0;
+            for (int j = 0; j < n; j++) {
+                if (votes[j] > votes[i]) {
+                    higher++;
+                }
+            }
+            assertThat(s.rank()).isEqualTo(higher + 1);
+            assertThat(board.standingOf(1000L + i)).contains(s);
+        }
+
+        // 途中からの範囲取得
+        assertThat(board.range(250, 100)).hasSize(50)
+                .extracting(LeaderboardStanding::position).startsWith(251);
+    }
+
+    // ---------------------------------------------------------------
+    // 5. 自分の現在順位（読み込み後の投稿なら作り直して引く）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("自分の順位 → 未投稿なら empty、読み込み後の投稿なら作り直して返す")
+    void testFindMyRank() {
+        when(photoMapper.findByContestAndUser(1L, "nobody")).thenReturn(Optional.empty());
+        assertThat(leaderboardService.findMyRank(1L, "nobody")).isEmpty();
+        verify(photoMapper, never()).findAllSubmissionsForCalculation(anyLong());
+
+        // 初回読み込みには 12 が無く、作り直し後に含まれる
+        when(photoMapper.findAllSubmissionsForCalculation(1L))
+                .thenReturn(List.of(photo(10L, 5, 0), photo(11L, 3, 1)))
+                .thenReturn(List.of(photo(10L, 5, 0), photo(11L, 3, 1), photo(12L, 3, 0)));
+        leaderboardService.get(1L);
+        when(photoMapper.findByContestAndUser(1L, "user-x")).thenReturn(Optional.of(photo(12L, 0, 0)));
+
+        MyContestRankResponse response = leaderboardService.findMyRank(1L, "user-x").orElseThrow();
+
+        assertThat(response.getPhotoId()).isEqualTo(12L);
+        assertThat(response.getRank()).isEqualTo(2);
+        assertThat(response.getPosition()).isEqualTo(2);
+        assertThat(response.getVotes()).isEqualTo(3);
+        assertThat(response.getTotalCount()).isEqualTo(3);
+        verify(photoMapper, times(2)).findAllSubmissionsForCalculation(1L);
+    }
+
+    @Test
+    @DisplayName("DB から数える自分の順位 → メモリ上のリーダーボードを作らない")
+    void testFindMyRankFromDatabase() {
+        MyContestRankResponse counted = MyContestRankResponse.builder()
+                .contestId(1L).photoId(12L).rank(2).position(3).votes(3).totalCount(5).build();
+        when(photoMapper.findMyRank(1L, "user-x")).thenReturn(Optional.of(counted));
+        when(photoMapper.findMyRank(1L, "nobody")).thenReturn(Optional.empty());
+
+        assertThat(leaderboardService.findMyRankFromDatabase(1L, "user-x")).contains(counted);
+        assertThat(leaderboardService.findMyRankFromDatabase(1L, "nobody")).isEmpty();
+        verify(photoMapper, never()).findAllSubmissionsForCalculation(anyLong());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // ---------------------------------------------------------------
+    // 6. 10万件規模でも投票・順位取得・上位取得が正しい
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("10万件のリーダーボードで投票後の順位と上位 K 件が正しい")
+    void testLargeBoard() {
+        int n = 100_000;
+        List<UserPhoto> photos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            // 票数は 0..99、投稿日時は id 順
+            photos.add(photo((long) i, i % 100, i));
+        }
+        when(photoMapper.findAllSubmissionsForCalculation(1L)).thenReturn(photos);
+        ContestLeaderboard board = leaderboardService.get(1L);
+
+        // 最下位グループ（0票）の最後の写真を 100票 まで押し上げる
+        long last = n - 100;
+        for (int v = 0; v < 100; v++) {
+            leaderboardService.onVote(1L, last);
+        }
+
+        LeaderboardStanding top = board.standingOf(last).orElseThrow();
+        assertThat(top.votes()).isEqualTo(100);
+        assertThat(top.position()).isEqualTo(1);
+        assertThat(top.rank()).isEqualTo(1);
+
+        // 99票は 1000件、その先頭が 2位
+        List<LeaderboardStanding> head = board.range(0, 3);
+        assertThat(head).extracting(LeaderboardStanding::photoId).containsExactly(last, 99L, 199L);
+        assertThat(head).extracting(LeaderboardStanding::rank).containsExactly(1, 2, 2);
+
+        // 1票の最後尾 = 0票グループ(999件)の直前
+        assertThat(board.standingOf(n - 99L).orElseThrow().position()).isEqualTo(n - 999);
+        assertThat(board.range(n - 1, 10)).hasSize(1);
+    }
+
+    // ---------------------------------------------------------------
+    // 5. 同じコンテストの読み込みは同時に1回だけ
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("読み込み中に来た get は読み込みを待ち、DB は1回だけ読む")
+    void testGetIsSingleFlight() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(photoMapper.findAllSubmissionsForCalculation(1L)).thenAnswer(inv -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(photo(10L, 1, 0));
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<ContestLeaderboard> first = callers.submit(() -> leaderboardService.get(1L));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<ContestLeaderboard> second = callers.submit(() -> leaderboardService.get(1L));
+
+            // 2つ目は読み込みの完了を待っている
+            assertThatThrownBy(() -> second.get(100, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            release.countDown();
+
+            assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+            verify(photoMapper, times(1)).findAllSubmissionsForCalculation(1L);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("読み込みに失敗したら待っていた get にも同じ例外を投げ、次の get で読み直す")
+    void testGetSingleFlightFailure() {
+        when(photoMapper.findAllSubmissionsForCalculation(1L))
+                .thenThrow(new IllegalStateException("DB unavailable"))
+                .thenReturn(List.of(photo(10L, 1, 0)));
+
+        assertThatThrownBy(() -> leaderboardService.get(1L)).hasMessage("DB unavailable");
+        assertThat(leaderboardService.get(1L).size()).isEqualTo(1);
+    }
+
+    // ----------------------------------------
+    // 計測（-Dwalkfind.benchmark=true のときのみ）
+    // ----------------------------------------
+    @Test
+    @EnabledIfSystemProperty(named = "walkfind.benchmark", matches = "true")
+    @DisplayName("benchmark: 10万件で投票・順位取得・上位50件の1回あたりの時間と全件ソートを表示する")
+    void benchmark() {
+        int n = 100_000;
+        Random random = new Random(1);
+        List<LeaderboardEntry> entries = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            entries.add(new LeaderboardEntry(i, random.nextInt(1_000), i * 60_000L));
+        }
+        ContestLeaderboard board = new ContestLeaderboard(1L, entries, 0L);
+
+        int runs = 200_000;
+        long[] photoIds = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            photoIds[i] = random.nextInt(n);
+        }
+        // ウォームアップ
+        for (int i = 0; i < runs; i++) {
+            board.standingOf(photoIds[i]);
+            board.range(0, 50);
+        }
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            board.increment(photoIds[i]);
+        }
+        double incrementMicros = (System.nanoTime() - startedAt) / 1_000.0 / runs;
+
+        startedAt = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            board.standingOf(photoIds[i]);
+        }
+        double rankMicros = (System.nanoTime() - startedAt) / 1_000.0 / runs;
+
+        startedAt = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            board.range(0, 50);
+        }
+        double topMicros = (System.nanoTime() - startedAt) / 1_000.0 / runs;
+
+        // 置き換え前と同じく、順位を求めるたびに全件を並べ替えた場合
+        int sorts = 20;
+        startedAt = System.nanoTime();
+        for (int i = 0; i < sorts; i++) {
+            List<LeaderboardEntry> sorted = new ArrayList<>(entries);
+            sorted.sort(LeaderboardEntry.ORDER);
+        }
+        double sortMillis = (System.nanoTime() - startedAt) / 1_000_000.0 / sorts;
+
+        System.out.printf("entries=%d, increment=%.2f us/op, rank=%.2f us/op, top50=%.2f us/op, fullSort=%.1f ms/op%n",
+                board.size(), incrementMicros, rankMicros, topMicros, sortMillis);
+    }
+
+    private static UserPhoto photo(Long id, int votes, int minutesAfter) {
+        UserPhoto p = new UserPhoto();
+        p.setId(id);
+        p.setTotalVotes(votes);
+        p.setSubmissionDate(OffsetDateTime.parse("2025-01-01T00:00:00Z").plusMinutes(minutesAfter));
+        return p;
+    }
+}
@@ -0,0 +1,202 @@
+package service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nagasawakenji.walkfind.domain.event.LeaderboardChangedEvent;
+import nagasawakenji.walkfind.domain.event.LeaderboardResetEvent;
+import nagasawakenji.walkfind.domain.model.Contest;
+import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
+import nagasawakenji.walkfind.infra.leaderboard.ContestLeaderboard;
+import nagasawakenji.walkfind.infra.leaderboard.LeaderboardEntry;
+import nagasawakenji.walkfind.infra.leaderboard.LeaderboardMove;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
+import nagasawakenji.walkfind.service.LeaderboardService;
+import nagasawakenji.walkfind.service.LeaderboardStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardStreamServiceTest {
+
+    @Mock
+    private LeaderboardService leaderboardService;
+    @Mock
+    private ContestMapper contestMapper;
+    @Mock
+    private SseEmitter emitter;
+
+    // 送信タスクはテストから順に実行する
+    private final List<Runnable> tasks = new ArrayList<>();
+    private LeaderboardStreamService streamService;
+
+    private LeaderboardStreamService streamService(int queueCapacity) {
+        streamService = new LeaderboardStreamService(leaderboardService, contestMapper, new ObjectMapper(),
+                () -> emitter, 3600, 100, queueCapacity, tasks::add);
+        return streamService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (streamService != null) {
+            streamService.shutdown();
+        }
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private void contest(ContestStatus status) {
+        Contest contest = new Contest();
+        contest.setId(1L);
+        contest.setStatus(status);
+        when(contestMapper.findContestStatus(1L)).thenReturn(Optional.of(contest));
+    }
+
+    private static ContestLeaderboard board(long... photoIds) {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        for (int i = 0; i < photoIds.length; i++) {
+            entries.add(new LeaderboardEntry(photoIds[i], 0, i));
+        }
+        return new ContestLeaderboard(1L, entries, System.currentTimeMillis());
+    }
+
+    // 送ったイベントを SSE の文字列にして返す
+    private List<String> sent() throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, atLeast(0)).send(captor.capture());
+        return captor.getAllValues().stream()
+                .map(builder -> builder.build().stream()
+                        .map(data -> String.valueOf(data.getData()))
+                        .collect(Collectors.joining()))
+                .toList();
+    }
+
+    // ---------------------------------------------------------------
+    // 1. 登録してから snapshot を作る（その間の move を取りこぼさず、二重にも送らない）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("subscribe → 登録後に送信スレッドで snapshot を作り、それに含まれる版の move は送らない")
+    void testSubscribeRegistersBeforeSnapshot() throws IOException {
+        contest(ContestStatus.IN_PROGRESS);
+        ContestLeaderboard board = board(10L, 11L);
+        when(leaderboardService.get(1L)).thenReturn(board);
+        streamService(16);
+
+        streamService.subscribe(1L, 10);
+        verify(leaderboardService, never()).get(anyLong());
+
+        // snapshot を作る前の票（snapshot に含まれる）
+        LeaderboardMove before = board.increment(11L).orElseThrow();
+        streamService.onChanged(new LeaderboardChangedEvent(1L, before));
+        runTasks();
+
+        // snapshot を送った後の票
+        LeaderboardMove after = board.increment(10L).orElseThrow();
+        streamService.onChanged(new LeaderboardChangedEvent(1L, after));
+        runTasks();
+
+        List<String> frames = sent();
+        assertThat(frames).hasSize(2);
+        assertThat(frames.get(0)).startsWith("event:snapshot\nid:" + before.version() + "\n")
+                .contains("\"photoId\":11");
+        assertThat(frames.get(1)).startsWith("event:move\nid:" + after.version() + "\n");
+        assertThat(after.version()).isGreaterThan(before.version());
+    }
+
+    @Test
+    @DisplayName("subscribe → 開催中でなければ snapshot を1回送って終了し、登録しない")
+    void testSubscribeClosedContest() throws IOException {
+        contest(ContestStatus.ANNOUNCED);
+        when(leaderboardService.get(1L)).thenReturn(board(10L));
+        streamService(16);
+
+        streamService.subscribe(1L, 10);
+
+        assertThat(sent()).singleElement().asString().startsWith("event:snapshot\n");
+        verify(emitter).complete();
+        assertThat(tasks).isEmpty();
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 作り直しの snapshot は送信スレッドで作る
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("onReset → 読み直しはイベントのスレッドではなく送信スレッドで行い、新しい snapshot を送る")
+    void testResetSnapshotBuiltOnSender() throws IOException {
+        contest(ContestStatus.IN_PROGRESS);
+        when(leaderboardService.get(1L)).thenReturn(board(10L), board(10L, 12L));
+        streamService(16);
+        streamService.subscribe(1L, 10);
+        runTasks();
+
+        streamService.onReset(new LeaderboardResetEvent(1L));
+        verify(leaderboardService, times(1)).get(1L);
+
+        runTasks();
+
+        verify(leaderboardService, times(2)).get(1L);
+        List<String> frames = sent();
+        assertThat(frames).hasSize(2);
+        assertThat(frames.get(1)).startsWith("event:snapshot\n").contains("\"photoId\":12");
+    }
+
+    // ---------------------------------------------------------------
+    // 3. 切断済み・遅い購読者は外す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("送信に失敗した購読者 → 外して、以降の move は積まない")
+    void testDeadEmitterIsRemoved() throws IOException {
+        contest(ContestStatus.IN_PROGRESS);
+        ContestLeaderboard board = board(10L, 11L);
+        when(leaderboardService.get(1L)).thenReturn(board);
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        streamService(16);
+        streamService.subscribe(1L, 10);
+        runTasks();
+
+        streamService.onChanged(new LeaderboardChangedEvent(1L, board.increment(11L).orElseThrow()));
+
+        assertThat(tasks).isEmpty();
+        verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    @DisplayName("送信待ち行列が溢れた購読者 → 切断して外す")
+    void testSlowWatcherIsDropped() throws IOException {
+        contest(ContestStatus.IN_PROGRESS);
+        ContestLeaderboard board = board(10L, 11L);
+        streamService(2);
+        streamService.subscribe(1L, 10);
+
+        // 送信タスクを実行しないまま3票
+        for (int i = 0; i < 3; i++) {
+            streamService.onChanged(new LeaderboardChangedEvent(1L, board.increment(11L).orElseThrow()));
+        }
+        verify(emitter).complete();
+
+        runTasks();
+        streamService.onChanged(new LeaderboardChangedEvent(1L, board.increment(11L).orElseThrow()));
+
+        assertThat(tasks).isEmpty();
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+        verifyNoInteractions(leaderboardService);
+    }
+}
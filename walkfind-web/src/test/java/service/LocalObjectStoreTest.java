@@ -0,0 +1,107 @@
+package service;
+
+import nagasawakenji.walkfind.infra.storage.ByteRange;
+import nagasawakenji.walkfind.infra.storage.LocalObjectStore;
+import nagasawakenji.walkfind.infra.storage.LocalObjectStore.LocalObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LocalObjectStoreTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0};
+
+    @TempDir
+    Path tempDir;
+
+    private Path root;
+    private LocalObjectStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectories(tempDir.resolve("local-storage"));
+        store = new LocalObjectStore(root.toString());
+    }
+
+    // ---------------------------------------------------------------
+    // 1. Content-Type は先頭バイトから判定し、ETag は更新日時とサイズから作る
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("拡張子ではなく中身で Content-Type を判定し、更新されたら ETag が変わる")
+    void testContentTypeAndEtag() throws Exception {
+        Path file = root.resolve("contest-1/photo.jpg");
+        Files.createDirectories(file.getParent());
+        Files.write(file, PNG);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_700_000_000_000L));
+
+        store.register("contest-1/photo.jpg");
+        LocalObject object = store.find("contest-1/photo.jpg").orElseThrow();
+
+        assertThat(object.contentType()).isEqualTo("image/png");
+        assertThat(object.size()).isEqualTo(PNG.length);
+        assertThat(object.immutable()).isFalse();
+
+        Files.write(file, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0});
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_700_000_001_000L));
+
+        LocalObject updated = store.find("contest-1/photo.jpg").orElseThrow();
+        assertThat(updated.contentType()).isEqualTo("image/jpeg");
+        assertThat(updated.etag()).isNotEqualTo(object.etag());
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 内容から決まるキー → ハッシュを ETag にし、immutable で配信する
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("SHA-256 のファイル名 → immutable、ETag はハッシュそのもの")
+    void testContentAddressedKey() throws Exception {
+        String hash = "a".repeat(64);
+        Files.write(root.resolve(hash + ".png"), PNG);
+
+        LocalObject object = store.find(hash + ".png").orElseThrow();
+
+        assertThat(object.immutable()).isTrue();
+        assertThat(object.etag()).isEqualTo("\"" + hash + "\"");
+    }
+
+    // ---------------------------------------------------------------
+    // 3. 存在しない・ルート外のキー → Optional.empty()
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("存在しないキー・../ でルート外を指すキー → Optional.empty()")
+    void testMissingAndTraversal() throws Exception {
+        Files.write(tempDir.resolve("outside.png"), PNG);
+
+        assertThat(store.find("missing.png")).isEmpty();
+        assertThat(store.find("../outside.png")).isEmpty();
+        assertThat(store.find("")).isEmpty();
+    }
+
+    // ---------------------------------------------------------------
+    // 4. Range ヘッダーの解釈
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("Range: 先頭・途中から・末尾から・範囲外・複数区間")
+    void testByteRange() {
+        assertThat(ByteRange.parse("bytes=0-99", 1000)).isEqualTo(new ByteRange(0, 99));
+        assertThat(ByteRange.parse("bytes=900-", 1000)).isEqualTo(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("bytes=-100", 1000)).isEqualTo(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("bytes=500-5000", 1000)).isEqualTo(new ByteRange(500, 999));
+        assertThat(ByteRange.parse("bytes=-5000", 1000)).isEqualTo(new ByteRange(0, 999));
+
+        assertThat(ByteRange.parse("bytes=1000-", 1000)).isSameAs(ByteRange.UNSATISFIABLE);
+
+        // 全体を返す
+        assertThat(ByteRange.parse(null, 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=0-1,5-9", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=9-1", 1000)).isNull();
+        assertThat(ByteRange.parse("items=0-1", 1000)).isNull();
+    }
+}
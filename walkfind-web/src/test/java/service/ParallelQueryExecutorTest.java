@@ -0,0 +1,197 @@
+package service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import nagasawakenji.walkfind.infra.concurrent.GatedVirtualThreadExecutor;
+import nagasawakenji.walkfind.infra.concurrent.ParallelQueryExecutor;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelQueryExecutorTest {
+
+    @Mock
+    private HikariDataSource pool;
+    @Mock
+    private HikariPoolMXBean stats;
+    @Mock
+    private TransactionTemplate readOnlyTx;
+
+    private ExecutorService workers;
+    private ParallelQueryExecutor parallelQueryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        when(pool.getHikariPoolMXBean()).thenReturn(stats);
+        when(stats.getThreadsAwaitingConnection()).thenReturn(0);
+        when(stats.getIdleConnections()).thenReturn(5);
+        when(readOnlyTx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        // ワーカーは1本にして、同じスレッドが次のタスクでどう見えるかを確かめる
+        workers = Executors.newSingleThreadExecutor();
+        parallelQueryExecutor = new ParallelQueryExecutor(workers, readOnlyTx, () -> pool, 5000, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+        RequestProfile.end();
+    }
+
+    // 経過時間を記録し、実行したスレッドの名前を返すクエリ
+    private static Supplier<String> query(long elapsedNanos) {
+        return () -> {
+            RequestProfile.record(RequestProfile.Segment.DB, elapsedNanos);
+            return Thread.currentThread().getName();
+        };
+    }
+
+    // ---------------------------------------------------------------
+    // 1. ワーカーで実行したクエリの時間も呼び出し元のプロファイルに加算する
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("並列実行 → ワーカーで実行したクエリの DB 時間も呼び出し元の RequestProfile に加算される")
+    void testWorkerRecordsIntoCallerProfile() {
+        RequestProfile profile = RequestProfile.start();
+
+        ParallelQueryExecutor.Batch batch = parallelQueryExecutor.batch();
+        Supplier<String> inline = batch.add(query(1_000_000));
+        Supplier<String> worker = batch.add(query(2_000_000));
+        batch.execute();
+
+        assertThat(worker.get()).isNotEqualTo(inline.get());
+        assertThat(profile.count(RequestProfile.Segment.DB)).isEqualTo(2);
+        assertThat(profile.millis(RequestProfile.Segment.DB)).isEqualTo(3.0);
+        assertThat(RequestProfile.current()).isSameAs(profile);
+    }
+
+    // ---------------------------------------------------------------
+    // 2. ワーカーにプロファイルを残さない（次のリクエストに混ざらない）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("並列実行 → 処理後のワーカーには前のリクエストのプロファイルが残らない")
+    void testWorkerProfileIsRestored() throws Exception {
+        RequestProfile profile = RequestProfile.start();
+
+        ParallelQueryExecutor.Batch batch = parallelQueryExecutor.batch();
+        batch.add(query(1_000_000));
+        batch.add(query(1_000_000));
+        batch.execute();
+
+        assertThat(workers.submit(RequestProfile::current).get()).isNull();
+
+        // 計測外のリクエストからの並列実行は、どのプロファイルにも加算しない
+        RequestProfile.end();
+        ParallelQueryExecutor.Batch unprofiled = parallelQueryExecutor.batch();
+        unprofiled.add(query(5_000_000));
+        unprofiled.add(query(5_000_000));
+        unprofiled.execute();
+
+        assertThat(profile.count(RequestProfile.Segment.DB)).isEqualTo(2);
+        verify(readOnlyTx, times(2)).execute(any());
+    }
+
+    // ---------------------------------------------------------------
+    // 3. 仮想スレッドモード → 同時実行数を超えた分は待たせずに呼び出しスレッドで実行する
+    // ---------------------------------------------------------------
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @DisplayName("GatedVirtualThreadExecutor → 許可が残っていれば仮想スレッド、使い切っていれば呼び出しスレッドで実行する")
+    void testGatedVirtualThreadsFallBackInline() throws Exception {
+        GatedVirtualThreadExecutor gated = new GatedVirtualThreadExecutor("parallel-query-", 1);
+        ParallelQueryExecutor executor = new ParallelQueryExecutor(gated, readOnlyTx, () -> pool, 5000, 1);
+        String caller = Thread.currentThread().getName();
+
+        ParallelQueryExecutor.Batch batch = executor.batch();
+        batch.add(query(0));
+        Supplier<String> worker = batch.add(query(0));
+        batch.execute();
+        assertThat(worker.get()).startsWith("parallel-query-");
+
+        // 唯一の許可を使ったままにする
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        gated.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            ParallelQueryExecutor.Batch saturated = executor.batch();
+            saturated.add(query(0));
+            Supplier<String> fallback = saturated.add(query(0));
+            saturated.execute();
+            assertThat(fallback.get()).isEqualTo(caller);
+            assertThat(gated.activeCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            gated.shutdown();
+        }
+        assertThat(gated.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    // ----------------------------------------
+    // 計測（-Dwalkfind.benchmark=true のときのみ）
+    // ----------------------------------------
+    @Test
+    @EnabledIfSystemProperty(named = "walkfind.benchmark", matches = "true")
+    @DisplayName("benchmark: 20ms のクエリ4本を順次・並列で実行したバッチ1回あたりの時間を表示する")
+    void benchmark() {
+        ExecutorService pooled = Executors.newFixedThreadPool(4);
+        try {
+            ParallelQueryExecutor parallel = new ParallelQueryExecutor(pooled, readOnlyTx, () -> pool, 5000, 1);
+            ParallelQueryExecutor sequential = ParallelQueryExecutor.sequential();
+            Supplier<String> slowQuery = () -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Thread.currentThread().getName();
+            };
+
+            for (ParallelQueryExecutor executor : new ParallelQueryExecutor[]{sequential, parallel}) {
+                int runs = 50;
+                long startedAt = System.nanoTime();
+                for (int i = 0; i < runs; i++) {
+                    ParallelQueryExecutor.Batch batch = executor.batch();
+                    for (int q = 0; q < 4; q++) {
+                        batch.add(slowQuery);
+                    }
+                    batch.execute();
+                }
+                double millis = (System.nanoTime() - startedAt) / 1_000_000.0 / runs;
+                System.out.printf("%s: avg=%.1f ms/batch%n", executor == sequential ? "sequential" : "parallel", millis);
+            }
+        } finally {
+            pooled.shutdownNow();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoEmbeddingMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
 import nagasawakenji.walkfind.exception.ContestNotFoundException;
+import nagasawakenji.walkfind.infra.concurrent.ParallelQueryExecutor;
 import nagasawakenji.walkfind.service.PhotoDisplayService;
 
 import org.junit.jupiter.api.DisplayName;
@@ -16,9 +17,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,6 +43,10 @@ class PhotoDisplayServiceTest {
     @Mock
     private PhotoEmbeddingMapper photoEmbeddingMapper;
 
+    // テストでは並列化せず、呼び出しスレッドで順番に実行する
+    @Spy
+    private ParallelQueryExecutor parallelQueryExecutor = ParallelQueryExecutor.sequential();
+
     @InjectMocks
     private PhotoDisplayService photoDisplayService;
 
@@ -57,6 +69,7 @@ class PhotoDisplayServiceTest {
         verify(photoMapper, never())
                 .findAllPhotosByContest(anyLong(), anyInt(), anyInt(), anyInt());
         verify(photoMapper, never()).countTotalPhotos(anyLong());
+        verify(photoEmbeddingMapper, never()).existsAnyModelEmbeddingReadyForContest(anyLong());
     }
 
     // -----------------------------------------
@@ -182,4 +195,60 @@ class PhotoDisplayServiceTest {
         verify(photoEmbeddingMapper, times(1)).existsAnyModelEmbeddingReadyForContest(1L);
         verify(photoEmbeddingMapper, times(1)).findReadyUserPhotoIds(eq(1L), eq(List.of(10L)));
     }
-}
\ No newline at end of file
+
+    // -----------------------------------------
+    // 4. プールに空きがある場合、独立したクエリを並列実行しても
+    //    各 Mapper は1回ずつだけ呼ばれ、結果がマージされる
+    //    総件数は contests.photo_count を使い COUNT(*) しない
+    // -----------------------------------------
+    @Test
+    @DisplayName("getPhotosByContest: 並列実行時も各クエリは1回ずつ呼ばれ、総件数は photo_count を使う")
+    void testGetPhotos_parallelFanOut() {
+
+        // given: アイドル接続が十分あるプール
+        HikariDataSource pool = mock(HikariDataSource.class);
+        HikariPoolMXBean stats = mock(HikariPoolMXBean.class);
+        when(pool.getHikariPoolMXBean()).thenReturn(stats);
+        when(stats.getIdleConnections()).thenReturn(5);
+        when(stats.getThreadsAwaitingConnection()).thenReturn(0);
+
+        TransactionTemplate readOnlyTx = mock(TransactionTemplate.class);
+        when(readOnlyTx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        PhotoDisplayService parallelService = new PhotoDisplayService(
+                photoMapper, contestMapper, photoEmbeddingMapper,
+                new ParallelQueryExecutor(workers, readOnlyTx, () -> pool, 5000, 1));
+
+        Contest contest = new Contest();
+        contest.setPhotoCount(1);
+        when(contestMapper.findById(1L)).thenReturn(Optional.of(contest));
+
+        PhotoResponse p1 = new PhotoResponse();
+        p1.setPhotoId(10L);
+        p1.setUserId("u1");
+
+        when(photoMapper.findAllPhotosByContest(1L, 0, 20, 0)).thenReturn(List.of(p1));
+        when(photoEmbeddingMapper.existsAnyModelEmbeddingReadyForContest(1L)).thenReturn(true);
+        when(photoEmbeddingMapper.findReadyUserPhotoIds(eq(1L), eq(List.of(10L)))).thenReturn(List.of());
+
+        try {
+            // when
+            PhotoListResponse response = parallelService.getPhotosByContest(1L, 0, 20, "u1");
+
+            // then
+            assertThat(response.getPhotoResponses()).hasSize(1);
+            assertThat(response.getTotalCount()).isEqualTo(1);
+            assertThat(response.getPhotoResponses().get(0).getStatus()).isEqualTo(SimilarityStatus.NOT_READY);
+
+            verify(photoMapper, times(1)).findAllPhotosByContest(1L, 0, 20, 0);
+            verify(photoMapper, never()).countTotalPhotos(anyLong());
+            verify(photoEmbeddingMapper, times(1)).existsAnyModelEmbeddingReadyForContest(1L);
+            // 先頭以外のクエリがワーカーへ回る（idle 5 - 予約 1 = 4 >= 1）
+            verify(readOnlyTx, times(1)).execute(any());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+}
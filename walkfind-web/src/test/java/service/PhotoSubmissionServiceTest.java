@@ -11,6 +11,8 @@ import nagasawakenji.walkfind.exception.DatabaseOperationException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.UserProfileMapper;
+import nagasawakenji.walkfind.infra.upload.StoredUpload;
+import nagasawakenji.walkfind.service.BlobService;
 import nagasawakenji.walkfind.service.UserProfileContestEntryService;
 import nagasawakenji.walkfind.service.LocalPhotoSubmissionService;
 import nagasawakenji.walkfind.service.LocalStorageUploadService;
@@ -21,13 +23,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -44,8 +52,8 @@ class PhotoSubmissionServiceTest {
     @Mock
     private LocalStorageUploadService localStorageUploadService; // 追加
 
-    @Mock
-    private MultipartFile mockFile; // 追加
+    // multipart の file パートの本文（中身は保存処理のモックが扱う）
+    private final InputStream body = new ByteArrayInputStream(new byte[]{1, 2, 3});
 
     @Mock
     private UserProfileMapper userProfileMapper;
@@ -56,6 +64,12 @@ class PhotoSubmissionServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private BlobService blobService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private LocalPhotoSubmissionService localPhotoSubmissionService;
 
@@ -78,12 +92,10 @@ class PhotoSubmissionServiceTest {
 
         // 重複チェック
         when(photoMapper.findByContestAndUser(contestId, userId)).thenReturn(Optional.empty());
-
-        // File Mock
-        when(mockFile.getOriginalFilename()).thenReturn("test.jpg");
         // Storage保存成功
-        when(localStorageUploadService.saveFile(eq(mockFile), any(String.class)))
-                .thenReturn(savedPath);
+        when(localStorageUploadService.saveBlob(body))
+                .thenReturn(stored(savedPath));
+        inTransaction();
 
         // DB insert 成功
         when(photoMapper.insert(any(UserPhoto.class))).thenReturn(1);
@@ -96,12 +108,12 @@ class PhotoSubmissionServiceTest {
         SubmitPhotoRequest req = new SubmitPhotoRequest(contestId, "title", "url", "desc");
 
         // Execute
-        SubmitPhotoResult result = localPhotoSubmissionService.submitPhoto(req, userId, mockFile);
+        SubmitPhotoResult result = localPhotoSubmissionService.submitPhoto(req, userId, body);
 
         // Verify
         assertThat(result.getStatus()).isEqualTo(SubmitPhotoStatus.SUCCESS);
 
-        verify(localStorageUploadService, times(1)).saveFile(eq(mockFile), anyString());
+        verify(localStorageUploadService, times(1)).saveBlob(body);
         verify(photoMapper, times(1)).insert(any(UserPhoto.class));
         verify(userProfileMapper, times(1)).incrementTotalPosts(userId);
         verify(userProfileContestEntryService, times(1))
@@ -123,19 +135,19 @@ class PhotoSubmissionServiceTest {
 
         SubmitPhotoRequest req = new SubmitPhotoRequest(contestId, "title", "url", "desc");
 
-        SubmitPhotoResult result = localPhotoSubmissionService.submitPhoto(req, "userA", mockFile);
+        SubmitPhotoResult result = localPhotoSubmissionService.submitPhoto(req, "userA", body);
 
         assertThat(result.getStatus()).isEqualTo(SubmitPhotoStatus.BUSINESS_RULE_VIOLATION);
 
         // ★重要: バリデーションで弾かれた場合、ファイル保存処理が走らないこと
-        verify(localStorageUploadService, never()).saveFile(any(), any());
+        verify(localStorageUploadService, never()).saveBlob(any(InputStream.class));
     }
 
     // -----------------------------
     // 異常: ストレージ保存失敗
     // -----------------------------
     @Test
-    @DisplayName("submitPhoto: ストレージ保存失敗時は RuntimeException")
+    @DisplayName("submitPhoto: ストレージ保存失敗時はその例外のまま、DB には登録しない")
     void testStorageSaveFailed() {
         Long contestId = 1L;
         Contest contest = new Contest();
@@ -145,18 +157,15 @@ class PhotoSubmissionServiceTest {
         when(contestMapper.findContestStatus(contestId)).thenReturn(Optional.of(contest));
         when(photoMapper.findByContestAndUser(contestId, "userA")).thenReturn(Optional.empty());
 
-        // File Name
-        when(mockFile.getOriginalFilename()).thenReturn("test.jpg");
-
         // ★保存時に例外発生
-        when(localStorageUploadService.saveFile(any(), any()))
-                .thenThrow(new RuntimeException("Disk full"));
+        UncheckedIOException failure = new UncheckedIOException(new IOException("Disk full"));
+        when(localStorageUploadService.saveBlob(any(InputStream.class)))
+                .thenThrow(failure);
 
         SubmitPhotoRequest req = new SubmitPhotoRequest(contestId, "title", "url", "desc");
 
-        assertThatThrownBy(() -> localPhotoSubmissionService.submitPhoto(req, "userA", mockFile))
-                .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("写真の保存に失敗しました");
+        assertThatThrownBy(() -> localPhotoSubmissionService.submitPhoto(req, "userA", body))
+                .isSameAs(failure);
 
         // DBには行かないこと
         verify(photoMapper, never()).insert(any());
@@ -180,16 +189,19 @@ class PhotoSubmissionServiceTest {
         contest.setStatus(ContestStatus.IN_PROGRESS);
         when(contestMapper.findContestStatus(contestId)).thenReturn(Optional.of(contest));
         when(photoMapper.findByContestAndUser(contestId, "userA")).thenReturn(Optional.empty());
-
-        when(mockFile.getOriginalFilename()).thenReturn("test.jpg");
-        when(localStorageUploadService.saveFile(any(), any())).thenReturn(savedPath);
+        when(localStorageUploadService.saveBlob(any(InputStream.class))).thenReturn(stored(savedPath));
+        inTransaction();
+        // この投稿が最初の参照（ロールバック後に同じ内容の画像は残らない）
+        when(blobService.acquire(eq(savedPath), anyString(), anyLong())).thenReturn(true);
+        // 従来のランダムなキーは呼び出し元がすぐに消す
+        when(blobService.abandon(savedPath)).thenReturn(true);
 
         // ★DB Insertが0件（失敗）
         when(photoMapper.insert(any(UserPhoto.class))).thenReturn(0);
 
         SubmitPhotoRequest req = new SubmitPhotoRequest(contestId, "title", "url", "desc");
 
-        assertThatThrownBy(() -> localPhotoSubmissionService.submitPhoto(req, "userA", mockFile))
+        assertThatThrownBy(() -> localPhotoSubmissionService.submitPhoto(req, "userA", body))
                 .isInstanceOf(DatabaseOperationException.class);
 
         // ★最重要: ファイルの削除メソッドが、保存されたパスを引数に呼ばれたか検証
@@ -214,9 +226,12 @@ class PhotoSubmissionServiceTest {
         contest.setStatus(ContestStatus.IN_PROGRESS);
         when(contestMapper.findContestStatus(contestId)).thenReturn(Optional.of(contest));
         when(photoMapper.findByContestAndUser(contestId, "userA")).thenReturn(Optional.empty());
-
-        when(mockFile.getOriginalFilename()).thenReturn("test.jpg");
-        when(localStorageUploadService.saveFile(any(), any())).thenReturn(savedPath);
+        when(localStorageUploadService.saveBlob(any(InputStream.class))).thenReturn(stored(savedPath));
+        inTransaction();
+        // この投稿が最初の参照（ロールバック後に同じ内容の画像は残らない）
+        when(blobService.acquire(eq(savedPath), anyString(), anyLong())).thenReturn(true);
+        // 従来のランダムなキーは呼び出し元がすぐに消す
+        when(blobService.abandon(savedPath)).thenReturn(true);
 
         // ★DB Insertで予期せぬ例外
         when(photoMapper.insert(any(UserPhoto.class)))
@@ -224,7 +239,7 @@ class PhotoSubmissionServiceTest {
 
         SubmitPhotoRequest req = new SubmitPhotoRequest(contestId, "title", "url", "desc");
 
-        assertThatThrownBy(() -> localPhotoSubmissionService.submitPhoto(req, "userA", mockFile))
+        assertThatThrownBy(() -> localPhotoSubmissionService.submitPhoto(req, "userA", body))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("予期せぬエラー");
 
@@ -234,4 +249,75 @@ class PhotoSubmissionServiceTest {
         verify(userProfileContestEntryService, never())
                 .incrementIfFirstEntry(anyString(), anyLong());
     }
-}
\ No newline at end of file
+
+    // -----------------------------
+    // 異常: 内容アドレスの実体 -> その場では消さず、参照 0 の行として sweepUnreferenced に任せる
+    // -----------------------------
+    @Test
+    @DisplayName("submitPhoto: DB保存失敗でも、内容アドレスの実体は消さずに参照 0 の行として残す")
+    void testInsertFailed_SharedBlobIsKept() {
+        Long contestId = 1L;
+        String savedPath = "blobs/ab/" + "ab".repeat(32) + ".jpg";
+
+        Contest contest = new Contest();
+        contest.setId(contestId);
+        contest.setStatus(ContestStatus.IN_PROGRESS);
+        when(contestMapper.findContestStatus(contestId)).thenReturn(Optional.of(contest));
+        when(photoMapper.findByContestAndUser(contestId, "userA")).thenReturn(Optional.empty());
+
+        when(localStorageUploadService.saveBlob(any(InputStream.class))).thenReturn(stored(savedPath));
+        inTransaction();
+        // 同じ内容が保存済み（参照数 2 以上。ロールバック後も他の写真の参照が残る）
+        when(blobService.acquire(eq(savedPath), anyString(), anyLong())).thenReturn(false);
+        when(blobService.abandon(savedPath)).thenReturn(false);
+        when(photoMapper.insert(any(UserPhoto.class))).thenReturn(0);
+
+        SubmitPhotoRequest req = new SubmitPhotoRequest(contestId, "title", "url", "desc");
+
+        assertThatThrownBy(() -> localPhotoSubmissionService.submitPhoto(req, "userA", body))
+                .isInstanceOf(DatabaseOperationException.class);
+
+        verify(blobService).abandon(savedPath);
+        verify(localStorageUploadService, never()).deleteFile(anyString());
+    }
+
+    // -----------------------------
+    // 異常: 受信中に投稿済みになった -> 実体は消さず、参照 0 の行として残す
+    // -----------------------------
+    @Test
+    @DisplayName("submitPhoto: 受信中に同じユーザーが投稿済みになったら登録せず、実体は sweepUnreferenced に任せる")
+    void testRejectedAfterUpload_BlobIsLeftForSweep() {
+        Long contestId = 1L;
+        String savedPath = "blobs/ab/" + "ab".repeat(32) + ".jpg";
+
+        Contest contest = new Contest();
+        contest.setId(contestId);
+        contest.setStatus(ContestStatus.IN_PROGRESS);
+        when(contestMapper.findContestStatus(contestId)).thenReturn(Optional.of(contest));
+        when(photoMapper.findByContestAndUser(contestId, "userA"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new UserPhoto()));
+        when(localStorageUploadService.saveBlob(any(InputStream.class))).thenReturn(stored(savedPath));
+        inTransaction();
+        when(blobService.abandon(savedPath)).thenReturn(false);
+
+        SubmitPhotoRequest req = new SubmitPhotoRequest(contestId, "title", "url", "desc");
+        SubmitPhotoResult result = localPhotoSubmissionService.submitPhoto(req, "userA", body);
+
+        assertThat(result.getStatus()).isEqualTo(SubmitPhotoStatus.BUSINESS_RULE_VIOLATION);
+        verify(blobService).abandon(savedPath);
+        verify(blobService, never()).acquire(anyString(), anyString(), anyLong());
+        verify(localStorageUploadService, never()).deleteFile(anyString());
+        verify(photoMapper, never()).insert(any(UserPhoto.class));
+    }
+
+    // transactionTemplate.execute はコールバックをそのまま実行する
+    private void inTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static StoredUpload stored(String key) {
+        return new StoredUpload(key, 1024L, "ab".repeat(32), "image/jpeg");
+    }
+}
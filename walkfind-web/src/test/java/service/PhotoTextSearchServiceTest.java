@@ -0,0 +1,213 @@
+package service;
+
+import nagasawakenji.walkfind.domain.dto.EnqueueResult;
+import nagasawakenji.walkfind.domain.dto.PhotoTextSearchResponse;
+import nagasawakenji.walkfind.domain.dto.PhotoTextSearchRow;
+import nagasawakenji.walkfind.domain.dto.TextEmbeddingJobMessage;
+import nagasawakenji.walkfind.domain.dto.TextEmbeddingRow;
+import nagasawakenji.walkfind.domain.statusenum.PhotoTextSearchStatus;
+import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoEmbeddingMapper;
+import nagasawakenji.walkfind.infra.mybatis.mapper.TextEmbeddingMapper;
+import nagasawakenji.walkfind.infra.queue.MlWorkerQueueClient;
+import nagasawakenji.walkfind.infra.ratelimit.RateLimitGuard;
+import nagasawakenji.walkfind.service.PhotoTextSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PhotoTextSearchServiceTest {
+
+    private static final String MODEL_VERSION = "openclip-vitb32-v1";
+    private static final String IP = "10.0.0.1";
+
+    @Mock
+    private TextEmbeddingMapper textEmbeddingMapper;
+
+    @Mock
+    private PhotoEmbeddingMapper photoEmbeddingMapper;
+
+    @Mock
+    private MlWorkerQueueClient mlWorkerQueueClient;
+
+    @Mock
+    private RateLimitGuard rateLimitGuard;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PhotoTextSearchService photoTextSearchService;
+
+    @BeforeEach
+    void setup() {
+        photoTextSearchService = new PhotoTextSearchService(
+                textEmbeddingMapper, photoEmbeddingMapper, mlWorkerQueueClient, rateLimitGuard, MODEL_VERSION, 60, 100, 400, transactionManager);
+    }
+
+    private TextEmbeddingRow row(String status, float[] embedding, OffsetDateTime updatedAt) {
+        TextEmbeddingRow row = new TextEmbeddingRow();
+        row.setQueryText("夕焼け の海");
+        row.setModelVersion(MODEL_VERSION);
+        row.setStatus(status);
+        row.setEmbedding(embedding);
+        row.setUpdatedAt(updatedAt);
+        return row;
+    }
+
+    private PhotoTextSearchRow photo(long photoId, double similarity) {
+        PhotoTextSearchRow row = new PhotoTextSearchRow();
+        row.setPhotoId(photoId);
+        row.setContestId(1L);
+        row.setKey("photos/" + photoId + ".jpg");
+        row.setTitle("photo-" + photoId);
+        row.setSimilarity(similarity);
+        return row;
+    }
+
+    // ----------------------------------------
+    // 1. 初めての検索語は PENDING の行を作ってワーカーに依頼する
+    // ----------------------------------------
+    @Test
+    @DisplayName("search: 未作成の検索語は正規化して PENDING で登録し、TEXT_EMBEDDING ジョブを積む")
+    void testFirstQueryEnqueuesJob() {
+        when(textEmbeddingMapper.findByText("夕焼け の海", MODEL_VERSION)).thenReturn(Optional.empty());
+        when(rateLimitGuard.allowEmbeddingRequest(IP)).thenReturn(true);
+        when(textEmbeddingMapper.insertPending("夕焼け の海", MODEL_VERSION)).thenReturn(1);
+        when(mlWorkerQueueClient.enqueue(any(), anyString()))
+                .thenReturn(new EnqueueResult(true, "queue", "m-1", null, null, null));
+
+        PhotoTextSearchResponse res = photoTextSearchService.search("  夕焼け　の海 ", null, null, IP);
+
+        assertThat(res.getStatus()).isEqualTo(PhotoTextSearchStatus.EMBEDDING_PENDING);
+        assertThat(res.getPhotos()).isEmpty();
+
+        ArgumentCaptor<Object> msg = ArgumentCaptor.forClass(Object.class);
+        verify(mlWorkerQueueClient).enqueue(msg.capture(), anyString());
+        assertThat(msg.getValue()).isInstanceOf(TextEmbeddingJobMessage.class);
+        assertThat((TextEmbeddingJobMessage) msg.getValue())
+                .hasFieldOrPropertyWithValue("type", "TEXT_EMBEDDING")
+                .hasFieldOrPropertyWithValue("text", "夕焼け の海")
+                .hasFieldOrPropertyWithValue("modelVersion", MODEL_VERSION);
+        verifyNoInteractions(photoEmbeddingMapper);
+    }
+
+    // ----------------------------------------
+    // 2. 作成済みの検索語はワーカーを通さず、2回目からはプロセス内のキャッシュで引く
+    // ----------------------------------------
+    @Test
+    @DisplayName("search: READY の埋め込みで TopK を返し、同じ検索語の2回目は text_embeddings も引かない")
+    void testReadyEmbeddingIsCached() {
+        float[] embedding = {0.1f, 0.2f, 0.3f};
+        when(textEmbeddingMapper.findByText("夕焼け の海", MODEL_VERSION))
+                .thenReturn(Optional.of(row("READY", embedding, OffsetDateTime.now())));
+        when(photoEmbeddingMapper.searchUserPhotosByEmbedding(embedding, MODEL_VERSION, 1L, 2))
+                .thenReturn(List.of(photo(10L, 0.31), photo(11L, 0.27)));
+
+        PhotoTextSearchResponse first = photoTextSearchService.search("夕焼け の海", 1L, 2, IP);
+        PhotoTextSearchResponse second = photoTextSearchService.search("夕焼け　の海", 1L, 2, IP);
+
+        assertThat(first.getStatus()).isEqualTo(PhotoTextSearchStatus.SUCCESS);
+        assertThat(first.getPhotos()).extracting("photoId").containsExactly(10L, 11L);
+        assertThat(second.getPhotos()).extracting("similarity").containsExactly(0.31, 0.27);
+        verify(textEmbeddingMapper, times(1)).findByText(anyString(), anyString());
+        verify(photoEmbeddingMapper, times(2)).searchUserPhotosByEmbedding(embedding, MODEL_VERSION, 1L, 2);
+        verify(photoEmbeddingMapper, never()).setLocalEfSearch(anyInt());
+        verifyNoInteractions(mlWorkerQueueClient, transactionManager);
+    }
+
+    @Test
+    @DisplayName("search: 全コンテストの検索は同じトランザクションで hnsw.ef_search を広げてから TopK を引く")
+    void testGlobalSearchWidensEfSearch() {
+        float[] embedding = {0.1f, 0.2f, 0.3f};
+        when(textEmbeddingMapper.findByText("夕焼け の海", MODEL_VERSION))
+                .thenReturn(Optional.of(row("READY", embedding, OffsetDateTime.now())));
+        when(photoEmbeddingMapper.searchUserPhotosByEmbedding(embedding, MODEL_VERSION, null, 20))
+                .thenReturn(List.of(photo(10L, 0.31)));
+
+        PhotoTextSearchResponse res = photoTextSearchService.search("夕焼け の海", null, null, IP);
+
+        assertThat(res.getPhotos()).extracting("photoId").containsExactly(10L);
+        InOrder inOrder = inOrder(transactionManager, photoEmbeddingMapper);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(photoEmbeddingMapper).setLocalEfSearch(400);
+        inOrder.verify(photoEmbeddingMapper).searchUserPhotosByEmbedding(embedding, MODEL_VERSION, null, 20);
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    // ----------------------------------------
+    // 3. 作成中・失敗直後は依頼し直さず、retry-seconds を過ぎたものだけ依頼し直す
+    // ----------------------------------------
+    @Test
+    @DisplayName("search: 作成中・失敗直後の検索語は依頼し直さず、PENDING / FAILED のまま時間が経ったものだけ依頼し直す")
+    void testPendingAndStaleRetry() {
+        when(textEmbeddingMapper.findByText("a", MODEL_VERSION))
+                .thenReturn(Optional.of(row("PENDING", null, OffsetDateTime.now())));
+        assertThat(photoTextSearchService.search("a", null, 10, IP).getStatus())
+                .isEqualTo(PhotoTextSearchStatus.EMBEDDING_PENDING);
+        verify(textEmbeddingMapper, never()).claimStale(anyString(), anyString(), any());
+
+        when(textEmbeddingMapper.findByText("b", MODEL_VERSION))
+                .thenReturn(Optional.of(row("FAILED", null, OffsetDateTime.now().minusMinutes(5))));
+        when(rateLimitGuard.allowEmbeddingRequest(IP)).thenReturn(true);
+        when(textEmbeddingMapper.claimStale(eq("b"), eq(MODEL_VERSION), any())).thenReturn(1);
+        when(mlWorkerQueueClient.enqueue(any(), anyString()))
+                .thenReturn(new EnqueueResult(true, "queue", "m-2", null, null, null));
+        assertThat(photoTextSearchService.search("b", null, 10, IP).getStatus())
+                .isEqualTo(PhotoTextSearchStatus.EMBEDDING_PENDING);
+        verify(mlWorkerQueueClient, times(1)).enqueue(any(), anyString());
+
+        // 失敗してから時間が経っていなければ依頼し直さない
+        when(textEmbeddingMapper.findByText("c", MODEL_VERSION))
+                .thenReturn(Optional.of(row("FAILED", null, OffsetDateTime.now())));
+        assertThat(photoTextSearchService.search("c", null, 10, IP).getStatus())
+                .isEqualTo(PhotoTextSearchStatus.EMBEDDING_FAILED);
+        verify(textEmbeddingMapper, never()).claimStale(eq("c"), anyString(), any());
+        verify(mlWorkerQueueClient, times(1)).enqueue(any(), anyString());
+    }
+
+    // ----------------------------------------
+    // 4. 埋め込みの依頼は IP 単位で制限する
+    // ----------------------------------------
+    @Test
+    @DisplayName("search: 依頼の上限を超えた IP からの未作成の検索語は行も作らず RATE_LIMITED")
+    void testEmbeddingRequestRateLimited() {
+        when(textEmbeddingMapper.findByText("夕焼け の海", MODEL_VERSION)).thenReturn(Optional.empty());
+        when(rateLimitGuard.allowEmbeddingRequest(IP)).thenReturn(false);
+
+        PhotoTextSearchResponse res = photoTextSearchService.search("夕焼け の海", null, null, IP);
+
+        assertThat(res.getStatus()).isEqualTo(PhotoTextSearchStatus.RATE_LIMITED);
+        verify(textEmbeddingMapper, never()).insertPending(anyString(), anyString());
+        verifyNoInteractions(mlWorkerQueueClient, photoEmbeddingMapper);
+    }
+
+    // ----------------------------------------
+    // 5. 空・長すぎる検索語
+    // ----------------------------------------
+    @Test
+    @DisplayName("search: 空白だけ・200文字を超える検索語は INVALID_REQUEST で DB も見ない")
+    void testInvalidQuery() {
+        assertThat(photoTextSearchService.search("   ", null, null, IP).getStatus())
+                .isEqualTo(PhotoTextSearchStatus.INVALID_REQUEST);
+        assertThat(photoTextSearchService.search("海".repeat(201), null, null, IP).getStatus())
+                .isEqualTo(PhotoTextSearchStatus.INVALID_REQUEST);
+        assertThat(photoTextSearchService.search(null, null, null, IP).getStatus())
+                .isEqualTo(PhotoTextSearchStatus.INVALID_REQUEST);
+
+        verifyNoInteractions(textEmbeddingMapper, photoEmbeddingMapper, mlWorkerQueueClient, rateLimitGuard);
+    }
+}
@@ -0,0 +1,145 @@
+package service;
+
+import nagasawakenji.walkfind.infra.ratelimit.InMemoryRateLimiter;
+import nagasawakenji.walkfind.infra.ratelimit.RateLimitGuard;
+import nagasawakenji.walkfind.infra.ratelimit.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RateLimitGuardTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L * 60_000);
+
+    private RateLimitProperties props;
+    private RateLimitGuard rateLimitGuard;
+
+    @BeforeEach
+    void setUp() {
+        props = new RateLimitProperties();
+        props.setVotesPerUser(3);
+        props.setVotesPerIp(5);
+        rateLimitGuard = new RateLimitGuard(new InMemoryRateLimiter(60_000, 1000, now::get), props);
+    }
+
+    // ---------------------------------------------------------------
+    // 1. ユーザー単位の上限 → 超えた分だけ拒否、対象外のパスは常に許可
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ユーザー単位の上限を超えた投票は拒否し、対象外のリクエストは許可する")
+    void testPerUserLimit() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", "10.0.0.1")).isTrue();
+        }
+        assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", "10.0.0.1")).isFalse();
+
+        // 別ユーザー・GET・別パスは影響を受けない
+        assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-b", "10.0.0.2")).isTrue();
+        assertThat(rateLimitGuard.allow("GET", "/api/v1/votes", "user-a", "10.0.0.1")).isTrue();
+        assertThat(rateLimitGuard.allow("POST", "/api/v1/contests", "user-a", "10.0.0.1")).isTrue();
+    }
+
+    // ---------------------------------------------------------------
+    // 2. IP 単位の上限 → アカウントを変えても同じ IP なら拒否
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("同じ IP から複数アカウントで投票しても IP 単位の上限で拒否する")
+    void testPerIpLimit() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-" + i, "10.0.0.9")).isTrue();
+        }
+        assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-x", "10.0.0.9")).isFalse();
+    }
+
+    // ---------------------------------------------------------------
+    // 3. スライディングウィンドウ → 前ウィンドウの件数は経過に応じて減っていく
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("前ウィンドウの件数は経過時間に応じて割り引かれ、2ウィンドウ後には消える")
+    void testSlidingWindow() {
+        for (int i = 0; i < 3; i++) {
+            rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", null);
+        }
+
+        // 次のウィンドウの先頭: 前の3件がほぼそのまま残る
+        now.addAndGet(60_000);
+        assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", null)).isFalse();
+
+        // 半分経過: 前の3件は 1.5件分 → あと2件
+        now.addAndGet(30_000);
+        assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", null)).isTrue();
+        assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", null)).isTrue();
+        assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", null)).isFalse();
+
+        // 2ウィンドウ後: 持ち越しなし
+        now.addAndGet(120_000);
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", null)).isTrue();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // 4. 並行アクセスでも上限ちょうどしか通さない（ロックなしの CAS）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("並行に投票しても、許可されるのは上限件数ちょうど")
+    void testConcurrentAcquire() throws Exception {
+        props.setVotesPerUser(100);
+        props.setVotesPerIp(10_000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            pool.submit(() -> {
+                start.await();
+                if (rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", "10.0.0.1")) {
+                    allowed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+
+    // ---------------------------------------------------------------
+    // 5. 検索語の埋め込み依頼 → IP 単位で数え、投票とは別に数える
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("埋め込み依頼は IP 単位の上限で拒否し、投票の件数とは混ざらない")
+    void testEmbeddingRequestLimit() {
+        props.setEmbeddingRequestsPerIp(2);
+
+        assertThat(rateLimitGuard.allowEmbeddingRequest("10.0.0.1")).isTrue();
+        assertThat(rateLimitGuard.allowEmbeddingRequest("10.0.0.1")).isTrue();
+        assertThat(rateLimitGuard.allowEmbeddingRequest("10.0.0.1")).isFalse();
+
+        assertThat(rateLimitGuard.allowEmbeddingRequest("10.0.0.2")).isTrue();
+        assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", "10.0.0.1")).isTrue();
+    }
+
+    // ---------------------------------------------------------------
+    // 6. 無効化 → 常に許可
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("enabled=false なら制限しない")
+    void testDisabled() {
+        props.setEnabled(false);
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimitGuard.allow("POST", "/api/v1/votes", "user-a", "10.0.0.1")).isTrue();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package service;
+
+import nagasawakenji.walkfind.infra.datasource.ReadWriteRoutingDataSource;
+import nagasawakenji.walkfind.infra.datasource.ReadYourWritesTracker;
+import nagasawakenji.walkfind.infra.datasource.ReplicaLagGuard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replica;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection replicaConnection;
+    @Mock
+    private ReplicaLagGuard lagGuard;
+    @Mock
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReadWriteRoutingDataSource(primary, replica, lagGuard, readYourWritesTracker);
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    // ---------------------------------------------------------------
+    // 1. readOnly トランザクションの振り分け
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("readOnly → 遅延が許容内ならレプリカ、直近に書き込んだユーザーならプライマリ")
+    void testReadOnlyRouting() throws SQLException {
+        beginTransaction(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(lagGuard.isReplicaUsable()).thenReturn(true);
+        when(readYourWritesTracker.isSticky()).thenReturn(false).thenReturn(true);
+
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        verify(lagGuard, times(1)).isReplicaUsable();
+        verify(readYourWritesTracker, never()).markWrite();
+    }
+
+    @Test
+    @DisplayName("routesReadOnlyToReplica → readOnly の振り分けと同じ判定（直近に書き込んだユーザー・遅延が大きい場合は false）")
+    void testRoutesReadOnlyToReplica() {
+        when(readYourWritesTracker.isSticky()).thenReturn(true, false, false);
+        when(lagGuard.isReplicaUsable()).thenReturn(false, true);
+
+        assertThat(routing.routesReadOnlyToReplica()).isFalse();
+        assertThat(routing.routesReadOnlyToReplica()).isFalse();
+        assertThat(routing.routesReadOnlyToReplica()).isTrue();
+        verify(lagGuard, times(2)).isReplicaUsable();
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 書き込みトランザクションはコミットしたときだけ記録する
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("書き込みトランザクション → プライマリを使い、コミット後に1回だけ記録する")
+    void testMarkWriteOnlyAfterCommit() throws SQLException {
+        beginTransaction(false);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+        verify(readYourWritesTracker, never()).markWrite();
+
+        commit();
+
+        verify(readYourWritesTracker, times(1)).markWrite();
+        verifyNoInteractions(replica, lagGuard);
+    }
+
+    @Test
+    @DisplayName("書き込みトランザクション → ロールバックしたら記録しない")
+    void testRolledBackWriteIsNotMarked() throws SQLException {
+        beginTransaction(false);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        routing.getConnection();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(readYourWritesTracker, never()).markWrite();
+    }
+
+    // ---------------------------------------------------------------
+    // 3. readOnly トランザクション・トランザクション外は記録しない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("readOnly トランザクション・トランザクション外 → コミット時の記録を登録しない")
+    void testReadOnlyAndAutoCommitAreNotMarked() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // トランザクション外（同期も無効）
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        beginTransaction(true);
+        when(readYourWritesTracker.isSticky()).thenReturn(true);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+
+        commit();
+        verify(readYourWritesTracker, never()).markWrite();
+    }
+
+    // ---------------------------------------------------------------
+    // 4. 記録が上限を超えたら最も古い記録から捨てる
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ReadYourWritesTracker → 上限を超えたら最も古く書き込んだユーザーだけを捨てる")
+    void testTrackerEvictsOldest() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(60_000, 2);
+
+        signIn("user-a");
+        tracker.markWrite();
+        signIn("user-b");
+        tracker.markWrite();
+        // user-a が書き込み直したので、最も古いのは user-b
+        signIn("user-a");
+        tracker.markWrite();
+        signIn("user-c");
+        tracker.markWrite();
+
+        signIn("user-a");
+        assertThat(tracker.isSticky()).isTrue();
+        signIn("user-b");
+        assertThat(tracker.isSticky()).isFalse();
+        signIn("user-c");
+        assertThat(tracker.isSticky()).isTrue();
+    }
+
+    @Test
+    @DisplayName("ReadYourWritesTracker → 期限切れの記録は固定しない")
+    void testTrackerExpires() throws InterruptedException {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(1, 10);
+        signIn("user-a");
+        tracker.markWrite();
+
+        Thread.sleep(5);
+
+        assertThat(tracker.isSticky()).isFalse();
+    }
+
+    private static void signIn(String userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+    }
+
+    // ---------------------------------------------------------------
+    // 5. 遅延の計測はリクエストのスレッドで待たない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ReplicaLagGuard → 計測は別スレッドに1回だけ依頼し、終わるまではレプリカを使わない")
+    void testLagCheckRunsInBackground() throws SQLException {
+        List<Runnable> tasks = new ArrayList<>();
+        ReplicaLagGuard guard = new ReplicaLagGuard(replica, 1_000, 60_000, tasks::add);
+
+        assertThat(guard.isReplicaUsable()).isFalse();
+        assertThat(guard.isReplicaUsable()).isFalse();
+        assertThat(tasks).hasSize(1);
+        verifyNoInteractions(replica);
+
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(200L);
+
+        tasks.get(0).run();
+
+        assertThat(guard.isReplicaUsable()).isTrue();
+        assertThat(guard.getLastLagMs()).isEqualTo(200L);
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("ReplicaLagGuard → 計測に失敗したらレプリカを使わない")
+    void testLagCheckFailureFallsBackToPrimary() throws SQLException {
+        ReplicaLagGuard guard = new ReplicaLagGuard(replica, 1_000, 60_000, Runnable::run);
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertThat(guard.isReplicaUsable()).isFalse();
+        assertThat(guard.getLastLagMs()).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,172 @@
+package service;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import nagasawakenji.walkfind.filter.LoggingMdcFilter;
+import nagasawakenji.walkfind.infra.profiling.ProfilingJackson2HttpMessageConverter;
+import nagasawakenji.walkfind.infra.profiling.RequestProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RequestProfileTest {
+
+    private final LoggingMdcFilter filter = new LoggingMdcFilter();
+
+    @AfterEach
+    void tearDown() {
+        RequestProfile.end();
+        MDC.clear();
+    }
+
+    // ---------------------------------------------------------------
+    // 1. 区間ごとに時間と回数を加算し、発生した区間だけを Server-Timing に出す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("record → 区間ごとに合算し、Server-Timing には発生した区間だけを回数付きで出す")
+    void testServerTimingListsRecordedSegments() {
+        RequestProfile profile = RequestProfile.start();
+
+        RequestProfile.record(RequestProfile.Segment.DB, 1_500_000);
+        RequestProfile.record(RequestProfile.Segment.DB, 2_560_000);
+        RequestProfile.record(RequestProfile.Segment.PRESIGN, 300_000);
+
+        assertThat(profile.count(RequestProfile.Segment.DB)).isEqualTo(2);
+        assertThat(profile.millis(RequestProfile.Segment.DB)).isEqualTo(4.06);
+
+        String serverTiming = profile.toServerTiming();
+        assertThat(serverTiming).startsWith("total;dur=");
+        assertThat(serverTiming).contains(", db;dur=4.1;desc=\"2\"", ", presign;dur=0.3;desc=\"1\"");
+        assertThat(serverTiming).doesNotContain("sqs", "ser;", "init");
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 境界: 計測外のスレッド・何も記録しないリクエスト・コールドスタート
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("計測外のスレッド → record は何もせず、current は null")
+    void testRecordOutsideProfileIsIgnored() {
+        RequestProfile.record(RequestProfile.Segment.DB, 1_000_000);
+
+        assertThat(RequestProfile.current()).isNull();
+
+        RequestProfile profile = RequestProfile.start();
+        assertThat(profile.count(RequestProfile.Segment.DB)).isZero();
+    }
+
+    @Test
+    @DisplayName("何も記録しない → Server-Timing は total だけ、ログには全区間を 0 で出す")
+    void testEmptyProfile() {
+        RequestProfile profile = RequestProfile.start();
+
+        assertThat(profile.toServerTiming()).matches("total;dur=\\d+\\.\\d");
+        assertThat(profile.toLogFields())
+                .containsKeys("totalMs")
+                .containsEntry("dbMs", "0.0").containsEntry("dbCount", "0")
+                .containsEntry("presignMs", "0.0").containsEntry("presignCount", "0")
+                .containsEntry("sqsMs", "0.0").containsEntry("sqsCount", "0")
+                .containsEntry("serMs", "0.0").containsEntry("serCount", "0")
+                .doesNotContainKey("initMs");
+    }
+
+    @Test
+    @DisplayName("コールドスタート → Server-Timing とログに初期化時間を載せる")
+    void testColdStart() {
+        RequestProfile profile = RequestProfile.start();
+        profile.markColdStart(850);
+
+        assertThat(profile.toServerTiming()).contains(", init;dur=850;desc=\"cold\"");
+        assertThat(profile.toLogFields()).containsEntry("initMs", "850");
+    }
+
+    @Test
+    @DisplayName("attach / restore → 別スレッドのプロファイルに加算し、元の状態（計測外を含む）に戻す")
+    void testAttachAndRestore() {
+        RequestProfile caller = RequestProfile.start();
+        RequestProfile.end();
+
+        RequestProfile previous = RequestProfile.attach(caller);
+        RequestProfile.record(RequestProfile.Segment.SQS, 1_000_000);
+        RequestProfile.restore(previous);
+
+        assertThat(previous).isNull();
+        assertThat(RequestProfile.current()).isNull();
+        assertThat(caller.count(RequestProfile.Segment.SQS)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("format → ロケールに依らず小数点は '.'、小数第1位に丸める")
+    void testFormat() {
+        assertThat(RequestProfile.format(0.04)).isEqualTo("0.0");
+        assertThat(RequestProfile.format(12.36)).isEqualTo("12.4");
+        assertThat(RequestProfile.format(1234.0)).isEqualTo("1234.0");
+    }
+
+    // ---------------------------------------------------------------
+    // 3. LoggingMdcFilter → 内訳をヘッダーとログに出し、スレッドに何も残さない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("LoggingMdcFilter → 処理中の内訳を Server-Timing に付け、終了後はプロファイルと MDC を片付ける")
+    void testFilterAddsServerTiming() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/contests/1/photos");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Map<String, String> mdcInChain = new HashMap<>();
+
+        filter.doFilter(request, response, (req, res) -> {
+            mdcInChain.putAll(MDC.getCopyOfContextMap());
+            RequestProfile.record(RequestProfile.Segment.DB, 2_000_000);
+            RequestProfile.record(RequestProfile.Segment.SERIALIZATION, 500_000);
+        });
+
+        assertThat(mdcInChain)
+                .containsEntry("method", "GET")
+                .containsEntry("path", "/api/v1/contests/1/photos")
+                .containsEntry("userId", "anonymous");
+        assertThat(response.getHeader(ProfilingJackson2HttpMessageConverter.SERVER_TIMING))
+                .startsWith("total;dur=")
+                .contains(", db;dur=2.0;desc=\"1\"", ", ser;dur=0.5;desc=\"1\"");
+        assertThat(RequestProfile.current()).isNull();
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+    }
+
+    @Test
+    @DisplayName("LoggingMdcFilter → 後続が例外を投げても Server-Timing を付け、片付けてから例外を伝える")
+    void testFilterCleansUpOnException() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain failing = (req, res) -> {
+            RequestProfile.record(RequestProfile.Segment.DB, 1_000_000);
+            throw new ServletException("boom");
+        };
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/votes"), response, failing))
+                .isInstanceOf(ServletException.class);
+
+        assertThat(response.getHeader(ProfilingJackson2HttpMessageConverter.SERVER_TIMING)).contains("db;dur=1.0");
+        assertThat(RequestProfile.current()).isNull();
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+    }
+
+    @Test
+    @DisplayName("LoggingMdcFilter → 変換器が付けたヘッダーは上書きせず、コミット済みのレスポンスには付けない")
+    void testFilterKeepsExistingHeaderAndSkipsCommitted() throws IOException, ServletException {
+        MockHttpServletResponse converted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/contests"), converted, (req, res) ->
+                ((MockHttpServletResponse) res).setHeader(ProfilingJackson2HttpMessageConverter.SERVER_TIMING, "total;dur=1.0"));
+        assertThat(converted.getHeaders(ProfilingJackson2HttpMessageConverter.SERVER_TIMING))
+                .containsExactly("total;dur=1.0");
+
+        MockHttpServletResponse committed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/photos/1/image"), committed, (req, res) ->
+                ((MockHttpServletResponse) res).setCommitted(true));
+        assertThat(committed.getHeader(ProfilingJackson2HttpMessageConverter.SERVER_TIMING)).isNull();
+    }
+}
@@ -0,0 +1,72 @@
+package service;
+
+import nagasawakenji.walkfind.domain.dto.ResultSnapshotMeta;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestVersionMapper;
+import nagasawakenji.walkfind.service.ResourceVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceVersionServiceTest {
+
+    @Mock
+    private ContestVersionMapper contestVersionMapper;
+
+    private ResourceVersionService resourceVersionService;
+
+    @BeforeEach
+    void setUp() {
+        // 時間枠をテスト中に切り替わらない長さにする
+        resourceVersionService = new ResourceVersionService(contestVersionMapper, 86_400);
+    }
+
+    // ---------------------------------------------------------------
+    // 1. 結果の ETag は URL の時間枠を含むので弱い ETag
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("結果の ETag → W/ 付きで、スナップショットの作成日時が変われば変わる")
+    void testResultsEtagIsWeak() {
+        ResultSnapshotMeta meta = ResultSnapshotMeta.builder()
+                .contestId(1L)
+                .publishedAt(OffsetDateTime.parse("2025-01-01T00:00:00Z"))
+                .build();
+        String etag = resourceVersionService.resultsEtag(meta);
+
+        assertThat(etag).startsWith("W/\"r1.").endsWith("\"");
+
+        meta.setPublishedAt(meta.getPublishedAt().plusSeconds(1));
+        assertThat(resourceVersionService.resultsEtag(meta)).isNotEqualTo(etag);
+    }
+
+    // ---------------------------------------------------------------
+    // 2. ギャラリーの ETag は閲覧者と版（埋め込みの READY を含む）で変わる
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ギャラリーの ETag → 閲覧者ごとに変わり、版（埋め込みの READY を含む）が増えれば変わる")
+    void testGalleryEtagFollowsVersion() {
+        when(contestVersionMapper.findGalleryVersion(1L))
+                .thenReturn(Optional.of("IN_PROGRESS.5"), Optional.of("IN_PROGRESS.6"));
+        when(contestVersionMapper.findGalleryVersion(2L)).thenReturn(Optional.empty());
+
+        String pending = resourceVersionService.galleryEtag(1L, "user-x").orElseThrow();
+        String ready = resourceVersionService.galleryEtag(1L, "user-x").orElseThrow();
+        String other = resourceVersionService.galleryEtag(1L, "user-y").orElseThrow();
+        String anonymous = resourceVersionService.galleryEtag(1L, null).orElseThrow();
+
+        assertThat(pending).startsWith("W/\"g1.");
+        assertThat(ready).isNotEqualTo(pending);
+        assertThat(other).isNotEqualTo(ready);
+        assertThat(anonymous).isNotEqualTo(ready).contains(".anon.");
+        assertThat(resourceVersionService.galleryEtag(2L, null)).isEmpty();
+    }
+}
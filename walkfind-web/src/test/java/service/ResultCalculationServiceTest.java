@@ -3,12 +3,14 @@ package service;
 import nagasawakenji.walkfind.domain.dto.CalculationResult;
 import nagasawakenji.walkfind.domain.model.Contest;
 import nagasawakenji.walkfind.domain.model.ContestResult;
+import nagasawakenji.walkfind.domain.model.ContestStats;
 import nagasawakenji.walkfind.domain.model.UserPhoto;
 import nagasawakenji.walkfind.domain.statusenum.CalculationStatus;
 import nagasawakenji.walkfind.domain.statusenum.ContestStatus;
 import nagasawakenji.walkfind.exception.DatabaseOperationException;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.ContestResultMapper;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestStatsMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.PhotoMapper;
 import nagasawakenji.walkfind.infra.mybatis.mapper.VoteMapper;
 import nagasawakenji.walkfind.service.ResultCalculationService;
@@ -17,6 +19,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -39,25 +42,27 @@ class ResultCalculationServiceTest {
     private ContestResultMapper contestResultMapper;
     @Mock
     private VoteMapper voteMapper;
+    @Mock
+    private ContestStatsMapper contestStatsMapper;
 
     @InjectMocks
     private ResultCalculationService resultCalculationService;
 
     // ----------------------------------------------------------
-    // 1. 集計対象が空 → NO_CONTESTS_TO_CALCULATE を返す
+    // 1. 集計待ちでない・他で集計中（SKIP LOCKED で取れない） → ALREADY_CALCULATED を返す
     // ----------------------------------------------------------
     @Test
-    @DisplayName("calculateAllClosedContests: 集計対象なし → NO_CONTESTS_TO_CALCULATE")
-    void testNoContestsToCalculate() {
+    @DisplayName("calculateContest: ロックを取れない → ALREADY_CALCULATED、投稿も読まない")
+    void testContestNotWaitingForCalculation() {
 
-        when(contestMapper.findContestsNeedingCalculation())
-                .thenReturn(List.of());
+        when(contestMapper.findContestNeedingCalculationForUpdate(1L))
+                .thenReturn(null);
 
-        List<CalculationResult> results = resultCalculationService.calculateAllClosedContests();
+        CalculationResult result = resultCalculationService.calculateContest(1L);
 
-        assertThat(results).hasSize(1);
-        assertThat(results.get(0).getStatus())
-                .isEqualTo(CalculationStatus.NO_CONTESTS_TO_CALCULATE);
+        assertThat(result.getStatus())
+                .isEqualTo(CalculationStatus.ALREADY_CALCULATED);
+        verifyNoInteractions(photoMapper, contestResultMapper, contestStatsMapper);
     }
 
     // ----------------------------------------------------------
@@ -71,16 +76,16 @@ class ResultCalculationServiceTest {
         contest.setId(1L);
         contest.setStatus(ContestStatus.IN_PROGRESS);
 
-        when(contestMapper.findContestsNeedingCalculation())
-                .thenReturn(List.of(contest));
+        when(contestMapper.findContestNeedingCalculationForUpdate(1L))
+                .thenReturn(contest);
 
         when(photoMapper.findAllSubmissionsForCalculation(1L))
                 .thenReturn(List.of());
 
-        List<CalculationResult> results = resultCalculationService.calculateAllClosedContests();
+        CalculationResult result = resultCalculationService.calculateContest(1L);
 
-        assertThat(results.get(0).getStatus()).isEqualTo(CalculationStatus.SUCCESS);
-        assertThat(results.get(0).getPhotosProcessed()).isEqualTo(0);
+        assertThat(result.getStatus()).isEqualTo(CalculationStatus.SUCCESS);
+        assertThat(result.getPhotosProcessed()).isEqualTo(0);
 
         verify(contestMapper, times(1))
                 .updateContestStatus(1L, ContestStatus.ANNOUNCED);
@@ -98,8 +103,8 @@ class ResultCalculationServiceTest {
         contest.setId(1L);
         contest.setStatus(ContestStatus.CLOSED_VOTING);
 
-        when(contestMapper.findContestsNeedingCalculation())
-                .thenReturn(List.of(contest));
+        when(contestMapper.findContestNeedingCalculationForUpdate(1L))
+                .thenReturn(contest);
 
         // 投稿データ（順位付け確認用）
         UserPhoto p1 = new UserPhoto();
@@ -119,10 +124,7 @@ class ResultCalculationServiceTest {
         when(contestResultMapper.insertAll(any()))
                 .thenReturn(2);
 
-        List<CalculationResult> results =
-                resultCalculationService.calculateAllClosedContests();
-
-        CalculationResult r = results.get(0);
+        CalculationResult r = resultCalculationService.calculateContest(1L);
         assertThat(r.getStatus()).isEqualTo(CalculationStatus.SUCCESS);
         assertThat(r.getPhotosProcessed()).isEqualTo(2);
 
@@ -142,13 +144,12 @@ class ResultCalculationServiceTest {
         contest.setId(1L);
         contest.setStatus(ContestStatus.ANNOUNCED);
 
-        when(contestMapper.findContestsNeedingCalculation())
-                .thenReturn(List.of(contest));
+        when(contestMapper.findContestNeedingCalculationForUpdate(1L))
+                .thenReturn(contest);
 
-        List<CalculationResult> results =
-                resultCalculationService.calculateAllClosedContests();
+        CalculationResult result = resultCalculationService.calculateContest(1L);
 
-        assertThat(results.get(0).getStatus())
+        assertThat(result.getStatus())
                 .isEqualTo(CalculationStatus.ALREADY_CALCULATED);
 
         verify(photoMapper, never()).findAllSubmissionsForCalculation(any());
@@ -166,8 +167,8 @@ class ResultCalculationServiceTest {
         contest.setId(1L);
         contest.setStatus(ContestStatus.IN_PROGRESS);
 
-        when(contestMapper.findContestsNeedingCalculation())
-                .thenReturn(List.of(contest));
+        when(contestMapper.findContestNeedingCalculationForUpdate(1L))
+                .thenReturn(contest);
 
         UserPhoto p1 = new UserPhoto();
         p1.setId(10L);
@@ -181,7 +182,7 @@ class ResultCalculationServiceTest {
                 .thenReturn(0);
 
         assertThatThrownBy(() ->
-                resultCalculationService.calculateAllClosedContests()
+                resultCalculationService.calculateContest(1L)
         ).isInstanceOf(DatabaseOperationException.class);
     }
 
@@ -196,16 +197,113 @@ class ResultCalculationServiceTest {
         contest.setId(1L);
         contest.setStatus(ContestStatus.IN_PROGRESS);
 
-        when(contestMapper.findContestsNeedingCalculation())
-                .thenReturn(List.of(contest));
+        when(contestMapper.findContestNeedingCalculationForUpdate(1L))
+                .thenReturn(contest);
 
         when(photoMapper.findAllSubmissionsForCalculation(1L))
                 .thenThrow(new RuntimeException("DB failure"));
 
         assertThatThrownBy(() ->
-                resultCalculationService.calculateAllClosedContests()
+                resultCalculationService.calculateContest(1L)
         )
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Unexpected error");
     }
-}
\ No newline at end of file
+
+    // ----------------------------------------------------------
+    // 7. 正常集計 → contest_stats に参加者数・投票者数を確定させる
+    // ----------------------------------------------------------
+    @Test
+    @DisplayName("正常集計 → contest_stats に投稿数と countDistinctVotersByContest の投票者数を書き込む")
+    void testContestStatsSaved() {
+
+        Contest contest = new Contest();
+        contest.setId(1L);
+        contest.setStatus(ContestStatus.CLOSED_VOTING);
+
+        when(contestMapper.findContestNeedingCalculationForUpdate(1L))
+                .thenReturn(contest);
+
+        UserPhoto p1 = new UserPhoto();
+        p1.setId(10L);
+        p1.setTotalVotes(3);
+        p1.setSubmissionDate(OffsetDateTime.parse("2025-01-01T00:00:00Z"));
+
+        UserPhoto p2 = new UserPhoto();
+        p2.setId(11L);
+        p2.setTotalVotes(1);
+        p2.setSubmissionDate(OffsetDateTime.parse("2025-01-02T00:00:00Z"));
+
+        when(photoMapper.findAllSubmissionsForCalculation(1L))
+                .thenReturn(new ArrayList<>(List.of(p1, p2)));
+        when(contestResultMapper.insertAll(any()))
+                .thenReturn(2);
+
+        when(voteMapper.countDistinctVotersByContest(1L))
+                .thenReturn(3);
+
+        resultCalculationService.calculateContest(1L);
+
+        ArgumentCaptor<ContestStats> captor = ArgumentCaptor.forClass(ContestStats.class);
+        verify(contestStatsMapper, times(1)).upsert(captor.capture());
+
+        ContestStats stats = captor.getValue();
+        assertThat(stats.getContestId()).isEqualTo(1L);
+        assertThat(stats.getParticipantCount()).isEqualTo(2);
+        assertThat(stats.getVoterCount()).isEqualTo(3);
+    }
+
+    // ----------------------------------------------------------
+    // 8. 投稿0件 → contest_stats は 0 件で確定
+    // ----------------------------------------------------------
+    @Test
+    @DisplayName("投稿0件 → contest_stats に 0 を書き込む")
+    void testContestStatsSavedForZeroSubmissions() {
+
+        Contest contest = new Contest();
+        contest.setId(2L);
+        contest.setStatus(ContestStatus.CLOSED_VOTING);
+
+        when(contestMapper.findContestNeedingCalculationForUpdate(2L))
+                .thenReturn(contest);
+        when(photoMapper.findAllSubmissionsForCalculation(2L))
+                .thenReturn(List.of());
+
+        resultCalculationService.calculateContest(2L);
+
+        ArgumentCaptor<ContestStats> captor = ArgumentCaptor.forClass(ContestStats.class);
+        verify(contestStatsMapper, times(1)).upsert(captor.capture());
+
+        assertThat(captor.getValue().getParticipantCount()).isEqualTo(0);
+        assertThat(captor.getValue().getVoterCount()).isEqualTo(0);
+    }
+
+    // ----------------------------------------------------------
+    // 9. 単一コンテストの集計 → ロックして集計し、集計完了フラグを立てる
+    // ----------------------------------------------------------
+    @Test
+    @DisplayName("calculateContest: 集計待ち → 集計して aggregation_completed を立てる / 集計待ちでない → ALREADY_CALCULATED")
+    void testCalculateContest() {
+
+        Contest contest = new Contest();
+        contest.setId(1L);
+        contest.setStatus(ContestStatus.CLOSED_VOTING);
+
+        // contest 2 は既に他で集計された（ロック取得後に CLOSED_VOTING でない）
+        when(contestMapper.findContestNeedingCalculationForUpdate(anyLong()))
+                .thenAnswer(inv -> Long.valueOf(1L).equals(inv.getArgument(0)) ? contest : null);
+        when(photoMapper.findAllSubmissionsForCalculation(1L))
+                .thenReturn(List.of());
+
+        CalculationResult result = resultCalculationService.calculateContest(1L);
+
+        assertThat(result.getStatus()).isEqualTo(CalculationStatus.SUCCESS);
+        verify(contestMapper).updateContestStatus(1L, ContestStatus.ANNOUNCED);
+        verify(contestMapper).markAggregationCompleted(1L);
+
+        CalculationResult again = resultCalculationService.calculateContest(2L);
+
+        assertThat(again.getStatus()).isEqualTo(CalculationStatus.ALREADY_CALCULATED);
+        verify(photoMapper, never()).findAllSubmissionsForCalculation(2L);
+    }
+}
@@ -169,6 +169,28 @@ class ResultDisplayServiceTest {
         assertThat(response.getTotalCount()).isEqualTo(0);
     }
 
+    // ---------------------------------------------------------------
+    // 5-2. 結果件数が確定済み → COUNT(*) せずに確定値を返す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ANNOUNCED かつ結果件数が確定済み → countResultsByContestId を呼ばない")
+    void testAnnouncedUsesCachedResultCount() {
+
+        Contest testContest = new Contest();
+        testContest.setStatus(ContestStatus.ANNOUNCED);
+        testContest.setResultCount(42);
+
+        when(contestMapper.findContestStatus(1L))
+                .thenReturn(Optional.of(testContest));
+        when(contestResultMapper.findDetailedResultsByContestId(1L, 0, 20))
+                .thenReturn(List.of());
+
+        ContestResultListResponse response = resultDisplayService.getFinalResults(1L, 0, 20);
+
+        assertThat(response.getTotalCount()).isEqualTo(42);
+        verify(contestResultMapper, never()).countResultsByContestId(anyLong());
+    }
+
     // ---------------------------------------------------------------
     // 6. Winner取得：CLOSED_VOTING → Winner返却
     // ---------------------------------------------------------------
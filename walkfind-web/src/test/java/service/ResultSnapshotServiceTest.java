@@ -0,0 +1,171 @@
+package service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nagasawakenji.walkfind.domain.dto.ContestResultListResponse;
+import nagasawakenji.walkfind.domain.dto.ContestResultResponse;
+import nagasawakenji.walkfind.domain.dto.ContestWinnerDto;
+import nagasawakenji.walkfind.domain.dto.ContestWinnerListResponse;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestResultMapper;
+import nagasawakenji.walkfind.infra.snapshot.ResultSnapshotStorage;
+import nagasawakenji.walkfind.service.ResultSnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResultSnapshotServiceTest {
+
+    @Mock
+    private ContestResultMapper contestResultMapper;
+
+    private final InMemoryStorage storage = new InMemoryStorage();
+
+    private ResultSnapshotService resultSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        // ページサイズ 2 でスナップショットを分割する
+        resultSnapshotService = new ResultSnapshotService(
+                contestResultMapper, storage, new ObjectMapper().findAndRegisterModules(), 2);
+    }
+
+    // ---------------------------------------------------------------
+    // 1. 未作成 → Optional.empty()（DB から返す）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("スナップショット未作成 → Optional.empty()")
+    void testNotPublished() {
+        assertThat(resultSnapshotService.findResults(1L, 0, 20)).isEmpty();
+        assertThat(resultSnapshotService.findWinners(1L)).isEmpty();
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 作成後 → ページをまたいだ範囲を順位順に返す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("作成後 → スナップショットのページをまたいで結果を返す")
+    void testPublishAndFindAcrossPages() {
+
+        when(contestResultMapper.findAllDetailedResultsByContestId(1L))
+                .thenReturn(results(5));
+        when(contestResultMapper.findWinnerPhotosByContestId(1L))
+                .thenReturn(List.of(ContestWinnerDto.builder()
+                        .photoId(100L)
+                        .contestId(1L)
+                        .username("user0")
+                        .photoUrl("contest-1/p100.jpg")
+                        .build()));
+
+        resultSnapshotService.publish(1L);
+
+        // page-0: [100,101], page-1: [102,103], page-2: [104]
+        assertThat(storage.objects).hasSize(5);
+
+        // 要求 page=1,size=3 → index 3..5 → snapshot page-1, page-2
+        ContestResultListResponse response = resultSnapshotService.findResults(1L, 1, 3).orElseThrow();
+        assertThat(response.getTotalCount()).isEqualTo(5);
+        assertThat(response.getContestResultResponses())
+                .extracting(ContestResultResponse::getPhotoId)
+                .containsExactly(103L, 104L);
+
+        // 範囲外のページは空リスト
+        assertThat(resultSnapshotService.findResults(1L, 5, 3).orElseThrow().getContestResultResponses()).isEmpty();
+
+        ContestWinnerListResponse winners = resultSnapshotService.findWinners(1L).orElseThrow();
+        assertThat(winners.getTotalWinnerCount()).isEqualTo(1);
+        assertThat(winners.getWinners().get(0).getPhotoUrl()).isEqualTo("contest-1/p100.jpg");
+
+        // 配信時は DB を参照しない
+        verify(contestResultMapper, times(1)).findAllDetailedResultsByContestId(1L);
+        verify(contestResultMapper, never()).findDetailedResultsByContestId(anyLong(), anyInt(), anyInt());
+    }
+
+    // ---------------------------------------------------------------
+    // 3. 退会 → 公開済みのコンテストだけ作り直す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("退会時 → 公開済みのスナップショットだけ作り直す")
+    void testRepublishForUser() {
+
+        when(contestResultMapper.findAllDetailedResultsByContestId(1L))
+                .thenReturn(results(1));
+        when(contestResultMapper.findWinnerPhotosByContestId(1L))
+                .thenReturn(List.of());
+        resultSnapshotService.publish(1L);
+
+        // contest 2 は未公開
+        when(contestResultMapper.findContestIdsByUserId("user-x"))
+                .thenReturn(List.of(1L, 2L));
+
+        resultSnapshotService.republishForUser("user-x");
+
+        verify(contestResultMapper, times(2)).findAllDetailedResultsByContestId(1L);
+        verify(contestResultMapper, never()).findAllDetailedResultsByContestId(2L);
+    }
+
+    // ---------------------------------------------------------------
+    // 4. 取り下げ → Optional.empty()
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("取り下げ後 → Optional.empty()")
+    void testUnpublish() {
+
+        when(contestResultMapper.findAllDetailedResultsByContestId(1L))
+                .thenReturn(results(1));
+        when(contestResultMapper.findWinnerPhotosByContestId(1L))
+                .thenReturn(List.of());
+        resultSnapshotService.publish(1L);
+
+        resultSnapshotService.unpublish(1L);
+
+        assertThat(resultSnapshotService.findResults(1L, 0, 20)).isEmpty();
+    }
+
+    private static List<ContestResultResponse> results(int n) {
+        List<ContestResultResponse> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(ContestResultResponse.builder()
+                    .photoId(100L + i)
+                    .contestId(1L)
+                    .finalRank(i + 1)
+                    .finalScore(n - i)
+                    .isWinner(i == 0)
+                    .username("user" + i)
+                    .submissionDate(OffsetDateTime.parse("2025-01-01T00:00:00Z"))
+                    .build());
+        }
+        return list;
+    }
+
+    private static class InMemoryStorage implements ResultSnapshotStorage {
+        private final Map<String, byte[]> objects = new HashMap<>();
+
+        @Override
+        public void put(String key, byte[] gzippedJson) {
+            objects.put(key, gzippedJson);
+        }
+
+        @Override
+        public Optional<byte[]> get(String key) {
+            return Optional.ofNullable(objects.get(key));
+        }
+
+        @Override
+        public void delete(String key) {
+            objects.remove(key);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package service;
+
+import nagasawakenji.walkfind.exception.InvalidUploadException;
+import nagasawakenji.walkfind.infra.image.ImageInspector;
+import nagasawakenji.walkfind.infra.image.UploadImageValidator;
+import nagasawakenji.walkfind.infra.storage.LocalObjectStore;
+import nagasawakenji.walkfind.infra.upload.MultipartStreamReader;
+import nagasawakenji.walkfind.infra.upload.StoredUpload;
+import nagasawakenji.walkfind.service.LocalStorageUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class StreamingUploadTest {
+
+    private static final String BOUNDARY = "----WebKitFormBoundary7MA4YWxkTrZu0gW";
+
+    @TempDir
+    Path tempDir;
+
+    private Path root;
+    private LocalObjectStore localObjectStore;
+    private LocalStorageUploadService uploadService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectories(tempDir.resolve("local-storage"));
+        localObjectStore = new LocalObjectStore(root.toString());
+        uploadService = new LocalStorageUploadService(localObjectStore, new UploadImageValidator(12000, 50_000_000L));
+        ReflectionTestUtils.setField(uploadService, "storageRoot", root.toString());
+        ReflectionTestUtils.setField(uploadService, "maxBytes", 1024L * 1024);
+    }
+
+    // ---------------------------------------------------------------
+    // 1. request パート → file パートの順に読み、file は保存先へ直接書く
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("multipart を順に読み、file パートをハッシュ・形式判定しながら保存する")
+    void testStreamMultipartToStorage() throws Exception {
+        byte[] image = jpeg(300_000);
+        byte[] body = multipart(
+                part("request", null, "application/json", "{\"contestId\":1,\"title\":\"t\"}".getBytes(StandardCharsets.UTF_8)),
+                part("file", "photo.png", "image/png", image));
+
+        // 1回の read で少しずつしか返さないストリーム（ネットワーク越しの受信を模す）
+        MultipartStreamReader reader = new MultipartStreamReader(new TrickleInputStream(body, 1000), BOUNDARY);
+
+        MultipartStreamReader.Part request = reader.next();
+        assertThat(request.name()).isEqualTo("request");
+        assertThat(new String(request.body().readAllBytes(), StandardCharsets.UTF_8)).contains("\"contestId\":1");
+
+        MultipartStreamReader.Part file = reader.next();
+        assertThat(file.name()).isEqualTo("file");
+        assertThat(file.filename()).isEqualTo("photo.png");
+
+        StoredUpload stored = uploadService.saveBlob(file.body());
+
+        // キー・拡張子・Content-Type はクライアントの申告ではなく中身で決まる
+        String sha256 = sha256(image);
+        String key = "blobs/" + sha256.substring(0, 2) + "/" + sha256 + ".jpg";
+        assertThat(stored.key()).isEqualTo(key);
+        assertThat(stored.contentType()).isEqualTo("image/jpeg");
+        assertThat(stored.size()).isEqualTo(image.length);
+        assertThat(stored.sha256()).isEqualTo(sha256);
+        assertThat(Files.readAllBytes(root.resolve(key))).isEqualTo(image);
+        assertThat(localObjectStore.find(key)).isPresent();
+
+        assertThat(reader.next()).isNull();
+        assertNoPartialFiles();
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 画像以外 → 先頭バイトで打ち切り、書きかけを残さない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("画像以外は UNSUPPORTED_TYPE で拒否し、ファイルを残さない")
+    void testRejectNonImage() throws Exception {
+        byte[] html = "<html><body>not an image</body></html>".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> uploadService.saveBlob(new ByteArrayInputStream(html)))
+                .isInstanceOf(InvalidUploadException.class)
+                .extracting(e -> ((InvalidUploadException) e).getReason())
+                .isEqualTo(InvalidUploadException.Reason.UNSUPPORTED_TYPE);
+
+        assertNoPartialFiles();
+        assertThat(root.resolve("blobs")).doesNotExist();
+    }
+
+    // ---------------------------------------------------------------
+    // 3. 上限超過 → 読み切る前に打ち切る
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("上限を超えた時点で TOO_LARGE で拒否し、残りは読まない")
+    void testRejectTooLarge() throws Exception {
+        byte[] image = jpeg(4 * 1024 * 1024);
+        TrickleInputStream in = new TrickleInputStream(image, 64 * 1024);
+
+        assertThatThrownBy(() -> uploadService.saveBlob(in))
+                .isInstanceOf(InvalidUploadException.class)
+                .extracting(e -> ((InvalidUploadException) e).getReason())
+                .isEqualTo(InvalidUploadException.Reason.TOO_LARGE);
+
+        assertThat(in.consumed).isLessThan(image.length);
+        assertNoPartialFiles();
+    }
+
+    // ---------------------------------------------------------------
+    // 4. 同じ内容 → 同じキーを返し、2つ目は書き込まない
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("同じ内容の2回目のアップロードは同じキーになり、ファイルは1つだけ")
+    void testSameContentIsStoredOnce() throws Exception {
+        byte[] image = jpeg(10_000);
+
+        StoredUpload first = uploadService.saveBlob(new ByteArrayInputStream(image));
+        long modified = Files.getLastModifiedTime(root.resolve(first.key())).toMillis();
+        StoredUpload second = uploadService.saveBlob(new ByteArrayInputStream(image));
+
+        assertThat(second.key()).isEqualTo(first.key());
+        assertThat(Files.getLastModifiedTime(root.resolve(first.key())).toMillis()).isEqualTo(modified);
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // 5. Exif（位置情報を含む）→ 取り除いて保存し、向きだけ残す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("Exif の位置情報を取り除いて保存し、キーは取り除いた後の内容で決まる")
+    void testStripExifBeforeStoring() throws Exception {
+        byte[] image = jpeg(10_000);
+        byte[] withExif = withApp1Exif(image, 6, "GPS:35.6812N,139.7671E");
+
+        StoredUpload stored = uploadService.saveBlob(new ByteArrayInputStream(withExif));
+
+        byte[] saved = Files.readAllBytes(root.resolve(stored.key()));
+        assertThat(new String(saved, StandardCharsets.ISO_8859_1)).doesNotContain("GPS:");
+        assertThat(saved.length).isLessThan(withExif.length);
+        assertThat(stored.sha256()).isEqualTo(sha256(saved));
+        assertThat(stored.size()).isEqualTo(saved.length);
+
+        // 表示の向き（Orientation）は残る
+        ImageInspector.Result inspected = ImageInspector.inspect(new ByteArrayInputStream(saved));
+        assertThat(inspected.info().orientation()).isEqualTo(6);
+        assertThat(inspected.info().width()).isEqualTo(640);
+        assertThat(inspected.info().height()).isEqualTo(480);
+    }
+
+    // ---------------------------------------------------------------
+    // 6. 縦横のサイズが上限超過 → ヘッダーだけで打ち切る
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("長辺が上限を超える画像は INVALID_IMAGE で拒否し、画素データは読まない")
+    void testRejectHugeDimensionsFromHeader() throws Exception {
+        byte[] panorama = jpeg(40_000, 3_000, 2 * 1024 * 1024);
+        TrickleInputStream in = new TrickleInputStream(panorama, 64 * 1024);
+
+        assertThatThrownBy(() -> uploadService.saveBlob(in))
+                .isInstanceOf(InvalidUploadException.class)
+                .extracting(e -> ((InvalidUploadException) e).getReason())
+                .isEqualTo(InvalidUploadException.Reason.INVALID_IMAGE);
+
+        assertThat(in.consumed).isLessThanOrEqualTo(64 * 1024);
+        assertNoPartialFiles();
+        assertThat(root.resolve("blobs")).doesNotExist();
+    }
+
+    // ---------------------------------------------------------------
+    // 7. 区切りの途中までと同じ並びを含むパート → 読み込みの境目をまたいでも正しく切り出す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("区切りに似たバイト列を含む大きなパート → 区切りが読み込みの境目をまたいでも内容どおりに読める")
+    void testBoundaryAcrossReads() throws Exception {
+        // 区切りの末尾1バイトだけが違う並びを繰り返し、バッファの前詰めも起きる大きさにする
+        byte[] nearMiss = ("\r\n--" + BOUNDARY.substring(0, BOUNDARY.length() - 1) + "X").getBytes(StandardCharsets.ISO_8859_1);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        Random random = new Random(7);
+        while (content.size() < 200_000) {
+            byte[] noise = new byte[random.nextInt(300)];
+            random.nextBytes(noise);
+            content.write(noise);
+            content.write(nearMiss);
+        }
+        byte[] first = content.toByteArray();
+        byte[] second = "tail".getBytes(StandardCharsets.UTF_8);
+
+        // 区切りの長さと割り切れない大きさで少しずつ返す
+        MultipartStreamReader reader = new MultipartStreamReader(new TrickleInputStream(
+                multipart(part("a", null, "application/octet-stream", first),
+                        part("b", null, "text/plain", second)), 37), BOUNDARY);
+
+        assertThat(reader.next().body().readAllBytes()).isEqualTo(first);
+        assertThat(reader.next().body().readAllBytes()).isEqualTo(second);
+        assertThat(reader.next()).isNull();
+    }
+
+    private void assertNoPartialFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.map(p -> p.getFileName().toString()))
+                    .noneMatch(name -> name.endsWith(".part"));
+        }
+    }
+
+    private static byte[] jpeg(int size) {
+        return jpeg(640, 480, size);
+    }
+
+    /**
+     * SOI・SOF0・SOS のヘッダーの後ろを乱数で埋めた JPEG（ヘッダーの検証だけを通る）
+     */
+    private static byte[] jpeg(int width, int height, int size) {
+        byte[] header = {
+                (byte) 0xFF, (byte) 0xD8,
+                (byte) 0xFF, (byte) 0xC0, 0x00, 0x11, 0x08,
+                (byte) (height >> 8), (byte) height, (byte) (width >> 8), (byte) width,
+                0x03, 0x01, 0x22, 0x00, 0x02, 0x11, 0x01, 0x03, 0x11, 0x01,
+                (byte) 0xFF, (byte) 0xDA, 0x00, 0x0C, 0x03, 0x01, 0x00, 0x02, 0x11, 0x03, 0x11, 0x00, 0x3F, 0x00
+        };
+        byte[] bytes = new byte[size];
+        new Random(7).nextBytes(bytes);
+        System.arraycopy(header, 0, bytes, 0, header.length);
+        return bytes;
+    }
+
+    /**
+     * SOI の直後に、Orientation と任意の文字列（位置情報の代わり）を持つ Exif（APP1）を入れる
+     */
+    private static byte[] withApp1Exif(byte[] jpeg, int orientation, String payload) throws IOException {
+        ByteArrayOutputStream tiff = new ByteArrayOutputStream();
+        tiff.write(new byte[]{'M', 'M', 0x00, 0x2A, 0x00, 0x00, 0x00, 0x08, 0x00, 0x01});
+        tiff.write(new byte[]{0x01, 0x12, 0x00, 0x03, 0x00, 0x00, 0x00, 0x01, 0x00, (byte) orientation, 0x00, 0x00});
+        tiff.write(new byte[]{0x00, 0x00, 0x00, 0x00});
+        tiff.write(payload.getBytes(StandardCharsets.ISO_8859_1));
+
+        int length = 2 + 6 + tiff.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(new byte[]{(byte) 0xFF, (byte) 0xE1, (byte) (length >> 8), (byte) length});
+        out.write(new byte[]{'E', 'x', 'i', 'f', 0x00, 0x00});
+        out.write(tiff.toByteArray());
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+
+    private static byte[] part(String name, String filename, String contentType, byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String disposition = "Content-Disposition: form-data; name=\"" + name + "\""
+                + (filename != null ? "; filename=\"" + filename + "\"" : "");
+        out.write(("--" + BOUNDARY + "\r\n" + disposition + "\r\nContent-Type: " + contentType + "\r\n\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+        out.write(content);
+        out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static byte[] multipart(byte[]... parts) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] p : parts) {
+            out.write(p);
+        }
+        out.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private static class TrickleInputStream extends FilterInputStream {
+        private final int chunk;
+        private long consumed;
+
+        TrickleInputStream(byte[] bytes, int chunk) {
+            super(new ByteArrayInputStream(bytes));
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, Math.min(len, chunk));
+            if (n > 0) {
+                consumed += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package service;
+
+import nagasawakenji.walkfind.domain.model.ContestStats;
+import nagasawakenji.walkfind.infra.mybatis.mapper.ContestStatsMapper;
+import nagasawakenji.walkfind.infra.mybatis.mapper.VoteMapper;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * getUserContestResults を contest_stats の参照に書き換えた前後で、同じ行を返すことを実際の PostgreSQL で確かめる。
+ * Docker が使えない環境ではスキップする。
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class UserContestResultsEquivalenceTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("pgvector/pgvector:pg15").asCompatibleSubstituteFor("postgres"));
+
+    // 書き換え前の getUserContestResults（投票者数をコンテストごとの相関サブクエリで数える）
+    private static final String OLD_QUERY = """
+            SELECT
+            c.id AS contest_id,
+            c.name AS contest_name,
+            c.end_date AS held_date,
+            cr.final_rank,
+            (SELECT COUNT(DISTINCT v.user_id)
+            FROM user_photos up_inner
+            JOIN votes v ON up_inner.id = v.photo_id
+            WHERE up_inner.contest_id = c.id) AS total_participants,
+            up.id AS photo_id
+            FROM
+            contest_results cr
+            JOIN
+            user_photos up ON cr.photo_id = up.id
+            JOIN
+            contests c ON cr.contest_id = c.id
+            WHERE
+            up.user_id = ?
+            ORDER BY
+            c.end_date DESC
+            """;
+
+    private static final List<String> USERS = List.of("user-1", "user-2", "user-3", "user-4", "user-5", "user-6");
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(),
+                new UnpooledDataSource("org.postgresql.Driver",
+                        POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())));
+        for (String mapper : List.of("mapper/UserHistoryMapper.xml", "mapper/VoteMapper.xml", "mapper/ContestStatsMapper.xml")) {
+            try (InputStream in = Resources.getResourceAsStream(mapper)) {
+                new XMLMapperBuilder(in, configuration, mapper, configuration.getSqlFragments()).parse();
+            }
+        }
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+        seed();
+    }
+
+    // ---------------------------------------------------------------
+    // 1. 集計時に書き込んだ contest_stats → 旧クエリと同じ行を返す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("ResultCalculationService と同じ手順で contest_stats を書いた場合 → 全ユーザーで旧クエリと同じ行・同じ順序")
+    void testSameRowsAsOldQuery() throws Exception {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            VoteMapper voteMapper = session.getMapper(VoteMapper.class);
+            ContestStatsMapper contestStatsMapper = session.getMapper(ContestStatsMapper.class);
+            for (long contestId : contestIdsWithResults()) {
+                contestStatsMapper.upsert(ContestStats.builder()
+                        .contestId(contestId)
+                        .participantCount(0)
+                        .voterCount(voteMapper.countDistinctVotersByContest(contestId))
+                        .build());
+            }
+        }
+
+        assertSameRowsForAllUsers();
+    }
+
+    // ---------------------------------------------------------------
+    // 2. V16 の埋め戻しで作った contest_stats → 旧クエリと同じ行を返す
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("V16 の埋め戻しで contest_stats を作った場合 → 全ユーザーで旧クエリと同じ行・同じ順序")
+    void testSameRowsAfterBackfill() throws Exception {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM contest_stats");
+            try (InputStream in = Resources.getResourceAsStream("db/migration/V16__Backfill_contest_stats.sql")) {
+                statement.execute(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertSameRowsForAllUsers();
+    }
+
+    private static void assertSameRowsForAllUsers() throws SQLException {
+        int compared = 0;
+        for (String userId : USERS) {
+            List<List<Object>> expected = rows(OLD_QUERY, userId);
+            List<List<Object>> actual = rows(newQuery(userId), userId);
+
+            assertThat(actual).as("userId=%s", userId).isEqualTo(expected);
+            compared += expected.size();
+        }
+        // フィクスチャが空のまま一致していないこと
+        assertThat(compared).isEqualTo(6);
+    }
+
+    // mapper XML の getUserContestResults をそのまま使う
+    private static String newQuery(String userId) {
+        BoundSql boundSql = sqlSessionFactory.getConfiguration()
+                .getMappedStatement("nagasawakenji.walkfind.infra.mybatis.mapper.UserHistoryMapper.getUserContestResults")
+                .getBoundSql(Map.of("userId", userId));
+        assertThat(boundSql.getParameterMappings()).hasSize(1);
+        return boundSql.getSql();
+    }
+
+    private static List<List<Object>> rows(String sql, String userId) throws SQLException {
+        try (Connection connection = connect(); PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, userId);
+            try (ResultSet rs = statement.executeQuery()) {
+                List<List<Object>> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(List.of(
+                            rs.getLong("contest_id"),
+                            rs.getString("contest_name"),
+                            rs.getObject("held_date", OffsetDateTime.class).toInstant(),
+                            rs.getInt("final_rank"),
+                            rs.getLong("total_participants"),
+                            rs.getLong("photo_id")));
+                }
+                return rows;
+            }
+        }
+    }
+
+    private static List<Long> contestIdsWithResults() throws SQLException {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT DISTINCT contest_id FROM contest_results ORDER BY contest_id")) {
+            List<Long> ids = new ArrayList<>();
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * - コンテスト1: 同じユーザーが複数の写真に投票・削除済みの写真への投票を含む
+     * - コンテスト2: 投稿者同士が投票し合う
+     * - コンテスト3: 投票なし（0 人）
+     * - コンテスト4: 開催中（結果なし、どのユーザーの履歴にも出ない）
+     */
+    private static void seed() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            for (String userId : USERS) {
+                statement.execute("INSERT INTO users (id, username) VALUES ('" + userId + "', '" + userId + "')");
+            }
+            statement.execute("""
+                    INSERT INTO contests (id, name, theme, start_date, end_date, status) VALUES
+                    (1, 'spring', 't', '2025-01-01T00:00:00Z', '2025-01-10T00:00:00Z', 'ANNOUNCED'),
+                    (2, 'summer', 't', '2025-02-01T00:00:00Z', '2025-02-10T00:00:00Z', 'ANNOUNCED'),
+                    (3, 'autumn', 't', '2025-03-01T00:00:00Z', '2025-03-10T00:00:00Z', 'ANNOUNCED'),
+                    (4, 'winter', 't', '2025-04-01T00:00:00Z', '2025-04-10T00:00:00Z', 'IN_PROGRESS')
+                    """);
+            statement.execute("""
+                    INSERT INTO user_photos (id, contest_id, user_id, photo_url, title, removed_at) VALUES
+                    (11, 1, 'user-1', 'u', 't', NULL),
+                    (12, 1, 'user-2', 'u', 't', NULL),
+                    (13, 1, 'user-3', 'u', 't', NULL),
+                    (16, 1, 'user-6', 'u', 't', '2025-01-05T00:00:00Z'),
+                    (21, 2, 'user-1', 'u', 't', NULL),
+                    (22, 2, 'user-2', 'u', 't', NULL),
+                    (31, 3, 'user-1', 'u', 't', NULL),
+                    (41, 4, 'user-1', 'u', 't', NULL)
+                    """);
+            statement.execute("""
+                    INSERT INTO votes (photo_id, user_id) VALUES
+                    (11, 'user-2'), (11, 'user-3'), (11, 'user-4'),
+                    (12, 'user-4'),
+                    (13, 'user-5'),
+                    (16, 'user-6'),
+                    (21, 'user-2'),
+                    (22, 'user-1'),
+                    (41, 'user-5')
+                    """);
+            statement.execute("""
+                    INSERT INTO contest_results (contest_id, photo_id, final_rank, final_score) VALUES
+                    (1, 11, 1, 3), (1, 12, 2, 1), (1, 13, 2, 1),
+                    (2, 21, 1, 1), (2, 22, 1, 1),
+                    (3, 31, 1, 0)
+                    """);
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
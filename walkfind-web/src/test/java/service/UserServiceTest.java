@@ -0,0 +1,116 @@
+package service;
+
+import nagasawakenji.walkfind.domain.model.User;
+import nagasawakenji.walkfind.exception.DatabaseOperationException;
+import nagasawakenji.walkfind.infra.mybatis.mapper.UserMapper;
+import nagasawakenji.walkfind.infra.mybatis.mapper.UserProfileMapper;
+import nagasawakenji.walkfind.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    private static final String USER_ID = "cognito-sub-1";
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private UserProfileMapper userProfileMapper;
+
+    private UserService userService;
+
+    @BeforeEach
+    void setup() {
+        userService = new UserService(userMapper, userProfileMapper, 10, 2);
+    }
+
+    private User user(String userId) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setUserName("alice");
+        user.setEmail("alice@example.com");
+        user.setActive(true);
+        return user;
+    }
+
+    // ----------------------------------------
+    // 1. 同期は1文で行い、最近同期したユーザーは DB に問い合わせない
+    // ----------------------------------------
+    @Test
+    @DisplayName("syncUser: users・user_profiles の作成を1文で行い、2回目のログインは DB を叩かない")
+    void testSyncUserOnceThenSkip() {
+        User synced = user(USER_ID);
+        when(userMapper.syncUser(USER_ID, "alice", "alice@example.com")).thenReturn(Optional.of(synced));
+
+        User first = userService.syncUser(USER_ID, "alice@example.com", "alice");
+        User second = userService.syncUser(USER_ID, "alice@example.com", "alice");
+
+        assertThat(first).isSameAs(synced);
+        assertThat(second).isSameAs(synced);
+        verify(userMapper, times(1)).syncUser(USER_ID, "alice", "alice@example.com");
+        verify(userMapper, never()).findById(anyString());
+        verifyNoInteractions(userProfileMapper);
+    }
+
+    // ----------------------------------------
+    // 2. 同時の初回ログインに負けた場合は読み直す
+    // ----------------------------------------
+    @Test
+    @DisplayName("syncUser: 別トランザクションが先に作成して0行だった場合は findById で読み直す")
+    void testSyncUserLostInsertRace() {
+        User created = user(USER_ID);
+        when(userMapper.syncUser(USER_ID, "alice", "alice@example.com")).thenReturn(Optional.empty());
+        when(userMapper.findById(USER_ID)).thenReturn(Optional.of(created));
+
+        User result = userService.syncUser(USER_ID, "alice@example.com", "alice");
+
+        assertThat(result).isSameAs(created);
+    }
+
+    // ----------------------------------------
+    // 3. DB エラーはキャッシュせずに DatabaseOperationException
+    // ----------------------------------------
+    @Test
+    @DisplayName("syncUser: DB エラーは DatabaseOperationException とし、次のログインで再度同期する")
+    void testSyncUserFailureIsNotCached() {
+        when(userMapper.syncUser(USER_ID, "alice", "alice@example.com"))
+                .thenThrow(new RuntimeException("duplicate key value violates unique constraint \"users_username_key\""))
+                .thenReturn(Optional.of(user(USER_ID)));
+
+        assertThatThrownBy(() -> userService.syncUser(USER_ID, "alice@example.com", "alice"))
+                .isInstanceOf(DatabaseOperationException.class);
+
+        assertThat(userService.syncUser(USER_ID, "alice@example.com", "alice").getUserId()).isEqualTo(USER_ID);
+        verify(userMapper, times(2)).syncUser(USER_ID, "alice", "alice@example.com");
+    }
+
+    // ----------------------------------------
+    // 4. 件数の上限を超えたら覚えたユーザーを捨てる（DB に問い合わせ直すだけ）
+    // ----------------------------------------
+    @Test
+    @DisplayName("syncUser: 上限を超えたら最近同期した記録を捨て、再度 DB で同期する")
+    void testRecentlySyncedIsBounded() {
+        when(userMapper.syncUser(anyString(), anyString(), anyString()))
+                .thenAnswer(inv -> Optional.of(user(inv.getArgument(0))));
+
+        userService.syncUser("u1", "alice@example.com", "alice");
+        userService.syncUser("u2", "alice@example.com", "alice");
+        userService.syncUser("u3", "alice@example.com", "alice"); // 上限 2 → u1・u2 を捨てる
+        userService.syncUser("u1", "alice@example.com", "alice");
+        userService.syncUser("u3", "alice@example.com", "alice");
+
+        verify(userMapper, times(2)).syncUser(eq("u1"), anyString(), anyString());
+        verify(userMapper, times(1)).syncUser(eq("u3"), anyString(), anyString());
+    }
+}
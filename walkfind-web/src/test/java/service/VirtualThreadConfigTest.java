@@ -0,0 +1,125 @@
+package service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jdk.jfr.consumer.RecordedEvent;
+import nagasawakenji.walkfind.config.VirtualThreadConfig;
+import nagasawakenji.walkfind.infra.thread.VirtualThreadPinningMonitor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VirtualThreadConfigTest {
+
+    // ---------------------------------------------------------------
+    // 1. 仮想スレッドモードでは Hikari のプールを上限まで絞る
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("hikariVirtualThreadCap → 上限を超えるプールと接続待ちだけを絞り、小さい設定はそのまま")
+    void testHikariIsCapped() {
+        BeanPostProcessor cap = VirtualThreadConfig.hikariVirtualThreadCap(20, 3000);
+
+        HikariDataSource large = new HikariDataSource();
+        large.setMaximumPoolSize(100);
+        large.setConnectionTimeout(30_000);
+        cap.postProcessAfterInitialization(large, "primaryDataSource");
+
+        HikariDataSource small = new HikariDataSource();
+        small.setMaximumPoolSize(5);
+        small.setConnectionTimeout(1_000);
+        cap.postProcessAfterInitialization(small, "replicaDataSource");
+
+        assertThat(large.getMaximumPoolSize()).isEqualTo(20);
+        assertThat(large.getConnectionTimeout()).isEqualTo(3000);
+        assertThat(small.getMaximumPoolSize()).isEqualTo(5);
+        assertThat(small.getConnectionTimeout()).isEqualTo(1_000);
+    }
+
+    // ---------------------------------------------------------------
+    // 2. synchronized 内での読み取り待ちはピン留めとして報告する
+    // ---------------------------------------------------------------
+    @Test
+    // JDK 24 以降は synchronized 内でブロックしてもピン留めされない（JEP 491）
+    @EnabledOnJre(JRE.JAVA_21)
+    @DisplayName("VirtualThreadPinningMonitor → synchronized 内の読み取り待ちだけを報告し、ReentrantLock 内の待ちは報告しない")
+    void testPinnedReadIsReported() throws Exception {
+        BlockingQueue<RecordedEvent> events = new LinkedBlockingQueue<>();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10), events::add);
+        SimpleAsyncTaskExecutor virtualThreads = new SimpleAsyncTaskExecutor("pinning-test-");
+        virtualThreads.setVirtualThreads(true);
+
+        monitor.start();
+        try {
+            // ReentrantLock では仮想スレッドはキャリアから外れるので、ピン留めにならない
+            CompletableFuture.runAsync(VirtualThreadConfigTest::readWithoutPinning, virtualThreads).get(5, TimeUnit.SECONDS);
+            CompletableFuture.runAsync(VirtualThreadConfigTest::readWhilePinned, virtualThreads).get(5, TimeUnit.SECONDS);
+
+            // JFR のストリームは一定間隔でまとめて届く
+            RecordedEvent pinned = null;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (pinned == null && System.nanoTime() < deadline) {
+                RecordedEvent event = events.poll(500, TimeUnit.MILLISECONDS);
+                if (event != null && stackContains(event, "readWhilePinned")) {
+                    pinned = event;
+                }
+                assertThat(event == null || !stackContains(event, "readWithoutPinning")).isTrue();
+            }
+
+            assertThat(pinned).as("pinned read was not reported").isNotNull();
+            assertThat(pinned.getDuration()).isGreaterThanOrEqualTo(Duration.ofMillis(10));
+            assertThat(events).noneMatch(event -> stackContains(event, "readWithoutPinning"));
+        } finally {
+            monitor.stop();
+        }
+        assertThat(monitor.isRunning()).isFalse();
+    }
+
+    private static final Object MONITOR = new Object();
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static void readWhilePinned() {
+        synchronized (MONITOR) {
+            awaitRead();
+        }
+    }
+
+    private static void readWithoutPinning() {
+        LOCK.lock();
+        try {
+            awaitRead();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    // 届かない応答を 50ms 待つ（ソケットの読み取り待ちの代わり）
+    private static void awaitRead() {
+        try {
+            new LinkedBlockingQueue<byte[]>().poll(50, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean stackContains(RecordedEvent event, String methodName) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        List<String> methods = event.getStackTrace().getFrames().stream()
+                .map(frame -> frame.getMethod().getName())
+                .toList();
+        return methods.contains(methodName);
+    }
+}
@@ -0,0 +1,151 @@
+package service;
+
+import nagasawakenji.walkfind.domain.dto.VoteFilterStatsResponse;
+import nagasawakenji.walkfind.domain.model.Vote;
+import nagasawakenji.walkfind.infra.mybatis.mapper.VoteMapper;
+import nagasawakenji.walkfind.service.VoteFilterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoteFilterServiceTest {
+
+    private static final OffsetDateTime OPEN_UNTIL = OffsetDateTime.now().plusDays(1);
+
+    @Mock
+    private VoteMapper voteMapper;
+
+    private VoteFilterService voteFilterService;
+
+    @BeforeEach
+    void setUp() {
+        // 誤判定率 1%、最低容量 1000、1コンテスト 1M bit まで、最大 2 コンテスト
+        voteFilterService = new VoteFilterService(voteMapper, 0.01, 1 << 20, 1000, 2);
+    }
+
+    // ---------------------------------------------------------------
+    // 1. 未作成・未知の写真 → false（通常の処理へ）。作成後は投票済みを true
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("votes から作ったフィルタは投票済みを必ず true、未知の写真は false")
+    void testTrackAndCheck() {
+        assertThat(voteFilterService.mightHaveVoted(10L, "user-a")).isFalse();
+
+        when(voteMapper.findVoteKeysByContest(1L))
+                .thenReturn(List.of(vote(10L, "user-a"), vote(11L, null)));
+        voteFilterService.track(1L, OPEN_UNTIL, 10L);
+
+        assertThat(voteFilterService.mightHaveVoted(10L, "user-a")).isTrue();
+        assertThat(voteFilterService.mightHaveVoted(11L, "user-a")).isFalse();
+        // フィルタ作成後に投稿された写真は、track されるまで対象外
+        assertThat(voteFilterService.mightHaveVoted(12L, "user-a")).isFalse();
+
+        voteFilterService.recordVote(1L, 11L, "user-a");
+        assertThat(voteFilterService.mightHaveVoted(11L, "user-a")).isTrue();
+
+        // 2回目以降の track では DB を読まない
+        voteFilterService.track(1L, OPEN_UNTIL, 12L);
+        verify(voteMapper, times(1)).findVoteKeysByContest(1L);
+    }
+
+    // ---------------------------------------------------------------
+    // 2. 削除された写真・終了したコンテスト → false（通常の処理で判定させる）
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("削除された写真と、終了日時を過ぎたコンテストは判定しない")
+    void testForgetAndExpire() {
+        // contest 1 → photo 10, contest 2 → photo 20
+        when(voteMapper.findVoteKeysByContest(anyLong()))
+                .thenAnswer(inv -> List.of(vote(inv.<Long>getArgument(0) * 10, "user-a")));
+
+        voteFilterService.track(1L, OPEN_UNTIL, 10L);
+        voteFilterService.forgetPhoto(1L, 10L);
+        assertThat(voteFilterService.mightHaveVoted(10L, "user-a")).isFalse();
+
+        voteFilterService.track(2L, OffsetDateTime.now().minusSeconds(1), 20L);
+        assertThat(voteFilterService.mightHaveVoted(20L, "user-a")).isFalse();
+        assertThat(voteFilterService.stats()).extracting(VoteFilterStatsResponse::getContestId)
+                .containsExactly(1L);
+    }
+
+    // ---------------------------------------------------------------
+    // 3. 容量いっぱいまで入れても誤判定率は目標程度、メモリは上限内
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("容量ちょうどの投票で、実測の誤判定率が目標程度に収まる")
+    void testFalsePositiveRate() {
+        when(voteMapper.findVoteKeysByContest(1L)).thenReturn(photos(100));
+        voteFilterService.track(1L, OPEN_UNTIL, 0L);
+
+        // 1000件（容量）投票
+        for (int u = 0; u < 10; u++) {
+            for (long p = 0; p < 100; p++) {
+                voteFilterService.recordVote(1L, p, "voter-" + u);
+            }
+        }
+
+        // 投票していないユーザー 200人 × 100枚 = 20000回の判定
+        int falsePositives = 0;
+        for (int u = 0; u < 200; u++) {
+            for (long p = 0; p < 100; p++) {
+                if (voteFilterService.mightHaveVoted(p, "other-" + u)) {
+                    voteFilterService.recordFalsePositive(p);
+                    falsePositives++;
+                }
+            }
+        }
+
+        VoteFilterStatsResponse stats = voteFilterService.stats().get(0);
+        assertThat(stats.getFalsePositives()).isEqualTo(falsePositives);
+        assertThat(stats.getObservedFpp()).isLessThan(0.03);
+        assertThat(stats.getExpectedFpp()).isLessThan(0.02);
+        assertThat(stats.getMemoryBytes()).isLessThanOrEqualTo((1 << 20) / 8);
+    }
+
+    // ---------------------------------------------------------------
+    // 4. 容量超過 → 破棄し、次の投票で大きく作り直す / コンテスト数の上限
+    // ---------------------------------------------------------------
+    @Test
+    @DisplayName("容量を超えたら破棄し、保持するコンテスト数は上限まで")
+    void testSaturationAndEviction() {
+        when(voteMapper.findVoteKeysByContest(1L)).thenReturn(photos(1));
+        voteFilterService.track(1L, OPEN_UNTIL, 0L);
+        for (int u = 0; u <= 1000; u++) {
+            voteFilterService.recordVote(1L, 0L, "voter-" + u);
+        }
+        assertThat(voteFilterService.stats()).isEmpty();
+        assertThat(voteFilterService.mightHaveVoted(0L, "voter-0")).isFalse();
+
+        when(voteMapper.findVoteKeysByContest(anyLong())).thenReturn(List.of());
+        voteFilterService.track(1L, OPEN_UNTIL, 0L);
+        voteFilterService.track(2L, OPEN_UNTIL, 100L);
+        voteFilterService.track(3L, OPEN_UNTIL, 200L);
+        assertThat(voteFilterService.stats()).hasSize(2);
+    }
+
+    private static List<Vote> photos(int n) {
+        List<Vote> list = new ArrayList<>();
+        for (long p = 0; p < n; p++) {
+            list.add(vote(p, null));
+        }
+        return list;
+    }
+
+    private static Vote vote(Long photoId, String userId) {
+        Vote v = new Vote();
+        v.setPhotoId(photoId);
+        v.setUserId(userId);
+        return v;
+    }
+}